@@ -0,0 +1,71 @@
+package com.feritoth.cleaningrobot.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.processor.EngineType;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+
+/**
+ * Measures the back-off heavy scenarios (initiateBackOffStrategy) - dense rooms and command lists 
+ * dominated by ADVANCE, so that most moves run into an obstacle or into the border of the room.
+ * The back-off cache of the packed engine is shared by all the invocations on the same room.
+ * 
+ * @author Ferenc Toth
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configuration=benchmark-log4j.properties")
+@State(Scope.Benchmark)
+public class BackOffBenchmark {
+	
+	@Param({"STANDARD", "PACKED"})
+	private EngineType engineType;
+	
+	@Param({"16", "256"})
+	private int roomSize;
+	
+	@Param({"0.3", "0.6"})
+	private double obstacleDensity;
+	
+	@Param({"10000", "100000"})
+	private int commandCount;
+	
+	@Param({"true", "false"})
+	private boolean backOffCache;
+	
+	private BenchmarkInputs.LoadedProgram program;
+	
+	@Setup(Level.Trial)
+	public void loadInput() throws IOException {
+		Path inputFile = BenchmarkInputs.writeInput(roomSize, obstacleDensity, commandCount, 0.9);
+		program = BenchmarkInputs.load(inputFile);
+		Files.delete(inputFile);
+	}
+	
+	@Benchmark
+	public CleaningRobot backOffLoop() {
+		CleaningRobot cleaningRobot = program.newRobot();
+		engineType.createEngine(new SimulationOptions().setBackOffCacheEnabled(backOffCache)).executeCleaningProcedure(cleaningRobot, program.getRoom(), program.getCommands().iterator());
+		return cleaningRobot;
+	}
+
+}
\ No newline at end of file
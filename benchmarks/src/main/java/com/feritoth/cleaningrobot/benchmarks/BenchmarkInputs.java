@@ -0,0 +1,115 @@
+package com.feritoth.cleaningrobot.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.generator.StartPlacement;
+import com.feritoth.cleaningrobot.generator.WorkloadGenerator;
+import com.feritoth.cleaningrobot.generator.WorkloadOptions;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.JSONInputConverter;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+
+/**
+ * Generates the deterministic inputs of the benchmarks through the {@link WorkloadGenerator} - the same parameters 
+ * always give the same file.
+ * 
+ * @author Ferenc Toth
+ */
+public final class BenchmarkInputs {
+	
+	private static final long SEED = 20201017L;
+	/* Large enough for the battery never to be the limiting factor of a benchmark */
+	private static final long BATTERY = 1L << 50;
+	
+	private BenchmarkInputs() {
+		super();
+	}
+	
+	/**
+	 * Writes a square room with randomly placed obstacles, the robot starting from its center, 
+	 * followed by a random command list.
+	 * 
+	 * @param roomSize - the number of rows and columns of the room
+	 * @param obstacleDensity - the probability of a cell being an obstacle
+	 * @param commandCount - the number of commands
+	 * @param advanceRatio - the probability of a command being ADVANCE (the rest being distributed evenly 
+	 *                       among the other commands); a high ratio inside a dense room triggers many back-offs
+	 * @return the temporary input file
+	 */
+	public static Path writeInput(int roomSize, double obstacleDensity, int commandCount, double advanceRatio) throws IOException {
+		Path inputFile = Files.createTempFile("cleaningrobot-benchmark", ".json");
+		double otherCommandRatio = (1.0 - advanceRatio) / 4;
+		WorkloadOptions options = new WorkloadOptions().setSeed(SEED)
+		                                               .setNbOfRows(roomSize)
+		                                               .setNbOfColumns(roomSize)
+		                                               .setObstacleDensity(obstacleDensity)
+		                                               .setStartPlacement(StartPlacement.CENTER)
+		                                               .setBattery(BATTERY)
+		                                               .setNbOfCommands(commandCount)
+		                                               .setCommandWeight(ValidCommands.ADVANCE, advanceRatio)
+		                                               .setCommandWeight(ValidCommands.TURN_LEFT, otherCommandRatio)
+		                                               .setCommandWeight(ValidCommands.TURN_RIGHT, otherCommandRatio)
+		                                               .setCommandWeight(ValidCommands.BACK, otherCommandRatio)
+		                                               .setCommandWeight(ValidCommands.CLEAN, otherCommandRatio);
+		new WorkloadGenerator().generate(options, inputFile);
+		return inputFile;
+	}
+	
+	/**
+	 * Loads a generated input into memory, the commands being materialized into a list.
+	 */
+	public static LoadedProgram load(Path inputFile) throws IOException {
+		try (CleaningProgram program = new JSONInputConverter().readProgram(inputFile.toString(), new SimulationOptions().setStreamingInput(true))) {
+			List<ValidCommands> commands = new ArrayList<>();
+			Iterator<ValidCommands> commandIterator = program.getCommands();
+			while (commandIterator.hasNext()) {
+				commands.add(commandIterator.next());
+			}
+			return new LoadedProgram(program.getRoom(), program.getCleaningRobot(), commands);
+		}
+	}
+	
+	/**
+	 * A program loaded into memory - each call to {@link #newRobot()} gives a robot in the initial configuration.
+	 */
+	public static final class LoadedProgram {
+		
+		private final Room room;
+		private final Position startPosition;
+		private final ValidDirections startDirection;
+		private final long battery;
+		private final List<ValidCommands> commands;
+		
+		LoadedProgram(Room room, CleaningRobot initialRobot, List<ValidCommands> commands) {
+			this.room = room;
+			this.startPosition = initialRobot.getPosition();
+			this.startDirection = initialRobot.getDirection();
+			this.battery = initialRobot.getBattery();
+			this.commands = commands;
+		}
+		
+		public Room getRoom() {
+			return room;
+		}
+		
+		public List<ValidCommands> getCommands() {
+			return commands;
+		}
+		
+		public CleaningRobot newRobot() {
+			return new CleaningRobot(new Position(startPosition.getxCol(), startPosition.getyRow()), battery, startDirection);
+		}
+		
+	}
+
+}
\ No newline at end of file
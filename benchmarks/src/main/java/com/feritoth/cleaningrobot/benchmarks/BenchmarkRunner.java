@@ -0,0 +1,26 @@
+package com.feritoth.cleaningrobot.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks matching the given pattern (all of them by default) with the allocation profiler enabled -
+ * the same as "java -jar benchmarks.jar [pattern] -prof gc".
+ * 
+ * @author Ferenc Toth
+ */
+public class BenchmarkRunner {
+	
+	public static void main(String[] args) throws RunnerException {
+		String pattern = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*";
+		Options options = new OptionsBuilder()
+				.include(pattern)
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
\ No newline at end of file
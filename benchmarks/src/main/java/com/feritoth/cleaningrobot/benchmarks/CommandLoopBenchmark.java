@@ -0,0 +1,68 @@
+package com.feritoth.cleaningrobot.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.processor.EngineType;
+
+/**
+ * Measures the command loop of the engines (activateCleaningProcedureForRobot without the output part) 
+ * on a room with a moderate obstacle density - the input is loaded once, each invocation starting from
+ * a fresh robot. Divide the normalized allocation rate (gc.alloc.rate.norm) by the command count for
+ * the bytes allocated per command.
+ * 
+ * @author Ferenc Toth
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configuration=benchmark-log4j.properties")
+@State(Scope.Benchmark)
+public class CommandLoopBenchmark {
+	
+	@Param({"STANDARD", "PACKED"})
+	private EngineType engineType;
+	
+	@Param({"64", "512"})
+	private int roomSize;
+	
+	@Param({"0.05", "0.3"})
+	private double obstacleDensity;
+	
+	@Param({"10000", "1000000"})
+	private int commandCount;
+	
+	private BenchmarkInputs.LoadedProgram program;
+	
+	@Setup(Level.Trial)
+	public void loadInput() throws IOException {
+		Path inputFile = BenchmarkInputs.writeInput(roomSize, obstacleDensity, commandCount, 0.5);
+		program = BenchmarkInputs.load(inputFile);
+		Files.delete(inputFile);
+	}
+	
+	@Benchmark
+	public CleaningRobot commandLoop() {
+		CleaningRobot cleaningRobot = program.newRobot();
+		engineType.createEngine().executeCleaningProcedure(cleaningRobot, program.getRoom(), program.getCommands().iterator());
+		return cleaningRobot;
+	}
+
+}
\ No newline at end of file
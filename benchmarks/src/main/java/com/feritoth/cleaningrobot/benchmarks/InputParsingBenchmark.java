@@ -0,0 +1,84 @@
+package com.feritoth.cleaningrobot.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.JSONInputConverter;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+
+/**
+ * Measures the reading of the input file, through the DOM based and through the streaming reader -
+ * in both cases all the commands are decoded.
+ * 
+ * @author Ferenc Toth
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configuration=benchmark-log4j.properties")
+@State(Scope.Benchmark)
+public class InputParsingBenchmark {
+	
+	@Param({"64", "512"})
+	private int roomSize;
+	
+	@Param({"0.05", "0.3"})
+	private double obstacleDensity;
+	
+	@Param({"10000", "1000000"})
+	private int commandCount;
+	
+	private Path inputFile;
+	
+	@Setup(Level.Trial)
+	public void generateInput() throws IOException {
+		inputFile = BenchmarkInputs.writeInput(roomSize, obstacleDensity, commandCount, 0.5);
+	}
+	
+	@TearDown(Level.Trial)
+	public void deleteInput() throws IOException {
+		Files.deleteIfExists(inputFile);
+	}
+	
+	@Benchmark
+	public long domReader() throws IOException {
+		return readAllCommands(new SimulationOptions());
+	}
+	
+	@Benchmark
+	public long streamingReader() throws IOException {
+		return readAllCommands(new SimulationOptions().setStreamingInput(true));
+	}
+	
+	private long readAllCommands(SimulationOptions options) throws IOException {
+		try (CleaningProgram program = new JSONInputConverter().readProgram(inputFile.toString(), options)) {
+			long checksum = program.getRoom().getNbOfCells();
+			Iterator<ValidCommands> commands = program.getCommands();
+			while (commands.hasNext()) {
+				checksum += commands.next().ordinal();
+			}
+			return checksum;
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.feritoth.cleaningrobot.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.processor.EngineType;
+import com.feritoth.cleaningrobot.processor.JSONOutputFormatter;
+import com.feritoth.cleaningrobot.processor.JSONStreamingOutputWriter;
+
+/**
+ * Measures the serialization of the final robot configuration - once into a real output file 
+ * (the complete JSONOutputFormatter path) and once into a discarding channel (the encoding alone).
+ * 
+ * @author Ferenc Toth
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configuration=benchmark-log4j.properties")
+@State(Scope.Benchmark)
+public class OutputSerializationBenchmark {
+	
+	@Param({"64", "512"})
+	private int roomSize;
+	
+	@Param({"0.05", "0.3"})
+	private double obstacleDensity;
+	
+	@Param({"10000", "1000000"})
+	private int commandCount;
+	
+	private CleaningRobot cleaningRobot;
+	private Path outputFile;
+	private final WritableByteChannel discardingChannel = new WritableByteChannel() {
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+		@Override
+		public void close() {
+			//nothing to release
+		}
+		@Override
+		public int write(ByteBuffer source) {
+			int length = source.remaining();
+			source.position(source.limit());
+			return length;
+		}
+	};
+	
+	@Setup(Level.Trial)
+	public void simulate() throws IOException {
+		Path inputFile = BenchmarkInputs.writeInput(roomSize, obstacleDensity, commandCount, 0.5);
+		BenchmarkInputs.LoadedProgram program = BenchmarkInputs.load(inputFile);
+		Files.delete(inputFile);
+		cleaningRobot = program.newRobot();
+		EngineType.PACKED.createEngine().executeCleaningProcedure(cleaningRobot, program.getRoom(), program.getCommands().iterator());
+		outputFile = Files.createTempFile("cleaningrobot-benchmark", "_result.json");
+	}
+	
+	@TearDown(Level.Trial)
+	public void deleteOutput() throws IOException {
+		Files.deleteIfExists(outputFile);
+	}
+	
+	@Benchmark
+	public void formatterToFile() {
+		new JSONOutputFormatter().createCleaningProcedureOutput(cleaningRobot, outputFile.toString());
+	}
+	
+	@Benchmark
+	public void streamingWriterEncoding() throws IOException {
+		new JSONStreamingOutputWriter().writeCleaningProcedureOutput(cleaningRobot, discardingChannel);
+	}
+
+}
\ No newline at end of file
@@ -1,14 +1,83 @@
 package com.feritoth.cleaningrobot;
 
-import com.feritoth.cleaningrobot.processor.JSONInputConverter;
+import com.feritoth.cleaningrobot.analysis.RoomAnalyzer;
+import com.feritoth.cleaningrobot.batch.BatchJobLoader;
+import com.feritoth.cleaningrobot.batch.PipelinedBatchRunner;
+import com.feritoth.cleaningrobot.cache.ResultCache;
+import com.feritoth.cleaningrobot.core.RoomFile;
+import com.feritoth.cleaningrobot.fleet.FleetSimulationRunner;
+import com.feritoth.cleaningrobot.generator.WorkloadGenerator;
+import com.feritoth.cleaningrobot.heatmap.CellHeatmap;
+import com.feritoth.cleaningrobot.heatmap.HeatmapSink;
+import com.feritoth.cleaningrobot.launcher.LauncherModes;
+import com.feritoth.cleaningrobot.planner.CoveragePlanner;
+import com.feritoth.cleaningrobot.processor.ChunkedRobotController;
+import com.feritoth.cleaningrobot.processor.RoomCache;
+import com.feritoth.cleaningrobot.server.SimulationServer;
+import com.feritoth.cleaningrobot.sweep.SweepRunner;
+import com.feritoth.cleaningrobot.trace.TraceRecorder;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
 
+/**
+ * The entry point of the application.
+ * Usage:
+ * <ul>
+ * <li>RobotAppLauncher &lt;input file&gt; &lt;output file&gt; [--trace=&lt;file&gt;] [--trace-format=ndjson|binary] [--trace-buffer=N]
+ * [--trace-overflow=wait|drop] [options] - runs a single simulation, optionally recording its trajectory (see {@link TraceRecorder})</li>
+ * <li>RobotAppLauncher batch &lt;input directory|manifest file&gt; [output directory] [--threads=N] [--virtual-threads] [options] 
+ * - runs many simulations in parallel (see {@link BatchJobLoader} for the job sources)</li>
+ * <li>RobotAppLauncher batch &lt;input directory|manifest file&gt; [output directory] --pipeline [--parse-workers=2] [--simulate-workers=N]
+ * [--serialize-workers=2] [--queue-capacity=16] [options] - runs the simulations through parse, simulate and serialize stages 
+ * (see {@link PipelinedBatchRunner})</li>
+ * <li>RobotAppLauncher fleet &lt;input file&gt; &lt;output file&gt; [options] - runs the robots of the "robots" array
+ * concurrently inside the same room (see {@link FleetSimulationRunner})</li>
+ * <li>RobotAppLauncher convert-room &lt;input file&gt; &lt;room file&gt; - converts the map of the input into a binary 
+ * room file (see {@link RoomFile})</li>
+ * <li>RobotAppLauncher plan &lt;input file&gt; &lt;output file&gt; [--tile-size=64] [--room=&lt;room file&gt;] - plans a program 
+ * cleaning every cell reachable by the robot of the input, written as a complete input (see {@link CoveragePlanner})</li>
+ * <li>RobotAppLauncher analyze &lt;input file&gt; [report file] [--room=&lt;room file&gt;] - analyses the reachability of the room 
+ * and its stuck cells, without simulating anything (see {@link RoomAnalyzer})</li>
+ * <li>RobotAppLauncher generate &lt;output file&gt; [--seed=0] [--rows=64] [--columns=64] [--obstacle-density=0.1] [--clustering=0] 
+ * [--hole-ratio=0.5] [--start=center|corner|random] [--facing=N] [--battery=1000] [--commands=1000] [--period=0] 
+ * [--mix=TL:1,TR:1,A:1,B:1,C:1] - generates a synthetic input (see {@link WorkloadGenerator})</li>
+ * <li>RobotAppLauncher sweep &lt;input file&gt; &lt;output file&gt; [--columns=0:9] [--rows=0:9] [--directions=N,E,S,W] 
+ * [--batteries=100:1000:100] [--format=csv|ndjson] [--threads=N] [--runs-per-block=1024] [options] - runs the command list of the input 
+ * from every selected start cell, direction and battery, writing one summary line per run (see {@link SweepRunner})</li>
+ * <li>RobotAppLauncher convert-trace &lt;binary trace file&gt; &lt;NDJSON file&gt; - converts a binary trace file into NDJSON</li>
+ * <li>RobotAppLauncher merge-heatmaps &lt;output directory&gt; &lt;binary heatmap file&gt;... [--heatmap-format=binary|csv] - adds up
+ * the heatmaps written by separate runs, room by room (see {@link HeatmapSink})</li>
+ * <li>RobotAppLauncher serve [--port=8080] [--workers=N] [--queue=64] [--timeout-ms=30000] [--max-request-bytes=N] [options] 
+ * - keeps serving simulation requests on the loopback interface (see {@link SimulationServer})</li>
+ * </ul>
+ * where the simulation options may be:
+ * <ul>
+ * <li>--engine=standard|packed|chunked - the simulation engine to be used</li>
+ * <li>--chunk-size=N - the number of commands summarized together by the chunked engine (see {@link ChunkedRobotController})</li>
+ * <li>--streaming - read the input with the token level streaming reader</li>
+ * <li>--no-backoff-cache - disable the memoization of the back-off outcomes of the packed engine</li>
+ * <li>--no-fast-forward - disable the skipping of the repeated cycles of a periodic program by the packed engine</li>
+ * <li>--metrics - collect the command, back-off and phase timing metrics and log them at the end</li>
+ * <li>--checkpoint=&lt;file&gt; [--checkpoint-every=&lt;commands&gt;] [--checkpoint-interval-ms=&lt;ms&gt;] - take periodic 
+ * checkpoints of a single simulation (packed engine only)</li>
+ * <li>--resume - continue from the latest checkpoint of the checkpoint file</li>
+ * <li>--min-coverage=&lt;cells&gt; - reject the simulations whose room and battery cannot let the robot clean at least 
+ * the given number of cells, before simulating them</li>
+ * <li>--room=&lt;room file&gt; - use the given binary room file instead of the map of the input</li>
+ * <li>--room-cache-mb=&lt;megabytes&gt; - limit the cache sharing the rooms of identical maps (see {@link RoomCache}), 0 disabling it
+ * (batch and server modes only)</li>
+ * <li>--result-cache=&lt;directory&gt; [--result-cache-mb=1024] - serve the outputs of the inputs already simulated from the 
+ * given directory (see {@link ResultCache})</li>
+ * <li>--heatmap=&lt;directory&gt; [--heatmap-format=binary|csv] - aggregate the visits, cleans, back-offs and stuck robots of 
+ * every cell over all the runs, written as one heatmap per room at the end (see {@link CellHeatmap})</li>
+ * <li>--step-logging - log every single step of the standard engine (costly for long command lists)</li>
+ * </ul>
+ * Every mode is run by a class of its own, selected by the first argument (see {@link LauncherModes}).
+ */
 public class RobotAppLauncher {
 	
     public static void main( String[] args ) {
-    	String inputFileLocation = args[0];
-    	String outputFileLocation = args[1];
-        JSONInputConverter newInputConverter = new JSONInputConverter();        
-        newInputConverter.prepareProgramInput(inputFileLocation, outputFileLocation);
+    	CommandLineArguments arguments = new CommandLineArguments(args);
+    	LauncherModes.select(arguments.getPositionalArgument(0)).run(arguments);
     }
     
 }
\ No newline at end of file
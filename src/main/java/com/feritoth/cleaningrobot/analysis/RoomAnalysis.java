@@ -0,0 +1,132 @@
+package com.feritoth.cleaningrobot.analysis;
+
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+
+/**
+ * The outcome of the pre-analysis of a room (see {@link RoomAnalyzer}): the connected regions of free cells, 
+ * respectively the cells where the robot gets stuck, all the back-off sequences failing.
+ * 
+ * @author Ferenc Toth
+ */
+public class RoomAnalysis {
+	
+	/* The component of the obstacles */
+	public static final int NO_COMPONENT = -1;
+	/* The battery needed for cleaning a cell: the cleaning itself, respectively the move towards the next cell */
+	private static final long CLEANING_COST = 5L;
+	private static final long MOVE_COST = 2L;
+	
+	private static final int[] STEP_X = {0, 1, 0, -1};
+	private static final int[] STEP_Y = {-1, 0, 1, 0};
+	
+	private final int nbOfRows;
+	private final int nbOfColumns;
+	/* The component of every cell, respectively the number of cells of every component */
+	private final int[] components;
+	private final int[] componentSizes;
+	/* The directions of every cell from which the back-off fails, bit d standing for the direction of ordinal d */
+	private final byte[] stuckDirections;
+	private final long nbOfStuckCells;
+	
+	RoomAnalysis(int nbOfRows, int nbOfColumns, int[] components, int[] componentSizes, byte[] stuckDirections, long nbOfStuckCells) {
+		super();
+		this.nbOfRows = nbOfRows;
+		this.nbOfColumns = nbOfColumns;
+		this.components = components;
+		this.componentSizes = componentSizes;
+		this.stuckDirections = stuckDirections;
+		this.nbOfStuckCells = nbOfStuckCells;
+	}
+	
+	/**
+	 * @return the component of the given cell (numbered from 0), respectively {@link #NO_COMPONENT} for an obstacle
+	 */
+	public int getComponent(long xCol, long yRow) {
+		return components[toCell(xCol, yRow)];
+	}
+	
+	/**
+	 * @return the number of free cells connected to the given cell (itself included), 0 for an obstacle
+	 */
+	public int getComponentSize(long xCol, long yRow) {
+		int component = getComponent(xCol, yRow);
+		return component == NO_COMPONENT ? 0 : componentSizes[component];
+	}
+	
+	public int getNbOfComponents() {
+		return componentSizes.length;
+	}
+	
+	public long getNbOfFreeCells() {
+		long nbOfFreeCells = 0L;
+		for (int componentSize : componentSizes) {
+			nbOfFreeCells += componentSize;
+		}
+		return nbOfFreeCells;
+	}
+	
+	public int getLargestComponentSize() {
+		int largestComponentSize = 0;
+		for (int componentSize : componentSizes) {
+			largestComponentSize = Math.max(largestComponentSize, componentSize);
+		}
+		return largestComponentSize;
+	}
+	
+	/**
+	 * Checks whether the robot gets stuck when blocked on the given cell while facing the given direction, i.e. all
+	 * the back-off sequences started from there fail.
+	 */
+	public boolean isStuck(long xCol, long yRow, ValidDirections direction) {
+		return (stuckDirections[toCell(xCol, yRow)] >>> direction.ordinal() & 1) != 0;
+	}
+	
+	/**
+	 * @return the number of free cells where the robot gets stuck for at least one of the directions
+	 */
+	public long getNbOfStuckCells() {
+		return nbOfStuckCells;
+	}
+	
+	/**
+	 * Gives an upper bound of the number of cells the robot may clean from the given start position: no more than
+	 * the cells connected to it, nor more than the battery allows - every cleaned cell costing a cleaning, and every
+	 * cell but the first one a move as well, while some battery must be left after the last cleaning.
+	 * 
+	 * @param start - the start position of the robot
+	 * @param battery - the initial battery level
+	 * @return the maximum number of cleaned cells
+	 */
+	public long getCoverageUpperBound(Position start, long battery) {
+		if (battery <= 0L) {
+			return 0L;
+		}
+		long reachableCells = getComponentSize(start.getxCol(), start.getyRow());
+		if (reachableCells == 0L) {
+			//a robot starting on an obstacle may step into one of the neighbouring components, without ever coming back
+			long largestNeighbourComponent = 0L;
+			for (ValidDirections direction : ValidDirections.values()) {
+				long xCol = start.getxCol() + STEP_X[direction.ordinal()];
+				long yRow = start.getyRow() + STEP_Y[direction.ordinal()];
+				if (0L <= xCol && xCol < nbOfColumns && 0L <= yRow && yRow < nbOfRows) {
+					largestNeighbourComponent = Math.max(largestNeighbourComponent, getComponentSize(xCol, yRow));
+				}
+			}
+			reachableCells = 1L + largestNeighbourComponent;
+		}
+		long affordableCells = (battery - 1L + MOVE_COST) / (CLEANING_COST + MOVE_COST);
+		return Math.min(reachableCells, affordableCells);
+	}
+	
+	private int toCell(long xCol, long yRow) {
+		return Math.toIntExact(yRow * nbOfColumns + xCol);
+	}
+
+	@Override
+	public String toString() {
+		return "RoomAnalysis [freeCells=" + getNbOfFreeCells() + ", components=" + getNbOfComponents() + ", largestComponent="
+				+ getLargestComponentSize() + ", stuckCells=" + nbOfStuckCells + "]";
+	}
+
+}
\ No newline at end of file
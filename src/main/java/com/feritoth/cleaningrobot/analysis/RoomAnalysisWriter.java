@@ -0,0 +1,56 @@
+package com.feritoth.cleaningrobot.analysis;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.utils.JSONChannelWriter;
+import com.feritoth.cleaningrobot.utils.JSONKeys;
+
+/**
+ * Writes the pre-analysis report of a room (see {@link RoomAnalyzer}) as a single JSON object - the figures of the
+ * whole room, followed by the ones seen from the start of the robot.
+ *
+ * @author Ferenc Toth
+ */
+public class RoomAnalysisWriter extends JSONChannelWriter {
+
+	/**
+	 * Writes the pre-analysis report of a room into the given file, replacing its previous content.
+	 *
+	 * @param roomAnalysis - the analysis of the room
+	 * @param cleaningRobot - the robot in its start configuration
+	 * @param outputFileLocation - the output file location
+	 */
+	public void writeRoomAnalysis(RoomAnalysis roomAnalysis, CleaningRobot cleaningRobot, String outputFileLocation) throws IOException {
+		try (FileChannel fileChannel = openFile(outputFileLocation)) {
+			startDocument(fileChannel);
+			Position start = cleaningRobot.getPosition();
+			writeAscii("{");
+			writeKey(JSONKeys.FREE_CELLS_KEY);
+			writeLong(roomAnalysis.getNbOfFreeCells());
+			writeAscii(",");
+			writeKey(JSONKeys.COMPONENTS_KEY);
+			writeLong(roomAnalysis.getNbOfComponents());
+			writeAscii(",");
+			writeKey(JSONKeys.LARGEST_COMPONENT_KEY);
+			writeLong(roomAnalysis.getLargestComponentSize());
+			writeAscii(",");
+			writeKey(JSONKeys.REACHABLE_CELLS_KEY);
+			writeLong(roomAnalysis.getComponentSize(start.getxCol(), start.getyRow()));
+			writeAscii(",");
+			writeKey(JSONKeys.COVERAGE_UPPER_BOUND_KEY);
+			writeLong(roomAnalysis.getCoverageUpperBound(start, cleaningRobot.getBattery()));
+			writeAscii(",");
+			writeKey(JSONKeys.STUCK_CELLS_KEY);
+			writeLong(roomAnalysis.getNbOfStuckCells());
+			writeAscii(",");
+			writeKey(JSONKeys.STUCK_AT_START_KEY);
+			writeAscii(Boolean.toString(roomAnalysis.isStuck(start.getxCol(), start.getyRow(), cleaningRobot.getDirection())));
+			writeAscii("}");
+			endDocument();
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,265 @@
+package com.feritoth.cleaningrobot.analysis;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.processor.StreamingJSONInputReader;
+import com.feritoth.cleaningrobot.utils.BacktrackCommands;
+
+/**
+ * Analyses a room before any simulation: the connected components of its free cells, respectively the cells where
+ * the back-off strategy fails completely (see {@link RoomAnalysis}). The large rooms are split into bands of rows 
+ * processed in parallel - every band builds the union-find forest of its own cells, the bands then being merged along 
+ * their borders, before the components get labelled in parallel again.
+ * An analyzer holds no state, so it may be shared between threads.
+ * 
+ * @author Ferenc Toth
+ */
+public class RoomAnalyzer {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(RoomAnalyzer.class);
+	
+	/* The rooms smaller than this get analysed by a single thread */
+	private static final int PARALLEL_ANALYSIS_THRESHOLD = 1 << 18;
+	
+	/* The lookup tables, indexed by the ordinal of the direction (N, E, S, W) */
+	private static final int[] TURN_LEFT = {3, 0, 1, 2};
+	private static final int[] TURN_RIGHT = {1, 2, 3, 0};
+	private static final int[] STEP_X = {0, 1, 0, -1};
+	private static final int[] STEP_Y = {-1, 0, 1, 0};
+	private static final int TL = ValidCommands.TURN_LEFT.ordinal();
+	private static final int TR = ValidCommands.TURN_RIGHT.ordinal();
+	/* The back-off sequences in their order of execution - the second one is executed twice */
+	private static final int[][] BACK_OFF_SEQUENCES = {toOrdinals(BacktrackCommands.FIRST_BACKTRACK_SEQUENCE), toOrdinals(BacktrackCommands.SECOND_BACKTRACK_SEQUENCE),
+			                                           toOrdinals(BacktrackCommands.SECOND_BACKTRACK_SEQUENCE), toOrdinals(BacktrackCommands.THIRD_BACKTRACK_SEQUENCE),
+			                                           toOrdinals(BacktrackCommands.FOURTH_BACKTRACK_SEQUENCE)};
+	
+	/**
+	 * Analyses the given room.
+	 * 
+	 * @param room - the room to be analysed
+	 * @return the outcome of the analysis
+	 */
+	public RoomAnalysis analyze(Room room) {
+		int nbOfRows = room.getNbOfRows();
+		int nbOfColumns = room.getNbOfColumns();
+		byte[] moveMask = room.getMoveMask();
+		int[] links = new int[room.getNbOfCells()];
+		int rowsPerBand = getRowsPerBand(room);
+		int nbOfBands = nbOfRows == 0 ? 0 : (nbOfRows + rowsPerBand - 1) / rowsPerBand;
+		//the union-find forests of the bands, then the merge along the borders of the bands
+		IntStream.range(0, nbOfBands).parallel()
+		         .forEach(band -> linkBand(room, links, band * rowsPerBand, Math.min(nbOfRows, (band + 1) * rowsPerBand)));
+		for (int band = 1; band < nbOfBands; band++) {
+			int firstCell = band * rowsPerBand * nbOfColumns;
+			for (int cell = firstCell; cell < firstCell + nbOfColumns; cell++) {
+				if (links[cell] != RoomAnalysis.NO_COMPONENT && links[cell - nbOfColumns] != RoomAnalysis.NO_COMPONENT) {
+					union(links, cell - nbOfColumns, cell);
+				}
+			}
+		}
+		//every cell pointing to its root directly, then the roots numbered in the order of the cells
+		IntStream.range(0, nbOfBands).parallel()
+		         .forEach(band -> flattenBand(links, band * rowsPerBand * nbOfColumns, Math.min(nbOfRows, (band + 1) * rowsPerBand) * nbOfColumns));
+		int nbOfComponents = 0;
+		for (int cell = 0; cell < links.length; cell++) {
+			if (links[cell] == cell) {
+				nbOfComponents++;
+			}
+		}
+		int[] componentSizes = new int[nbOfComponents];
+		int[] components = links;
+		int component = 0;
+		for (int cell = 0; cell < links.length; cell++) {
+			int root = links[cell];
+			if (root == cell) {
+				components[cell] = component;
+				componentSizes[component++]++;
+			} else if (root != RoomAnalysis.NO_COMPONENT) {
+				//the root precedes the cell, thus it has already been replaced by its component
+				components[cell] = components[root];
+				componentSizes[components[cell]]++;
+			}
+		}
+		byte[] stuckDirections = new byte[room.getNbOfCells()];
+		long nbOfStuckCells = IntStream.range(0, nbOfBands).parallel()
+				                       .mapToLong(band -> markStuckCells(room, moveMask, components, stuckDirections, band * rowsPerBand * nbOfColumns, 
+				                    		                             Math.min(nbOfRows, (band + 1) * rowsPerBand) * nbOfColumns))
+				                       .sum();
+		return new RoomAnalysis(nbOfRows, nbOfColumns, components, componentSizes, stuckDirections, nbOfStuckCells);
+	}
+	
+	/**
+	 * Analyses the room of the given input and reports the analysis, seen from the start configuration of its robot.
+	 * 
+	 * @param inputFileLocation - the input file location
+	 * @param outputFileLocation - the location of the report, or null when the analysis only needs to be logged
+	 * @param options - the options of the simulation (only the location of the room file is relevant)
+	 * @return the outcome of the analysis
+	 */
+	public RoomAnalysis analyzeProgram(String inputFileLocation, String outputFileLocation, SimulationOptions options) {
+		RoomAnalysis roomAnalysis;
+		CleaningRobot cleaningRobot;
+		try (CleaningProgram program = StreamingJSONInputReader.forOptions(options).readProgram(inputFileLocation)) {
+			cleaningRobot = program.getCleaningRobot();
+			roomAnalysis = analyze(program.getRoom());
+		} catch (IOException e) {
+			LOGGER.error("Cannot close the input file on position:" + inputFileLocation);
+			throw new RuntimeException("Input closing problem detected for the file on position:" + inputFileLocation + "\n" + e.getMessage());
+		}
+		LOGGER.info("Room analysis: " + roomAnalysis + ", coverage upper bound from the start: " 
+		            + roomAnalysis.getCoverageUpperBound(cleaningRobot.getPosition(), cleaningRobot.getBattery()));
+		if (outputFileLocation != null) {
+			try {
+				new RoomAnalysisWriter().writeRoomAnalysis(roomAnalysis, cleaningRobot, outputFileLocation);
+			} catch (IOException e) {
+				LOGGER.error("Cannot write the room analysis into the file on position:" + outputFileLocation);
+				throw new RuntimeException("Output writing problem detected for the file on position:" + outputFileLocation + "\n" + e.getMessage());
+			}
+		}
+		return roomAnalysis;
+	}
+	
+	private static int getRowsPerBand(Room room) {
+		if (room.getNbOfCells() < PARALLEL_ANALYSIS_THRESHOLD) {
+			return Math.max(1, room.getNbOfRows());
+		}
+		int nbOfBands = Runtime.getRuntime().availableProcessors() * 4;
+		return Math.max(1, (room.getNbOfRows() + nbOfBands - 1) / nbOfBands);
+	}
+	
+	/**
+	 * Builds the union-find forest of the free cells of a band - linking every free cell to its free neighbours on 
+	 * the left and above, inside the band. Only the cells of the band are touched.
+	 */
+	private static void linkBand(Room room, int[] links, int firstRow, int lastRow) {
+		int nbOfColumns = room.getNbOfColumns();
+		for (int yRow = firstRow; yRow < lastRow; yRow++) {
+			for (int xCol = 0; xCol < nbOfColumns; xCol++) {
+				int cell = yRow * nbOfColumns + xCol;
+				if (room.getCell(cell) != Room.CELL_SPACE) {
+					links[cell] = RoomAnalysis.NO_COMPONENT;
+					continue;
+				}
+				links[cell] = cell;
+				if (xCol > 0 && links[cell - 1] != RoomAnalysis.NO_COMPONENT) {
+					union(links, cell - 1, cell);
+				}
+				if (yRow > firstRow && links[cell - nbOfColumns] != RoomAnalysis.NO_COMPONENT) {
+					union(links, cell - nbOfColumns, cell);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Links the trees of the two cells, the root with the smaller index becoming the root of both.
+	 */
+	private static void union(int[] links, int cell, int otherCell) {
+		int root = findRoot(links, cell);
+		int otherRoot = findRoot(links, otherCell);
+		if (root < otherRoot) {
+			links[otherRoot] = root;
+		} else if (otherRoot < root) {
+			links[root] = otherRoot;
+		}
+	}
+	
+	private static int findRoot(int[] links, int cell) {
+		while (links[cell] != cell) {
+			links[cell] = links[links[cell]];
+			cell = links[cell];
+		}
+		return cell;
+	}
+	
+	/**
+	 * Points every free cell of the band to its root - the roots are only read, as the trees span several bands.
+	 */
+	private static void flattenBand(int[] links, int firstCell, int lastCell) {
+		for (int cell = firstCell; cell < lastCell; cell++) {
+			int root = links[cell];
+			if (root == RoomAnalysis.NO_COMPONENT) {
+				continue;
+			}
+			while (links[root] != root) {
+				root = links[root];
+			}
+			links[cell] = root;
+		}
+	}
+	
+	/**
+	 * Runs the back-off strategy from every free cell of the band and every direction, marking the failing ones.
+	 * 
+	 * @return the number of cells having at least one failing direction
+	 */
+	private static long markStuckCells(Room room, byte[] moveMask, int[] components, byte[] stuckDirections, int firstCell, int lastCell) {
+		int nbOfColumns = room.getNbOfColumns();
+		int[] cellOffset = new int[4];
+		for (int directionOrdinal = 0; directionOrdinal < cellOffset.length; directionOrdinal++) {
+			cellOffset[directionOrdinal] = STEP_Y[directionOrdinal] * nbOfColumns + STEP_X[directionOrdinal];
+		}
+		long nbOfStuckCells = 0L;
+		for (int cell = firstCell; cell < lastCell; cell++) {
+			if (components[cell] == RoomAnalysis.NO_COMPONENT) {
+				continue;
+			}
+			int stuckMask = 0;
+			for (int directionOrdinal = 0; directionOrdinal < 4; directionOrdinal++) {
+				if (isBackOffFailing(moveMask, cellOffset, cell, directionOrdinal)) {
+					stuckMask |= 1 << directionOrdinal;
+				}
+			}
+			stuckDirections[cell] = (byte) stuckMask;
+			if (stuckMask != 0) {
+				nbOfStuckCells++;
+			}
+		}
+		return nbOfStuckCells;
+	}
+	
+	/**
+	 * Goes through the back-off sequences exactly like the engines do - every sequence goes on from where the previous
+	 * one has failed, while the BACK command of a sequence moves the robot forward.
+	 */
+	private static boolean isBackOffFailing(byte[] moveMask, int[] cellOffset, int cell, int direction) {
+		for (int[] backOffSequence : BACK_OFF_SEQUENCES) {
+			boolean successful = true;
+			for (int command : backOffSequence) {
+				if (command == TL) {
+					direction = TURN_LEFT[direction];
+				} else if (command == TR) {
+					direction = TURN_RIGHT[direction];
+				} else if ((moveMask[cell >>> 1] >>> (((cell & 1) << 2) + direction) & 1) != 0) {
+					cell += cellOffset[direction];
+				} else {
+					successful = false;
+					break;
+				}
+			}
+			if (successful) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static int[] toOrdinals(List<ValidCommands> commands) {
+		int[] ordinals = new int[commands.size()];
+		for (int i = 0; i < ordinals.length; i++) {
+			ordinals[i] = commands.get(i).ordinal();
+		}
+		return ordinals;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.feritoth.cleaningrobot.batch;
+
+/**
+ * A single simulation job of a batch - an input file together with its output file.
+ * 
+ * @author Ferenc Toth
+ */
+public class BatchJob {
+	
+	private final String inputFileLocation;
+	private final String outputFileLocation;
+	
+	public BatchJob(String inputFileLocation, String outputFileLocation) {
+		super();
+		this.inputFileLocation = inputFileLocation;
+		this.outputFileLocation = outputFileLocation;
+	}
+
+	public String getInputFileLocation() {
+		return inputFileLocation;
+	}
+
+	public String getOutputFileLocation() {
+		return outputFileLocation;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchJob [input=" + inputFileLocation + ", output=" + outputFileLocation + "]";
+	}
+
+}
\ No newline at end of file
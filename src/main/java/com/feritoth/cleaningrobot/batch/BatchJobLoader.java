@@ -0,0 +1,82 @@
+package com.feritoth.cleaningrobot.batch;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the list of jobs of a batch, either out of a directory or out of a manifest file.
+ * 
+ * @author Ferenc Toth
+ */
+public class BatchJobLoader {
+	
+	private static final String INPUT_EXTENSION = ".json";
+	private static final String RESULT_SUFFIX = "_result.json";
+	
+	/**
+	 * Loads the jobs from the given source:
+	 * <ul>
+	 * <li>for a directory, every JSON file inside it is an input, the output being written into the output
+	 * directory under the same name, suffixed with "_result" (the existing result files are not considered as inputs)</li>
+	 * <li>for a regular file, each non-empty line of the manifest holds an input and an output location, separated by 
+	 * whitespace (the lines starting with '#' are comments)</li>
+	 * </ul>
+	 * 
+	 * @param jobSource - the input directory or the manifest file
+	 * @param outputDirectory - the output directory (only used for an input directory, defaults to the input directory)
+	 * @return the jobs of the batch
+	 */
+	public List<BatchJob> loadJobs(String jobSource, String outputDirectory) {
+		Path sourcePath = Paths.get(jobSource);
+		try {
+			if (Files.isDirectory(sourcePath)) {
+				return loadDirectory(sourcePath, outputDirectory == null ? sourcePath : Paths.get(outputDirectory));
+			}
+			return loadManifest(sourcePath);
+		} catch (IOException e) {
+			throw new RuntimeException("Cannot load the batch jobs from:" + jobSource + "\n" + e.getMessage());
+		}
+	}
+
+	private List<BatchJob> loadDirectory(Path inputDirectory, Path outputDirectory) throws IOException {
+		Files.createDirectories(outputDirectory);
+		List<BatchJob> jobs = new ArrayList<>();
+		try (DirectoryStream<Path> inputFiles = Files.newDirectoryStream(inputDirectory, "*" + INPUT_EXTENSION)) {
+			for (Path inputFile : inputFiles) {
+				String fileName = inputFile.getFileName().toString();
+				if (fileName.endsWith(RESULT_SUFFIX)) {
+					continue;
+				}
+				String outputName = fileName.substring(0, fileName.length() - INPUT_EXTENSION.length()) + RESULT_SUFFIX;
+				jobs.add(new BatchJob(inputFile.toString(), outputDirectory.resolve(outputName).toString()));
+			}
+		}
+		Collections.sort(jobs, (first, second) -> first.getInputFileLocation().compareTo(second.getInputFileLocation()));
+		return jobs;
+	}
+
+	private List<BatchJob> loadManifest(Path manifestFile) throws IOException {
+		List<BatchJob> jobs = new ArrayList<>();
+		int lineNumber = 0;
+		for (String line : Files.readAllLines(manifestFile)) {
+			lineNumber++;
+			String trimmedLine = line.trim();
+			if (trimmedLine.isEmpty() || trimmedLine.startsWith("#")) {
+				continue;
+			}
+			String[] locations = trimmedLine.split("\\s+");
+			if (locations.length != 2) {
+				throw new IOException("Line " + lineNumber + " of the manifest must contain an input and an output location");
+			}
+			jobs.add(new BatchJob(locations[0], locations[1]));
+		}
+		return jobs;
+	}
+
+}
\ No newline at end of file
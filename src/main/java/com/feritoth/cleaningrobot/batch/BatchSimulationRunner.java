@@ -0,0 +1,125 @@
+package com.feritoth.cleaningrobot.batch;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.processor.JSONInputConverter;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.utils.SimulationRejectedException;
+
+/**
+ * Runs many simulation jobs inside the same JVM, on a pool of workers - each job goes through the usual
+ * input conversion, cleaning and output formatting chain. A failing job (unreadable input, unexpected
+ * exception) is only recorded, the rest of the batch being executed normally.
+ * 
+ * @author Ferenc Toth
+ */
+public class BatchSimulationRunner {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(BatchSimulationRunner.class);
+	
+	private final SimulationOptions options;
+	private final int nbOfWorkers;
+	private final boolean virtualThreads;
+	
+	/**
+	 * @param options - the simulation options applied to every job
+	 * @param nbOfWorkers - the number of worker threads (respectively the maximum number of jobs in flight for the virtual threads)
+	 * @param virtualThreads - run every job on its own virtual thread (only available on JDK 21 or newer, 
+	 *                         the fixed worker pool being used otherwise)
+	 */
+	public BatchSimulationRunner(SimulationOptions options, int nbOfWorkers, boolean virtualThreads) {
+		super();
+		if (nbOfWorkers <= 0) {
+			throw new IllegalArgumentException("The number of workers must be positive:" + nbOfWorkers);
+		}
+		this.options = options;
+		this.nbOfWorkers = nbOfWorkers;
+		this.virtualThreads = virtualThreads;
+	}
+	
+	/**
+	 * Executes all the given jobs and waits for their completion.
+	 * 
+	 * @param jobs - the jobs to be executed
+	 * @return the statistics of the batch
+	 */
+	public BatchSummary runJobs(List<BatchJob> jobs) {
+		BatchSummary summary = new BatchSummary();
+		ExecutorService executor = createExecutor();
+		long startTime = System.nanoTime();
+		//bounds the number of jobs in flight - relevant for the virtual threads, where each job gets its own thread
+		Semaphore jobsInFlight = new Semaphore(nbOfWorkers);
+		try {
+			for (BatchJob job : jobs) {
+				jobsInFlight.acquireUninterruptibly();
+				executor.execute(() -> {
+					try {
+						runJob(job, summary);
+					} finally {
+						jobsInFlight.release();
+					}
+				});
+			}
+		} finally {
+			executor.shutdown();
+			awaitTermination(executor);
+		}
+		summary.setElapsedNanos(System.nanoTime() - startTime);
+		LOGGER.info(summary.toString());
+		if (options.getRoomCache() != null) {
+			LOGGER.info(options.getRoomCache().toString());
+		}
+		if (options.getResultCache() != null) {
+			LOGGER.info(options.getResultCache().toString());
+		}
+		for (String failure : summary.getReportedFailures()) {
+			LOGGER.warn("Failed job - " + failure);
+		}
+		return summary;
+	}
+	
+	private void runJob(BatchJob job, BatchSummary summary) {
+		long jobStart = System.nanoTime();
+		try {
+			new JSONInputConverter().prepareProgramInput(job.getInputFileLocation(), job.getOutputFileLocation(), options);
+			summary.recordSuccess(System.nanoTime() - jobStart);
+		} catch (SimulationRejectedException e) {
+			LOGGER.info("The job on " + job.getInputFileLocation() + " has been rejected:" + e.getMessage());
+			summary.recordRejection(System.nanoTime() - jobStart);
+		} catch (Exception e) {
+			LOGGER.error("The job on " + job.getInputFileLocation() + " failed:" + e.getMessage());
+			summary.recordFailure(job, e, System.nanoTime() - jobStart);
+		}
+	}
+	
+	private ExecutorService createExecutor() {
+		if (virtualThreads) {
+			try {
+				return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (ReflectiveOperationException e) {
+				LOGGER.warn("Virtual threads are not available on the current JVM, falling back to " + nbOfWorkers + " platform threads...");
+			}
+		}
+		return Executors.newFixedThreadPool(nbOfWorkers);
+	}
+	
+	private static void awaitTermination(ExecutorService executor) {
+		try {
+			while (!executor.awaitTermination(1L, TimeUnit.MINUTES)) {
+				LOGGER.info("Waiting for the batch jobs to complete...");
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("The batch execution has been interrupted");
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.feritoth.cleaningrobot.batch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of a batch run - updated concurrently by the workers of the batch.
+ * 
+ * @author Ferenc Toth
+ */
+public class BatchSummary {
+	
+	/* The number of failures kept with their details, the rest being only counted */
+	private static final int MAX_REPORTED_FAILURES = 20;
+	
+	private final LongAdder succeededJobs = new LongAdder();
+	private final LongAdder failedJobs = new LongAdder();
+	private final LongAdder rejectedJobs = new LongAdder();
+	private final LongAdder totalJobNanos = new LongAdder();
+	private final AtomicLong maxJobNanos = new AtomicLong();
+	private final List<String> reportedFailures = Collections.synchronizedList(new ArrayList<>());
+	private long elapsedNanos;
+	
+	void recordSuccess(long jobNanos) {
+		succeededJobs.increment();
+		recordDuration(jobNanos);
+	}
+	
+	void recordFailure(BatchJob job, Exception failure, long jobNanos) {
+		failedJobs.increment();
+		recordDuration(jobNanos);
+		if (reportedFailures.size() < MAX_REPORTED_FAILURES) {
+			reportedFailures.add(job.getInputFileLocation() + ": " + failure);
+		}
+	}
+	
+	void recordRejection(long jobNanos) {
+		rejectedJobs.increment();
+		recordDuration(jobNanos);
+	}
+	
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+	
+	private void recordDuration(long jobNanos) {
+		totalJobNanos.add(jobNanos);
+		maxJobNanos.accumulateAndGet(jobNanos, Math::max);
+	}
+
+	public long getSucceededJobs() {
+		return succeededJobs.sum();
+	}
+
+	public long getFailedJobs() {
+		return failedJobs.sum();
+	}
+	
+	/**
+	 * @return the number of jobs not simulated, as their pre-analysis did not promise the minimum coverage
+	 */
+	public long getRejectedJobs() {
+		return rejectedJobs.sum();
+	}
+	
+	public long getTotalJobs() {
+		return getSucceededJobs() + getFailedJobs() + getRejectedJobs();
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+	
+	/**
+	 * @return the number of jobs completed per second, over the whole batch
+	 */
+	public double getThroughput() {
+		return elapsedNanos == 0L ? 0.0 : getTotalJobs() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+	
+	public List<String> getReportedFailures() {
+		return Collections.unmodifiableList(new ArrayList<>(reportedFailures));
+	}
+
+	@Override
+	public String toString() {
+		long totalJobs = getTotalJobs();
+		return String.format("Batch finished: %d jobs (%d succeeded, %d failed, %d rejected) in %.3f s - %.1f jobs/s, mean job time %.3f ms, max job time %.3f ms",
+				totalJobs, getSucceededJobs(), getFailedJobs(), getRejectedJobs(), elapsedNanos / 1e9, getThroughput(),
+				totalJobs == 0 ? 0.0 : totalJobNanos.sum() / 1e6 / totalJobs, maxJobNanos.get() / 1e6);
+	}
+
+}
\ No newline at end of file
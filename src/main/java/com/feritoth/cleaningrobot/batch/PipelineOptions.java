@@ -0,0 +1,71 @@
+package com.feritoth.cleaningrobot.batch;
+
+/**
+ * The options of the pipelined batch execution (see {@link PipelinedBatchRunner}) - the defaults keep the I/O stages
+ * small, the simulations getting one worker per processor.
+ *
+ * @author Ferenc Toth
+ */
+public class PipelineOptions {
+
+	private int nbOfParseWorkers = 2;
+	private int nbOfSimulateWorkers = Runtime.getRuntime().availableProcessors();
+	private int nbOfSerializeWorkers = 2;
+	private int queueCapacity = 16;
+
+	public int getNbOfParseWorkers() {
+		return nbOfParseWorkers;
+	}
+
+	/**
+	 * Selects the number of inputs read at the same time.
+	 */
+	public PipelineOptions setNbOfParseWorkers(int nbOfParseWorkers) {
+		this.nbOfParseWorkers = nbOfParseWorkers;
+		return this;
+	}
+
+	public int getNbOfSimulateWorkers() {
+		return nbOfSimulateWorkers;
+	}
+
+	/**
+	 * Selects the number of simulations run at the same time.
+	 */
+	public PipelineOptions setNbOfSimulateWorkers(int nbOfSimulateWorkers) {
+		this.nbOfSimulateWorkers = nbOfSimulateWorkers;
+		return this;
+	}
+
+	public int getNbOfSerializeWorkers() {
+		return nbOfSerializeWorkers;
+	}
+
+	/**
+	 * Selects the number of outputs written at the same time.
+	 */
+	public PipelineOptions setNbOfSerializeWorkers(int nbOfSerializeWorkers) {
+		this.nbOfSerializeWorkers = nbOfSerializeWorkers;
+		return this;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * Selects the number of jobs which may wait between two stages - a stage finding the queue of the next one full
+	 * waits for a free slot, so the parsed programs held in memory stay bounded.
+	 */
+	public PipelineOptions setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "PipelineOptions [parseWorkers=" + nbOfParseWorkers + ", simulateWorkers=" + nbOfSimulateWorkers + ", serializeWorkers="
+	           + nbOfSerializeWorkers + ", queueCapacity=" + queueCapacity + "]";
+	}
+
+}
\ No newline at end of file
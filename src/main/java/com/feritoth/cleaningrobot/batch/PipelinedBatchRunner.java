@@ -0,0 +1,350 @@
+package com.feritoth.cleaningrobot.batch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+import com.feritoth.cleaningrobot.instrumentation.SimulationPhase;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.JSONInputConverter;
+import com.feritoth.cleaningrobot.processor.JSONOutputFormatter;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.processor.StreamingJSONInputReader;
+import com.feritoth.cleaningrobot.utils.SimulationRejectedException;
+
+/**
+ * Runs many simulation jobs as a pipeline of three stages - parse, simulate and serialize - each stage having its own
+ * workers, so the reading and the writing of the files overlap with the simulations instead of alternating with them.
+ * The stages are connected by bounded queues: a stage finding the next queue full waits (back-pressure), thus the
+ * number of programs held in memory never exceeds the capacity of the queues plus the number of workers. The parse
+ * stage loads the whole input, the streamed commands being read from memory, so the simulations never wait for the disk.
+ * As with {@link BatchSimulationRunner}, a failing job is only recorded, the statistics of every stage being collected
+ * besides the ones of the batch.
+ *
+ * @author Ferenc Toth
+ */
+public class PipelinedBatchRunner {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PipelinedBatchRunner.class);
+
+	private final SimulationOptions options;
+	private final PipelineOptions pipelineOptions;
+	private volatile List<StageMetrics> stageMetrics = Collections.emptyList();
+
+	/**
+	 * @param options - the simulation options applied to every job
+	 * @param pipelineOptions - the workers of every stage and the capacity of the queues
+	 */
+	public PipelinedBatchRunner(SimulationOptions options, PipelineOptions pipelineOptions) {
+		super();
+		if (pipelineOptions.getNbOfParseWorkers() <= 0 || pipelineOptions.getNbOfSimulateWorkers() <= 0 || pipelineOptions.getNbOfSerializeWorkers() <= 0) {
+			throw new IllegalArgumentException("The number of workers of every stage must be positive:" + pipelineOptions);
+		}
+		if (pipelineOptions.getQueueCapacity() <= 0) {
+			throw new IllegalArgumentException("The capacity of the queues must be positive:" + pipelineOptions.getQueueCapacity());
+		}
+		this.options = options;
+		this.pipelineOptions = pipelineOptions;
+	}
+
+	/**
+	 * Executes all the given jobs through the pipeline and waits for their completion.
+	 *
+	 * @param jobs - the jobs to be executed
+	 * @return the statistics of the batch
+	 */
+	public BatchSummary runJobs(List<BatchJob> jobs) {
+		Pipeline pipeline = new Pipeline(jobs);
+		pipeline.run();
+		stageMetrics = Collections.unmodifiableList(Arrays.asList(pipeline.parseMetrics, pipeline.simulateMetrics, pipeline.serializeMetrics));
+		LOGGER.info(pipeline.summary.toString());
+		for (StageMetrics metrics : stageMetrics) {
+			LOGGER.info(metrics.toString());
+		}
+		for (String failure : pipeline.summary.getReportedFailures()) {
+			LOGGER.warn("Failed job - " + failure);
+		}
+		if (options.getRoomCache() != null) {
+			LOGGER.info(options.getRoomCache().toString());
+		}
+		if (options.getResultCache() != null) {
+			LOGGER.info(options.getResultCache().toString());
+		}
+		return pipeline.summary;
+	}
+
+	/**
+	 * @return the statistics of the parse, simulate and serialize stages of the latest batch
+	 */
+	public List<StageMetrics> getStageMetrics() {
+		return stageMetrics;
+	}
+
+	/**
+	 * A job travelling through the stages, together with the state handed over from one stage to the next.
+	 */
+	private static final class PipelinedJob {
+
+		private final BatchJob batchJob;
+		private long startTime;
+		private String resultKey;
+		private CleaningProgram program;
+		private boolean outputNeeded;
+
+		private PipelinedJob(BatchJob batchJob) {
+			this.batchJob = batchJob;
+		}
+
+	}
+
+	/**
+	 * The execution of a batch - the queues, the workers and the statistics of a single run.
+	 */
+	private final class Pipeline {
+
+		/* Marks the end of the jobs inside a queue - one for every worker of the consuming stage */
+		private final PipelinedJob endOfJobs = new PipelinedJob(null);
+		private final List<BatchJob> jobs;
+		private final BatchSummary summary = new BatchSummary();
+		private final StreamingJSONInputReader inputReader;
+		private final SimulationListener listener = options.getSimulationListener();
+		private final BlockingQueue<PipelinedJob> parsedJobs = new ArrayBlockingQueue<>(pipelineOptions.getQueueCapacity());
+		private final BlockingQueue<PipelinedJob> simulatedJobs = new ArrayBlockingQueue<>(pipelineOptions.getQueueCapacity());
+		private final StageMetrics parseMetrics = new StageMetrics(SimulationPhase.PARSE, pipelineOptions.getNbOfParseWorkers());
+		private final StageMetrics simulateMetrics = new StageMetrics(SimulationPhase.SIMULATE, pipelineOptions.getNbOfSimulateWorkers());
+		private final StageMetrics serializeMetrics = new StageMetrics(SimulationPhase.SERIALIZE, pipelineOptions.getNbOfSerializeWorkers());
+		private final AtomicInteger nextJobIndex = new AtomicInteger();
+		private final AtomicInteger remainingParseWorkers = new AtomicInteger(pipelineOptions.getNbOfParseWorkers());
+		private final AtomicInteger remainingSimulateWorkers = new AtomicInteger(pipelineOptions.getNbOfSimulateWorkers());
+
+		private Pipeline(List<BatchJob> jobs) {
+			this.jobs = jobs;
+			this.inputReader = options.isStreamingInput() || options.getRoomFileLocation() != null ? StreamingJSONInputReader.forOptions(options) : null;
+		}
+
+		private void run() {
+			ExecutorService executor = Executors.newFixedThreadPool(pipelineOptions.getNbOfParseWorkers() + pipelineOptions.getNbOfSimulateWorkers()
+			                                                        + pipelineOptions.getNbOfSerializeWorkers());
+			long startTime = System.nanoTime();
+			try {
+				startWorkers(executor, pipelineOptions.getNbOfParseWorkers(), this::runParseWorker);
+				startWorkers(executor, pipelineOptions.getNbOfSimulateWorkers(), this::runSimulateWorker);
+				startWorkers(executor, pipelineOptions.getNbOfSerializeWorkers(), this::runSerializeWorker);
+			} finally {
+				executor.shutdown();
+				awaitTermination(executor);
+			}
+			long elapsedNanos = System.nanoTime() - startTime;
+			summary.setElapsedNanos(elapsedNanos);
+			parseMetrics.setElapsedNanos(elapsedNanos);
+			simulateMetrics.setElapsedNanos(elapsedNanos);
+			serializeMetrics.setElapsedNanos(elapsedNanos);
+		}
+
+		private void runParseWorker() throws InterruptedException {
+			try {
+				int jobIndex;
+				while ((jobIndex = nextJobIndex.getAndIncrement()) < jobs.size()) {
+					PipelinedJob job = new PipelinedJob(jobs.get(jobIndex));
+					job.startTime = System.nanoTime();
+					boolean parsed = parse(job);
+					parseMetrics.recordJob(System.nanoTime() - job.startTime);
+					if (parsed) {
+						put(parsedJobs, job, parseMetrics);
+					}
+				}
+			} finally {
+				if (remainingParseWorkers.decrementAndGet() == 0) {
+					for (int i = 0; i < pipelineOptions.getNbOfSimulateWorkers(); i++) {
+						parsedJobs.put(endOfJobs);
+					}
+				}
+			}
+		}
+
+		private void runSimulateWorker() throws InterruptedException {
+			try {
+				PipelinedJob job;
+				while ((job = take(parsedJobs, simulateMetrics)) != endOfJobs) {
+					long simulationStart = System.nanoTime();
+					boolean simulated = simulate(job);
+					simulateMetrics.recordJob(System.nanoTime() - simulationStart);
+					if (simulated) {
+						put(simulatedJobs, job, simulateMetrics);
+					}
+				}
+			} finally {
+				if (remainingSimulateWorkers.decrementAndGet() == 0) {
+					for (int i = 0; i < pipelineOptions.getNbOfSerializeWorkers(); i++) {
+						simulatedJobs.put(endOfJobs);
+					}
+				}
+			}
+		}
+
+		private void runSerializeWorker() throws InterruptedException {
+			PipelinedJob job;
+			while ((job = take(simulatedJobs, serializeMetrics)) != endOfJobs) {
+				long serializationStart = System.nanoTime();
+				serialize(job);
+				serializeMetrics.recordJob(System.nanoTime() - serializationStart);
+			}
+		}
+
+		/**
+		 * Reads the program of the job, unless its output is served by the result cache.
+		 *
+		 * @return true if the job goes on towards the simulation
+		 */
+		private boolean parse(PipelinedJob job) {
+			String inputFileLocation = job.batchJob.getInputFileLocation();
+			try {
+				job.resultKey = JSONInputConverter.computeResultKey(inputFileLocation, options);
+				if (job.resultKey != null && options.getResultCache().fetch(job.resultKey, Paths.get(job.batchJob.getOutputFileLocation()))) {
+					LOGGER.info("The output for the input " + inputFileLocation + " has been served from the result cache");
+					summary.recordSuccess(System.nanoTime() - job.startTime);
+					return false;
+				}
+				long phaseStart = System.nanoTime();
+				job.program = inputReader != null ? inputReader.readProgram(Files.readAllBytes(Paths.get(inputFileLocation)))
+				                                  : new JSONInputConverter().readProgram(inputFileLocation, options);
+				reportPhase(SimulationPhase.PARSE, phaseStart);
+				return true;
+			} catch (Exception e) {
+				fail(job, e);
+				return false;
+			}
+		}
+
+		/**
+		 * Executes the program of the job.
+		 *
+		 * @return true if the job goes on towards the serialization
+		 */
+		private boolean simulate(PipelinedJob job) {
+			try {
+				long phaseStart = System.nanoTime();
+				job.outputNeeded = JSONInputConverter.executeProgram(job.program, options);
+				reportPhase(SimulationPhase.SIMULATE, phaseStart);
+				return true;
+			} catch (SimulationRejectedException e) {
+				LOGGER.info("The job on " + job.batchJob.getInputFileLocation() + " has been rejected:" + e.getMessage());
+				summary.recordRejection(System.nanoTime() - job.startTime);
+				release(job);
+				return false;
+			} catch (Exception e) {
+				fail(job, e);
+				return false;
+			}
+		}
+
+		/**
+		 * Writes the output of the job (if needed) and stores it inside the result cache (if any).
+		 */
+		private void serialize(PipelinedJob job) {
+			try {
+				long phaseStart = System.nanoTime();
+				String outputFileLocation = job.batchJob.getOutputFileLocation();
+				if (job.outputNeeded) {
+					LOGGER.info("The final robot parameters after cleaning are:" + job.program.getCleaningRobot().toString());
+					new JSONOutputFormatter().createCleaningProcedureOutput(job.program.getCleaningRobot(), outputFileLocation);
+					reportPhase(SimulationPhase.SERIALIZE, phaseStart);
+				}
+				if (job.resultKey != null) {
+					options.getResultCache().store(job.resultKey, job.outputNeeded ? Paths.get(outputFileLocation) : null);
+				}
+				release(job);
+				summary.recordSuccess(System.nanoTime() - job.startTime);
+			} catch (Exception e) {
+				fail(job, e);
+			}
+		}
+
+		private void fail(PipelinedJob job, Exception failure) {
+			LOGGER.error("The job on " + job.batchJob.getInputFileLocation() + " failed:" + failure.getMessage());
+			summary.recordFailure(job.batchJob, failure, System.nanoTime() - job.startTime);
+			release(job);
+		}
+
+		/**
+		 * Closes the program of the job (if already read) - the job does not hold it any longer.
+		 */
+		private void release(PipelinedJob job) {
+			if (job.program == null) {
+				return;
+			}
+			try {
+				job.program.close();
+			} catch (IOException e) {
+				LOGGER.error("Cannot release the input file on position:" + job.batchJob.getInputFileLocation());
+			}
+			job.program = null;
+		}
+
+		private void reportPhase(SimulationPhase phase, long phaseStart) {
+			if (listener != null) {
+				listener.phaseCompleted(phase, System.nanoTime() - phaseStart);
+			}
+		}
+
+		private PipelinedJob take(BlockingQueue<PipelinedJob> queue, StageMetrics metrics) throws InterruptedException {
+			metrics.sampleQueueDepth(queue.size());
+			long waitStart = System.nanoTime();
+			PipelinedJob job = queue.take();
+			metrics.recordStarved(System.nanoTime() - waitStart);
+			return job;
+		}
+
+		private void put(BlockingQueue<PipelinedJob> queue, PipelinedJob job, StageMetrics metrics) throws InterruptedException {
+			long waitStart = System.nanoTime();
+			queue.put(job);
+			metrics.recordBlocked(System.nanoTime() - waitStart);
+		}
+
+	}
+
+	/**
+	 * A worker of a stage - returns once its stage has no more jobs.
+	 */
+	private interface StageWorker {
+		void run() throws InterruptedException;
+	}
+
+	private static void startWorkers(ExecutorService executor, int nbOfWorkers, StageWorker worker) {
+		for (int i = 0; i < nbOfWorkers; i++) {
+			executor.execute(() -> {
+				try {
+					worker.run();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+	}
+
+	private static void awaitTermination(ExecutorService executor) {
+		try {
+			while (!executor.awaitTermination(1L, TimeUnit.MINUTES)) {
+				LOGGER.info("Waiting for the pipelined batch jobs to complete...");
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("The batch execution has been interrupted");
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.feritoth.cleaningrobot.batch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.feritoth.cleaningrobot.instrumentation.SimulationPhase;
+
+/**
+ * The statistics of one stage of the pipelined batch execution - updated concurrently by the workers of the stage.
+ * The time of the workers is split between working on the jobs, waiting for a job of the previous stage (starved)
+ * and waiting for a free slot inside the queue of the next stage (blocked by the back-pressure); the depth of the
+ * queue feeding the stage is sampled whenever a job is taken out of it.
+ *
+ * @author Ferenc Toth
+ */
+public class StageMetrics {
+
+	private final SimulationPhase phase;
+	private final int nbOfWorkers;
+	private final LongAdder nbOfJobs = new LongAdder();
+	private final LongAdder busyNanos = new LongAdder();
+	private final LongAdder starvedNanos = new LongAdder();
+	private final LongAdder blockedNanos = new LongAdder();
+	private final LongAdder queueDepthSum = new LongAdder();
+	private final LongAdder nbOfQueueSamples = new LongAdder();
+	private final AtomicLong maxQueueDepth = new AtomicLong();
+	private long elapsedNanos;
+
+	StageMetrics(SimulationPhase phase, int nbOfWorkers) {
+		super();
+		this.phase = phase;
+		this.nbOfWorkers = nbOfWorkers;
+	}
+
+	void recordJob(long jobNanos) {
+		nbOfJobs.increment();
+		busyNanos.add(jobNanos);
+	}
+
+	void recordStarved(long nanos) {
+		starvedNanos.add(nanos);
+	}
+
+	void recordBlocked(long nanos) {
+		blockedNanos.add(nanos);
+	}
+
+	void sampleQueueDepth(int queueDepth) {
+		queueDepthSum.add(queueDepth);
+		nbOfQueueSamples.increment();
+		maxQueueDepth.accumulateAndGet(queueDepth, Math::max);
+	}
+
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public SimulationPhase getPhase() {
+		return phase;
+	}
+
+	public int getNbOfWorkers() {
+		return nbOfWorkers;
+	}
+
+	public long getNbOfJobs() {
+		return nbOfJobs.sum();
+	}
+
+	/**
+	 * @return the number of jobs handled per second, over the whole batch
+	 */
+	public double getThroughput() {
+		return elapsedNanos == 0L ? 0.0 : getNbOfJobs() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+	/**
+	 * @return the share of the time of the workers spent on the jobs, between 0 and 1
+	 */
+	public double getUtilization() {
+		return shareOfWorkerTime(busyNanos.sum());
+	}
+
+	/**
+	 * @return the share of the time of the workers spent waiting for the previous stage, between 0 and 1
+	 */
+	public double getStarvation() {
+		return shareOfWorkerTime(starvedNanos.sum());
+	}
+
+	/**
+	 * @return the share of the time of the workers spent waiting for the next stage, between 0 and 1
+	 */
+	public double getBackPressure() {
+		return shareOfWorkerTime(blockedNanos.sum());
+	}
+
+	/**
+	 * @return the mean depth of the queue feeding the stage, as seen by the workers taking the jobs
+	 */
+	public double getMeanQueueDepth() {
+		long nbOfSamples = nbOfQueueSamples.sum();
+		return nbOfSamples == 0L ? 0.0 : queueDepthSum.sum() / (double) nbOfSamples;
+	}
+
+	public long getMaxQueueDepth() {
+		return maxQueueDepth.get();
+	}
+
+	private double shareOfWorkerTime(long nanos) {
+		return elapsedNanos == 0L ? 0.0 : nanos / ((double) elapsedNanos * nbOfWorkers);
+	}
+
+	@Override
+	public String toString() {
+		String stageStatistics = String.format("Stage %s: %d workers, %d jobs, %.1f jobs/s, busy %.1f%%, starved %.1f%%, blocked %.1f%%",
+				phase, nbOfWorkers, getNbOfJobs(), getThroughput(), getUtilization() * 100.0, getStarvation() * 100.0, getBackPressure() * 100.0);
+		//the first stage takes its jobs from the list of the batch, without any queue
+		return nbOfQueueSamples.sum() == 0L ? stageStatistics : stageStatistics + String.format(", queue depth mean %.1f max %d", getMeanQueueDepth(), getMaxQueueDepth());
+	}
+
+}
\ No newline at end of file
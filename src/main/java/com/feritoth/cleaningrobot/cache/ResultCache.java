@@ -0,0 +1,353 @@
+package com.feritoth.cleaningrobot.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A content-addressed cache of the simulation outputs, kept inside a local directory - the simulation being
+ * deterministic, an input always gives the same output. The key of an input is the SHA-256 hash of its normalized
+ * content (the whitespace outside the JSON strings being dropped) and of a variant standing for the options which
+ * change the outcome, thus a hit gets served without parsing the map or simulating anything. An input producing no
+ * output is stored as an empty result.
+ * The results are written into a temporary file first, then moved under their final name, so the directory may be
+ * shared by several processes: a result is either complete or missing. The least recently used results (by their
+ * modification time, refreshed on every hit) are evicted once the directory exceeds its size limit.
+ *
+ * @author Ferenc Toth
+ */
+public class ResultCache {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ResultCache.class);
+	/* The size limit of the directory when none is given */
+	public static final long DEFAULT_MAX_BYTES = 1L << 30;
+	private static final String RESULT_SUFFIX = ".json";
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+	/* The version of the key, to be changed whenever the normalization or the output format changes */
+	private static final String KEY_VERSION = "1";
+	/* The temporary files older than this are left over by crashed processes */
+	private static final long STALE_TEMPORARY_FILE_MILLIS = 60L * 60L * 1000L;
+	/* An eviction goes below the limit, so that it does not run again right after the next store */
+	private static final double EVICTION_TARGET = 0.9;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+	private final Path directory;
+	private final long maxBytes;
+	/* The size of the directory as seen by this process - corrected by every eviction */
+	private final AtomicLong estimatedSize;
+	private final AtomicLong nbOfHits = new AtomicLong();
+	private final AtomicLong nbOfMisses = new AtomicLong();
+	private final AtomicLong nbOfEvictions = new AtomicLong();
+
+	/**
+	 * @param directory - the directory holding the results, created if missing
+	 * @param maxBytes - the size limit of the directory
+	 */
+	public ResultCache(Path directory, long maxBytes) {
+		super();
+		if (maxBytes <= 0L) {
+			throw new IllegalArgumentException("The size limit of the result cache must be positive");
+		}
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		try {
+			Files.createDirectories(directory);
+			this.estimatedSize = new AtomicLong(listResults().stream().mapToLong(CachedResult::getSize).sum());
+		} catch (IOException e) {
+			LOGGER.error("Cannot open the result cache on position:" + directory);
+			throw new RuntimeException("Cannot open the result cache on position:" + directory + "\n" + e.getMessage());
+		}
+	}
+
+	/**
+	 * Computes the key of the input held by the given file.
+	 *
+	 * @param variant - the options changing the outcome of the simulation, in a textual form
+	 */
+	public String computeKey(Path inputFile, String variant) throws IOException {
+		try (InputStream input = Files.newInputStream(inputFile)) {
+			return computeKey(input, variant);
+		}
+	}
+
+	public String computeKey(byte[] input, String variant) throws IOException {
+		return computeKey(new ByteArrayInputStream(input), variant);
+	}
+
+	/**
+	 * Computes the key of the given input - its bytes are hashed as they come, the whitespace found outside the
+	 * strings being skipped, so two inputs differing only by their layout share the same key.
+	 */
+	public String computeKey(InputStream input, String variant) throws IOException {
+		MessageDigest digest = newDigest();
+		digest.update((KEY_VERSION + "|" + variant + "|").getBytes(StandardCharsets.UTF_8));
+		byte[] buffer = new byte[BUFFER_SIZE];
+		boolean insideString = false;
+		boolean escaped = false;
+		int count;
+		while ((count = input.read(buffer)) > 0) {
+			int nbOfKeptBytes = 0;
+			for (int i = 0; i < count; i++) {
+				byte value = buffer[i];
+				if (insideString) {
+					if (escaped) {
+						escaped = false;
+					} else if (value == '\\') {
+						escaped = true;
+					} else if (value == '"') {
+						insideString = false;
+					}
+				} else if (value == ' ' || value == '\t' || value == '\n' || value == '\r') {
+					continue;
+				} else if (value == '"') {
+					insideString = true;
+				}
+				//the kept bytes are compacted in place, never overtaking the bytes still to be scanned
+				buffer[nbOfKeptBytes++] = value;
+			}
+			digest.update(buffer, 0, nbOfKeptBytes);
+		}
+		return toHex(digest.digest());
+	}
+
+	/**
+	 * Copies the result stored under the given key into the output file - an empty result leaves the output file untouched.
+	 *
+	 * @return true on a hit, false if no result is stored under the key
+	 */
+	public boolean fetch(String key, Path outputFile) {
+		Path resultFile = resolveResult(key);
+		try {
+			if (Files.size(resultFile) > 0L) {
+				Files.copy(resultFile, outputFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+			recordHit(resultFile);
+			return true;
+		} catch (NoSuchFileException e) {
+			nbOfMisses.incrementAndGet();
+			return false;
+		} catch (IOException e) {
+			LOGGER.warn("Cannot read the cached result " + resultFile + " - " + e.getMessage());
+			nbOfMisses.incrementAndGet();
+			return false;
+		}
+	}
+
+	/**
+	 * @return the result stored under the given key (empty for an input producing no output), null on a miss
+	 */
+	public byte[] fetch(String key) {
+		Path resultFile = resolveResult(key);
+		try {
+			byte[] result = Files.readAllBytes(resultFile);
+			recordHit(resultFile);
+			return result;
+		} catch (NoSuchFileException e) {
+			nbOfMisses.incrementAndGet();
+			return null;
+		} catch (IOException e) {
+			LOGGER.warn("Cannot read the cached result " + resultFile + " - " + e.getMessage());
+			nbOfMisses.incrementAndGet();
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the content of the given output file under the given key.
+	 *
+	 * @param outputFile - the output of the simulation, null for an input producing no output
+	 */
+	public void store(String key, Path outputFile) {
+		Path temporaryFile = null;
+		try {
+			temporaryFile = Files.createTempFile(directory, key, TEMPORARY_SUFFIX);
+			if (outputFile != null) {
+				Files.copy(outputFile, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+			publish(temporaryFile, key);
+		} catch (IOException e) {
+			LOGGER.warn("Cannot store the result of the output " + outputFile + " into the cache - " + e.getMessage());
+			deleteQuietly(temporaryFile);
+		}
+	}
+
+	/**
+	 * Stores the given output under the given key (empty for an input producing no output).
+	 */
+	public void store(String key, byte[] output) {
+		Path temporaryFile = null;
+		try {
+			temporaryFile = Files.createTempFile(directory, key, TEMPORARY_SUFFIX);
+			Files.write(temporaryFile, output);
+			publish(temporaryFile, key);
+		} catch (IOException e) {
+			LOGGER.warn("Cannot store a result into the cache - " + e.getMessage());
+			deleteQuietly(temporaryFile);
+		}
+	}
+
+	/**
+	 * Moves a completely written result under its final name - the processes storing the same key concurrently
+	 * write the same content, thus whichever move comes last wins without harm.
+	 */
+	private void publish(Path temporaryFile, String key) throws IOException {
+		long resultSize = Files.size(temporaryFile);
+		Path resultFile = resolveResult(key);
+		try {
+			Files.move(temporaryFile, resultFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temporaryFile, resultFile, StandardCopyOption.REPLACE_EXISTING);
+		}
+		if (estimatedSize.addAndGet(resultSize) > maxBytes) {
+			evict();
+		}
+	}
+
+	/**
+	 * Evicts the least recently used results until the directory gets below its limit, together with the temporary
+	 * files left over by crashed processes. The results may vanish meanwhile, being evicted by other processes as well.
+	 */
+	private synchronized void evict() {
+		try {
+			List<CachedResult> results = listResults();
+			results.sort(Comparator.comparingLong(CachedResult::getLastAccessMillis));
+			long totalSize = results.stream().mapToLong(CachedResult::getSize).sum();
+			long targetSize = (long) (maxBytes * EVICTION_TARGET);
+			for (int i = 0; i < results.size() && totalSize > targetSize; i++) {
+				CachedResult result = results.get(i);
+				if (Files.deleteIfExists(result.getFile())) {
+					nbOfEvictions.incrementAndGet();
+				}
+				totalSize -= result.getSize();
+			}
+			estimatedSize.set(totalSize);
+		} catch (IOException e) {
+			LOGGER.warn("Cannot evict the results of the cache on position:" + directory + " - " + e.getMessage());
+		}
+	}
+
+	private List<CachedResult> listResults() throws IOException {
+		List<CachedResult> results = new ArrayList<>();
+		long staleLimit = System.currentTimeMillis() - STALE_TEMPORARY_FILE_MILLIS;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				String fileName = file.getFileName().toString();
+				try {
+					BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+					if (fileName.endsWith(RESULT_SUFFIX)) {
+						results.add(new CachedResult(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+					} else if (fileName.endsWith(TEMPORARY_SUFFIX) && attributes.lastModifiedTime().toMillis() < staleLimit) {
+						Files.deleteIfExists(file);
+					}
+				} catch (NoSuchFileException e) {
+					//removed by another process meanwhile
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Counts a hit and marks the result as recently used.
+	 */
+	private void recordHit(Path resultFile) {
+		nbOfHits.incrementAndGet();
+		try {
+			Files.setLastModifiedTime(resultFile, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (IOException e) {
+			//evicted meanwhile - the result has been read already
+		}
+	}
+
+	private Path resolveResult(String key) {
+		return directory.resolve(key + RESULT_SUFFIX);
+	}
+
+	private static void deleteQuietly(Path file) {
+		if (file == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			LOGGER.warn("Cannot delete the temporary file " + file + " - " + e.getMessage());
+		}
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException("The SHA-256 algorithm is not available:" + e.getMessage());
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		char[] digits = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			digits[2 * i] = HEX_DIGITS[(bytes[i] >>> 4) & 0xF];
+			digits[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xF];
+		}
+		return new String(digits);
+	}
+
+	public long getNbOfHits() {
+		return nbOfHits.get();
+	}
+
+	public long getNbOfMisses() {
+		return nbOfMisses.get();
+	}
+
+	@Override
+	public String toString() {
+		return "ResultCache [directory=" + directory + ", estimatedSize=" + estimatedSize.get() + ", maxBytes=" + maxBytes + ", hits=" + nbOfHits.get()
+				+ ", misses=" + nbOfMisses.get() + ", evictions=" + nbOfEvictions.get() + "]";
+	}
+
+	private static final class CachedResult {
+
+		private final Path file;
+		private final long size;
+		private final long lastAccessMillis;
+
+		private CachedResult(Path file, long size, long lastAccessMillis) {
+			this.file = file;
+			this.size = size;
+			this.lastAccessMillis = lastAccessMillis;
+		}
+
+		private Path getFile() {
+			return file;
+		}
+
+		private long getSize() {
+			return size;
+		}
+
+		private long getLastAccessMillis() {
+			return lastAccessMillis;
+		}
+
+	}
+
+}
\ No newline at end of file
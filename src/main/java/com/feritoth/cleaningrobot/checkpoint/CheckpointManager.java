@@ -0,0 +1,223 @@
+package com.feritoth.cleaningrobot.checkpoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.PositionLog;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.processor.RoomCache;
+
+/**
+ * Takes the periodic checkpoints of a simulation and resumes a simulation from its latest checkpoint.
+ * A checkpoint is due after a given number of commands and/or after a given time; capturing it costs
+ * nothing more than a few fields (the position logs being shared, see {@link PositionLog#snapshot()}),
+ * the encoding and the writing being done by a background thread. Should the writer fall behind, only
+ * the most recent pending checkpoint is kept. Every checkpoint is written into a temporary file first, 
+ * then moved over the previous one, so the checkpoint file is never left half written. A checkpoint carries the
+ * fingerprint of the input it was taken from, and is only resumed by a simulation of the same input.
+ * 
+ * @author Ferenc Toth
+ */
+public class CheckpointManager implements Closeable {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(CheckpointManager.class);
+	/* The number of commands between two checkpoints when neither this number nor the time is given */
+	public static final long DEFAULT_CHECKPOINT_EVERY_COMMANDS = 10000000L;
+	/* The clock is only read every few thousand commands */
+	private static final long TIME_CHECK_MASK = (1L << 12) - 1L;
+	private static final int BUFFER_SIZE = 1 << 16;
+	
+	private final Room room;
+	private final long inputFingerprint;
+	private final Path checkpointFileLocation;
+	private final long checkpointEveryCommands;
+	private final long checkpointIntervalNanos;
+	private final ThreadPoolExecutor writer;
+	private long resumedCommandIndex;
+	private long nextCheckpointIndex;
+	private long nextCheckpointTime;
+	
+	/**
+	 * @param room - the room of the simulation
+	 * @param inputFingerprint - the fingerprint of the input of the simulation (see {@link #fingerprint})
+	 * @param checkpointFileLocation - the checkpoint file
+	 * @param checkpointEveryCommands - the number of commands between two checkpoints, 0 for none
+	 * @param checkpointIntervalMillis - the time between two checkpoints, 0 for none
+	 */
+	public CheckpointManager(Room room, long inputFingerprint, Path checkpointFileLocation, long checkpointEveryCommands, long checkpointIntervalMillis) {
+		super();
+		if (checkpointEveryCommands <= 0L && checkpointIntervalMillis <= 0L) {
+			throw new IllegalArgumentException("Either the number of commands or the time between two checkpoints must be given");
+		}
+		this.room = room;
+		this.inputFingerprint = inputFingerprint;
+		this.checkpointFileLocation = checkpointFileLocation;
+		this.checkpointEveryCommands = checkpointEveryCommands <= 0L ? Long.MAX_VALUE : checkpointEveryCommands;
+		this.checkpointIntervalNanos = checkpointIntervalMillis <= 0L ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(checkpointIntervalMillis);
+		//a single pending checkpoint at most - a newer one replaces it
+		this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1), runnable -> {
+			Thread thread = new Thread(runnable, "checkpoint-writer");
+			thread.setDaemon(true);
+			return thread;
+		}, new ThreadPoolExecutor.DiscardOldestPolicy());
+		scheduleNextCheckpoint(0L);
+	}
+	
+	/**
+	 * Puts the robot into the state of the latest checkpoint (if any) and skips the commands already executed.
+	 * 
+	 * @param cleaningRobot - the robot in its initial state
+	 * @param commands - the commands of the simulation, from their beginning
+	 * @return the number of commands already executed
+	 */
+	public long resume(CleaningRobot cleaningRobot, Iterator<ValidCommands> commands) {
+		if (!Files.exists(checkpointFileLocation)) {
+			LOGGER.info("No checkpoint found on position:" + checkpointFileLocation + ", starting from the first command");
+			return 0L;
+		}
+		SimulationCheckpoint checkpoint;
+		try {
+			checkpoint = SimulationCheckpoint.read(checkpointFileLocation);
+		} catch (IOException e) {
+			LOGGER.error("Cannot read the checkpoint on position:" + checkpointFileLocation);
+			throw new RuntimeException("Cannot read the checkpoint on position:" + checkpointFileLocation + "\n" + e.getMessage());
+		}
+		if (checkpoint.getInputFingerprint() != inputFingerprint) {
+			LOGGER.error("The checkpoint on position " + checkpointFileLocation + " belongs to a different input");
+			throw new RuntimeException("The checkpoint on position " + checkpointFileLocation + " was taken by the simulation of a different input");
+		}
+		if (checkpoint.getNbOfRows() != room.getNbOfRows() || checkpoint.getNbOfColumns() != room.getNbOfColumns()) {
+			LOGGER.error("The checkpoint on position " + checkpointFileLocation + " belongs to a different room");
+			throw new RuntimeException("The checkpoint was taken inside a room of " + checkpoint.getNbOfRows() + "x" + checkpoint.getNbOfColumns() 
+			                           + " cells instead of " + room.toString());
+		}
+		for (long i = 0L; i < checkpoint.getCommandIndex(); i++) {
+			if (!commands.hasNext()) {
+				throw new RuntimeException("The checkpoint refers to command " + checkpoint.getCommandIndex() + ", while the input only has " + i);
+			}
+			commands.next();
+		}
+		checkpoint.restore(cleaningRobot);
+		resumedCommandIndex = checkpoint.getCommandIndex();
+		scheduleNextCheckpoint(resumedCommandIndex);
+		LOGGER.info("Resuming the simulation from command " + resumedCommandIndex + " with the robot:" + cleaningRobot.toString());
+		return resumedCommandIndex;
+	}
+	
+	/**
+	 * @return the index of the first command to be executed - non zero for a resumed simulation
+	 */
+	public long getResumedCommandIndex() {
+		return resumedCommandIndex;
+	}
+	
+	/**
+	 * Checks whether a checkpoint is due - called after every command, thus kept as cheap as possible.
+	 * 
+	 * @param commandIndex - the number of commands executed so far
+	 */
+	public boolean isDue(long commandIndex) {
+		return commandIndex >= nextCheckpointIndex || ((commandIndex & TIME_CHECK_MASK) == 0L && System.nanoTime() >= nextCheckpointTime);
+	}
+	
+	/**
+	 * Captures the given simulation state and hands it over to the background writer.
+	 * 
+	 * @param commandIndex - the number of commands executed so far
+	 * @param direction - the ordinal of the direction of the robot
+	 */
+	public void checkpoint(long commandIndex, int xCol, int yRow, int direction, long battery, PositionLog visitedPositions, 
+			               PositionLog cleanedPositions) {
+		SimulationCheckpoint checkpoint = new SimulationCheckpoint(inputFingerprint, room.getNbOfRows(), room.getNbOfColumns(), commandIndex, xCol, yRow, direction, 
+				                                                   battery, visitedPositions.snapshot(), cleanedPositions.snapshot());
+		writer.execute(() -> write(checkpoint));
+		scheduleNextCheckpoint(commandIndex);
+	}
+	
+	/**
+	 * Waits for the pending checkpoint to be written.
+	 */
+	@Override
+	public void close() {
+		writer.shutdown();
+		try {
+			if (!writer.awaitTermination(1L, TimeUnit.MINUTES)) {
+				LOGGER.warn("The last checkpoint could not be written within a minute");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Computes the fingerprint of a simulation input: the content of the input file (command list included), the cells
+	 * of the room (which may come from a room file instead of the input) and the start state of the robot.
+	 * 
+	 * @param inputFileLocation - the input file of the simulation
+	 * @param room - the room of the simulation
+	 * @param cleaningRobot - the robot in its initial state
+	 * @throws IOException in case the input file cannot be read
+	 */
+	public static long fingerprint(Path inputFileLocation, Room room, CleaningRobot cleaningRobot) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException("The SHA-256 algorithm is not available:" + e.getMessage());
+		}
+		byte[] buffer = new byte[BUFFER_SIZE];
+		try (InputStream input = Files.newInputStream(inputFileLocation)) {
+			int count;
+			while ((count = input.read(buffer)) > 0) {
+				digest.update(buffer, 0, count);
+			}
+		}
+		ByteBuffer startState = ByteBuffer.allocate(5 * Long.BYTES);
+		startState.putLong(RoomCache.hash(room));
+		startState.putLong(cleaningRobot.getPosition().getxCol());
+		startState.putLong(cleaningRobot.getPosition().getyRow());
+		startState.putLong(cleaningRobot.getDirection().ordinal());
+		startState.putLong(cleaningRobot.getBattery());
+		digest.update(startState.array());
+		return ByteBuffer.wrap(digest.digest()).getLong();
+	}
+	
+	private void scheduleNextCheckpoint(long commandIndex) {
+		nextCheckpointIndex = commandIndex > Long.MAX_VALUE - checkpointEveryCommands ? Long.MAX_VALUE : commandIndex + checkpointEveryCommands;
+		long now = System.nanoTime();
+		nextCheckpointTime = checkpointIntervalNanos == Long.MAX_VALUE ? Long.MAX_VALUE : now + checkpointIntervalNanos;
+	}
+	
+	private void write(SimulationCheckpoint checkpoint) {
+		Path temporaryFile = checkpointFileLocation.resolveSibling(checkpointFileLocation.getFileName() + ".tmp");
+		try {
+			checkpoint.write(temporaryFile);
+			try {
+				Files.move(temporaryFile, checkpointFileLocation, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporaryFile, checkpointFileLocation, StandardCopyOption.REPLACE_EXISTING);
+			}
+			LOGGER.debug("Checkpoint written after command " + checkpoint.getCommandIndex());
+		} catch (IOException e) {
+			LOGGER.error("Cannot write the checkpoint on position:" + checkpointFileLocation + " - " + e.getMessage());
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.feritoth.cleaningrobot.checkpoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.PositionLog;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.utils.VarLongs;
+
+/**
+ * The complete state of a running simulation, after a given number of executed commands. The binary form
+ * starts with a header (magic number "CRCP", version, fingerprint of the input, size of the room, command index,
+ * robot position, direction and battery), followed by the visited and the cleaned cells in insertion order - every cell is
+ * stored as the zig-zag varint of its index difference to the previous one, the consecutive cells being
+ * mostly neighbours, thus taking one or two bytes each.
+ * 
+ * @author Ferenc Toth
+ */
+public class SimulationCheckpoint {
+	
+	private static final int MAGIC = 0x43524350;
+	private static final int VERSION = 2;
+	
+	/* The fingerprint of the input the simulation was started from (see CheckpointManager#fingerprint) */
+	private final long inputFingerprint;
+	private final int nbOfRows;
+	private final int nbOfColumns;
+	private final long commandIndex;
+	private final int xCol;
+	private final int yRow;
+	private final int direction;
+	private final long battery;
+	private final PositionLog.Snapshot visitedPositions;
+	private final PositionLog.Snapshot cleanedPositions;
+	
+	/**
+	 * @param commandIndex - the number of commands executed so far, i.e. the index of the next command
+	 * @param direction - the ordinal of the direction of the robot
+	 */
+	public SimulationCheckpoint(long inputFingerprint, int nbOfRows, int nbOfColumns, long commandIndex, int xCol, int yRow, int direction, long battery,
+			                    PositionLog.Snapshot visitedPositions, PositionLog.Snapshot cleanedPositions) {
+		super();
+		this.inputFingerprint = inputFingerprint;
+		this.nbOfRows = nbOfRows;
+		this.nbOfColumns = nbOfColumns;
+		this.commandIndex = commandIndex;
+		this.xCol = xCol;
+		this.yRow = yRow;
+		this.direction = direction;
+		this.battery = battery;
+		this.visitedPositions = visitedPositions;
+		this.cleanedPositions = cleanedPositions;
+	}
+	
+	/**
+	 * Writes the checkpoint into the given file.
+	 */
+	public void write(Path checkpointFileLocation) throws IOException {
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(checkpointFileLocation), 1 << 16))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeLong(inputFingerprint);
+			output.writeInt(nbOfRows);
+			output.writeInt(nbOfColumns);
+			output.writeLong(commandIndex);
+			output.writeInt(xCol);
+			output.writeInt(yRow);
+			output.writeByte(direction);
+			output.writeLong(battery);
+			writePositions(output, visitedPositions);
+			writePositions(output, cleanedPositions);
+		}
+	}
+	
+	/**
+	 * Reads the checkpoint found inside the given file.
+	 * 
+	 * @throws IOException in case the file cannot be read or does not hold a valid checkpoint
+	 */
+	public static SimulationCheckpoint read(Path checkpointFileLocation) throws IOException {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpointFileLocation), 1 << 16))) {
+			if (input.readInt() != MAGIC) {
+				throw new IOException("The file " + checkpointFileLocation + " is not a checkpoint file");
+			}
+			int version = input.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported checkpoint version " + version + " inside the file " + checkpointFileLocation);
+			}
+			long inputFingerprint = input.readLong();
+			int nbOfRows = input.readInt();
+			int nbOfColumns = input.readInt();
+			long commandIndex = input.readLong();
+			int xCol = input.readInt();
+			int yRow = input.readInt();
+			int direction = input.readByte();
+			long battery = input.readLong();
+			PositionLog.Snapshot visitedPositions = readPositions(input, nbOfColumns);
+			PositionLog.Snapshot cleanedPositions = readPositions(input, nbOfColumns);
+			return new SimulationCheckpoint(inputFingerprint, nbOfRows, nbOfColumns, commandIndex, xCol, yRow, direction, battery, visitedPositions, cleanedPositions);
+		}
+	}
+	
+	/**
+	 * Puts the robot into the state captured by the checkpoint - the robot is expected to be in its initial state.
+	 */
+	public void restore(CleaningRobot cleaningRobot) {
+		cleaningRobot.setPosition(new Position(xCol, yRow));
+		cleaningRobot.setDirection(ValidDirections.values()[direction]);
+		cleaningRobot.setBattery(battery);
+		PositionLog visitedPositionLog = cleaningRobot.getVisitedPositionLog();
+		visitedPositionLog.clear();
+		for (int i = 0; i < visitedPositions.size(); i++) {
+			visitedPositionLog.add(visitedPositions.get(i));
+		}
+		PositionLog cleanedPositionLog = cleaningRobot.getCleanedPositionLog();
+		cleanedPositionLog.clear();
+		for (int i = 0; i < cleanedPositions.size(); i++) {
+			cleanedPositionLog.add(cleanedPositions.get(i));
+		}
+	}
+
+	public long getInputFingerprint() {
+		return inputFingerprint;
+	}
+
+	public int getNbOfRows() {
+		return nbOfRows;
+	}
+
+	public int getNbOfColumns() {
+		return nbOfColumns;
+	}
+
+	public long getCommandIndex() {
+		return commandIndex;
+	}
+	
+	private void writePositions(DataOutputStream output, PositionLog.Snapshot positions) throws IOException {
+		output.writeInt(positions.size());
+		long previousCell = 0L;
+		for (int i = 0; i < positions.size(); i++) {
+			long packedPosition = positions.get(i);
+			long cell = Position.unpackY(packedPosition) * (long) nbOfColumns + Position.unpackX(packedPosition);
+			VarLongs.writeSignedVarLong(output, cell - previousCell);
+			previousCell = cell;
+		}
+	}
+	
+	private static PositionLog.Snapshot readPositions(DataInputStream input, int nbOfColumns) throws IOException {
+		int size = input.readInt();
+		PositionLog positions = new PositionLog();
+		long cell = 0L;
+		for (int i = 0; i < size; i++) {
+			cell += VarLongs.readSignedVarLong(input);
+			positions.add(Position.pack(cell % nbOfColumns, cell / nbOfColumns));
+		}
+		return positions.snapshot();
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.feritoth.cleaningrobot.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The cells cleaned by any of the robots sharing the same room - a bit per cell, set through
+ * compare-and-set, thus safe to be updated concurrently by all the robots without locking.
+ *
+ * @author Ferenc Toth
+ */
+public class CleanedCellRegistry {
+
+	private final AtomicLongArray words;
+	private final AtomicInteger nbOfCleanedCells = new AtomicInteger();
+
+	public CleanedCellRegistry(Room room) {
+		super();
+		this.words = new AtomicLongArray((room.getNbOfCells() + 63) >>> 6);
+	}
+
+	/**
+	 * Records the cleaning of the given cell.
+	 *
+	 * @param cellIndex - the flat index of the cell
+	 * @return true if the cell was cleaned for the first time, false if it had already been cleaned before
+	 */
+	public boolean markCleaned(int cellIndex) {
+		int wordIndex = cellIndex >>> 6;
+		long bit = 1L << cellIndex;
+		long word = words.get(wordIndex);
+		while ((word & bit) == 0L) {
+			if (words.compareAndSet(wordIndex, word, word | bit)) {
+				nbOfCleanedCells.incrementAndGet();
+				return true;
+			}
+			word = words.get(wordIndex);
+		}
+		return false;
+	}
+
+	public boolean isCleaned(int cellIndex) {
+		return (words.get(cellIndex >>> 6) & (1L << cellIndex)) != 0L;
+	}
+
+	/**
+	 * @return the number of distinct cells cleaned so far
+	 */
+	public int getNbOfCleanedCells() {
+		return nbOfCleanedCells.get();
+	}
+
+}
\ No newline at end of file
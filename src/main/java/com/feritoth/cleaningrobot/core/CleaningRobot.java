@@ -1,7 +1,5 @@
 package com.feritoth.cleaningrobot.core;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 public class CleaningRobot {
@@ -9,13 +7,13 @@ public class CleaningRobot {
 	private Position position;
 	private Long battery;
 	private ValidDirections direction;
-	private List<Position> visitedPositions;
-	private List<Position> cleanedPositions;
+	private final PositionLog visitedPositions;
+	private final PositionLog cleanedPositions;
 	
 	public CleaningRobot() {
 		super();
-		this.visitedPositions = new ArrayList<>();
-		this.cleanedPositions = new ArrayList<>();
+		this.visitedPositions = new PositionLog();
+		this.cleanedPositions = new PositionLog();
 	}
 
 	public CleaningRobot(Position position, Long battery, ValidDirections direction) {
@@ -23,8 +21,8 @@ public class CleaningRobot {
 		this.position = position;
 		this.battery = battery;
 		this.direction = direction;
-		this.visitedPositions = new ArrayList<>();
-		this.cleanedPositions = new ArrayList<>();
+		this.visitedPositions = new PositionLog();
+		this.cleanedPositions = new PositionLog();
 	}
 
 	public Position getPosition() {
@@ -51,24 +49,42 @@ public class CleaningRobot {
 		this.direction = direction;
 	}
 	
+	/**
+	 * @return the visited positions, the most recently visited one first
+	 */
 	public List<Position> getVisitedPositions() {
-		return Collections.unmodifiableList(visitedPositions);
+		return visitedPositions.asPositionList();
 	}
 
+	/**
+	 * @return the cleaned positions, the most recently cleaned one first
+	 */
 	public List<Position> getCleanedPositions() {
-		return Collections.unmodifiableList(cleanedPositions);
+		return cleanedPositions.asPositionList();
+	}
+	
+	public PositionLog getVisitedPositionLog() {
+		return visitedPositions;
+	}
+	
+	public PositionLog getCleanedPositionLog() {
+		return cleanedPositions;
 	}
 	
 	public void addNewVisitedPosition(Position newPosition){
-		if (!visitedPositions.contains(newPosition)){
-			visitedPositions.add(0, newPosition);
-		}
+		visitedPositions.add(newPosition.pack());
 	}
 	
 	public void addNewCleanedPosition(Position newPosition){
-		if (!cleanedPositions.contains(newPosition)){
-			cleanedPositions.add(0, newPosition);
-		}
+		cleanedPositions.add(newPosition.pack());
+	}
+	
+	public void addNewVisitedPosition(long xCol, long yRow){
+		visitedPositions.add(Position.pack(xCol, yRow));
+	}
+	
+	public void addNewCleanedPosition(long xCol, long yRow){
+		cleanedPositions.add(Position.pack(xCol, yRow));
 	}
 
 	@Override
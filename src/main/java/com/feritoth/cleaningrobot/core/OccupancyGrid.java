@@ -0,0 +1,59 @@
+package com.feritoth.cleaningrobot.core;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Keeps track of the cells occupied by the robots sharing the same room - every cell holds the identifier
+ * of its occupant (shifted by one, 0 meaning a free cell), the claims being done through compare-and-set,
+ * so no lock is needed and two robots can never end up in the same cell.
+ *
+ * @author Ferenc Toth
+ */
+public class OccupancyGrid {
+
+	private static final int FREE_CELL = 0;
+
+	private final AtomicIntegerArray occupants;
+
+	public OccupancyGrid(Room room) {
+		super();
+		this.occupants = new AtomicIntegerArray(room.getNbOfCells());
+	}
+
+	/**
+	 * Tries to occupy the given cell on behalf of the given robot.
+	 *
+	 * @param cellIndex - the flat index of the cell
+	 * @param robotId - the identifier of the robot (non-negative)
+	 * @return true if the cell was free and is now occupied by the robot, false if another robot occupies it
+	 */
+	public boolean claim(int cellIndex, int robotId) {
+		return occupants.compareAndSet(cellIndex, FREE_CELL, robotId + 1);
+	}
+
+	/**
+	 * Moves the robot from its current cell into the target one - the target is claimed first, the
+	 * current cell being released only after a successful claim.
+	 *
+	 * @return true for a successful move, false if the target is occupied by another robot
+	 */
+	public boolean move(int robotId, int fromCellIndex, int toCellIndex) {
+		if (!claim(toCellIndex, robotId)) {
+			return false;
+		}
+		occupants.set(fromCellIndex, FREE_CELL);
+		return true;
+	}
+
+	public void release(int cellIndex) {
+		occupants.set(cellIndex, FREE_CELL);
+	}
+
+	/**
+	 * @return the identifier of the robot occupying the given cell, or -1 for a free cell
+	 */
+	public int getOccupant(int cellIndex) {
+		return occupants.get(cellIndex) - 1;
+	}
+
+}
\ No newline at end of file
@@ -15,6 +15,30 @@ public class Position {
 		this.yRow = yRow;
 	}
 	
+	/**
+	 * Packs a pair of coordinates into a single primitive key (column in the upper half, row in the lower half).
+	 * The coordinates are expected to fit into the int range.
+	 */
+	public static long pack(long xCol, long yRow) {
+		return (xCol << 32) | (yRow & 0xFFFFFFFFL);
+	}
+	
+	public static long unpackX(long packedPosition) {
+		return packedPosition >> 32;
+	}
+	
+	public static long unpackY(long packedPosition) {
+		return (int) packedPosition;
+	}
+	
+	public static Position unpack(long packedPosition) {
+		return new Position(unpackX(packedPosition), unpackY(packedPosition));
+	}
+	
+	public long pack() {
+		return pack(xCol, yRow);
+	}
+	
 	@Override
 	public int hashCode() {
 		final int prime = 31;
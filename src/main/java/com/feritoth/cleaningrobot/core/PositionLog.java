@@ -0,0 +1,200 @@
+package com.feritoth.cleaningrobot.core;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An insertion ordered set of positions - the positions are kept under their packed form
+ * (see {@link Position#pack(long, long)}) inside an append-only log, while the membership
+ * checks are done through an open addressing hash table of primitive keys. Both the check
+ * and the insertion are thus O(1), without any boxing involved.
+ *
+ * @author Ferenc Toth
+ */
+public class PositionLog {
+
+	private static final int INITIAL_CAPACITY = 16;
+	/* The key marking a free slot inside the hash table - tracked separately when effectively used */
+	private static final long FREE_SLOT = Long.MIN_VALUE;
+
+	private long[] entries;
+	private int size;
+	private long[] slots;
+	private boolean containsFreeSlotKey;
+
+	public PositionLog() {
+		super();
+		this.entries = new long[INITIAL_CAPACITY];
+		this.slots = newSlotTable(INITIAL_CAPACITY * 2);
+	}
+
+	/**
+	 * Adds a new position to the log, in case it is not already present.
+	 *
+	 * @param packedPosition - the packed position to be added
+	 * @return true if the position was new, false otherwise
+	 */
+	public boolean add(long packedPosition) {
+		if (packedPosition == FREE_SLOT) {
+			if (containsFreeSlotKey) {
+				return false;
+			}
+			containsFreeSlotKey = true;
+		} else {
+			int mask = slots.length - 1;
+			int slot = mix(packedPosition) & mask;
+			while (slots[slot] != FREE_SLOT) {
+				if (slots[slot] == packedPosition) {
+					return false;
+				}
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = packedPosition;
+		}
+		append(packedPosition);
+		return true;
+	}
+
+	public boolean contains(long packedPosition) {
+		if (packedPosition == FREE_SLOT) {
+			return containsFreeSlotKey;
+		}
+		int mask = slots.length - 1;
+		int slot = mix(packedPosition) & mask;
+		while (slots[slot] != FREE_SLOT) {
+			if (slots[slot] == packedPosition) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the packed position found on the given index, in insertion order.
+	 */
+	public long get(int index) {
+		return entries[index];
+	}
+
+	/**
+	 * Returns the packed position found on the given index, starting from the most recent insertion.
+	 */
+	public long getMostRecent(int index) {
+		return entries[size - 1 - index];
+	}
+
+	/**
+	 * Empties the log while keeping the already allocated storage for later reuse.
+	 */
+	public void clear() {
+		Arrays.fill(slots, FREE_SLOT);
+		containsFreeSlotKey = false;
+		size = 0;
+	}
+
+	/**
+	 * Captures the current content of the log without copying it - the appended entries are never modified
+	 * (a growth copies them into a new array), so the captured ones remain valid while the log keeps growing,
+	 * as long as it does not get cleared.
+	 */
+	public Snapshot snapshot() {
+		return new Snapshot(entries, size);
+	}
+
+	/**
+	 * Returns a read-only view of the logged positions, the most recent one first.
+	 */
+	public List<Position> asPositionList() {
+		return new MostRecentFirstView();
+	}
+
+	private void append(long packedPosition) {
+		if (size == entries.length) {
+			entries = Arrays.copyOf(entries, size * 2);
+		}
+		entries[size++] = packedPosition;
+		//keep the load factor of the hash table under 1/2
+		if (size * 2 > slots.length) {
+			rehash(slots.length * 2);
+		}
+	}
+
+	private void rehash(int newCapacity) {
+		long[] newSlots = newSlotTable(newCapacity);
+		int mask = newCapacity - 1;
+		for (long key : slots) {
+			if (key != FREE_SLOT) {
+				int slot = mix(key) & mask;
+				while (newSlots[slot] != FREE_SLOT) {
+					slot = (slot + 1) & mask;
+				}
+				newSlots[slot] = key;
+			}
+		}
+		slots = newSlots;
+	}
+
+	private static long[] newSlotTable(int capacity) {
+		long[] table = new long[capacity];
+		Arrays.fill(table, FREE_SLOT);
+		return table;
+	}
+
+	private static int mix(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	/**
+	 * The content of a log on a given moment, in insertion order.
+	 */
+	public static final class Snapshot {
+
+		private final long[] entries;
+		private final int size;
+
+		private Snapshot(long[] entries, int size) {
+			this.entries = entries;
+			this.size = size;
+		}
+
+		public long get(int index) {
+			return entries[index];
+		}
+
+		public int size() {
+			return size;
+		}
+
+	}
+
+	private class MostRecentFirstView extends AbstractList<Position> implements RandomAccess {
+
+		@Override
+		public Position get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+			}
+			return Position.unpack(getMostRecent(index));
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+	}
+
+	@Override
+	public String toString() {
+		return asPositionList().toString();
+	}
+
+}
\ No newline at end of file
@@ -1,31 +1,260 @@
 package com.feritoth.cleaningrobot.core;
 
-import java.util.Arrays;
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
 
+/**
+ * The room to be cleaned - the map is kept in a packed form, one byte per cell,
+ * stored row by row inside a flat array (cell index = yRow * nbOfColumns + xCol).
+ * The cells are either held on the heap or inside a (typically memory mapped) buffer, see {@link RoomFile}.
+ * For the movement checks, a move mask is built on demand: 4 bits per cell, bit d being set when the robot
+ * may step from the cell towards the direction of ordinal d (N, E, S, W) - the borders of the room and the
+ * obstacles are thus folded into a single bit test.
+ *
+ * @author Ferenc Toth
+ */
 public class Room {
-	
-	private String[][] map;
+
+	/* The cell codes used inside the packed map */
+	public static final byte CELL_SPACE = 0;
+	public static final byte CELL_COLUMN = 1;
+	public static final byte CELL_WALL = 2;
+	/* The rooms smaller than this get their move mask built by a single thread */
+	private static final int PARALLEL_MASK_THRESHOLD = 1 << 18;
+	private static final int ROWS_PER_BAND_UNIT = 2;
+
+	private final int nbOfRows;
+	private final int nbOfColumns;
+	private final byte[] cells;
+	/* The off-heap cells - only present when the room is not held on the heap */
+	private final ByteBuffer bufferedCells;
+	/* The move masks, two cells per byte (the even cell inside the lower nibble) - built on first use */
+	private volatile byte[] moveMask;
+	/* Set once the room may be used by several simulations at the same time */
+	private volatile boolean shared;
 
 	public Room(String[][] map) {
+		this(map.length, map.length == 0 ? 0 : map[0].length);
+		for (int yRow = 0; yRow < nbOfRows; yRow++) {
+			for (int xCol = 0; xCol < nbOfColumns; xCol++) {
+				cells[yRow * nbOfColumns + xCol] = encodeCell(map[yRow][xCol]);
+			}
+		}
+	}
+
+	public Room(int nbOfRows, int nbOfColumns) {
+		this(nbOfRows, nbOfColumns, new byte[Math.multiplyExact(nbOfRows, nbOfColumns)]);
+	}
+
+	/**
+	 * Creates a room on top of already packed cells - the array is used as it is, without any copy,
+	 * and may be longer than needed (the surplus is ignored).
+	 */
+	public Room(int nbOfRows, int nbOfColumns, byte[] cells) {
 		super();
-		this.map = map;
+		if (cells.length < (long) nbOfRows * nbOfColumns) {
+			throw new IllegalArgumentException("Not enough cells for a room of " + nbOfRows + "x" + nbOfColumns);
+		}
+		this.nbOfRows = nbOfRows;
+		this.nbOfColumns = nbOfColumns;
+		this.cells = cells;
+		this.bufferedCells = null;
+	}
+
+	/**
+	 * Creates a room on top of the packed cells held by the given buffer, starting from its index 0 - the buffer
+	 * is used as it is (a read-only buffer giving a read-only room).
+	 */
+	public Room(int nbOfRows, int nbOfColumns, ByteBuffer cells) {
+		super();
+		if (cells.capacity() < (long) nbOfRows * nbOfColumns) {
+			throw new IllegalArgumentException("Not enough cells for a room of " + nbOfRows + "x" + nbOfColumns);
+		}
+		this.nbOfRows = nbOfRows;
+		this.nbOfColumns = nbOfColumns;
+		this.cells = null;
+		this.bufferedCells = cells;
+	}
+
+	/**
+	 * Converts the textual content of a map cell into its packed code - every marker other
+	 * than a column ("C") or a wall ("null") is considered to be free space.
+	 *
+	 * @param cellContent - the content of the cell as found in the input JSON
+	 * @return the packed cell code
+	 */
+	public static byte encodeCell(String cellContent) {
+		if ("C".equals(cellContent)) {
+			return CELL_COLUMN;
+		} else if ("null".equals(cellContent)) {
+			return CELL_WALL;
+		}
+		return CELL_SPACE;
+	}
+
+	public byte getCell(int cellIndex) {
+		return cells != null ? cells[cellIndex] : bufferedCells.get(cellIndex);
+	}
+
+	public byte getCell(int xCol, int yRow) {
+		return getCell(yRow * nbOfColumns + xCol);
+	}
+
+	/**
+	 * Checks whether the room holds exactly the given packed cells.
+	 *
+	 * @param cells - the packed cells, row by row - may be longer than the room (the surplus is ignored)
+	 * @return true if the room has the given size and every cell matches
+	 */
+	public boolean hasCells(int nbOfRows, int nbOfColumns, byte[] cells) {
+		if (nbOfRows != this.nbOfRows || nbOfColumns != this.nbOfColumns) {
+			return false;
+		}
+		for (int cellIndex = getNbOfCells() - 1; cellIndex >= 0; cellIndex--) {
+			if (getCell(cellIndex) != cells[cellIndex]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether the given cell is blocked for the robot (contains either a column or a wall).
+	 *
+	 * @param cellIndex - the flat index of the cell
+	 * @return true for an obstacle, false for free space
+	 */
+	public boolean isObstacle(int cellIndex) {
+		return getCell(cellIndex) != CELL_SPACE;
+	}
+
+	public boolean isObstacle(int xCol, int yRow) {
+		return getCell(yRow * nbOfColumns + xCol) != CELL_SPACE;
+	}
+
+	/**
+	 * Checks whether the robot may step from the given cell towards the given direction - i.e. the neighbouring
+	 * cell is located inside the room and holds no obstacle.
+	 *
+	 * @param cellIndex - the flat index of the cell
+	 * @param directionOrdinal - the ordinal of the direction of the step
+	 * @return true if the step is possible
+	 */
+	public boolean canMove(int cellIndex, int directionOrdinal) {
+		return (getMoveMask()[cellIndex >>> 1] >>> (((cellIndex & 1) << 2) + directionOrdinal) & 1) != 0;
+	}
+
+	public boolean canMove(int xCol, int yRow, ValidDirections direction) {
+		return canMove(yRow * nbOfColumns + xCol, direction.ordinal());
+	}
+
+	/**
+	 * Returns the move masks of all the cells (two cells per byte, the even cell inside the lower nibble),
+	 * building them at the first call. The masks must not be modified.
+	 */
+	public byte[] getMoveMask() {
+		byte[] currentMoveMask = moveMask;
+		if (currentMoveMask == null) {
+			currentMoveMask = buildMoveMask();
+			moveMask = currentMoveMask;
+		}
+		return currentMoveMask;
+	}
+
+	/**
+	 * Builds the move masks - the large rooms are split into bands of rows processed in parallel. Every band
+	 * starts on an even row, so on an even cell as well, thus two bands never write into the same byte.
+	 */
+	private byte[] buildMoveMask() {
+		byte[] newMoveMask = new byte[(getNbOfCells() + 1) >>> 1];
+		if (getNbOfCells() < PARALLEL_MASK_THRESHOLD) {
+			buildMoveMask(newMoveMask, 0, nbOfRows);
+			return newMoveMask;
+		}
+		int nbOfBands = Runtime.getRuntime().availableProcessors() * 4;
+		int rowsPerBand = Math.max(ROWS_PER_BAND_UNIT, (nbOfRows / nbOfBands + 1) & -ROWS_PER_BAND_UNIT);
+		int nbOfEffectiveBands = (nbOfRows + rowsPerBand - 1) / rowsPerBand;
+		IntStream.range(0, nbOfEffectiveBands).parallel()
+		         .forEach(band -> buildMoveMask(newMoveMask, band * rowsPerBand, Math.min(nbOfRows, (band + 1) * rowsPerBand)));
+		return newMoveMask;
+	}
+
+	private void buildMoveMask(byte[] newMoveMask, int firstRow, int lastRow) {
+		for (int yRow = firstRow; yRow < lastRow; yRow++) {
+			int rowStart = yRow * nbOfColumns;
+			for (int xCol = 0; xCol < nbOfColumns; xCol++) {
+				int cellIndex = rowStart + xCol;
+				int mask = 0;
+				if (yRow > 0 && getCell(cellIndex - nbOfColumns) == CELL_SPACE) {
+					mask |= 1;
+				}
+				if (xCol + 1 < nbOfColumns && getCell(cellIndex + 1) == CELL_SPACE) {
+					mask |= 2;
+				}
+				if (yRow + 1 < nbOfRows && getCell(cellIndex + nbOfColumns) == CELL_SPACE) {
+					mask |= 4;
+				}
+				if (xCol > 0 && getCell(cellIndex - 1) == CELL_SPACE) {
+					mask |= 8;
+				}
+				newMoveMask[cellIndex >>> 1] |= (byte) (mask << ((cellIndex & 1) << 2));
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the given coordinates are located inside the room.
+	 */
+	public boolean isInside(long xCol, long yRow) {
+		return 0L <= xCol && xCol < nbOfColumns && 0L <= yRow && yRow < nbOfRows;
 	}
-	
+
 	public String getMapElement(int xCol, int yRow){
-		return map[yRow][xCol];
+		switch (getCell(xCol, yRow)) {
+		case CELL_COLUMN:
+			return "C";
+		case CELL_WALL:
+			return "null";
+		default:
+			return "S";
+		}
 	}
-	
+
 	public int getNbOfColumns(){
-		return map.length;
+		return nbOfColumns;
 	}
-	
+
 	public int getNbOfRows(){
-		return map[0].length;
+		return nbOfRows;
+	}
+
+	public int getNbOfCells(){
+		return nbOfRows * nbOfColumns;
+	}
+
+	/**
+	 * Marks the room as shared between simulations (see {@link com.feritoth.cleaningrobot.processor.RoomCache}). The
+	 * cells of a room are never modified once it is built, so its move mask and its back-off outcomes (see
+	 * {@link com.feritoth.cleaningrobot.processor.BackOffCache}) stay valid for all of them.
+	 */
+	public void markShared(){
+		shared = true;
+	}
+
+	public boolean isShared(){
+		return shared;
+	}
+
+	/**
+	 * @return true if the cells are held outside the heap (e.g. mapped from a room file)
+	 */
+	public boolean isOffHeap(){
+		return cells == null;
 	}
 
 	@Override
 	public String toString() {
-		return "Room [map=" + Arrays.toString(map) + "]";
+		return "Room [rows=" + nbOfRows + ", columns=" + nbOfColumns + "]";
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.feritoth.cleaningrobot.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The binary room file format - a fixed size header followed by the packed cells, row by row:
+ * <pre>
+ * offset 0  - the magic number ("CRRM")
+ * offset 4  - the version of the format (int)
+ * offset 8  - the number of rows (int)
+ * offset 12 - the number of columns (int)
+ * offset 16 - the cell codes (one byte per cell, see {@link Room#CELL_SPACE}, {@link Room#CELL_COLUMN}, {@link Room#CELL_WALL})
+ * </pre>
+ * All the values are big endian. A room file is opened through a read-only memory mapping, so the cells never
+ * get copied onto the heap and the pages are shared by all the processes mapping the same file.
+ *
+ * @author Ferenc Toth
+ */
+public final class RoomFile {
+
+	public static final int MAGIC = 0x4352524D;
+	public static final int VERSION = 1;
+	public static final int HEADER_SIZE = 16;
+	/* The cells are addressed through int indexes, inside a single mapping */
+	public static final long MAX_NB_OF_CELLS = Integer.MAX_VALUE - HEADER_SIZE;
+
+	private RoomFile() {
+	}
+
+	/**
+	 * Opens the given room file through a read-only memory mapping - the mapping remains valid after the
+	 * method returns, the file channel itself being closed.
+	 *
+	 * @param roomFileLocation - the location of the room file
+	 * @return the read-only room backed by the mapped file
+	 * @throws IOException in case the file cannot be read or does not hold a valid room
+	 */
+	public static Room map(Path roomFileLocation) throws IOException {
+		try (FileChannel fileChannel = FileChannel.open(roomFileLocation, StandardOpenOption.READ)) {
+			long fileSize = fileChannel.size();
+			if (fileSize < HEADER_SIZE) {
+				throw new IOException("The file " + roomFileLocation + " is too short for a room file");
+			}
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (fileChannel.read(header, header.position()) < 0) {
+					throw new IOException("Unexpected end of the room file " + roomFileLocation);
+				}
+			}
+			header.flip();
+			int nbOfRows = readHeader(header, roomFileLocation);
+			int nbOfColumns = header.getInt();
+			long nbOfCells = (long) nbOfRows * nbOfColumns;
+			if (nbOfRows < 0 || nbOfColumns < 0 || nbOfCells > MAX_NB_OF_CELLS || HEADER_SIZE + nbOfCells > fileSize) {
+				throw new IOException("Invalid room size " + nbOfRows + "x" + nbOfColumns + " inside the file " + roomFileLocation);
+			}
+			MappedByteBuffer cells = fileChannel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, nbOfCells);
+			return new Room(nbOfRows, nbOfColumns, cells);
+		}
+	}
+
+	/**
+	 * Writes the given room into a room file, replacing its previous content.
+	 */
+	public static void write(Room room, Path roomFileLocation) throws IOException {
+		try (FileChannel fileChannel = FileChannel.open(roomFileLocation, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeFully(fileChannel, createHeader(room.getNbOfRows(), room.getNbOfColumns()));
+			ByteBuffer cells = ByteBuffer.allocate(1 << 16);
+			for (int cellIndex = 0; cellIndex < room.getNbOfCells(); cellIndex++) {
+				if (!cells.hasRemaining()) {
+					cells.flip();
+					writeFully(fileChannel, cells);
+					cells.clear();
+				}
+				cells.put(room.getCell(cellIndex));
+			}
+			cells.flip();
+			writeFully(fileChannel, cells);
+		}
+	}
+
+	/**
+	 * @return the header describing a room of the given size, ready to be written
+	 */
+	public static ByteBuffer createHeader(int nbOfRows, int nbOfColumns) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION).putInt(nbOfRows).putInt(nbOfColumns);
+		header.flip();
+		return header;
+	}
+
+	/**
+	 * Checks the magic number and the version, then reads the number of rows.
+	 */
+	private static int readHeader(ByteBuffer header, Path roomFileLocation) throws IOException {
+		if (header.getInt() != MAGIC) {
+			throw new IOException("The file " + roomFileLocation + " is not a room file");
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported room file version " + version + " inside the file " + roomFileLocation);
+		}
+		return header.getInt();
+	}
+
+	private static void writeFully(FileChannel fileChannel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			fileChannel.write(buffer);
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.feritoth.cleaningrobot.fleet;
+
+import java.util.BitSet;
+import java.util.List;
+
+import com.feritoth.cleaningrobot.core.CleanedCellRegistry;
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.PositionLog;
+import com.feritoth.cleaningrobot.core.Room;
+
+/**
+ * The coverage reached by a fleet of robots as a whole - the visited and the cleaned cells are counted
+ * only once, no matter how many robots went through them.
+ * 
+ * @author Ferenc Toth
+ */
+public class FleetCoverage {
+	
+	private final int nbOfRobots;
+	private final int nbOfFreeCells;
+	private final int nbOfVisitedCells;
+	private final int nbOfCleanedCells;
+	private final long nbOfRepeatedCleanings;
+	
+	public FleetCoverage(int nbOfRobots, int nbOfFreeCells, int nbOfVisitedCells, int nbOfCleanedCells, long nbOfRepeatedCleanings) {
+		super();
+		this.nbOfRobots = nbOfRobots;
+		this.nbOfFreeCells = nbOfFreeCells;
+		this.nbOfVisitedCells = nbOfVisitedCells;
+		this.nbOfCleanedCells = nbOfCleanedCells;
+		this.nbOfRepeatedCleanings = nbOfRepeatedCleanings;
+	}
+	
+	/**
+	 * Merges the results of the robots of the fleet.
+	 * 
+	 * @param room - the room shared by the robots
+	 * @param cleaningRobots - the robots in their final configuration
+	 * @param cleanedCellRegistry - the cells cleaned by any of the robots
+	 * @return the coverage summary of the fleet
+	 */
+	public static FleetCoverage compute(Room room, List<CleaningRobot> cleaningRobots, CleanedCellRegistry cleanedCellRegistry) {
+		int nbOfFreeCells = 0;
+		for (int cellIndex = 0; cellIndex < room.getNbOfCells(); cellIndex++) {
+			if (!room.isObstacle(cellIndex)) {
+				nbOfFreeCells++;
+			}
+		}
+		BitSet visitedCells = new BitSet(room.getNbOfCells());
+		long nbOfCleanings = 0L;
+		for (CleaningRobot cleaningRobot : cleaningRobots) {
+			PositionLog visitedPositions = cleaningRobot.getVisitedPositionLog();
+			for (int i = 0; i < visitedPositions.size(); i++) {
+				long packedPosition = visitedPositions.get(i);
+				visitedCells.set((int) (Position.unpackY(packedPosition) * room.getNbOfColumns() + Position.unpackX(packedPosition)));
+			}
+			nbOfCleanings += cleaningRobot.getCleanedPositionLog().size();
+		}
+		int nbOfCleanedCells = cleanedCellRegistry.getNbOfCleanedCells();
+		return new FleetCoverage(cleaningRobots.size(), nbOfFreeCells, visitedCells.cardinality(), nbOfCleanedCells, nbOfCleanings - nbOfCleanedCells);
+	}
+
+	public int getNbOfRobots() {
+		return nbOfRobots;
+	}
+
+	public int getNbOfFreeCells() {
+		return nbOfFreeCells;
+	}
+
+	public int getNbOfVisitedCells() {
+		return nbOfVisitedCells;
+	}
+
+	public int getNbOfCleanedCells() {
+		return nbOfCleanedCells;
+	}
+
+	/**
+	 * @return the number of cleanings done on cells already cleaned by another robot of the fleet
+	 */
+	public long getNbOfRepeatedCleanings() {
+		return nbOfRepeatedCleanings;
+	}
+
+	@Override
+	public String toString() {
+		return "FleetCoverage [robots=" + nbOfRobots + ", freeCells=" + nbOfFreeCells + ", visitedCells=" + nbOfVisitedCells
+				+ ", cleanedCells=" + nbOfCleanedCells + ", repeatedCleanings=" + nbOfRepeatedCleanings + "]";
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.feritoth.cleaningrobot.fleet;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.processor.JSONStreamingOutputWriter;
+import com.feritoth.cleaningrobot.utils.JSONKeys;
+
+/**
+ * Writes the output of a fleet (see {@link FleetSimulationRunner}) - every robot being written like the output of a
+ * single simulation.
+ *
+ * @author Ferenc Toth
+ */
+public class FleetOutputWriter extends JSONStreamingOutputWriter {
+
+	/**
+	 * Writes the output of a fleet into the given file, replacing its previous content - the final configuration
+	 * of every robot (in the order of the input), followed by the coverage reached by the fleet as a whole.
+	 *
+	 * @param cleaningRobots - the final configuration of the robots
+	 * @param fleetCoverage - the coverage summary of the fleet
+	 * @param outputFileLocation - the output file location
+	 */
+	public void writeFleetOutput(List<CleaningRobot> cleaningRobots, FleetCoverage fleetCoverage, String outputFileLocation) throws IOException {
+		try (FileChannel fileChannel = openFile(outputFileLocation)) {
+			writeFleetOutput(cleaningRobots, fleetCoverage, fileChannel);
+		}
+	}
+
+	/**
+	 * Writes the output of a fleet into the given channel - the channel is not closed.
+	 */
+	public void writeFleetOutput(List<CleaningRobot> cleaningRobots, FleetCoverage fleetCoverage, WritableByteChannel channel) throws IOException {
+		startDocument(channel);
+		writeAscii("{");
+		writeKey(JSONKeys.ROBOTS_KEY);
+		writeAscii("[");
+		for (int i = 0; i < cleaningRobots.size(); i++) {
+			if (i > 0) {
+				writeAscii(",");
+			}
+			writeRobot(cleaningRobots.get(i));
+		}
+		writeAscii("],");
+		writeKey(JSONKeys.COVERAGE_KEY);
+		writeAscii("{");
+		writeKey(JSONKeys.FREE_CELLS_KEY);
+		writeLong(fleetCoverage.getNbOfFreeCells());
+		writeAscii(",");
+		writeKey(JSONKeys.VISITED_CELLS_KEY);
+		writeLong(fleetCoverage.getNbOfVisitedCells());
+		writeAscii(",");
+		writeKey(JSONKeys.CLEANED_CELLS_KEY);
+		writeLong(fleetCoverage.getNbOfCleanedCells());
+		writeAscii(",");
+		writeKey(JSONKeys.REPEATED_CLEANINGS_KEY);
+		writeLong(fleetCoverage.getNbOfRepeatedCleanings());
+		writeAscii("}}");
+		endDocument();
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.feritoth.cleaningrobot.fleet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.core.CleanedCellRegistry;
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.OccupancyGrid;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.heatmap.CellHeatmap;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+import com.feritoth.cleaningrobot.instrumentation.SimulationPhase;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.PackedRobotController;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.processor.StreamingJSONInputReader;
+
+/**
+ * Runs several robots concurrently inside the same room, each robot on its own thread - the room itself is
+ * never modified, the robots seeing each other only through the {@link OccupancyGrid} (an occupied cell being
+ * an obstacle) and sharing the {@link CleanedCellRegistry}. The robots are always simulated by the packed engine,
+ * the only one able to join a fleet. As the robots race for the cells, the outcome of a run depends on their
+ * scheduling whenever their paths cross.
+ * 
+ * @author Ferenc Toth
+ */
+public class FleetSimulationRunner {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(FleetSimulationRunner.class);
+	
+	private final SimulationOptions options;
+	
+	public FleetSimulationRunner(SimulationOptions options) {
+		super();
+		this.options = options;
+	}
+	
+	/**
+	 * Reads the fleet from the input file, runs all its robots and writes their results, followed by the
+	 * coverage summary, into the output file.
+	 * 
+	 * @param inputFileLocation - the input file, holding the map and the "robots" array
+	 * @param outputFileLocation - the output file
+	 * @return the coverage reached by the fleet
+	 */
+	public FleetCoverage runFleet(String inputFileLocation, String outputFileLocation) {
+		SimulationListener listener = options.getSimulationListener();
+		long phaseStart = System.nanoTime();
+		List<CleaningProgram> programs = StreamingJSONInputReader.forOptions(options).readFleetPrograms(inputFileLocation);
+		try {
+			phaseStart = completePhase(listener, SimulationPhase.PARSE, phaseStart);
+			Room room = programs.get(0).getRoom();
+			CleanedCellRegistry cleanedCellRegistry = new CleanedCellRegistry(room);
+			runRobots(room, programs, new OccupancyGrid(room), cleanedCellRegistry);
+			phaseStart = completePhase(listener, SimulationPhase.SIMULATE, phaseStart);
+			List<CleaningRobot> cleaningRobots = new ArrayList<>(programs.size());
+			for (CleaningProgram program : programs) {
+				cleaningRobots.add(program.getCleaningRobot());
+			}
+			FleetCoverage fleetCoverage = FleetCoverage.compute(room, cleaningRobots, cleanedCellRegistry);
+			LOGGER.info("The coverage reached by the fleet is:" + fleetCoverage.toString());
+			new FleetOutputWriter().writeFleetOutput(cleaningRobots, fleetCoverage, outputFileLocation);
+			completePhase(listener, SimulationPhase.SERIALIZE, phaseStart);
+			return fleetCoverage;
+		} catch (IOException e) {
+			LOGGER.error("Problem encountered while writing the output into the file on position:" + outputFileLocation);
+			throw new RuntimeException("IO problem detected for the file on position:" + outputFileLocation + "\n" + e.getMessage());
+		} finally {
+			closePrograms(programs);
+		}
+	}
+	
+	/**
+	 * Places the robots on their start cells, then starts all of them at once and waits for their completion.
+	 */
+	private void runRobots(Room room, List<CleaningProgram> programs, OccupancyGrid occupancyGrid, CleanedCellRegistry cleanedCellRegistry) {
+		for (int robotId = 0; robotId < programs.size(); robotId++) {
+			Position startPosition = programs.get(robotId).getCleaningRobot().getPosition();
+			int startCell = Math.toIntExact(startPosition.getyRow() * room.getNbOfColumns() + startPosition.getxCol());
+			if (!occupancyGrid.claim(startCell, robotId)) {
+				LOGGER.error("The robots " + occupancyGrid.getOccupant(startCell) + " and " + robotId + " have the same start position:" + startPosition);
+				throw new RuntimeException("Several robots cannot start from the same position:" + startPosition);
+			}
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(programs.size());
+		CountDownLatch startSignal = new CountDownLatch(1);
+		List<Future<?>> robotRuns = new ArrayList<>(programs.size());
+		try {
+			for (int robotId = 0; robotId < programs.size(); robotId++) {
+				CleaningProgram program = programs.get(robotId);
+				PackedRobotController robotController = new PackedRobotController(false);
+				robotController.joinFleet(occupancyGrid, robotId, cleanedCellRegistry);
+				robotController.setSimulationListener(options.getSimulationListener());
+				CellHeatmap heatmap = options.getHeatmapSink() != null
+						? options.getHeatmapSink().attach(robotController, room, options.getSimulationListener()) : null;
+				robotRuns.add(executor.submit(() -> {
+					startSignal.await();
+					boolean outputNeeded = robotController.executeCleaningProcedure(program.getCleaningRobot(), room, program.getCommands());
+					if (heatmap != null && outputNeeded) {
+						heatmap.recordRun(program.getCleaningRobot());
+					}
+					return outputNeeded;
+				}));
+			}
+			startSignal.countDown();
+			for (int robotId = 0; robotId < robotRuns.size(); robotId++) {
+				awaitRobot(robotId, robotRuns.get(robotId));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	private static void awaitRobot(int robotId, Future<?> robotRun) {
+		try {
+			robotRun.get();
+		} catch (ExecutionException e) {
+			LOGGER.error("The simulation of robot " + robotId + " failed:" + e.getCause());
+			throw new RuntimeException("The simulation of robot " + robotId + " failed:" + e.getCause().getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("The fleet simulation has been interrupted");
+		}
+	}
+	
+	private static long completePhase(SimulationListener listener, SimulationPhase phase, long phaseStart) {
+		long phaseEnd = System.nanoTime();
+		if (listener != null) {
+			listener.phaseCompleted(phase, phaseEnd - phaseStart);
+		}
+		return phaseEnd;
+	}
+	
+	private static void closePrograms(List<CleaningProgram> programs) {
+		for (CleaningProgram program : programs) {
+			try {
+				program.close();
+			} catch (IOException e) {
+				LOGGER.warn("Cannot release the command source of a robot:" + e.getMessage());
+			}
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.feritoth.cleaningrobot.generator;
+
+/**
+ * The placement of the robot inside a generated room - the start cell is always kept free.
+ *
+ * @author Ferenc Toth
+ */
+public enum StartPlacement {
+
+	/* The central cell of the room */
+	CENTER,
+	/* The upper left cell of the room */
+	CORNER,
+	/* A cell drawn from the seeded generator */
+	RANDOM;
+
+	/**
+	 * Selects the start cell of the robot inside a room of the given size.
+	 *
+	 * @param nbOfRows - the number of rows of the room
+	 * @param nbOfColumns - the number of columns of the room
+	 * @param randomCell - the draw of a random cell, between 0 (inclusive) and the number of cells (exclusive)
+	 * @return the flat index of the start cell
+	 */
+	long selectStartCell(int nbOfRows, int nbOfColumns, long randomCell) {
+		switch (this) {
+		case CORNER:
+			return 0L;
+		case RANDOM:
+			return randomCell;
+		default:
+			return (long) (nbOfRows / 2) * nbOfColumns + nbOfColumns / 2;
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,235 @@
+package com.feritoth.cleaningrobot.generator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.utils.JSONKeys;
+
+/**
+ * Generates synthetic inputs, in the very format read by the application: a room with obstacles (columns and holes,
+ * possibly clustered), the start configuration of the robot, a command list following a given mix (possibly repeating
+ * a pattern) and the battery.
+ * Everything is drawn from a generator seeded by the options, so the same options always give the same file.
+ * The input is streamed row by row, respectively command by command, through a fixed buffer - only the previous row
+ * of the room is kept (respectively the pattern of a periodic command list), thus files of any size are generated
+ * within a bounded memory.
+ *
+ * @author Ferenc Toth
+ */
+public class WorkloadGenerator {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final byte[] SPACE_CELL = "\"S\"".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] COLUMN_CELL = "\"C\"".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] HOLE_CELL = "\"null\"".getBytes(StandardCharsets.US_ASCII);
+	private static final ValidCommands[] COMMANDS = ValidCommands.values();
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int bufferPosition;
+	private OutputStream outputStream;
+
+	/**
+	 * Generates an input into the given file, replacing its previous content.
+	 *
+	 * @param options - the parameters of the input
+	 * @param outputFile - the file to be written
+	 */
+	public void generate(WorkloadOptions options, Path outputFile) throws IOException {
+		try (OutputStream fileOutputStream = Files.newOutputStream(outputFile)) {
+			generate(options, fileOutputStream);
+		}
+	}
+
+	/**
+	 * Generates an input into the given stream - the stream is not closed.
+	 *
+	 * @param options - the parameters of the input
+	 * @param outputStream - the stream receiving the input
+	 */
+	public void generate(WorkloadOptions options, OutputStream outputStream) throws IOException {
+		validate(options);
+		SplittableRandom random = new SplittableRandom(options.getSeed());
+		int nbOfRows = options.getNbOfRows();
+		int nbOfColumns = options.getNbOfColumns();
+		//the random cell is always drawn, so the room does not depend on the placement of the robot
+		long startCell = options.getStartPlacement().selectStartCell(nbOfRows, nbOfColumns, random.nextLong((long) nbOfRows * nbOfColumns));
+		this.outputStream = outputStream;
+		this.bufferPosition = 0;
+		writeAscii("{");
+		writeKey(JSONKeys.MAP_KEY);
+		writeAscii("[");
+		writeMap(options, random, startCell);
+		writeAscii("],");
+		writeKey(JSONKeys.START_KEY);
+		writeAscii("{");
+		writeKey(JSONKeys.X_KEY);
+		writeAscii(Long.toString(startCell % nbOfColumns));
+		writeAscii(",");
+		writeKey(JSONKeys.Y_KEY);
+		writeAscii(Long.toString(startCell / nbOfColumns));
+		writeAscii(",");
+		writeKey(JSONKeys.DIRECTION_KEY);
+		writeAscii("\"" + options.getStartDirection().getDirection() + "\"},");
+		writeKey(JSONKeys.COMMAND_KEY);
+		writeAscii("[");
+		writeCommands(options, random);
+		writeAscii("],");
+		writeKey(JSONKeys.BATTERY_KEY);
+		writeAscii(Long.toString(options.getBattery()));
+		writeAscii("}");
+		flush();
+		this.outputStream = null;
+	}
+
+	private static void validate(WorkloadOptions options) {
+		if (options.getNbOfRows() < 1 || options.getNbOfColumns() < 1) {
+			throw new IllegalArgumentException("Invalid room size:" + options.getNbOfRows() + "x" + options.getNbOfColumns());
+		}
+		if (!isRatio(options.getObstacleDensity()) || !isRatio(options.getHoleRatio())) {
+			throw new IllegalArgumentException("The obstacle density and the hole ratio must be between 0 and 1");
+		}
+		if (!isRatio(options.getObstacleClustering()) || options.getObstacleClustering() == 1.0) {
+			throw new IllegalArgumentException("The obstacle clustering must be between 0 (inclusive) and 1 (exclusive)");
+		}
+		if (options.getNbOfCommands() < 0L) {
+			throw new IllegalArgumentException("Invalid number of commands:" + options.getNbOfCommands());
+		}
+		if (options.getCommandPeriod() < 0) {
+			throw new IllegalArgumentException("Invalid command period:" + options.getCommandPeriod());
+		}
+		double totalWeight = 0.0;
+		for (ValidCommands command : COMMANDS) {
+			if (options.getCommandWeight(command) < 0.0) {
+				throw new IllegalArgumentException("Negative weight for the command:" + command.getCommand());
+			}
+			totalWeight += options.getCommandWeight(command);
+		}
+		if (totalWeight <= 0.0 && options.getNbOfCommands() > 0L) {
+			throw new IllegalArgumentException("At least one command must have a positive weight");
+		}
+	}
+
+	private static boolean isRatio(double value) {
+		return value >= 0.0 && value <= 1.0;
+	}
+
+	/**
+	 * Writes the rows of the room - with clustering, the obstacle probability of a cell moves from the density towards
+	 * the share of obstacles among its already generated neighbours (left, upper left, upper and upper right), which
+	 * keeps the expected density while making the obstacles stick together.
+	 */
+	private void writeMap(WorkloadOptions options, SplittableRandom random, long startCell) throws IOException {
+		int nbOfColumns = options.getNbOfColumns();
+		double density = options.getObstacleDensity();
+		double clustering = options.getObstacleClustering();
+		boolean[] previousRow = new boolean[nbOfColumns];
+		boolean[] currentRow = new boolean[nbOfColumns];
+		for (int yRow = 0; yRow < options.getNbOfRows(); yRow++) {
+			writeAscii(yRow == 0 ? "[" : ",[");
+			for (int xCol = 0; xCol < nbOfColumns; xCol++) {
+				double obstacleProbability = density;
+				if (clustering > 0.0) {
+					int nbOfNeighbours = 0;
+					int nbOfObstacles = 0;
+					if (xCol > 0) {
+						nbOfNeighbours++;
+						nbOfObstacles += currentRow[xCol - 1] ? 1 : 0;
+					}
+					if (yRow > 0) {
+						for (int neighbour = Math.max(0, xCol - 1); neighbour <= Math.min(nbOfColumns - 1, xCol + 1); neighbour++) {
+							nbOfNeighbours++;
+							nbOfObstacles += previousRow[neighbour] ? 1 : 0;
+						}
+					}
+					if (nbOfNeighbours > 0) {
+						obstacleProbability = (1.0 - clustering) * density + clustering * nbOfObstacles / nbOfNeighbours;
+					}
+				}
+				boolean obstacle = random.nextDouble() < obstacleProbability && (long) yRow * nbOfColumns + xCol != startCell;
+				currentRow[xCol] = obstacle;
+				if (xCol > 0) {
+					writeByte((byte) ',');
+				}
+				writeBytes(!obstacle ? SPACE_CELL : random.nextDouble() < options.getHoleRatio() ? HOLE_CELL : COLUMN_CELL);
+			}
+			writeByte((byte) ']');
+			boolean[] swappedRow = previousRow;
+			previousRow = currentRow;
+			currentRow = swappedRow;
+		}
+	}
+
+	private void writeCommands(WorkloadOptions options, SplittableRandom random) throws IOException {
+		double[] cumulativeWeights = new double[COMMANDS.length];
+		byte[][] encodedCommands = new byte[COMMANDS.length][];
+		double totalWeight = 0.0;
+		int lastWeightedCommand = 0;
+		for (ValidCommands command : COMMANDS) {
+			totalWeight += options.getCommandWeight(command);
+			cumulativeWeights[command.ordinal()] = totalWeight;
+			encodedCommands[command.ordinal()] = ("\"" + command.getCommand() + "\"").getBytes(StandardCharsets.US_ASCII);
+			if (options.getCommandWeight(command) > 0.0) {
+				lastWeightedCommand = command.ordinal();
+			}
+		}
+		int period = options.getCommandPeriod();
+		int[] pattern = new int[(int) Math.min(period, options.getNbOfCommands())];
+		for (long i = 0; i < options.getNbOfCommands(); i++) {
+			int command = 0;
+			if (period > 0 && i >= period) {
+				command = pattern[(int) (i % period)];
+			} else {
+				double draw = random.nextDouble() * totalWeight;
+				//the commands weighing 0 are never selected, their cumulative weight equalling the one of the previous command
+				while (command < lastWeightedCommand && draw >= cumulativeWeights[command]) {
+					command++;
+				}
+				if (i < pattern.length) {
+					pattern[(int) i] = command;
+				}
+			}
+			if (i > 0) {
+				writeByte((byte) ',');
+			}
+			writeBytes(encodedCommands[command]);
+		}
+	}
+
+	private void writeKey(String key) throws IOException {
+		writeAscii("\"");
+		writeAscii(key);
+		writeAscii("\":");
+	}
+
+	private void writeAscii(String value) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			writeByte((byte) value.charAt(i));
+		}
+	}
+
+	private void writeBytes(byte[] value) throws IOException {
+		if (BUFFER_SIZE - bufferPosition < value.length) {
+			flush();
+		}
+		System.arraycopy(value, 0, buffer, bufferPosition, value.length);
+		bufferPosition += value.length;
+	}
+
+	private void writeByte(byte value) throws IOException {
+		if (bufferPosition == BUFFER_SIZE) {
+			flush();
+		}
+		buffer[bufferPosition++] = value;
+	}
+
+	private void flush() throws IOException {
+		outputStream.write(buffer, 0, bufferPosition);
+		bufferPosition = 0;
+	}
+
+}
\ No newline at end of file
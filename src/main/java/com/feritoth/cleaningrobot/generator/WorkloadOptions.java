@@ -0,0 +1,189 @@
+package com.feritoth.cleaningrobot.generator;
+
+import java.util.Arrays;
+
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+
+/**
+ * The parameters of a generated workload (see {@link WorkloadGenerator}) - the same options, seed included,
+ * always give the very same input.
+ *
+ * @author Ferenc Toth
+ */
+public class WorkloadOptions {
+
+	private long seed;
+	private int nbOfRows = 64;
+	private int nbOfColumns = 64;
+	private double obstacleDensity = 0.1;
+	private double obstacleClustering;
+	private double holeRatio = 0.5;
+	private StartPlacement startPlacement = StartPlacement.CENTER;
+	private ValidDirections startDirection = ValidDirections.NORTH;
+	private long battery = 1000L;
+	private long nbOfCommands = 1000L;
+	/* The length of the pattern repeated by the command list, 0 for a command list drawn entirely */
+	private int commandPeriod;
+	/* The relative weight of every command, indexed by its ordinal (TL, TR, A, B, C) */
+	private final double[] commandWeights = {1.0, 1.0, 1.0, 1.0, 1.0};
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public WorkloadOptions setSeed(long seed) {
+		this.seed = seed;
+		return this;
+	}
+
+	public int getNbOfRows() {
+		return nbOfRows;
+	}
+
+	public WorkloadOptions setNbOfRows(int nbOfRows) {
+		this.nbOfRows = nbOfRows;
+		return this;
+	}
+
+	public int getNbOfColumns() {
+		return nbOfColumns;
+	}
+
+	public WorkloadOptions setNbOfColumns(int nbOfColumns) {
+		this.nbOfColumns = nbOfColumns;
+		return this;
+	}
+
+	public double getObstacleDensity() {
+		return obstacleDensity;
+	}
+
+	/**
+	 * Sets the expected share of the cells holding an obstacle, between 0 and 1.
+	 */
+	public WorkloadOptions setObstacleDensity(double obstacleDensity) {
+		this.obstacleDensity = obstacleDensity;
+		return this;
+	}
+
+	public double getObstacleClustering() {
+		return obstacleClustering;
+	}
+
+	/**
+	 * Sets how much the obstacles stick together, between 0 (scattered independently) and 1 (excluded) - the higher
+	 * the clustering, the more a cell follows its already generated neighbours, the density being kept.
+	 */
+	public WorkloadOptions setObstacleClustering(double obstacleClustering) {
+		this.obstacleClustering = obstacleClustering;
+		return this;
+	}
+
+	public double getHoleRatio() {
+		return holeRatio;
+	}
+
+	/**
+	 * Sets the share of the obstacles being holes ("null" cells) instead of columns ("C" cells), between 0 and 1.
+	 */
+	public WorkloadOptions setHoleRatio(double holeRatio) {
+		this.holeRatio = holeRatio;
+		return this;
+	}
+
+	public StartPlacement getStartPlacement() {
+		return startPlacement;
+	}
+
+	public WorkloadOptions setStartPlacement(StartPlacement startPlacement) {
+		this.startPlacement = startPlacement;
+		return this;
+	}
+
+	public ValidDirections getStartDirection() {
+		return startDirection;
+	}
+
+	public WorkloadOptions setStartDirection(ValidDirections startDirection) {
+		this.startDirection = startDirection;
+		return this;
+	}
+
+	public long getBattery() {
+		return battery;
+	}
+
+	public WorkloadOptions setBattery(long battery) {
+		this.battery = battery;
+		return this;
+	}
+
+	public long getNbOfCommands() {
+		return nbOfCommands;
+	}
+
+	public WorkloadOptions setNbOfCommands(long nbOfCommands) {
+		this.nbOfCommands = nbOfCommands;
+		return this;
+	}
+
+	public int getCommandPeriod() {
+		return commandPeriod;
+	}
+
+	/**
+	 * Makes the command list periodic (e.g. a patrol loop): only its first commands are drawn, then repeated until
+	 * the end of the list - 0 by default, every command being drawn.
+	 */
+	public WorkloadOptions setCommandPeriod(int commandPeriod) {
+		this.commandPeriod = commandPeriod;
+		return this;
+	}
+
+	public double getCommandWeight(ValidCommands command) {
+		return commandWeights[command.ordinal()];
+	}
+
+	/**
+	 * Sets the relative weight of a command inside the generated command list - all the commands weigh 1 by default.
+	 */
+	public WorkloadOptions setCommandWeight(ValidCommands command, double weight) {
+		commandWeights[command.ordinal()] = weight;
+		return this;
+	}
+
+	/**
+	 * Sets the weights of the commands given by a mix such as "A:4,C:1" - the commands left out weigh 0.
+	 *
+	 * @param commandMix - the comma separated pairs of command acronym and weight
+	 */
+	public WorkloadOptions setCommandMix(String commandMix) {
+		Arrays.fill(commandWeights, 0.0);
+		for (String element : commandMix.split(",")) {
+			int separatorIndex = element.indexOf(':');
+			if (separatorIndex < 0) {
+				throw new IllegalArgumentException("Invalid command mix element:" + element);
+			}
+			setCommandWeight(toCommand(element.substring(0, separatorIndex).trim()), Double.parseDouble(element.substring(separatorIndex + 1)));
+		}
+		return this;
+	}
+
+	private static ValidCommands toCommand(String acronym) {
+		for (ValidCommands command : ValidCommands.values()) {
+			if (command.getCommand().equals(acronym)) {
+				return command;
+			}
+		}
+		throw new IllegalArgumentException("Unknown command inside the command mix:" + acronym);
+	}
+
+	@Override
+	public String toString() {
+		return "WorkloadOptions [seed=" + seed + ", rows=" + nbOfRows + ", columns=" + nbOfColumns + ", obstacleDensity=" + obstacleDensity
+				+ ", obstacleClustering=" + obstacleClustering + ", holeRatio=" + holeRatio + ", start=" + startPlacement + ", facing="
+				+ startDirection.getDirection() + ", battery=" + battery + ", commands=" + nbOfCommands + ", period=" + commandPeriod + ", commandWeights=" + Arrays.toString(commandWeights) + "]";
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.feritoth.cleaningrobot.heatmap;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.PositionLog;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+
+/**
+ * The counters of every cell of a room (see {@link HeatmapCounter}), aggregated over the runs inside that room. The runs
+ * may be simulated concurrently: the counters are held by a single array of atomic longs (32 bytes per cell), the
+ * concurrent runs mostly updating distinct cells, thus contending rarely. As a {@link SimulationListener}, the heatmap
+ * counts the back-offs and the stuck robots, the visited and cleaned cells being counted out of the logs of the robot
+ * once its run is over (see {@link #recordRun(CleaningRobot)}).
+ *
+ * @author Ferenc Toth
+ */
+public class CellHeatmap implements SimulationListener {
+
+	private static final int NB_OF_COUNTERS = HeatmapCounter.values().length;
+
+	private final int nbOfRows;
+	private final int nbOfColumns;
+	/* The hash of the map of the room (see RoomCache#hash), telling apart the rooms of the same size */
+	private final long roomHash;
+	/* The counters of the cells, counter by counter inside a cell */
+	private final AtomicLongArray counts;
+	private final LongAdder nbOfRuns = new LongAdder();
+
+	public CellHeatmap(int nbOfRows, int nbOfColumns, long roomHash) {
+		super();
+		if (nbOfRows <= 0 || nbOfColumns <= 0 || (long) nbOfRows * nbOfColumns * NB_OF_COUNTERS > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid heatmap size:" + nbOfRows + "x" + nbOfColumns);
+		}
+		this.nbOfRows = nbOfRows;
+		this.nbOfColumns = nbOfColumns;
+		this.roomHash = roomHash;
+		this.counts = new AtomicLongArray(nbOfRows * nbOfColumns * NB_OF_COUNTERS);
+	}
+
+	@Override
+	public void backOffStarted(long commandIndex, long xCol, long yRow, ValidDirections direction) {
+		counts.incrementAndGet(getSlot(xCol, yRow, HeatmapCounter.BACK_OFFS));
+	}
+
+	@Override
+	public void robotStuck(long commandIndex, long xCol, long yRow) {
+		counts.incrementAndGet(getSlot(xCol, yRow, HeatmapCounter.STUCK));
+	}
+
+	/**
+	 * Counts a completed run - its visited and cleaned cells, taken from the logs of the robot.
+	 */
+	public void recordRun(CleaningRobot cleaningRobot) {
+		recordPositions(cleaningRobot.getVisitedPositionLog(), HeatmapCounter.VISITS);
+		recordPositions(cleaningRobot.getCleanedPositionLog(), HeatmapCounter.CLEANS);
+		nbOfRuns.increment();
+	}
+
+	/**
+	 * Adds the counters of the given heatmap, which must belong to the same room.
+	 */
+	public void merge(CellHeatmap otherHeatmap) {
+		if (!hasSameRoom(otherHeatmap)) {
+			throw new IllegalArgumentException("Cannot merge the heatmap " + otherHeatmap.getName() + " into " + getName());
+		}
+		long[] otherCounts = otherHeatmap.getCounts();
+		for (int slot = 0; slot < otherCounts.length; slot++) {
+			if (otherCounts[slot] != 0L) {
+				counts.addAndGet(slot, otherCounts[slot]);
+			}
+		}
+		nbOfRuns.add(otherHeatmap.getNbOfRuns());
+	}
+
+	/**
+	 * Adds the given value to a counter of a cell.
+	 */
+	void add(int cellIndex, HeatmapCounter counter, long value) {
+		counts.addAndGet(cellIndex * NB_OF_COUNTERS + counter.ordinal(), value);
+	}
+
+	void addRuns(long runs) {
+		nbOfRuns.add(runs);
+	}
+
+	public long getCount(HeatmapCounter counter, int xCol, int yRow) {
+		return counts.get(getSlot(xCol, yRow, counter));
+	}
+
+	/**
+	 * Copies the counters - the updates done meanwhile may be partially included.
+	 *
+	 * @return the counters of the cells, cell by cell (flat index) and counter by counter inside a cell
+	 */
+	public long[] getCounts() {
+		long[] countsCopy = new long[counts.length()];
+		for (int slot = 0; slot < countsCopy.length; slot++) {
+			countsCopy[slot] = counts.get(slot);
+		}
+		return countsCopy;
+	}
+
+	public long getNbOfRuns() {
+		return nbOfRuns.sum();
+	}
+
+	public int getNbOfRows() {
+		return nbOfRows;
+	}
+
+	public int getNbOfColumns() {
+		return nbOfColumns;
+	}
+
+	public int getNbOfCells() {
+		return nbOfRows * nbOfColumns;
+	}
+
+	public long getRoomHash() {
+		return roomHash;
+	}
+
+	/**
+	 * @return the name identifying the room of the heatmap (size and hash of the map), used by the heatmap files
+	 */
+	public String getName() {
+		return getName(nbOfRows, nbOfColumns, roomHash);
+	}
+
+	static String getName(int nbOfRows, int nbOfColumns, long roomHash) {
+		return "heatmap_" + nbOfRows + "x" + nbOfColumns + "_" + String.format("%016x", roomHash);
+	}
+
+	boolean hasSameRoom(CellHeatmap otherHeatmap) {
+		return nbOfRows == otherHeatmap.nbOfRows && nbOfColumns == otherHeatmap.nbOfColumns && roomHash == otherHeatmap.roomHash;
+	}
+
+	static int getNbOfCounters() {
+		return NB_OF_COUNTERS;
+	}
+
+	private void recordPositions(PositionLog positionLog, HeatmapCounter counter) {
+		for (int i = 0; i < positionLog.size(); i++) {
+			long packedPosition = positionLog.get(i);
+			counts.incrementAndGet(getSlot(Position.unpackX(packedPosition), Position.unpackY(packedPosition), counter));
+		}
+	}
+
+	private int getSlot(long xCol, long yRow, HeatmapCounter counter) {
+		return ((int) yRow * nbOfColumns + (int) xCol) * NB_OF_COUNTERS + counter.ordinal();
+	}
+
+	@Override
+	public String toString() {
+		return "CellHeatmap [name=" + getName() + ", runs=" + getNbOfRuns() + "]";
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package com.feritoth.cleaningrobot.heatmap;
+
+/**
+ * The counters kept for every cell of a {@link CellHeatmap}.
+ *
+ * @author Ferenc Toth
+ */
+public enum HeatmapCounter {
+
+	/* The number of runs having visited the cell */
+	VISITS,
+	/* The number of runs having cleaned the cell */
+	CLEANS,
+	/* The number of back-offs started on the cell */
+	BACK_OFFS,
+	/* The number of runs ended with the robot stuck on the cell */
+	STUCK;
+
+	/**
+	 * @return the name of the counter inside the CSV heatmaps
+	 */
+	public String getColumnName() {
+		switch (this) {
+		case VISITS:
+			return "visits";
+		case CLEANS:
+			return "cleans";
+		case BACK_OFFS:
+			return "backOffs";
+		default:
+			return "stuck";
+		}
+	}
+
+}
\ No newline at end of file
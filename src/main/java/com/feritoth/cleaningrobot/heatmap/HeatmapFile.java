@@ -0,0 +1,143 @@
+package com.feritoth.cleaningrobot.heatmap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.feritoth.cleaningrobot.utils.VarLongs;
+
+/**
+ * Reads and writes the heatmap files. The binary form starts with a header (magic number "CRHM", version, number of
+ * rows and columns, hash of the map and number of runs), followed by the cells having any non-zero counter: the
+ * varint of the difference of the flat index to the previous such cell, then the varints of the counters - the
+ * untouched cells (obstacles, unreachable areas) thus take no space. The CSV form holds one line per such cell.
+ * Only the binary form may be read back, thus merged.
+ *
+ * @author Ferenc Toth
+ */
+final class HeatmapFile {
+
+	private static final int MAGIC = 0x4352484D;
+	private static final int VERSION = 1;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private HeatmapFile() {
+	}
+
+	static void writeBinary(CellHeatmap heatmap, Path heatmapFileLocation) throws IOException {
+		long[] counts = heatmap.getCounts();
+		int nbOfCounters = CellHeatmap.getNbOfCounters();
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(heatmapFileLocation), BUFFER_SIZE))) {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(heatmap.getNbOfRows());
+			output.writeInt(heatmap.getNbOfColumns());
+			output.writeLong(heatmap.getRoomHash());
+			VarLongs.writeVarLong(output, heatmap.getNbOfRuns());
+			int previousCellIndex = 0;
+			for (int cellIndex = 0; cellIndex < heatmap.getNbOfCells(); cellIndex++) {
+				if (isTouched(counts, cellIndex)) {
+					VarLongs.writeVarLong(output, cellIndex - previousCellIndex);
+					for (int counter = 0; counter < nbOfCounters; counter++) {
+						VarLongs.writeVarLong(output, counts[cellIndex * nbOfCounters + counter]);
+					}
+					previousCellIndex = cellIndex;
+				}
+			}
+		}
+	}
+
+	static void writeCsv(CellHeatmap heatmap, Path heatmapFileLocation) throws IOException {
+		long[] counts = heatmap.getCounts();
+		int nbOfCounters = CellHeatmap.getNbOfCounters();
+		try (Writer output = new BufferedWriter(Files.newBufferedWriter(heatmapFileLocation, StandardCharsets.US_ASCII), BUFFER_SIZE)) {
+			StringBuilder line = new StringBuilder("x,y");
+			for (HeatmapCounter counter : HeatmapCounter.values()) {
+				line.append(',').append(counter.getColumnName());
+			}
+			output.write(line.append('\n').toString());
+			for (int cellIndex = 0; cellIndex < heatmap.getNbOfCells(); cellIndex++) {
+				if (isTouched(counts, cellIndex)) {
+					line.setLength(0);
+					line.append(cellIndex % heatmap.getNbOfColumns()).append(',').append(cellIndex / heatmap.getNbOfColumns());
+					for (int counter = 0; counter < nbOfCounters; counter++) {
+						line.append(',').append(counts[cellIndex * nbOfCounters + counter]);
+					}
+					output.write(line.append('\n').toString());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a binary heatmap file.
+	 *
+	 * @throws IOException in case the file cannot be read or is not a binary heatmap file
+	 */
+	static CellHeatmap readBinary(Path heatmapFileLocation) throws IOException {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(heatmapFileLocation), BUFFER_SIZE))) {
+			if (input.readInt() != MAGIC) {
+				throw new IOException("The file " + heatmapFileLocation + " is not a binary heatmap file");
+			}
+			int version = input.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported heatmap version " + version + " inside the file " + heatmapFileLocation);
+			}
+			CellHeatmap heatmap = new CellHeatmap(input.readInt(), input.readInt(), input.readLong());
+			heatmap.addRuns(VarLongs.readVarLong(input));
+			long cellIndex = 0L;
+			while (true) {
+				int firstByte = input.read();
+				if (firstByte < 0) {
+					return heatmap;
+				}
+				cellIndex += readVarLong(firstByte, input);
+				if (cellIndex >= heatmap.getNbOfCells()) {
+					throw new IOException("Cell index out of the room inside the heatmap file " + heatmapFileLocation);
+				}
+				try {
+					for (HeatmapCounter counter : HeatmapCounter.values()) {
+						heatmap.add((int) cellIndex, counter, VarLongs.readVarLong(input));
+					}
+				} catch (EOFException e) {
+					throw new IOException("Truncated heatmap file " + heatmapFileLocation);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Completes a varint whose first byte has already been read (the end of file being detected on it).
+	 */
+	private static long readVarLong(int firstByte, DataInputStream input) throws IOException {
+		long value = firstByte & 0x7F;
+		int current = firstByte;
+		for (int shift = 7; (current & 0x80) != 0; shift += 7) {
+			if (shift >= 64) {
+				throw new IOException("Malformed varint");
+			}
+			current = input.readUnsignedByte();
+			value |= (long) (current & 0x7F) << shift;
+		}
+		return value;
+	}
+
+	private static boolean isTouched(long[] counts, int cellIndex) {
+		int nbOfCounters = CellHeatmap.getNbOfCounters();
+		for (int counter = 0; counter < nbOfCounters; counter++) {
+			if (counts[cellIndex * nbOfCounters + counter] != 0L) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.feritoth.cleaningrobot.heatmap;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The formats of the heatmap files written by the {@link HeatmapSink}.
+ *
+ * @author Ferenc Toth
+ */
+public enum HeatmapFormat {
+
+	/* The compact binary form, see {@link HeatmapFile} - the only one which may be merged afterwards */
+	BINARY,
+	/* One line per touched cell - readable by any tool */
+	CSV;
+
+	String getExtension() {
+		switch (this) {
+		case CSV:
+			return ".csv";
+		default:
+			return ".bin";
+		}
+	}
+
+	void write(CellHeatmap heatmap, Path heatmapFileLocation) throws IOException {
+		switch (this) {
+		case CSV:
+			HeatmapFile.writeCsv(heatmap, heatmapFileLocation);
+			break;
+		default:
+			HeatmapFile.writeBinary(heatmap, heatmapFileLocation);
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package com.feritoth.cleaningrobot.heatmap;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.instrumentation.CompositeSimulationListener;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+import com.feritoth.cleaningrobot.processor.CleaningEngine;
+import com.feritoth.cleaningrobot.processor.RoomCache;
+
+/**
+ * Aggregates the outcome of many runs - possibly concurrent - into one {@link CellHeatmap} per room, the rooms being
+ * told apart by their size and the hash of their map. The heatmaps are written as one file per room at the end; as
+ * the hash of a map is the same in every process, the binary heatmaps of separate processes may be merged afterwards.
+ *
+ * @author Ferenc Toth
+ */
+public class HeatmapSink {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(HeatmapSink.class);
+
+	private final Path exportDirectory;
+	private final HeatmapFormat exportFormat;
+	/* The heatmaps by name, respectively by room instance - the rooms shared by the room cache being hashed only once */
+	private final ConcurrentMap<String, CellHeatmap> heatmaps = new ConcurrentHashMap<>();
+	private final Map<Room, CellHeatmap> heatmapsByRoom = Collections.synchronizedMap(new WeakHashMap<>());
+
+	public HeatmapSink() {
+		this(null, HeatmapFormat.BINARY);
+	}
+
+	/**
+	 * @param exportDirectory - the directory receiving the heatmaps on {@link #export()}
+	 * @param exportFormat - the format of the exported heatmaps
+	 */
+	public HeatmapSink(Path exportDirectory, HeatmapFormat exportFormat) {
+		super();
+		this.exportDirectory = exportDirectory;
+		this.exportFormat = exportFormat;
+	}
+
+	/**
+	 * @return the heatmap of the given room, created on the first run inside a room of this map
+	 */
+	public CellHeatmap getHeatmap(Room room) {
+		CellHeatmap heatmap = heatmapsByRoom.get(room);
+		if (heatmap == null) {
+			long roomHash = RoomCache.hash(room);
+			heatmap = heatmaps.computeIfAbsent(CellHeatmap.getName(room.getNbOfRows(), room.getNbOfColumns(), roomHash),
+					name -> new CellHeatmap(room.getNbOfRows(), room.getNbOfColumns(), roomHash));
+			heatmapsByRoom.put(room, heatmap);
+		}
+		return heatmap;
+	}
+
+	/**
+	 * Prepares the given engine for a run inside the given room: the heatmap of the room listens to the engine, next
+	 * to the given listener. Once the run is over, it must be counted through {@link CellHeatmap#recordRun}.
+	 * As the engines report every back-off to a listener, the packed engine does not fast-forward the runs.
+	 *
+	 * @param listener - the listener of the simulation options (may be null)
+	 * @return the heatmap of the room
+	 */
+	public CellHeatmap attach(CleaningEngine engine, Room room, SimulationListener listener) {
+		CellHeatmap heatmap = getHeatmap(room);
+		engine.setSimulationListener(CompositeSimulationListener.of(listener, heatmap));
+		return heatmap;
+	}
+
+	/**
+	 * Adds the counters of the given binary heatmap file to the heatmap of its room.
+	 */
+	public void merge(Path heatmapFileLocation) {
+		CellHeatmap fileHeatmap;
+		try {
+			fileHeatmap = HeatmapFile.readBinary(heatmapFileLocation);
+		} catch (IOException e) {
+			LOGGER.error("Cannot read the heatmap file on position:" + heatmapFileLocation);
+			throw new RuntimeException("Heatmap reading problem detected on position:" + heatmapFileLocation + "\n" + e.getMessage());
+		}
+		heatmaps.computeIfAbsent(fileHeatmap.getName(), name -> new CellHeatmap(fileHeatmap.getNbOfRows(), fileHeatmap.getNbOfColumns(),
+				fileHeatmap.getRoomHash())).merge(fileHeatmap);
+	}
+
+	public Collection<CellHeatmap> getHeatmaps() {
+		return Collections.unmodifiableCollection(heatmaps.values());
+	}
+
+	/**
+	 * Writes the heatmaps into the export directory given at creation (if any).
+	 *
+	 * @return the files written
+	 */
+	public List<Path> export() {
+		return exportDirectory == null ? Collections.emptyList() : writeHeatmaps(exportDirectory, exportFormat);
+	}
+
+	/**
+	 * Writes every heatmap into a file of its own, named after its room (see {@link CellHeatmap#getName()}) - the rooms
+	 * without any completed run (empty battery) are skipped.
+	 *
+	 * @return the files written
+	 */
+	public List<Path> writeHeatmaps(Path directory, HeatmapFormat format) {
+		List<Path> heatmapFiles = new ArrayList<>();
+		try {
+			Files.createDirectories(directory);
+			for (CellHeatmap heatmap : heatmaps.values()) {
+				if (heatmap.getNbOfRuns() == 0L) {
+					continue;
+				}
+				Path heatmapFile = directory.resolve(heatmap.getName() + format.getExtension());
+				format.write(heatmap, heatmapFile);
+				heatmapFiles.add(heatmapFile);
+				LOGGER.info("Heatmap of " + heatmap.getNbOfRuns() + " runs written into the file:" + heatmapFile);
+			}
+		} catch (IOException e) {
+			LOGGER.error("Cannot write the heatmaps into the directory:" + directory);
+			throw new RuntimeException("Heatmap writing problem detected for the directory:" + directory + "\n" + e.getMessage());
+		}
+		return heatmapFiles;
+	}
+
+	@Override
+	public String toString() {
+		return "HeatmapSink [heatmaps=" + heatmaps.values() + "]";
+	}
+
+}
\ No newline at end of file
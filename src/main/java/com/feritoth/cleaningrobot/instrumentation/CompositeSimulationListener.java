@@ -0,0 +1,121 @@
+package com.feritoth.cleaningrobot.instrumentation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+
+/**
+ * Forwards every event to several listeners, in their order of registration.
+ * 
+ * @author Ferenc Toth
+ */
+public class CompositeSimulationListener implements SimulationListener {
+	
+	private final SimulationListener[] listeners;
+	private final boolean backOffStepListener;
+	
+	private CompositeSimulationListener(List<SimulationListener> listeners) {
+		super();
+		this.listeners = listeners.toArray(new SimulationListener[0]);
+		boolean anyBackOffStepListener = false;
+		for (SimulationListener listener : listeners) {
+			anyBackOffStepListener |= listener.isBackOffStepListener();
+		}
+		this.backOffStepListener = anyBackOffStepListener;
+	}
+	
+	/**
+	 * Combines the given listeners, ignoring the missing ones.
+	 * 
+	 * @return the combined listener, the single listener given or null if none
+	 */
+	public static SimulationListener of(SimulationListener... listeners) {
+		List<SimulationListener> presentListeners = new ArrayList<>();
+		for (SimulationListener listener : listeners) {
+			if (listener != null) {
+				presentListeners.add(listener);
+			}
+		}
+		if (presentListeners.size() <= 1) {
+			return presentListeners.isEmpty() ? null : presentListeners.get(0);
+		}
+		return new CompositeSimulationListener(presentListeners);
+	}
+	
+	/**
+	 * @return the listener itself, respectively the listeners combined by it in case of a composite listener
+	 */
+	public static List<SimulationListener> unwrap(SimulationListener listener) {
+		if (listener == null) {
+			return Collections.emptyList();
+		}
+		if (listener instanceof CompositeSimulationListener) {
+			List<SimulationListener> listeners = new ArrayList<>();
+			for (SimulationListener combinedListener : ((CompositeSimulationListener) listener).listeners) {
+				listeners.addAll(unwrap(combinedListener));
+			}
+			return listeners;
+		}
+		return Collections.singletonList(listener);
+	}
+
+	@Override
+	public void commandExecuted(long commandIndex, ValidCommands command, long xCol, long yRow, ValidDirections direction, long battery) {
+		for (SimulationListener listener : listeners) {
+			listener.commandExecuted(commandIndex, command, xCol, yRow, direction, battery);
+		}
+	}
+
+	@Override
+	public void backOffStarted(long commandIndex, long xCol, long yRow, ValidDirections direction) {
+		for (SimulationListener listener : listeners) {
+			listener.backOffStarted(commandIndex, xCol, yRow, direction);
+		}
+	}
+
+	@Override
+	public void backOffStepExecuted(long commandIndex, int backOffStage, ValidCommands command, long xCol, long yRow, ValidDirections direction, long battery) {
+		for (SimulationListener listener : listeners) {
+			if (listener.isBackOffStepListener()) {
+				listener.backOffStepExecuted(commandIndex, backOffStage, command, xCol, yRow, direction, battery);
+			}
+		}
+	}
+
+	@Override
+	public boolean isBackOffStepListener() {
+		return backOffStepListener;
+	}
+
+	@Override
+	public void backOffFinished(long commandIndex, boolean successful, long xCol, long yRow, ValidDirections direction, long batteryConsumed) {
+		for (SimulationListener listener : listeners) {
+			listener.backOffFinished(commandIndex, successful, xCol, yRow, direction, batteryConsumed);
+		}
+	}
+
+	@Override
+	public void robotStuck(long commandIndex, long xCol, long yRow) {
+		for (SimulationListener listener : listeners) {
+			listener.robotStuck(commandIndex, xCol, yRow);
+		}
+	}
+
+	@Override
+	public void batteryExhausted(long commandIndex, ValidCommands command, long battery) {
+		for (SimulationListener listener : listeners) {
+			listener.batteryExhausted(commandIndex, command, battery);
+		}
+	}
+
+	@Override
+	public void phaseCompleted(SimulationPhase phase, long durationNanos) {
+		for (SimulationListener listener : listeners) {
+			listener.phaseCompleted(phase, durationNanos);
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.feritoth.cleaningrobot.instrumentation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free latency histogram with power of two buckets (bucket i counting the durations in [2^(i-1), 2^i)
+ * nanoseconds) - the percentiles are thus approximated by the upper bound of their bucket, that is 
+ * within a factor of two.
+ * 
+ * @author Ferenc Toth
+ */
+public class LatencyHistogram {
+	
+	private static final int NB_OF_BUCKETS = 64;
+	
+	private final LongAdder[] buckets = new LongAdder[NB_OF_BUCKETS];
+	private final LongAdder totalNanos = new LongAdder();
+	
+	public LatencyHistogram() {
+		super();
+		for (int i = 0; i < NB_OF_BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+	
+	public void record(long durationNanos) {
+		long duration = Math.max(durationNanos, 0L);
+		buckets[NB_OF_BUCKETS - Long.numberOfLeadingZeros(duration)].increment();
+		totalNanos.add(duration);
+	}
+	
+	public long getCount() {
+		long count = 0L;
+		for (LongAdder bucket : buckets) {
+			count += bucket.sum();
+		}
+		return count;
+	}
+	
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+	
+	public double getMeanNanos() {
+		long count = getCount();
+		return count == 0L ? 0.0 : (double) getTotalNanos() / count;
+	}
+	
+	/**
+	 * @param percentile - the percentile, between 0 and 100
+	 * @return the upper bound of the bucket containing the given percentile, in nanoseconds
+	 */
+	public long getPercentileNanos(double percentile) {
+		long[] counts = new long[NB_OF_BUCKETS];
+		long count = 0L;
+		for (int i = 0; i < NB_OF_BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+			count += counts[i];
+		}
+		if (count == 0L) {
+			return 0L;
+		}
+		long rank = (long) Math.ceil(percentile / 100.0 * count);
+		long cumulatedCount = 0L;
+		for (int i = 0; i < NB_OF_BUCKETS; i++) {
+			cumulatedCount += counts[i];
+			if (cumulatedCount >= rank) {
+				return i == NB_OF_BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d, mean=%.3f ms, p50<=%.3f ms, p99<=%.3f ms", getCount(), getMeanNanos() / 1e6,
+				getPercentileNanos(50.0) / 1e6, getPercentileNanos(99.0) / 1e6);
+	}
+
+}
\ No newline at end of file
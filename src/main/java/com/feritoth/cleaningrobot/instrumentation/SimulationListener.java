@@ -0,0 +1,86 @@
+package com.feritoth.cleaningrobot.instrumentation;
+
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+
+/**
+ * The instrumentation hooks of the simulation - all the methods have an empty default implementation, so
+ * a listener only needs to override the events it is interested in. The events are reported synchronously
+ * from the simulation thread, with primitive arguments only, thus an implementation must be cheap and 
+ * thread-safe in case it is shared between concurrent simulations.
+ * No listener being attached (the default), the engines do not report anything.
+ * 
+ * @author Ferenc Toth
+ */
+public interface SimulationListener {
+	
+	/**
+	 * A command has been executed (including the back-off it may have triggered).
+	 * 
+	 * @param commandIndex - the index of the command inside the command list
+	 * @param command - the command executed
+	 * @param xCol - the column of the robot after the command
+	 * @param yRow - the row of the robot after the command
+	 * @param direction - the direction of the robot after the command
+	 * @param battery - the battery level after the command
+	 */
+	default void commandExecuted(long commandIndex, ValidCommands command, long xCol, long yRow, ValidDirections direction, long battery) {
+	}
+	
+	/**
+	 * The back-off strategy has been started, the robot having been blocked on the given position.
+	 */
+	default void backOffStarted(long commandIndex, long xCol, long yRow, ValidDirections direction) {
+	}
+	
+	/**
+	 * A single command of a back-off sequence has been executed - only reported to the listeners asking for
+	 * the back-off steps (see {@link #isBackOffStepListener()}).
+	 * 
+	 * @param commandIndex - the index of the command having triggered the back-off
+	 * @param backOffStage - the number of the back-off sequence being executed, starting from 1
+	 * @param command - the command of the back-off sequence
+	 * @param xCol - the column of the robot after the step
+	 * @param yRow - the row of the robot after the step
+	 * @param direction - the direction of the robot after the step
+	 * @param battery - the battery level after the step
+	 */
+	default void backOffStepExecuted(long commandIndex, int backOffStage, ValidCommands command, long xCol, long yRow, ValidDirections direction, long battery) {
+	}
+	
+	/**
+	 * @return true if the listener needs every single back-off step - the engines then execute all the back-offs
+	 * step by step, without reusing any memoized back-off outcome
+	 */
+	default boolean isBackOffStepListener() {
+		return false;
+	}
+	
+	/**
+	 * The back-off strategy has been finished.
+	 * 
+	 * @param successful - false in case the robot got stuck
+	 * @param batteryConsumed - the battery consumed by the back-off sequences
+	 */
+	default void backOffFinished(long commandIndex, boolean successful, long xCol, long yRow, ValidDirections direction, long batteryConsumed) {
+	}
+	
+	/**
+	 * The robot got stuck on the given position, the simulation being ended.
+	 */
+	default void robotStuck(long commandIndex, long xCol, long yRow) {
+	}
+	
+	/**
+	 * The battery level was insufficient for executing the given command, the simulation being ended.
+	 */
+	default void batteryExhausted(long commandIndex, ValidCommands command, long battery) {
+	}
+	
+	/**
+	 * A phase of the simulation job has been completed.
+	 */
+	default void phaseCompleted(SimulationPhase phase, long durationNanos) {
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.feritoth.cleaningrobot.instrumentation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+
+/**
+ * The default metrics implementation of the {@link SimulationListener} - the events are counted through 
+ * striped counters ({@link LongAdder}), while the phase durations go into latency histograms, so a single 
+ * instance may be shared by all the simulations of a batch without any contention.
+ * 
+ * @author Ferenc Toth
+ */
+public class SimulationMetrics implements SimulationListener {
+	
+	private static final ValidCommands[] COMMANDS = ValidCommands.values();
+	
+	private final LongAdder[] executedCommands = new LongAdder[COMMANDS.length];
+	private final LongAdder startedBackOffs = new LongAdder();
+	private final LongAdder failedBackOffs = new LongAdder();
+	private final LongAdder backOffBattery = new LongAdder();
+	private final LongAdder stuckRobots = new LongAdder();
+	private final LongAdder exhaustedBatteries = new LongAdder();
+	private final Map<SimulationPhase, LatencyHistogram> phaseLatencies = new EnumMap<>(SimulationPhase.class);
+	
+	public SimulationMetrics() {
+		super();
+		for (int i = 0; i < COMMANDS.length; i++) {
+			executedCommands[i] = new LongAdder();
+		}
+		for (SimulationPhase phase : SimulationPhase.values()) {
+			phaseLatencies.put(phase, new LatencyHistogram());
+		}
+	}
+
+	@Override
+	public void commandExecuted(long commandIndex, ValidCommands command, long xCol, long yRow, ValidDirections direction, long battery) {
+		executedCommands[command.ordinal()].increment();
+	}
+
+	@Override
+	public void backOffStarted(long commandIndex, long xCol, long yRow, ValidDirections direction) {
+		startedBackOffs.increment();
+	}
+
+	@Override
+	public void backOffFinished(long commandIndex, boolean successful, long xCol, long yRow, ValidDirections direction, long batteryConsumed) {
+		if (!successful) {
+			failedBackOffs.increment();
+		}
+		backOffBattery.add(batteryConsumed);
+	}
+
+	@Override
+	public void robotStuck(long commandIndex, long xCol, long yRow) {
+		stuckRobots.increment();
+	}
+
+	@Override
+	public void batteryExhausted(long commandIndex, ValidCommands command, long battery) {
+		exhaustedBatteries.increment();
+	}
+
+	@Override
+	public void phaseCompleted(SimulationPhase phase, long durationNanos) {
+		phaseLatencies.get(phase).record(durationNanos);
+	}
+	
+	public long getExecutedCommands(ValidCommands command) {
+		return executedCommands[command.ordinal()].sum();
+	}
+	
+	public long getExecutedCommands() {
+		long total = 0L;
+		for (LongAdder counter : executedCommands) {
+			total += counter.sum();
+		}
+		return total;
+	}
+	
+	public long getStartedBackOffs() {
+		return startedBackOffs.sum();
+	}
+	
+	public long getFailedBackOffs() {
+		return failedBackOffs.sum();
+	}
+	
+	public long getBackOffBattery() {
+		return backOffBattery.sum();
+	}
+	
+	public long getStuckRobots() {
+		return stuckRobots.sum();
+	}
+	
+	public long getExhaustedBatteries() {
+		return exhaustedBatteries.sum();
+	}
+	
+	public LatencyHistogram getPhaseLatency(SimulationPhase phase) {
+		return phaseLatencies.get(phase);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder("Simulation metrics: commands=").append(getExecutedCommands()).append(" (");
+		for (ValidCommands command : COMMANDS) {
+			report.append(command.getCommand()).append('=').append(getExecutedCommands(command)).append(command == ValidCommands.CLEAN ? "" : ", ");
+		}
+		report.append("), back-offs=").append(getStartedBackOffs()).append(" (failed=").append(getFailedBackOffs())
+		      .append(", battery=").append(getBackOffBattery()).append("), stuck=").append(getStuckRobots())
+		      .append(", battery exhausted=").append(getExhaustedBatteries());
+		for (SimulationPhase phase : SimulationPhase.values()) {
+			report.append("\n  ").append(phase).append(": ").append(phaseLatencies.get(phase));
+		}
+		return report.toString();
+	}
+
+}
\ No newline at end of file
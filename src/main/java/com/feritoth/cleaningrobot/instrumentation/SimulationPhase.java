@@ -0,0 +1,17 @@
+package com.feritoth.cleaningrobot.instrumentation;
+
+/**
+ * The phases of a simulation job, as reported to the {@link SimulationListener}.
+ * 
+ * @author Ferenc Toth
+ */
+public enum SimulationPhase {
+	
+	/* Reading the input file (with the streaming input, the commands are read during the simulation) */
+	PARSE,
+	/* Executing the commands */
+	SIMULATE,
+	/* Writing the output file */
+	SERIALIZE;
+
+}
\ No newline at end of file
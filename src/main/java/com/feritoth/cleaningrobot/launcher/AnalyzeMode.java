@@ -0,0 +1,23 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import com.feritoth.cleaningrobot.analysis.RoomAnalyzer;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * Analyses the reachability of the room of an input and its stuck cells, without simulating anything (see
+ * {@link RoomAnalyzer}): analyze &lt;input file&gt; [report file] [--room=&lt;room file&gt;].
+ *
+ * @author Ferenc Toth
+ */
+class AnalyzeMode implements LauncherMode {
+
+	@Override
+	public void run(CommandLineArguments arguments) {
+		String outputFileLocation = arguments.getNbOfPositionalArguments() > 2 ? arguments.getPositionalArgument(2) : null;
+		SimulationOptions options = new SimulationOptions().setRoomFileLocation(arguments.consumeOption("room", null));
+		arguments.verifyAllOptionsConsumed();
+		new RoomAnalyzer().analyzeProgram(arguments.getPositionalArgument(1), outputFileLocation, options);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import java.util.List;
+
+import com.feritoth.cleaningrobot.batch.BatchJob;
+import com.feritoth.cleaningrobot.batch.BatchJobLoader;
+import com.feritoth.cleaningrobot.batch.BatchSimulationRunner;
+import com.feritoth.cleaningrobot.batch.PipelineOptions;
+import com.feritoth.cleaningrobot.batch.PipelinedBatchRunner;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * Runs many simulations inside the same JVM, either on a worker pool (see {@link BatchSimulationRunner}) or through
+ * parse, simulate and serialize stages (see {@link PipelinedBatchRunner}): batch &lt;input directory|manifest file&gt;
+ * [output directory] [--threads=N] [--virtual-threads] [--pipeline] [--parse-workers=2] [--simulate-workers=N]
+ * [--serialize-workers=2] [--queue-capacity=16] [--room-cache-mb=N] [options].
+ *
+ * @author Ferenc Toth
+ */
+class BatchMode implements LauncherMode {
+
+	@Override
+	public void run(CommandLineArguments arguments) {
+		String jobSource = arguments.getPositionalArgument(1);
+		String outputDirectory = arguments.getNbOfPositionalArguments() > 2 ? arguments.getPositionalArgument(2) : null;
+		int nbOfWorkers = arguments.consumeIntOption("threads", Runtime.getRuntime().availableProcessors());
+		boolean virtualThreads = arguments.consumeFlag("virtual-threads");
+		boolean pipelined = arguments.consumeFlag("pipeline");
+		PipelineOptions pipelineOptions = new PipelineOptions();
+		pipelineOptions.setNbOfParseWorkers(arguments.consumeIntOption("parse-workers", pipelineOptions.getNbOfParseWorkers()));
+		pipelineOptions.setNbOfSimulateWorkers(arguments.consumeIntOption("simulate-workers", nbOfWorkers));
+		pipelineOptions.setNbOfSerializeWorkers(arguments.consumeIntOption("serialize-workers", pipelineOptions.getNbOfSerializeWorkers()));
+		pipelineOptions.setQueueCapacity(arguments.consumeIntOption("queue-capacity", pipelineOptions.getQueueCapacity()));
+		SimulationOptions options = LauncherOptions.parseSimulationOptions(arguments, false);
+		LauncherOptions.parseRoomCacheOption(arguments, options);
+		arguments.verifyAllOptionsConsumed();
+		if (pipelined && virtualThreads) {
+			throw new IllegalArgumentException("The --virtual-threads option is not available for the pipelined batch");
+		}
+		List<BatchJob> jobs = new BatchJobLoader().loadJobs(jobSource, outputDirectory);
+		if (pipelined) {
+			new PipelinedBatchRunner(options, pipelineOptions).runJobs(jobs);
+		} else {
+			new BatchSimulationRunner(options, nbOfWorkers, virtualThreads).runJobs(jobs);
+		}
+		LauncherOptions.completeRun(options);
+	}
+
+}
\ No newline at end of file
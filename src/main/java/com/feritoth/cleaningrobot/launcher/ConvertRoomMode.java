@@ -0,0 +1,20 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import com.feritoth.cleaningrobot.core.RoomFile;
+import com.feritoth.cleaningrobot.processor.RoomFileConverter;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * Converts the map of an input into a binary room file (see {@link RoomFile}): convert-room &lt;input file&gt; &lt;room file&gt;.
+ *
+ * @author Ferenc Toth
+ */
+class ConvertRoomMode implements LauncherMode {
+
+	@Override
+	public void run(CommandLineArguments arguments) {
+		arguments.verifyAllOptionsConsumed();
+		new RoomFileConverter().convert(arguments.getPositionalArgument(1), arguments.getPositionalArgument(2));
+	}
+
+}
\ No newline at end of file
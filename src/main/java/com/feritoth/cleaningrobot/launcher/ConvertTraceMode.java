@@ -0,0 +1,19 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import com.feritoth.cleaningrobot.trace.TraceFileConverter;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * Converts a binary trace file into NDJSON (see {@link TraceFileConverter}): convert-trace &lt;binary trace file&gt; &lt;NDJSON file&gt;.
+ *
+ * @author Ferenc Toth
+ */
+class ConvertTraceMode implements LauncherMode {
+
+	@Override
+	public void run(CommandLineArguments arguments) {
+		arguments.verifyAllOptionsConsumed();
+		new TraceFileConverter().convert(arguments.getPositionalArgument(1), arguments.getPositionalArgument(2));
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import com.feritoth.cleaningrobot.fleet.FleetSimulationRunner;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * Runs the robots of the "robots" array concurrently inside the same room (see {@link FleetSimulationRunner}):
+ * fleet &lt;input file&gt; &lt;output file&gt; [options].
+ *
+ * @author Ferenc Toth
+ */
+class FleetMode implements LauncherMode {
+
+	@Override
+	public void run(CommandLineArguments arguments) {
+		String inputFileLocation = arguments.getPositionalArgument(1);
+		String outputFileLocation = arguments.getPositionalArgument(2);
+		SimulationOptions options = LauncherOptions.parseSimulationOptions(arguments, false);
+		arguments.verifyAllOptionsConsumed();
+		new FleetSimulationRunner(options).runFleet(inputFileLocation, outputFileLocation);
+		LauncherOptions.completeRun(options);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.generator.StartPlacement;
+import com.feritoth.cleaningrobot.generator.WorkloadGenerator;
+import com.feritoth.cleaningrobot.generator.WorkloadOptions;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * Generates a synthetic input (see {@link WorkloadGenerator}): generate &lt;output file&gt; [--seed=0] [--rows=64]
+ * [--columns=64] [--obstacle-density=0.1] [--clustering=0] [--hole-ratio=0.5] [--start=center|corner|random] [--facing=N]
+ * [--battery=1000] [--commands=1000] [--period=0] [--mix=TL:1,TR:1,A:1,B:1,C:1].
+ *
+ * @author Ferenc Toth
+ */
+class GenerateMode implements LauncherMode {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(GenerateMode.class);
+
+	@Override
+	public void run(CommandLineArguments arguments) {
+		String outputFileLocation = arguments.getPositionalArgument(1);
+		WorkloadOptions options = new WorkloadOptions();
+		options.setSeed(arguments.consumeLongOption("seed", options.getSeed()));
+		options.setNbOfRows(arguments.consumeIntOption("rows", options.getNbOfRows()));
+		options.setNbOfColumns(arguments.consumeIntOption("columns", options.getNbOfColumns()));
+		options.setObstacleDensity(arguments.consumeDoubleOption("obstacle-density", options.getObstacleDensity()));
+		options.setObstacleClustering(arguments.consumeDoubleOption("clustering", options.getObstacleClustering()));
+		options.setHoleRatio(arguments.consumeDoubleOption("hole-ratio", options.getHoleRatio()));
+		options.setStartPlacement(StartPlacement.valueOf(arguments.consumeOption("start", options.getStartPlacement().name()).toUpperCase()));
+		options.setStartDirection(LauncherOptions.toDirection(arguments.consumeOption("facing", options.getStartDirection().getDirection())));
+		options.setBattery(arguments.consumeLongOption("battery", options.getBattery()));
+		options.setNbOfCommands(arguments.consumeLongOption("commands", options.getNbOfCommands()));
+		options.setCommandPeriod(arguments.consumeIntOption("period", options.getCommandPeriod()));
+		String commandMix = arguments.consumeOption("mix", null);
+		if (commandMix != null) {
+			options.setCommandMix(commandMix);
+		}
+		arguments.verifyAllOptionsConsumed();
+		try {
+			new WorkloadGenerator().generate(options, Paths.get(outputFileLocation));
+		} catch (IOException e) {
+			LOGGER.error("Cannot write the generated input into the file on position:" + outputFileLocation);
+			throw new RuntimeException("Output writing problem detected for the file on position:" + outputFileLocation + "\n" + e.getMessage());
+		}
+		LOGGER.info("Generated input: " + options);
+	}
+
+}
\ No newline at end of file
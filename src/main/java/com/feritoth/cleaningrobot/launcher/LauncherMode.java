@@ -0,0 +1,20 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * A mode of the application, selected by the first argument of the command line (see {@link LauncherModes}).
+ * A mode reads its own positional arguments and options, rejects the options left unknown, then runs.
+ *
+ * @author Ferenc Toth
+ */
+public interface LauncherMode {
+
+	/**
+	 * Runs the mode.
+	 *
+	 * @param arguments - the command line arguments, the name of the mode included (if any)
+	 */
+	void run(CommandLineArguments arguments);
+
+}
\ No newline at end of file
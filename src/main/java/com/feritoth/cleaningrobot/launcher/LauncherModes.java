@@ -0,0 +1,45 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The modes of the application by name - a command line not starting with the name of a mode runs a single simulation.
+ *
+ * @author Ferenc Toth
+ */
+public final class LauncherModes {
+
+	private static final LauncherMode SINGLE_SIMULATION_MODE = new SingleSimulationMode();
+	private static final Map<String, LauncherMode> MODES = createModes();
+
+	private LauncherModes() {
+	}
+
+	/**
+	 * Selects the mode named by the first argument of the command line.
+	 *
+	 * @param firstArgument - the first positional argument of the command line
+	 * @return the named mode, respectively the single simulation mode for any other argument (the input file)
+	 */
+	public static LauncherMode select(String firstArgument) {
+		return MODES.getOrDefault(firstArgument, SINGLE_SIMULATION_MODE);
+	}
+
+	private static Map<String, LauncherMode> createModes() {
+		Map<String, LauncherMode> modes = new LinkedHashMap<>();
+		modes.put("batch", new BatchMode());
+		modes.put("fleet", new FleetMode());
+		modes.put("serve", new ServeMode());
+		modes.put("convert-room", new ConvertRoomMode());
+		modes.put("plan", new PlanMode());
+		modes.put("analyze", new AnalyzeMode());
+		modes.put("generate", new GenerateMode());
+		modes.put("sweep", new SweepMode());
+		modes.put("merge-heatmaps", new MergeHeatmapsMode());
+		modes.put("convert-trace", new ConvertTraceMode());
+		return Collections.unmodifiableMap(modes);
+	}
+
+}
\ No newline at end of file
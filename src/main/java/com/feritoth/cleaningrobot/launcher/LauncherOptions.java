@@ -0,0 +1,136 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.cache.ResultCache;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.heatmap.HeatmapFormat;
+import com.feritoth.cleaningrobot.heatmap.HeatmapSink;
+import com.feritoth.cleaningrobot.instrumentation.CompositeSimulationListener;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+import com.feritoth.cleaningrobot.instrumentation.SimulationMetrics;
+import com.feritoth.cleaningrobot.processor.ChunkedRobotController;
+import com.feritoth.cleaningrobot.processor.EngineType;
+import com.feritoth.cleaningrobot.processor.RoomCache;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.trace.TraceFormat;
+import com.feritoth.cleaningrobot.trace.TraceOverflowPolicy;
+import com.feritoth.cleaningrobot.trace.TraceRecorder;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * The parsing of the options shared by several modes, respectively the completion of the modes running simulations.
+ *
+ * @author Ferenc Toth
+ */
+final class LauncherOptions {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(LauncherOptions.class);
+
+	private LauncherOptions() {
+	}
+
+	/**
+	 * Builds the simulation options out of the command line arguments.
+	 * 
+	 * @param arguments - the command line arguments
+	 * @param singleSimulation - true for the single simulation mode, the only one taking checkpoints (a checkpoint
+	 * file following one simulation)
+	 * @return the simulation options
+	 */
+	static SimulationOptions parseSimulationOptions(CommandLineArguments arguments, boolean singleSimulation) {
+		SimulationOptions options = new SimulationOptions();
+		options.setEngineType(EngineType.valueOf(arguments.consumeOption("engine", EngineType.STANDARD.name()).toUpperCase()));
+		options.setStreamingInput(arguments.consumeFlag("streaming"));
+		options.setBackOffCacheEnabled(!arguments.consumeFlag("no-backoff-cache"));
+		options.setFastForwardEnabled(!arguments.consumeFlag("no-fast-forward"));
+		options.setChunkSize(arguments.consumeIntOption("chunk-size", ChunkedRobotController.DEFAULT_CHUNK_SIZE));
+		options.setStepLogging(arguments.consumeFlag("step-logging"));
+		options.setRoomFileLocation(arguments.consumeOption("room", null));
+		options.setCheckpointFileLocation(arguments.consumeOption("checkpoint", null));
+		options.setCheckpointEveryCommands(arguments.consumeLongOption("checkpoint-every", 0L));
+		options.setCheckpointIntervalMillis(arguments.consumeLongOption("checkpoint-interval-ms", 0L));
+		options.setResume(arguments.consumeFlag("resume"));
+		options.setMinCoverage(arguments.consumeLongOption("min-coverage", 0L));
+		String resultCacheLocation = arguments.consumeOption("result-cache", null);
+		long resultCacheMegabytes = arguments.consumeLongOption("result-cache-mb", ResultCache.DEFAULT_MAX_BYTES >> 20);
+		if (resultCacheLocation != null) {
+			options.setResultCache(new ResultCache(Paths.get(resultCacheLocation), resultCacheMegabytes << 20));
+		}
+		if (options.isResume() && options.getCheckpointFileLocation() == null) {
+			throw new IllegalArgumentException("The --resume option requires a --checkpoint file");
+		}
+		if (options.getCheckpointFileLocation() != null && options.getEngineType() != EngineType.PACKED) {
+			throw new IllegalArgumentException("The --checkpoint and --resume options require the packed engine (--engine=packed)");
+		}
+		if (!singleSimulation && options.getCheckpointFileLocation() != null) {
+			throw new IllegalArgumentException("The --checkpoint and --resume options are only available for a single simulation");
+		}
+		String heatmapDirectory = arguments.consumeOption("heatmap", null);
+		HeatmapFormat heatmapFormat = HeatmapFormat.valueOf(arguments.consumeOption("heatmap-format", HeatmapFormat.BINARY.name()).toUpperCase());
+		if (heatmapDirectory != null) {
+			options.setHeatmapSink(new HeatmapSink(Paths.get(heatmapDirectory), heatmapFormat));
+		}
+		if (arguments.consumeFlag("metrics")) {
+			options.setSimulationListener(new SimulationMetrics());
+		}
+		return options;
+	}
+
+	/**
+	 * Enables the process-wide room cache for the modes reading many inputs (batch, pipeline and server), unless 
+	 * disabled by a zero limit.
+	 */
+	static void parseRoomCacheOption(CommandLineArguments arguments, SimulationOptions options) {
+		long roomCacheMegabytes = arguments.consumeLongOption("room-cache-mb", -1L);
+		if (roomCacheMegabytes == 0L) {
+			return;
+		}
+		if (roomCacheMegabytes > 0L) {
+			RoomCache.getShared().setMaxFootprint(roomCacheMegabytes << 20);
+		}
+		options.setRoomCache(RoomCache.getShared());
+	}
+
+	/**
+	 * Reads the trace options, without creating the trace file yet - tracing is only available for a single
+	 * simulation, the recorder following one robot at a time.
+	 * 
+	 * @return the factory of the trace recorder, null when no trace is requested
+	 */
+	static Supplier<TraceRecorder> parseTraceOptions(CommandLineArguments arguments) {
+		String traceFileLocation = arguments.consumeOption("trace", null);
+		TraceFormat traceFormat = TraceFormat.valueOf(arguments.consumeOption("trace-format", TraceFormat.NDJSON.name()).toUpperCase());
+		int traceCapacity = arguments.consumeIntOption("trace-buffer", TraceRecorder.DEFAULT_CAPACITY);
+		TraceOverflowPolicy overflowPolicy = TraceOverflowPolicy.valueOf(arguments.consumeOption("trace-overflow", TraceOverflowPolicy.WAIT.name()).toUpperCase());
+		return traceFileLocation == null ? null : () -> new TraceRecorder(traceFileLocation, traceFormat, traceCapacity, overflowPolicy);
+	}
+
+	static ValidDirections toDirection(String acronym) {
+		for (ValidDirections direction : ValidDirections.values()) {
+			if (direction.getDirection().equals(acronym)) {
+				return direction;
+			}
+		}
+		throw new IllegalArgumentException("Unknown direction:" + acronym);
+	}
+
+	/**
+	 * Logs the metrics collected by the simulations and writes their heatmaps (if requested).
+	 */
+	static void completeRun(SimulationOptions options) {
+		for (SimulationListener listener : CompositeSimulationListener.unwrap(options.getSimulationListener())) {
+			if (listener instanceof SimulationMetrics) {
+				LOGGER.info(listener.toString());
+			}
+		}
+		if (options.getHeatmapSink() != null) {
+			options.getHeatmapSink().export();
+		}
+	}
+
+}
\ No newline at end of file
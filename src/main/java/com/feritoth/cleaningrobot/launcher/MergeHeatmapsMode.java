@@ -0,0 +1,29 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import java.nio.file.Paths;
+
+import com.feritoth.cleaningrobot.heatmap.HeatmapFormat;
+import com.feritoth.cleaningrobot.heatmap.HeatmapSink;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * Adds up the binary heatmaps written by separate runs, room by room (see {@link HeatmapSink}): merge-heatmaps
+ * &lt;output directory&gt; &lt;binary heatmap file&gt;... [--heatmap-format=binary|csv].
+ *
+ * @author Ferenc Toth
+ */
+class MergeHeatmapsMode implements LauncherMode {
+
+	@Override
+	public void run(CommandLineArguments arguments) {
+		String outputDirectory = arguments.getPositionalArgument(1);
+		HeatmapFormat heatmapFormat = HeatmapFormat.valueOf(arguments.consumeOption("heatmap-format", HeatmapFormat.BINARY.name()).toUpperCase());
+		arguments.verifyAllOptionsConsumed();
+		HeatmapSink heatmapSink = new HeatmapSink(Paths.get(outputDirectory), heatmapFormat);
+		for (int argumentIndex = 2; argumentIndex < arguments.getNbOfPositionalArguments(); argumentIndex++) {
+			heatmapSink.merge(Paths.get(arguments.getPositionalArgument(argumentIndex)));
+		}
+		heatmapSink.export();
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.feritoth.cleaningrobot.planner.CoveragePlanner;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * Plans a program cleaning every cell reachable by the robot of an input, written as a complete input (see
+ * {@link CoveragePlanner}): plan &lt;input file&gt; &lt;output file&gt; [--tile-size=64] [--room=&lt;room file&gt;].
+ *
+ * @author Ferenc Toth
+ */
+class PlanMode implements LauncherMode {
+
+	@Override
+	public void run(CommandLineArguments arguments) {
+		int tileSize = arguments.consumeIntOption("tile-size", CoveragePlanner.DEFAULT_TILE_SIZE);
+		SimulationOptions options = new SimulationOptions().setRoomFileLocation(arguments.consumeOption("room", null));
+		arguments.verifyAllOptionsConsumed();
+		new CoveragePlanner(tileSize, ForkJoinPool.commonPool()).planProgram(arguments.getPositionalArgument(1), arguments.getPositionalArgument(2), options);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.server.ServerOptions;
+import com.feritoth.cleaningrobot.server.SimulationServer;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * Keeps serving simulation requests on the loopback interface (see {@link SimulationServer}): serve [--port=8080]
+ * [--workers=N] [--queue=64] [--timeout-ms=30000] [--max-request-bytes=N] [--room-cache-mb=N] [options].
+ *
+ * @author Ferenc Toth
+ */
+class ServeMode implements LauncherMode {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ServeMode.class);
+
+	@Override
+	public void run(CommandLineArguments arguments) {
+		ServerOptions serverOptions = new ServerOptions();
+		serverOptions.setPort(arguments.consumeIntOption("port", serverOptions.getPort()));
+		serverOptions.setNbOfWorkers(arguments.consumeIntOption("workers", serverOptions.getNbOfWorkers()));
+		serverOptions.setQueueCapacity(arguments.consumeIntOption("queue", serverOptions.getQueueCapacity()));
+		serverOptions.setTimeoutMillis(arguments.consumeLongOption("timeout-ms", serverOptions.getTimeoutMillis()));
+		serverOptions.setMaxRequestBytes(arguments.consumeIntOption("max-request-bytes", serverOptions.getMaxRequestBytes()));
+		SimulationOptions options = LauncherOptions.parseSimulationOptions(arguments, false);
+		LauncherOptions.parseRoomCacheOption(arguments, options);
+		arguments.verifyAllOptionsConsumed();
+		SimulationServer server = new SimulationServer(options, serverOptions);
+		try {
+			server.start();
+		} catch (IOException e) {
+			LOGGER.error("Cannot start the simulation server on port:" + serverOptions.getPort());
+			throw new RuntimeException("Cannot start the simulation server on port:" + serverOptions.getPort() + "\n" + e.getMessage());
+		}
+		//the server threads keep the JVM alive, until it gets terminated
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			server.stop();
+			LauncherOptions.completeRun(options);
+		}));
+	}
+
+}
\ No newline at end of file
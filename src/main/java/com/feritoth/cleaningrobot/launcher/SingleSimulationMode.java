@@ -0,0 +1,40 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import java.util.function.Supplier;
+
+import com.feritoth.cleaningrobot.instrumentation.CompositeSimulationListener;
+import com.feritoth.cleaningrobot.processor.JSONInputConverter;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.trace.TraceRecorder;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * Runs a single simulation, optionally recording its trajectory (see {@link TraceRecorder}):
+ * &lt;input file&gt; &lt;output file&gt; [--trace=&lt;file&gt;] [--trace-format=ndjson|binary] [--trace-buffer=N]
+ * [--trace-overflow=wait|drop] [options].
+ *
+ * @author Ferenc Toth
+ */
+class SingleSimulationMode implements LauncherMode {
+
+	@Override
+	public void run(CommandLineArguments arguments) {
+		String inputFileLocation = arguments.getPositionalArgument(0);
+		String outputFileLocation = arguments.getPositionalArgument(1);
+		Supplier<TraceRecorder> traceRecorderFactory = LauncherOptions.parseTraceOptions(arguments);
+		SimulationOptions options = LauncherOptions.parseSimulationOptions(arguments, true);
+		arguments.verifyAllOptionsConsumed();
+		//the trace file gets created (thus a previous trace overwritten) only once all the options are known to be valid
+		TraceRecorder traceRecorder = traceRecorderFactory == null ? null : traceRecorderFactory.get();
+		options.setSimulationListener(CompositeSimulationListener.of(options.getSimulationListener(), traceRecorder));
+		try {
+			new JSONInputConverter().prepareProgramInput(inputFileLocation, outputFileLocation, options);
+		} finally {
+			if (traceRecorder != null) {
+				traceRecorder.close();
+			}
+		}
+		LauncherOptions.completeRun(options);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.sweep.SweepFormat;
+import com.feritoth.cleaningrobot.sweep.SweepOptions;
+import com.feritoth.cleaningrobot.sweep.SweepRunner;
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * Runs the command list of an input from every selected start cell, direction and battery, writing one summary line
+ * per run (see {@link SweepRunner}): sweep &lt;input file&gt; &lt;output file&gt; [--columns=0:9] [--rows=0:9]
+ * [--directions=N,E,S,W] [--batteries=100:1000:100] [--format=csv|ndjson] [--threads=N] [--runs-per-block=1024] [options].
+ *
+ * @author Ferenc Toth
+ */
+class SweepMode implements LauncherMode {
+
+	@Override
+	public void run(CommandLineArguments arguments) {
+		SweepOptions sweepOptions = new SweepOptions();
+		String columnRange = arguments.consumeOption("columns", null);
+		if (columnRange != null) {
+			sweepOptions.setColumns(columnRange);
+		}
+		String rowRange = arguments.consumeOption("rows", null);
+		if (rowRange != null) {
+			sweepOptions.setRows(rowRange);
+		}
+		String directionList = arguments.consumeOption("directions", null);
+		if (directionList != null) {
+			sweepOptions.setDirections(directionList);
+		}
+		String batterySpecification = arguments.consumeOption("batteries", null);
+		if (batterySpecification != null) {
+			sweepOptions.setBatteries(batterySpecification);
+		}
+		sweepOptions.setFormat(SweepFormat.valueOf(arguments.consumeOption("format", sweepOptions.getFormat().name()).toUpperCase()));
+		sweepOptions.setNbOfWorkers(arguments.consumeIntOption("threads", sweepOptions.getNbOfWorkers()));
+		sweepOptions.setRunsPerBlock(arguments.consumeIntOption("runs-per-block", sweepOptions.getRunsPerBlock()));
+		SimulationOptions options = LauncherOptions.parseSimulationOptions(arguments, false);
+		arguments.verifyAllOptionsConsumed();
+		new SweepRunner(options).runSweep(arguments.getPositionalArgument(1), arguments.getPositionalArgument(2), sweepOptions);
+		LauncherOptions.completeRun(options);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.feritoth.cleaningrobot.planner;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.utils.JSONChannelWriter;
+import com.feritoth.cleaningrobot.utils.JSONKeys;
+
+/**
+ * Writes a complete cleaning program - the map of the room, the start configuration of the robot, the commands and
+ * the battery - in the very format of the inputs, thus runnable by the simulation (see {@link CoveragePlanner}).
+ *
+ * @author Ferenc Toth
+ */
+public class CleaningProgramWriter extends JSONChannelWriter {
+
+	/**
+	 * Writes the program into the given file, replacing its previous content.
+	 *
+	 * @param room - the room to be cleaned
+	 * @param cleaningRobot - the robot in its start configuration
+	 * @param commands - the commands of the program
+	 * @param outputFileLocation - the output file location
+	 */
+	public void writeCleaningProgram(Room room, CleaningRobot cleaningRobot, List<ValidCommands> commands, String outputFileLocation) throws IOException {
+		try (FileChannel fileChannel = openFile(outputFileLocation)) {
+			startDocument(fileChannel);
+			writeAscii("{");
+			writeKey(JSONKeys.MAP_KEY);
+			writeAscii("[");
+			for (int yRow = 0; yRow < room.getNbOfRows(); yRow++) {
+				writeAscii(yRow == 0 ? "[" : ",[");
+				for (int xCol = 0; xCol < room.getNbOfColumns(); xCol++) {
+					writeAscii(xCol == 0 ? "\"" : ",\"");
+					writeAscii(room.getMapElement(xCol, yRow));
+					writeAscii("\"");
+				}
+				writeAscii("]");
+			}
+			writeAscii("],");
+			writeKey(JSONKeys.START_KEY);
+			writeAscii("{");
+			writeKey(JSONKeys.X_KEY);
+			writeLong(cleaningRobot.getPosition().getxCol());
+			writeAscii(",");
+			writeKey(JSONKeys.Y_KEY);
+			writeLong(cleaningRobot.getPosition().getyRow());
+			writeAscii(",");
+			writeKey(JSONKeys.DIRECTION_KEY);
+			writeAscii("\"");
+			writeAscii(cleaningRobot.getDirection().getDirection());
+			writeAscii("\"},");
+			writeKey(JSONKeys.COMMAND_KEY);
+			writeAscii("[");
+			for (int i = 0; i < commands.size(); i++) {
+				writeAscii(i == 0 ? "\"" : ",\"");
+				writeAscii(commands.get(i).getCommand());
+				writeAscii("\"");
+			}
+			writeAscii("],");
+			writeKey(JSONKeys.BATTERY_KEY);
+			writeLong(cleaningRobot.getBattery());
+			writeAscii("}");
+			endDocument();
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.feritoth.cleaningrobot.planner;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.feritoth.cleaningrobot.core.ValidCommands;
+
+/**
+ * A command program covering all the cells reachable from a start position, as produced by the {@link CoveragePlanner}.
+ * The commands are kept as ordinals inside a byte array, the list returned by {@link #getCommands()} being a read-only
+ * view on top of it, thus even the programs of the rooms with millions of cells remain compact.
+ * 
+ * @author Ferenc Toth
+ */
+public class CoveragePlan {
+	
+	private static final ValidCommands[] COMMANDS = ValidCommands.values();
+	/* The battery consumption, indexed by the ordinal of the command (TL, TR, A, B, C) */
+	private static final long[] COMMAND_COST = {1L, 1L, 2L, 3L, 5L};
+	
+	private byte[] commands = new byte[1 << 10];
+	private int nbOfCommands;
+	private long nbOfCoveredCells;
+	private long batteryCost;
+	private long requiredBattery = 1L;
+	
+	CoveragePlan() {
+		super();
+	}
+	
+	/**
+	 * Appends a command, keeping track of the battery needed for executing the program up to its end - the turns and
+	 * the cleaning need some battery left after their execution, while the moves may use the battery up completely.
+	 */
+	void add(ValidCommands command) {
+		if (nbOfCommands == commands.length) {
+			commands = Arrays.copyOf(commands, Math.multiplyExact(nbOfCommands, 2));
+		}
+		commands[nbOfCommands++] = (byte) command.ordinal();
+		batteryCost += COMMAND_COST[command.ordinal()];
+		boolean move = command == ValidCommands.ADVANCE || command == ValidCommands.BACK;
+		requiredBattery = Math.max(requiredBattery, move ? batteryCost : batteryCost + 1L);
+		if (command == ValidCommands.CLEAN) {
+			nbOfCoveredCells++;
+		}
+	}
+	
+	/**
+	 * @return the battery consumed by the given command
+	 */
+	static long getCost(ValidCommands command) {
+		return COMMAND_COST[command.ordinal()];
+	}
+	
+	/**
+	 * @return the commands of the program, as a read-only list
+	 */
+	public List<ValidCommands> getCommands() {
+		return new AbstractList<ValidCommands>() {
+
+			@Override
+			public ValidCommands get(int index) {
+				if (index < 0 || index >= nbOfCommands) {
+					throw new IndexOutOfBoundsException("Index: " + index + ", size: " + nbOfCommands);
+				}
+				return COMMANDS[commands[index]];
+			}
+
+			@Override
+			public int size() {
+				return nbOfCommands;
+			}
+		};
+	}
+	
+	public int getNbOfCommands() {
+		return nbOfCommands;
+	}
+	
+	/**
+	 * @return the number of cells cleaned by the program, i.e. all the cells reachable from the start position
+	 */
+	public long getNbOfCoveredCells() {
+		return nbOfCoveredCells;
+	}
+	
+	/**
+	 * @return the battery consumed by the complete program
+	 */
+	public long getBatteryCost() {
+		return batteryCost;
+	}
+	
+	/**
+	 * @return the smallest initial battery level allowing the complete program to be executed
+	 */
+	public long getRequiredBattery() {
+		return requiredBattery;
+	}
+	
+	public boolean isWithinBudget(long battery) {
+		return battery >= requiredBattery;
+	}
+
+	@Override
+	public String toString() {
+		return "CoveragePlan [commands=" + nbOfCommands + ", coveredCells=" + nbOfCoveredCells + ", batteryCost=" + batteryCost
+				+ ", requiredBattery=" + requiredBattery + "]";
+	}
+
+}
\ No newline at end of file
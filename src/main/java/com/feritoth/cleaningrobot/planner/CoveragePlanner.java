@@ -0,0 +1,597 @@
+package com.feritoth.cleaningrobot.planner;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.processor.StreamingJSONInputReader;
+
+/**
+ * Plans a command program cleaning every free cell reachable from a start position, with the usual battery costs
+ * (TL/TR 1, A 2, B 3, C 5). The planning goes in three steps:
+ * <ol>
+ * <li>the room is split into square tiles, every tile getting a spanning forest of its free cells - the tiles are
+ * processed in parallel through fork/join, the depth-first search of a tile preferring to go straight on, which gives
+ * long straight runs (spirals inside the open areas);</li>
+ * <li>the forests are connected across the tile borders through a union-find, giving a spanning tree of every region;</li>
+ * <li>the tree holding the start position is walked depth-first, every cell being cleaned at its first visit. The 
+ * deepest branch of a cell is walked last, as the last branch of the program is never walked back.</li>
+ * </ol>
+ * The moves are picked by their cost: A towards the current direction, B for a single step backwards and a turn
+ * otherwise (turning around for the longer returns). The program never hits an obstacle, thus never triggers a back-off.
+ * A planner holds no state, so it may be shared between threads.
+ * 
+ * @author Ferenc Toth
+ */
+public class CoveragePlanner {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(CoveragePlanner.class);
+	
+	public static final int DEFAULT_TILE_SIZE = 64;
+	
+	/* The lookup tables, indexed by the ordinal of the direction (N, E, S, W) */
+	private static final int[] TURN_LEFT = {3, 0, 1, 2};
+	private static final int[] TURN_RIGHT = {1, 2, 3, 0};
+	private static final int[] OPPOSITE = {2, 3, 0, 1};
+	private static final int[] STEP_X = {0, 1, 0, -1};
+	private static final int[] STEP_Y = {-1, 0, 1, 0};
+	
+	private final int tileSize;
+	private final ForkJoinPool forkJoinPool;
+	
+	public CoveragePlanner() {
+		this(DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * @param tileSize - the side of the square tiles processed in parallel
+	 * @param forkJoinPool - the pool processing the tiles
+	 */
+	public CoveragePlanner(int tileSize, ForkJoinPool forkJoinPool) {
+		super();
+		if (tileSize < 2) {
+			throw new IllegalArgumentException("Invalid tile size:" + tileSize);
+		}
+		this.tileSize = tileSize;
+		this.forkJoinPool = forkJoinPool;
+	}
+	
+	/**
+	 * Plans the program covering all the cells reachable from the given start position.
+	 * 
+	 * @param room - the room to be cleaned
+	 * @param start - the start position of the robot, which must hold free space
+	 * @param direction - the start direction of the robot
+	 * @return the planned program
+	 */
+	public CoveragePlan plan(Room room, Position start, ValidDirections direction) {
+		if (!room.isInside(start.getxCol(), start.getyRow())) {
+			throw new IllegalArgumentException("The start position " + start + " is located outside the room");
+		}
+		if (room.isObstacle((int) start.getxCol(), (int) start.getyRow())) {
+			throw new IllegalArgumentException("The start position " + start + " holds an obstacle");
+		}
+		Planning planning = new Planning(room, tileSize);
+		forkJoinPool.invoke(new TileTask(planning, 0, planning.getNbOfTiles()));
+		planning.connectTiles();
+		int startCell = (int) (start.getyRow() * room.getNbOfColumns() + start.getxCol());
+		planning.computeHeights(startCell, direction.ordinal());
+		return planning.walk(startCell, direction.ordinal());
+	}
+	
+	/**
+	 * Plans the program for the room and the robot of the given input (its commands being ignored), then writes
+	 * the complete cleaning program - the map, the start, the planned commands and the battery - into the output file.
+	 * 
+	 * @param inputFileLocation - the JSON input
+	 * @param outputFileLocation - the JSON program to be created
+	 * @param options - the options of the input reader (e.g. a room file)
+	 * @return the planned program
+	 */
+	public CoveragePlan planProgram(String inputFileLocation, String outputFileLocation, SimulationOptions options) {
+		CoveragePlan coveragePlan;
+		Room room;
+		CleaningRobot cleaningRobot;
+		try (CleaningProgram program = StreamingJSONInputReader.forOptions(options).readProgram(inputFileLocation)) {
+			room = program.getRoom();
+			cleaningRobot = program.getCleaningRobot();
+			coveragePlan = plan(room, cleaningRobot.getPosition(), cleaningRobot.getDirection());
+		} catch (IOException e) {
+			LOGGER.error("Cannot close the input file on position:" + inputFileLocation);
+			throw new RuntimeException("Input closing problem detected for the file on position:" + inputFileLocation + "\n" + e.getMessage());
+		}
+		LOGGER.info("Planned program: " + coveragePlan);
+		if (!coveragePlan.isWithinBudget(cleaningRobot.getBattery())) {
+			LOGGER.warn("The battery of " + cleaningRobot.getBattery() + " is not sufficient for the planned program, " + coveragePlan.getRequiredBattery() + " being required");
+		}
+		try {
+			new CleaningProgramWriter().writeCleaningProgram(room, cleaningRobot, coveragePlan.getCommands(), outputFileLocation);
+		} catch (IOException e) {
+			LOGGER.error("Cannot write the planned program into the file on position:" + outputFileLocation);
+			throw new RuntimeException("Output writing problem detected for the file on position:" + outputFileLocation + "\n" + e.getMessage());
+		}
+		return coveragePlan;
+	}
+	
+	/**
+	 * Builds the forests of a range of tiles, splitting the range in two until a single tile remains.
+	 */
+	private static class TileTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final transient Planning planning;
+		private final int firstTile;
+		private final int lastTile;
+		
+		TileTask(Planning planning, int firstTile, int lastTile) {
+			super();
+			this.planning = planning;
+			this.firstTile = firstTile;
+			this.lastTile = lastTile;
+		}
+
+		@Override
+		protected void compute() {
+			if (lastTile - firstTile <= 1) {
+				if (firstTile < lastTile) {
+					planning.buildTileForest(firstTile);
+				}
+				return;
+			}
+			int middleTile = (firstTile + lastTile) >>> 1;
+			invokeAll(new TileTask(planning, firstTile, middleTile), new TileTask(planning, middleTile, lastTile));
+		}
+		
+	}
+	
+	/**
+	 * The state of a single planning. Every cell of the room gets its tree edges inside a 4 bit mask (bit d being set
+	 * for an edge towards the direction of ordinal d), while the link array first holds the union-find parents of the
+	 * cells, then the heights of their subtrees.
+	 */
+	private static class Planning {
+		
+		private static final int UNVISITED = -1;
+		/* The layout of the walk state of a cell: the arrival direction, the parent flag, then the number of tried children */
+		private static final int HAS_PARENT = 4;
+		private static final int TRIED_SHIFT = 3;
+		/* The shorter routes are never worth a search, respectively the number of cells searched per step of the route */
+		private static final int MIN_SHORTCUT_ROUTE_LENGTH = 4;
+		private static final int SHORTCUT_SEARCH_FACTOR = 8;
+		
+		private final Room room;
+		private final int nbOfRows;
+		private final int nbOfColumns;
+		private final int tileSize;
+		private final int nbOfTileColumns;
+		private final byte[] moveMask;
+		private final int[] cellOffset = new int[4];
+		private final byte[] treeMask;
+		private final int[] links;
+		private byte[] walkState;
+		private int[] stack;
+		/* The walk related state: the route leading to the next cell to be visited, respectively the shortcut search */
+		private CoveragePlan coveragePlan;
+		private int facing;
+		private int[] route = new int[64];
+		private int routeLength;
+		private int[] shortcut = new int[64];
+		private int[] searchStamps;
+		private byte[] searchDirections;
+		private int[] searchQueue;
+		private int searchStamp;
+		
+		Planning(Room room, int tileSize) {
+			this.room = room;
+			this.nbOfRows = room.getNbOfRows();
+			this.nbOfColumns = room.getNbOfColumns();
+			this.tileSize = tileSize;
+			this.nbOfTileColumns = (nbOfColumns + tileSize - 1) / tileSize;
+			this.moveMask = room.getMoveMask();
+			for (int directionOrdinal = 0; directionOrdinal < cellOffset.length; directionOrdinal++) {
+				cellOffset[directionOrdinal] = STEP_Y[directionOrdinal] * nbOfColumns + STEP_X[directionOrdinal];
+			}
+			this.treeMask = new byte[room.getNbOfCells()];
+			this.links = new int[room.getNbOfCells()];
+		}
+		
+		int getNbOfTiles() {
+			return nbOfTileColumns * ((nbOfRows + tileSize - 1) / tileSize);
+		}
+		
+		private boolean canMove(int cell, int directionOrdinal) {
+			return (moveMask[cell >>> 1] >>> (((cell & 1) << 2) + directionOrdinal) & 1) != 0;
+		}
+		
+		private void addTreeEdge(int cell, int directionOrdinal) {
+			treeMask[cell] |= 1 << directionOrdinal;
+			treeMask[cell + cellOffset[directionOrdinal]] |= 1 << OPPOSITE[directionOrdinal];
+		}
+		
+		/**
+		 * Builds the spanning forest of the free cells of a tile - only the cells of the tile are touched, thus the tiles
+		 * may be processed concurrently. The free cells of a tree get the same link: the first cell of the tree.
+		 */
+		void buildTileForest(int tile) {
+			int firstColumn = (tile % nbOfTileColumns) * tileSize;
+			int firstRow = (tile / nbOfTileColumns) * tileSize;
+			int width = Math.min(tileSize, nbOfColumns - firstColumn);
+			int height = Math.min(tileSize, nbOfRows - firstRow);
+			for (int yRow = firstRow; yRow < firstRow + height; yRow++) {
+				Arrays.fill(links, yRow * nbOfColumns + firstColumn, yRow * nbOfColumns + firstColumn + width, UNVISITED);
+			}
+			//the stack holds the local indexes of the cells, the state of a cell being its arrival direction and its number of tried directions
+			int[] localStack = new int[width * height];
+			byte[] localState = new byte[width * height];
+			for (int localRoot = 0; localRoot < width * height; localRoot++) {
+				int root = toCell(localRoot, width, firstColumn, firstRow);
+				if (links[root] != UNVISITED || !isFree(root)) {
+					continue;
+				}
+				links[root] = root;
+				localState[localRoot] = (byte) ValidDirections.EAST.ordinal();
+				int top = 0;
+				localStack[top++] = localRoot;
+				while (top > 0) {
+					int local = localStack[top - 1];
+					int state = localState[local];
+					int nbOfTriedDirections = state >>> 2;
+					if (nbOfTriedDirections == 4) {
+						top--;
+						continue;
+					}
+					localState[local] = (byte) (state + 4);
+					int directionOrdinal = preferredDirection(state & 3, nbOfTriedDirections);
+					int localX = local % width + STEP_X[directionOrdinal];
+					int localY = local / width + STEP_Y[directionOrdinal];
+					int cell = toCell(local, width, firstColumn, firstRow);
+					if (localX < 0 || localX >= width || localY < 0 || localY >= height || !canMove(cell, directionOrdinal)) {
+						continue;
+					}
+					int nextCell = cell + cellOffset[directionOrdinal];
+					if (links[nextCell] != UNVISITED) {
+						continue;
+					}
+					links[nextCell] = root;
+					addTreeEdge(cell, directionOrdinal);
+					int nextLocal = localY * width + localX;
+					localState[nextLocal] = (byte) directionOrdinal;
+					localStack[top++] = nextLocal;
+				}
+			}
+		}
+		
+		private int toCell(int local, int width, int firstColumn, int firstRow) {
+			return (firstRow + local / width) * nbOfColumns + firstColumn + local % width;
+		}
+		
+		private boolean isFree(int cell) {
+			return room.getCell(cell) == Room.CELL_SPACE;
+		}
+		
+		/**
+		 * @return the direction to be tried after the given number of tries: straight on, right, left, then backwards
+		 */
+		private static int preferredDirection(int arrivalDirection, int nbOfTriedDirections) {
+			switch (nbOfTriedDirections) {
+			case 0:
+				return arrivalDirection;
+			case 1:
+				return TURN_RIGHT[arrivalDirection];
+			case 2:
+				return TURN_LEFT[arrivalDirection];
+			default:
+				return OPPOSITE[arrivalDirection];
+			}
+		}
+		
+		/**
+		 * Connects the tile forests through the free neighbours found across the tile borders - a tree edge being added
+		 * whenever the two neighbours still belong to different trees.
+		 */
+		void connectTiles() {
+			for (int firstColumn = tileSize; firstColumn < nbOfColumns; firstColumn += tileSize) {
+				for (int yRow = 0; yRow < nbOfRows; yRow++) {
+					connect(yRow * nbOfColumns + firstColumn - 1, ValidDirections.EAST.ordinal());
+				}
+			}
+			for (int firstRow = tileSize; firstRow < nbOfRows; firstRow += tileSize) {
+				for (int xCol = 0; xCol < nbOfColumns; xCol++) {
+					connect((firstRow - 1) * nbOfColumns + xCol, ValidDirections.SOUTH.ordinal());
+				}
+			}
+		}
+		
+		private void connect(int cell, int directionOrdinal) {
+			if (links[cell] == UNVISITED || !canMove(cell, directionOrdinal)) {
+				return;
+			}
+			int root = findRoot(cell);
+			int otherRoot = findRoot(cell + cellOffset[directionOrdinal]);
+			if (root != otherRoot) {
+				links[root] = otherRoot;
+				addTreeEdge(cell, directionOrdinal);
+			}
+		}
+		
+		private int findRoot(int cell) {
+			while (links[cell] != cell) {
+				links[cell] = links[links[cell]];
+				cell = links[cell];
+			}
+			return cell;
+		}
+		
+		/**
+		 * Computes the height of the subtree of every cell of the tree holding the start cell (a post-order walk),
+		 * the heights replacing the union-find links.
+		 */
+		void computeHeights(int startCell, int startDirection) {
+			walkState = new byte[treeMask.length];
+			stack = new int[treeMask.length];
+			int top = 0;
+			stack[top++] = startCell;
+			walkState[startCell] = (byte) startDirection;
+			links[startCell] = 0;
+			while (top > 0) {
+				int cell = stack[top - 1];
+				int state = walkState[cell];
+				int directionOrdinal = state >>> TRIED_SHIFT;
+				if (directionOrdinal == 4) {
+					top--;
+					if (top > 0) {
+						int parentCell = stack[top - 1];
+						links[parentCell] = Math.max(links[parentCell], links[cell] + 1);
+					}
+					continue;
+				}
+				walkState[cell] = (byte) (state + (1 << TRIED_SHIFT));
+				if (isChild(cell, state, directionOrdinal)) {
+					int childCell = cell + cellOffset[directionOrdinal];
+					walkState[childCell] = (byte) (directionOrdinal | HAS_PARENT);
+					links[childCell] = 0;
+					stack[top++] = childCell;
+				}
+			}
+		}
+		
+		private boolean isChild(int cell, int state, int directionOrdinal) {
+			return (treeMask[cell] >>> directionOrdinal & 1) != 0 && ((state & HAS_PARENT) == 0 || directionOrdinal != OPPOSITE[state & 3]);
+		}
+		
+		/**
+		 * @return the direction of the given child to be visited, in the order of preference (straight on, right, left, 
+		 * backwards) except the deepest child coming last - or -1 if there are no more children
+		 */
+		private int childDirection(int cell, int state, int childIndex) {
+			int arrivalDirection = state & 3;
+			int deepestDirection = -1;
+			for (int i = 0; i < 4; i++) {
+				int directionOrdinal = preferredDirection(arrivalDirection, i);
+				if (isChild(cell, state, directionOrdinal) 
+						&& (deepestDirection < 0 || links[cell + cellOffset[directionOrdinal]] > links[cell + cellOffset[deepestDirection]])) {
+					deepestDirection = directionOrdinal;
+				}
+			}
+			for (int i = 0; i < 4; i++) {
+				int directionOrdinal = preferredDirection(arrivalDirection, i);
+				if (directionOrdinal != deepestDirection && isChild(cell, state, directionOrdinal) && childIndex-- == 0) {
+					return directionOrdinal;
+				}
+			}
+			return childIndex == 0 ? deepestDirection : -1;
+		}
+		
+		/**
+		 * Walks the tree holding the start cell depth-first, generating the commands: every cell is cleaned when entered
+		 * for the first time. The returns towards the parent cells are only generated once the walk goes on (the final
+		 * returns are thus dropped), the robot then either walking back along the tree or taking a shortcut towards the
+		 * next cell to be visited, whichever is cheaper.
+		 */
+		CoveragePlan walk(int startCell, int startDirection) {
+			coveragePlan = new CoveragePlan();
+			facing = startDirection;
+			coveragePlan.add(ValidCommands.CLEAN);
+			int top = 0;
+			stack[top++] = startCell;
+			walkState[startCell] = (byte) startDirection;
+			int robotCell = startCell;
+			while (top > 0) {
+				int cell = stack[top - 1];
+				int state = walkState[cell];
+				int directionOrdinal = childDirection(cell, state, state >>> TRIED_SHIFT);
+				if (directionOrdinal < 0) {
+					top--;
+					if (top > 0) {
+						addToRoute(OPPOSITE[state & 3]);
+					}
+					continue;
+				}
+				walkState[cell] = (byte) (state + (1 << TRIED_SHIFT));
+				int childCell = cell + cellOffset[directionOrdinal];
+				addToRoute(directionOrdinal);
+				//turning around only pays off when the child is followed by a straight run
+				boolean continuesStraight = (treeMask[childCell] >>> directionOrdinal & 1) != 0;
+				if (routeLength >= MIN_SHORTCUT_ROUTE_LENGTH && findShortcut(robotCell, childCell, continuesStraight)) {
+					int[] treeRoute = route;
+					route = shortcut;
+					shortcut = treeRoute;
+				}
+				emitRoute(continuesStraight, false);
+				routeLength = 0;
+				robotCell = childCell;
+				coveragePlan.add(ValidCommands.CLEAN);
+				walkState[childCell] = (byte) (directionOrdinal | HAS_PARENT);
+				stack[top++] = childCell;
+			}
+			walkState = null;
+			stack = null;
+			searchStamps = null;
+			searchDirections = null;
+			return coveragePlan;
+		}
+		
+		private void addToRoute(int directionOrdinal) {
+			if (routeLength == route.length) {
+				route = Arrays.copyOf(route, routeLength * 2);
+			}
+			route[routeLength++] = directionOrdinal;
+		}
+		
+		/**
+		 * Searches a route towards the target cell cheaper than the current route (breadth-first, over all the free cells).
+		 * The number of cells examined is proportional to the length of the current route, thus the search costs no more
+		 * than walking the route would.
+		 * 
+		 * @return true if a cheaper route has been found, the shortcut array then holding it (the route length being updated)
+		 */
+		private boolean findShortcut(int fromCell, int targetCell, boolean continuesStraight) {
+			if (searchStamps == null) {
+				searchStamps = new int[treeMask.length];
+				searchDirections = new byte[treeMask.length];
+				searchQueue = new int[1 << 10];
+			}
+			int stamp = ++searchStamp;
+			int maxDistance = routeLength - 1;
+			int maxNbOfCells = SHORTCUT_SEARCH_FACTOR * routeLength;
+			int head = 0;
+			int tail = 0;
+			searchQueue[tail++] = fromCell;
+			searchStamps[fromCell] = stamp;
+			int distanceLimit = tail;
+			int distance = 0;
+			while (head < tail && distance < maxDistance && tail < maxNbOfCells) {
+				if (head == distanceLimit) {
+					distance++;
+					distanceLimit = tail;
+				}
+				int cell = searchQueue[head++];
+				for (int i = 0; i < 4; i++) {
+					int directionOrdinal = (facing + i) & 3;
+					if (!canMove(cell, directionOrdinal)) {
+						continue;
+					}
+					int nextCell = cell + cellOffset[directionOrdinal];
+					if (searchStamps[nextCell] == stamp) {
+						continue;
+					}
+					searchStamps[nextCell] = stamp;
+					searchDirections[nextCell] = (byte) directionOrdinal;
+					if (nextCell == targetCell) {
+						return acceptShortcut(fromCell, targetCell, continuesStraight);
+					}
+					if (tail == searchQueue.length) {
+						searchQueue = Arrays.copyOf(searchQueue, tail * 2);
+					}
+					searchQueue[tail++] = nextCell;
+				}
+			}
+			return false;
+		}
+		
+		/**
+		 * Rebuilds the route found by the search, keeping it only if its commands are cheaper than the current ones.
+		 */
+		private boolean acceptShortcut(int fromCell, int targetCell, boolean continuesStraight) {
+			int shortcutLength = 0;
+			for (int cell = targetCell; cell != fromCell; cell -= cellOffset[searchDirections[cell]]) {
+				shortcutLength++;
+			}
+			if (shortcut.length < shortcutLength) {
+				shortcut = new int[Math.max(shortcutLength, shortcut.length * 2)];
+			}
+			int index = shortcutLength;
+			for (int cell = targetCell; cell != fromCell; cell -= cellOffset[searchDirections[cell]]) {
+				shortcut[--index] = searchDirections[cell];
+			}
+			long routeCost = emitRoute(continuesStraight, true);
+			int[] treeRoute = route;
+			int treeRouteLength = routeLength;
+			route = shortcut;
+			routeLength = shortcutLength;
+			long shortcutCost = emitRoute(continuesStraight, true);
+			route = treeRoute;
+			if (shortcutCost < routeCost) {
+				return true;
+			}
+			routeLength = treeRouteLength;
+			return false;
+		}
+		
+		/**
+		 * Generates the commands of the current route, run by run - a run of steps towards the same direction needing
+		 * a single turn at most.
+		 * 
+		 * @param continuesStraight - true if the walk goes on straight after the route
+		 * @param dryRun - only compute the battery cost of the commands, without generating them
+		 * @return the battery cost of the commands
+		 */
+		private long emitRoute(boolean continuesStraight, boolean dryRun) {
+			int startFacing = facing;
+			long cost = 0L;
+			int i = 0;
+			while (i < routeLength) {
+				int directionOrdinal = route[i];
+				int runLength = 1;
+				while (i + runLength < routeLength && route[i + runLength] == directionOrdinal) {
+					runLength++;
+				}
+				i += runLength;
+				cost += move(directionOrdinal, runLength > 1 || (i == routeLength && continuesStraight), dryRun);
+				for (int step = 1; step < runLength; step++) {
+					cost += emit(ValidCommands.ADVANCE, dryRun);
+				}
+			}
+			if (dryRun) {
+				facing = startFacing;
+			}
+			return cost;
+		}
+		
+		/**
+		 * Generates the cheapest commands stepping towards the given direction.
+		 * 
+		 * @param longRun - true if further steps towards the same direction follow, making a turn around worthwhile
+		 * @return the battery cost of the commands
+		 */
+		private long move(int directionOrdinal, boolean longRun, boolean dryRun) {
+			if (directionOrdinal == facing) {
+				return emit(ValidCommands.ADVANCE, dryRun);
+			}
+			if (directionOrdinal == OPPOSITE[facing] && !longRun) {
+				return emit(ValidCommands.BACK, dryRun);
+			}
+			long cost;
+			if (directionOrdinal == TURN_RIGHT[facing]) {
+				cost = emit(ValidCommands.TURN_RIGHT, dryRun);
+			} else if (directionOrdinal == TURN_LEFT[facing]) {
+				cost = emit(ValidCommands.TURN_LEFT, dryRun);
+			} else {
+				cost = emit(ValidCommands.TURN_RIGHT, dryRun) + emit(ValidCommands.TURN_RIGHT, dryRun);
+			}
+			facing = directionOrdinal;
+			return cost + emit(ValidCommands.ADVANCE, dryRun);
+		}
+		
+		private long emit(ValidCommands command, boolean dryRun) {
+			if (!dryRun) {
+				coveragePlan.add(command);
+			}
+			return CoveragePlan.getCost(command);
+		}
+		
+	}
+
+}
\ No newline at end of file
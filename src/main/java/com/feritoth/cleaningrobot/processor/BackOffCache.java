@@ -0,0 +1,194 @@
+package com.feritoth.cleaningrobot.processor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.feritoth.cleaningrobot.core.Room;
+
+/**
+ * Memoizes the outcome of the back-off strategy for a given room - as the back-off sequences are executed 
+ * unconditionally, their outcome depends only on the room, the start cell and the start direction. An outcome
+ * holds the final cell, the final direction, the stuck flag, the battery consumed and the cells marked as
+ * visited during the back-off (in their order of visit).
+ * The cache is filled lazily and may be shared by all the engines working on the same room: the entries are 
+ * spread over independently locked segments.
+ * 
+ * @author Ferenc Toth
+ */
+public class BackOffCache {
+	
+	/* The layout of an outcome, as copied into the array provided by the caller */
+	static final int FINAL_CELL = 0;
+	static final int FINAL_DIRECTION = 1;
+	static final int STUCK = 2;
+	static final int BATTERY_CONSUMED = 3;
+	static final int NB_OF_VISITED_CELLS = 4;
+	static final int FIRST_VISITED_CELL = 5;
+	/* A back-off moves the robot at most 6 times (1 + 2 x 1 + 2 + 1) */
+	static final int MAX_OUTCOME_SIZE = FIRST_VISITED_CELL + 6;
+	
+	private static final int NB_OF_SEGMENTS = 16;
+	private static final Map<Room, BackOffCache> ROOM_CACHES = Collections.synchronizedMap(new WeakHashMap<>());
+	
+	private final Segment[] segments = new Segment[NB_OF_SEGMENTS];
+	
+	BackOffCache() {
+		super();
+		for (int i = 0; i < NB_OF_SEGMENTS; i++) {
+			segments[i] = new Segment();
+		}
+	}
+	
+	/**
+	 * Returns the cache belonging to the given room - the cache is released together with the room.
+	 */
+	public static BackOffCache forRoom(Room room) {
+		return ROOM_CACHES.computeIfAbsent(room, key -> new BackOffCache());
+	}
+	
+	/**
+	 * @return the cache belonging to the given room, null if none has been created yet
+	 */
+	static BackOffCache getIfPresent(Room room) {
+		return ROOM_CACHES.get(room);
+	}
+	
+	/**
+	 * Copies the outcome of the back-off started from the given cell and direction into the target array.
+	 * 
+	 * @return true if the outcome was already known, false otherwise (the target is left untouched)
+	 */
+	boolean lookup(int cell, int direction, int[] outcome) {
+		long key = toKey(cell, direction);
+		int hash = mix(key);
+		Segment segment = segments[hash & (NB_OF_SEGMENTS - 1)];
+		synchronized (segment) {
+			return segment.lookup(key, hash >>> 4, outcome);
+		}
+	}
+	
+	/**
+	 * Stores the outcome of the back-off started from the given cell and direction, laid out as for {@link #lookup(int, int, int[])}.
+	 */
+	void store(int cell, int direction, int[] outcome) {
+		long key = toKey(cell, direction);
+		int hash = mix(key);
+		Segment segment = segments[hash & (NB_OF_SEGMENTS - 1)];
+		synchronized (segment) {
+			segment.store(key, hash >>> 4, outcome);
+		}
+	}
+	
+	/**
+	 * @return the number of outcomes currently stored
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size;
+			}
+		}
+		return size;
+	}
+	
+	/**
+	 * @return the memory taken by the tables and the outcomes of the cache, in bytes
+	 */
+	public long getFootprint() {
+		long footprint = 0L;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				footprint += 8L * segment.keys.length + 4L * segment.offsets.length + 4L * segment.arena.length;
+			}
+		}
+		return footprint;
+	}
+	
+	private static long toKey(int cell, int direction) {
+		return ((long) cell << 2) | direction;
+	}
+	
+	private static int mix(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+	
+	/**
+	 * An open addressing table from the packed (cell, direction) keys to the offsets of the outcomes,
+	 * the outcomes themselves being appended into a common arena.
+	 */
+	private static final class Segment {
+		
+		private static final long FREE_SLOT = -1L;
+		
+		private long[] keys = newKeyTable(64);
+		private int[] offsets = new int[64];
+		private int size;
+		private int[] arena = new int[256];
+		private int arenaSize;
+		
+		boolean lookup(long key, int hash, int[] outcome) {
+			int mask = keys.length - 1;
+			for (int slot = hash & mask; keys[slot] != FREE_SLOT; slot = (slot + 1) & mask) {
+				if (keys[slot] == key) {
+					int offset = offsets[slot];
+					System.arraycopy(arena, offset, outcome, 0, FIRST_VISITED_CELL + arena[offset + NB_OF_VISITED_CELLS]);
+					return true;
+				}
+			}
+			return false;
+		}
+		
+		void store(long key, int hash, int[] outcome) {
+			int mask = keys.length - 1;
+			int slot = hash & mask;
+			while (keys[slot] != FREE_SLOT) {
+				if (keys[slot] == key) {
+					//already stored by a concurrent engine, the outcome being the same
+					return;
+				}
+				slot = (slot + 1) & mask;
+			}
+			int length = FIRST_VISITED_CELL + outcome[NB_OF_VISITED_CELLS];
+			if (arenaSize + length > arena.length) {
+				arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + length));
+			}
+			System.arraycopy(outcome, 0, arena, arenaSize, length);
+			keys[slot] = key;
+			offsets[slot] = arenaSize;
+			arenaSize += length;
+			if (++size * 2 > keys.length) {
+				rehash();
+			}
+		}
+		
+		private void rehash() {
+			long[] oldKeys = keys;
+			int[] oldOffsets = offsets;
+			keys = newKeyTable(oldKeys.length * 2);
+			offsets = new int[oldKeys.length * 2];
+			int mask = keys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldKeys[i] != FREE_SLOT) {
+					int slot = (mix(oldKeys[i]) >>> 4) & mask;
+					while (keys[slot] != FREE_SLOT) {
+						slot = (slot + 1) & mask;
+					}
+					keys[slot] = oldKeys[i];
+					offsets[slot] = oldOffsets[i];
+				}
+			}
+		}
+		
+		private static long[] newKeyTable(int capacity) {
+			long[] table = new long[capacity];
+			Arrays.fill(table, FREE_SLOT);
+			return table;
+		}
+		
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,313 @@
+package com.feritoth.cleaningrobot.processor;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.PositionLog;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+
+/**
+ * Spreads a single simulation over several threads, for the rooms where the robot may reach only a bounded number
+ * of cells: the commands are split into chunks, and every chunk gets summarized in parallel, for every possible
+ * start state (reachable cell and direction) - the end state, the battery consumed and required, the stuck flag,
+ * respectively the cells visited and cleaned, in their order of first visit. The summaries are then composed in
+ * sequence, starting from the actual state of the robot: the new cells of every chunk are appended to the ones
+ * already logged, which gives the very same order as the sequential execution.
+ * As every chunk gets simulated once per start state, the split only pays off when the pool has clearly more threads
+ * than there are start states: the whole simulation is executed step by step when the states (4 per reachable cell)
+ * exceed half of the parallelism of the pool, as well as when a listener is attached. A chunk for which the battery
+ * is not sufficient gets executed step by step too (the simulation ending inside it).
+ * An instance keeps the state of the robot being simulated, thus it must not be shared between threads.
+ *
+ * @author Ferenc Toth
+ */
+public class ChunkedRobotController implements CleaningEngine {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ChunkedRobotController.class);
+
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+	/* The rooms where the robot may reach more cells than this are simulated sequentially, whatever the parallelism */
+	public static final int MAX_REACHABLE_CELLS = 1 << 8;
+	/* The threads of the pool required per start state - with fewer, the summaries cost more than the sequential run */
+	static final int THREADS_PER_STATE = 2;
+	/* The battery of the robots simulated for the summaries, high enough to never run out */
+	private static final long UNLIMITED_BATTERY = Long.MAX_VALUE / 2;
+	/* The number of chunks summarized ahead of the composition, per thread of the pool */
+	private static final int CHUNKS_AHEAD_PER_THREAD = 2;
+
+	private final int chunkSize;
+	private final ForkJoinPool forkJoinPool;
+	private final boolean backOffCacheEnabled;
+	/* The engine executing the simulations step by step */
+	private final PackedRobotController sequentialController;
+	private SimulationListener simulationListener;
+
+	public ChunkedRobotController() {
+		this(DEFAULT_CHUNK_SIZE, ForkJoinPool.commonPool(), true, true);
+	}
+
+	/**
+	 * @param chunkSize - the number of commands summarized together
+	 * @param forkJoinPool - the pool summarizing the chunks
+	 * @param backOffCacheEnabled - reuse the back-off outcomes already computed for the same room (see {@link BackOffCache})
+	 * @param fastForwardEnabled - skip the repeated cycles while executing step by step (see {@link CycleDetector})
+	 */
+	public ChunkedRobotController(int chunkSize, ForkJoinPool forkJoinPool, boolean backOffCacheEnabled, boolean fastForwardEnabled) {
+		super();
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Invalid chunk size:" + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+		this.forkJoinPool = forkJoinPool;
+		this.backOffCacheEnabled = backOffCacheEnabled;
+		this.sequentialController = new PackedRobotController(backOffCacheEnabled, fastForwardEnabled);
+	}
+
+	@Override
+	public boolean executeCleaningProcedure(CleaningRobot cleaningRobot, Room room, Iterator<ValidCommands> allInputCommands) {
+		if (cleaningRobot.getBattery() <= 0L){
+			LOGGER.warn("The initial battery capacity was 0 or below it, the program will thus exit...");
+			return false;
+		}
+		int[] reachableCells = simulationListener == null ? findReachableCells(room, cleaningRobot.getPosition(), getMaxReachableCells()) : null;
+		if (reachableCells == null) {
+			LOGGER.info("The simulation cannot be split into chunks, it gets executed sequentially");
+			return sequentialController.executeCleaningProcedure(cleaningRobot, room, allInputCommands);
+		}
+		Deque<Chunk> chunks = new ArrayDeque<>();
+		int maxChunksAhead = forkJoinPool.getParallelism() * CHUNKS_AHEAD_PER_THREAD;
+		try {
+			while (true) {
+				while (chunks.size() < maxChunksAhead && allInputCommands.hasNext()) {
+					Chunk chunk = readChunk(allInputCommands);
+					chunk.summary = forkJoinPool.submit(() -> summarize(chunk, room, reachableCells));
+					chunks.add(chunk);
+				}
+				if (chunks.isEmpty() || !applyChunk(chunks.poll(), cleaningRobot, room, reachableCells)) {
+					return true;
+				}
+			}
+		} finally {
+			for (Chunk chunk : chunks) {
+				chunk.summary.cancel(false);
+			}
+		}
+	}
+
+	@Override
+	public void setSimulationListener(SimulationListener simulationListener) {
+		//the listener needs every single command, thus the simulations are executed step by step
+		this.simulationListener = simulationListener;
+		sequentialController.setSimulationListener(simulationListener);
+	}
+
+	/**
+	 * @return the number of reachable cells up to which the summaries of a chunk take no more time than a sequential
+	 * run of it, given the parallelism of the pool
+	 */
+	int getMaxReachableCells() {
+		return Math.min(MAX_REACHABLE_CELLS, forkJoinPool.getParallelism() / (PackedRobotController.DIRECTIONS.length * THREADS_PER_STATE));
+	}
+
+	/**
+	 * Finds the cells the robot may reach from its start position (the start included), in increasing order.
+	 *
+	 * @param maxReachableCells - the number of reachable cells the summaries may cover
+	 * @return the reachable cells, or null if there are more of them than the summaries may cover
+	 */
+	static int[] findReachableCells(Room room, Position start, int maxReachableCells) {
+		if (maxReachableCells < 1) {
+			return null;
+		}
+		int nbOfColumns = room.getNbOfColumns();
+		int startCell = Math.toIntExact(start.getyRow() * nbOfColumns + start.getxCol());
+		int[] cells = new int[maxReachableCells];
+		int nbOfCells = 0;
+		cells[nbOfCells++] = startCell;
+		//the cells found so far double as the queue of the breadth first search
+		for (int head = 0; head < nbOfCells; head++) {
+			int cell = cells[head];
+			for (int direction = 0; direction < PackedRobotController.DIRECTIONS.length; direction++) {
+				if (room.canMove(cell, direction)) {
+					int nextCell = cell + PackedRobotController.STEP_Y[direction] * nbOfColumns + PackedRobotController.STEP_X[direction];
+					if (!contains(cells, nbOfCells, nextCell)) {
+						if (nbOfCells == maxReachableCells) {
+							return null;
+						}
+						cells[nbOfCells++] = nextCell;
+					}
+				}
+			}
+		}
+		int[] reachableCells = Arrays.copyOf(cells, nbOfCells);
+		Arrays.sort(reachableCells);
+		return reachableCells;
+	}
+
+	private static boolean contains(int[] cells, int nbOfCells, int cell) {
+		for (int i = 0; i < nbOfCells; i++) {
+			if (cells[i] == cell) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Chunk readChunk(Iterator<ValidCommands> allInputCommands) {
+		byte[] commands = new byte[chunkSize];
+		int nbOfCommands = 0;
+		while (nbOfCommands < chunkSize && allInputCommands.hasNext()) {
+			commands[nbOfCommands++] = (byte) allInputCommands.next().ordinal();
+		}
+		return new Chunk(commands, nbOfCommands);
+	}
+
+	/**
+	 * Summarizes the transitions of a chunk, for every reachable cell and every direction.
+	 */
+	private TransitionSummary summarize(Chunk chunk, Room room, int[] reachableCells) {
+		PackedRobotController controller = new PackedRobotController(backOffCacheEnabled, false);
+		int nbOfColumns = room.getNbOfColumns();
+		TransitionSummary summary = new TransitionSummary(reachableCells.length * PackedRobotController.DIRECTIONS.length);
+		for (int state = 0; state < summary.endCells.length; state++) {
+			int cell = reachableCells[state >>> 2];
+			CleaningRobot cleaningRobot = new CleaningRobot(new Position(cell % nbOfColumns, cell / nbOfColumns), UNLIMITED_BATTERY, PackedRobotController.DIRECTIONS[state & 3]);
+			controller.loadRobot(cleaningRobot, room);
+			summary.requiredBatteries[state] = controller.executeWithoutBatteryLimit(chunk.commands, chunk.nbOfCommands);
+			summary.consumedBatteries[state] = UNLIMITED_BATTERY - controller.getBattery();
+			summary.endCells[state] = controller.getCell();
+			summary.endDirections[state] = (byte) controller.getDirection();
+			summary.stuck[state] = controller.isStuck();
+			summary.visitedCells[state] = cleaningRobot.getVisitedPositionLog().snapshot();
+			summary.cleanedCells[state] = cleaningRobot.getCleanedPositionLog().snapshot();
+		}
+		return summary;
+	}
+
+	/**
+	 * Moves the robot through the given chunk - through the summary of the chunk when the battery is sufficient,
+	 * step by step otherwise.
+	 *
+	 * @return true if the simulation goes on with the next chunk, false if it has ended
+	 */
+	private boolean applyChunk(Chunk chunk, CleaningRobot cleaningRobot, Room room, int[] reachableCells) {
+		TransitionSummary summary;
+		try {
+			summary = chunk.summary.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.error("Interrupted while waiting for the summary of a chunk");
+			throw new RuntimeException("Interrupted while waiting for the summary of a chunk");
+		} catch (ExecutionException e) {
+			LOGGER.error("Cannot summarize a chunk of commands");
+			throw new RuntimeException("Cannot summarize a chunk of commands:" + e.getCause().getMessage());
+		}
+		long battery = cleaningRobot.getBattery();
+		if (battery <= 0L) {
+			return false;
+		}
+		int nbOfColumns = room.getNbOfColumns();
+		Position position = cleaningRobot.getPosition();
+		int cellIndex = Arrays.binarySearch(reachableCells, Math.toIntExact(position.getyRow() * nbOfColumns + position.getxCol()));
+		int state = cellIndex * PackedRobotController.DIRECTIONS.length + cleaningRobot.getDirection().ordinal();
+		if (battery < summary.requiredBatteries[state]) {
+			//the battery runs out inside the chunk
+			sequentialController.executeCleaningProcedure(cleaningRobot, room, chunk.iterator());
+			return false;
+		}
+		appendAll(cleaningRobot.getVisitedPositionLog(), summary.visitedCells[state]);
+		appendAll(cleaningRobot.getCleanedPositionLog(), summary.cleanedCells[state]);
+		int endCell = summary.endCells[state];
+		cleaningRobot.setPosition(new Position(endCell % nbOfColumns, endCell / nbOfColumns));
+		cleaningRobot.setDirection(PackedRobotController.DIRECTIONS[summary.endDirections[state]]);
+		cleaningRobot.setBattery(battery - summary.consumedBatteries[state]);
+		if (summary.stuck[state]) {
+			LOGGER.warn("Program termination iminent due to robot being stuck in position:" + cleaningRobot.getPosition());
+			return false;
+		}
+		return true;
+	}
+
+	private static void appendAll(PositionLog positionLog, PositionLog.Snapshot positions) {
+		for (int i = 0; i < positions.size(); i++) {
+			positionLog.add(positions.get(i));
+		}
+	}
+
+	/**
+	 * A chunk of commands, together with its summary once computed.
+	 */
+	private static class Chunk {
+
+		private final byte[] commands;
+		private final int nbOfCommands;
+		private ForkJoinTask<TransitionSummary> summary;
+
+		private Chunk(byte[] commands, int nbOfCommands) {
+			this.commands = commands;
+			this.nbOfCommands = nbOfCommands;
+		}
+
+		private Iterator<ValidCommands> iterator() {
+			return new Iterator<ValidCommands>() {
+
+				private int position;
+
+				@Override
+				public boolean hasNext() {
+					return position < nbOfCommands;
+				}
+
+				@Override
+				public ValidCommands next() {
+					if (position == nbOfCommands) {
+						throw new NoSuchElementException();
+					}
+					return PackedRobotController.COMMANDS[commands[position++]];
+				}
+
+			};
+		}
+
+	}
+
+	/**
+	 * The transitions of a chunk, indexed by the start state (the index of the cell among the reachable ones
+	 * times 4, plus the ordinal of the direction).
+	 */
+	private static class TransitionSummary {
+
+		private final int[] endCells;
+		private final byte[] endDirections;
+		private final long[] consumedBatteries;
+		private final long[] requiredBatteries;
+		private final boolean[] stuck;
+		private final PositionLog.Snapshot[] visitedCells;
+		private final PositionLog.Snapshot[] cleanedCells;
+
+		private TransitionSummary(int nbOfStates) {
+			this.endCells = new int[nbOfStates];
+			this.endDirections = new byte[nbOfStates];
+			this.consumedBatteries = new long[nbOfStates];
+			this.requiredBatteries = new long[nbOfStates];
+			this.stuck = new boolean[nbOfStates];
+			this.visitedCells = new PositionLog.Snapshot[nbOfStates];
+			this.cleanedCells = new PositionLog.Snapshot[nbOfStates];
+		}
+
+	}
+
+}
\ No newline at end of file
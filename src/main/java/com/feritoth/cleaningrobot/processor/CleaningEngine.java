@@ -0,0 +1,48 @@
+package com.feritoth.cleaningrobot.processor;
+
+import java.util.Iterator;
+import java.util.List;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+
+/**
+ * The common contract of the simulation engines able to drive a cleaning robot through a command sequence.
+ * 
+ * @author Ferenc Toth
+ */
+public interface CleaningEngine {
+	
+	/**
+	 * Executes the given commands for the robot inside the room - the robot is updated in place with its 
+	 * final position, direction, battery level respectively the visited and cleaned positions.
+	 * 
+	 * @param cleaningRobot - the cleaning robot
+	 * @param room - the room to be cleaned
+	 * @param allInputCommands - the commands to be executed, in order
+	 * @return false in case the procedure could not be started at all (empty battery), true otherwise
+	 */
+	boolean executeCleaningProcedure(CleaningRobot cleaningRobot, Room room, Iterator<ValidCommands> allInputCommands);
+	
+	/**
+	 * Attaches the listener receiving the instrumentation events of the engine - null (the default) for no instrumentation.
+	 */
+	void setSimulationListener(SimulationListener simulationListener);
+	
+	/**
+	 * Executes the cleaning procedure and writes the final robot configuration into the output file.
+	 * 
+	 * @param cleaningRobot - the cleaning robot
+	 * @param room - the room to be cleaned
+	 * @param allInputCommands - the list of commands to be executed
+	 * @param outputFileLocation - the output file location
+	 */
+	default void activateCleaningProcedureForRobot(CleaningRobot cleaningRobot, Room room, List<ValidCommands> allInputCommands, String outputFileLocation) {
+		if (executeCleaningProcedure(cleaningRobot, room, allInputCommands.iterator())) {
+			new JSONOutputFormatter().createCleaningProcedureOutput(cleaningRobot, outputFileLocation);
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package com.feritoth.cleaningrobot.processor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+
+/**
+ * All the input elements of a cleaning procedure: the room, the robot in its initial configuration
+ * and the commands to be executed. The commands may be backed by the input file itself, thus the 
+ * program needs to be closed after its execution.
+ * 
+ * @author Ferenc Toth
+ */
+public class CleaningProgram implements Closeable {
+	
+	private final Room room;
+	private final CleaningRobot cleaningRobot;
+	private final Iterator<ValidCommands> commands;
+	private final Closeable commandSource;
+	
+	public CleaningProgram(Room room, CleaningRobot cleaningRobot, Iterator<ValidCommands> commands, Closeable commandSource) {
+		super();
+		this.room = room;
+		this.cleaningRobot = cleaningRobot;
+		this.commands = commands;
+		this.commandSource = commandSource;
+	}
+
+	public Room getRoom() {
+		return room;
+	}
+
+	public CleaningRobot getCleaningRobot() {
+		return cleaningRobot;
+	}
+
+	public Iterator<ValidCommands> getCommands() {
+		return commands;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (commandSource != null) {
+			commandSource.close();
+		}
+	}
+
+}
\ No newline at end of file
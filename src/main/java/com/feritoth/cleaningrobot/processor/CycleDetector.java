@@ -0,0 +1,106 @@
+package com.feritoth.cleaningrobot.processor;
+
+/**
+ * Detects the periodic state of a robot executing a repetitive program - the commands executed since a recorded
+ * start state are kept, until the robot gets back into the same cell with the same direction without having
+ * visited or cleaned any new cell meanwhile. The recorded commands then form a candidate cycle: repeating them
+ * from the start state repeats the very same moves, the battery being the only part of the state which changes.
+ * The start state gets recorded again whenever a new cell is reached, respectively once the record exceeds its
+ * window - the window being doubled each time, up to the maximum cycle length (as in Brent's algorithm).
+ * An instance belongs to a single engine, thus it must not be shared between threads.
+ *
+ * @author Ferenc Toth
+ */
+class CycleDetector {
+
+	/* The longest cycle which may be detected */
+	static final int MAX_CYCLE_LENGTH = 1 << 12;
+	private static final int INITIAL_WINDOW = 4;
+
+	/* The commands recorded since the start state, respectively the battery level before each of them */
+	private final byte[] commands = new byte[MAX_CYCLE_LENGTH];
+	private final long[] batteries = new long[MAX_CYCLE_LENGTH];
+	private int length;
+	private int window;
+	/* The start state of the record */
+	private int startCell;
+	private int startDirection;
+	private int startNbOfVisitedCells;
+	private int startNbOfCleanedCells;
+
+	/**
+	 * Starts the detection for a new simulation, from the given state of the robot.
+	 */
+	void reset(int cell, int direction, int nbOfVisitedCells, int nbOfCleanedCells) {
+		window = INITIAL_WINDOW;
+		restart(cell, direction, nbOfVisitedCells, nbOfCleanedCells);
+	}
+
+	/**
+	 * Drops the commands recorded so far, the given state of the robot becoming the new start state.
+	 */
+	void restart(int cell, int direction, int nbOfVisitedCells, int nbOfCleanedCells) {
+		this.length = 0;
+		this.startCell = cell;
+		this.startDirection = direction;
+		this.startNbOfVisitedCells = nbOfVisitedCells;
+		this.startNbOfCleanedCells = nbOfCleanedCells;
+	}
+
+	/**
+	 * Records a command just executed, together with the resulting state of the robot.
+	 *
+	 * @param command - the ordinal of the command
+	 * @param batteryBefore - the battery level before the execution of the command
+	 * @return true if the robot is back into the start state, the recorded commands forming a candidate cycle
+	 */
+	boolean record(int command, long batteryBefore, int cell, int direction, int nbOfVisitedCells, int nbOfCleanedCells) {
+		if (nbOfVisitedCells != startNbOfVisitedCells || nbOfCleanedCells != startNbOfCleanedCells) {
+			restart(cell, direction, nbOfVisitedCells, nbOfCleanedCells);
+			return false;
+		}
+		if (length == window) {
+			window = Math.min(window << 1, MAX_CYCLE_LENGTH);
+			restart(cell, direction, nbOfVisitedCells, nbOfCleanedCells);
+			return false;
+		}
+		commands[length] = (byte) command;
+		batteries[length] = batteryBefore;
+		length++;
+		return cell == startCell && direction == startDirection;
+	}
+
+	/**
+	 * @return the number of commands of the candidate cycle
+	 */
+	int getLength() {
+		return length;
+	}
+
+	int getCommand(int index) {
+		return commands[index];
+	}
+
+	/**
+	 * @param battery - the current battery level, at the end of the cycle
+	 * @return the battery consumed by one execution of the cycle (back-offs included)
+	 */
+	long getBatteryPerCycle(long battery) {
+		return batteries[0] - battery;
+	}
+
+	/**
+	 * Computes the lowest battery level from which the whole cycle executes exactly as recorded, every command
+	 * meeting the battery rules of the engines.
+	 *
+	 * @return the battery level required at the start of the cycle
+	 */
+	long getRequiredBattery() {
+		long requiredBattery = 0L;
+		for (int i = 0; i < length; i++) {
+			requiredBattery = Math.max(requiredBattery, PackedRobotController.getRequiredBattery(commands[i], batteries[0] - batteries[i]));
+		}
+		return requiredBattery;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.feritoth.cleaningrobot.processor;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The simulation engines which may be selected for running the cleaning procedure.
+ * 
+ * @author Ferenc Toth
+ */
+public enum EngineType {
+	
+	/* The original, object based controller */
+	STANDARD,
+	/* The allocation-free controller working on primitive robot state */
+	PACKED,
+	/* The packed controller, with the commands split into chunks summarized in parallel */
+	CHUNKED;
+	
+	public CleaningEngine createEngine() {
+		return createEngine(new SimulationOptions());
+	}
+	
+	public CleaningEngine createEngine(SimulationOptions options) {
+		CleaningEngine engine;
+		switch (this) {
+		case PACKED:
+			engine = new PackedRobotController(options.isBackOffCacheEnabled(), options.isFastForwardEnabled());
+			break;
+		case CHUNKED:
+			engine = new ChunkedRobotController(options.getChunkSize(), ForkJoinPool.commonPool(), options.isBackOffCacheEnabled(), options.isFastForwardEnabled());
+			break;
+		default:
+			RobotController robotController = new RobotController();
+			robotController.setStepLogging(options.isStepLogging());
+			engine = robotController;
+			break;
+		}
+		engine.setSimulationListener(options.getSimulationListener());
+		return engine;
+	}
+
+}
\ No newline at end of file
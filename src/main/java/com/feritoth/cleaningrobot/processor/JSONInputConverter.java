@@ -4,6 +4,7 @@ import java.io.BufferedReader;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -16,12 +17,19 @@ import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.feritoth.cleaningrobot.analysis.RoomAnalysis;
+import com.feritoth.cleaningrobot.analysis.RoomAnalyzer;
+import com.feritoth.cleaningrobot.checkpoint.CheckpointManager;
 import com.feritoth.cleaningrobot.core.CleaningRobot;
 import com.feritoth.cleaningrobot.core.Position;
 import com.feritoth.cleaningrobot.core.Room;
 import com.feritoth.cleaningrobot.core.ValidCommands;
 import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.heatmap.CellHeatmap;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+import com.feritoth.cleaningrobot.instrumentation.SimulationPhase;
 import com.feritoth.cleaningrobot.utils.JSONKeys;
+import com.feritoth.cleaningrobot.utils.SimulationRejectedException;
 
 /**
  * The first class in the robot workflow chain - processes the input JSON data
@@ -39,12 +47,192 @@ public class JSONInputConverter {
 	 * @param inputFileLocation - the source file from where the input data will be taken.
 	 * @param outputFileLocation - the output file to which the output will need to written
 	 */
-	@SuppressWarnings("unchecked")
 	public void prepareProgramInput(String inputFileLocation, String outputFileLocation){
+		prepareProgramInput(inputFileLocation, outputFileLocation, new SimulationOptions());
+	}
+	
+	/**
+	 * The method responsible for preparing all the needed input elements, the cleaning being run according to the given options.
+	 *  
+	 * @param inputFileLocation - the source file from where the input data will be taken.
+	 * @param outputFileLocation - the output file to which the output will need to written
+	 * @param options - the options of the simulation (engine, input reading mode)
+	 */
+	public void prepareProgramInput(String inputFileLocation, String outputFileLocation, SimulationOptions options){
+		String resultKey = computeResultKey(inputFileLocation, options);
+		if (resultKey != null && options.getResultCache().fetch(resultKey, Paths.get(outputFileLocation))) {
+			LOGGER.info("The output for the input " + inputFileLocation + " has been served from the result cache");
+			return;
+		}
+		SimulationListener listener = options.getSimulationListener();
+		long phaseStart = System.nanoTime();
+		try (CleaningProgram program = readProgram(inputFileLocation, options)) {
+			phaseStart = completePhase(listener, SimulationPhase.PARSE, phaseStart);
+			boolean outputNeeded = executeProgram(program, options, inputFileLocation);
+			phaseStart = completePhase(listener, SimulationPhase.SIMULATE, phaseStart);
+			if (outputNeeded) {
+				LOGGER.info("The final robot parameters after cleaning are:" + program.getCleaningRobot().toString());
+				new JSONOutputFormatter().createCleaningProcedureOutput(program.getCleaningRobot(), outputFileLocation);
+				completePhase(listener, SimulationPhase.SERIALIZE, phaseStart);
+			}
+			if (resultKey != null) {
+				options.getResultCache().store(resultKey, outputNeeded ? Paths.get(outputFileLocation) : null);
+			}
+		} catch (IOException e) {
+			LOGGER.error("Cannot release the input file on position:" + inputFileLocation);
+			throw new RuntimeException("IO problem detected for the file on position:" + inputFileLocation + "\n" + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Executes the given program according to the options - the program is rejected first in case it cannot reach
+	 * the minimum coverage, while the checkpoints (if any) are taken during the execution.
+	 * 
+	 * @param program - the program read from the input
+	 * @param options - the options of the simulation
+	 * @return true if the output is needed (see {@link CleaningEngine#executeCleaningProcedure})
+	 */
+	public static boolean executeProgram(CleaningProgram program, SimulationOptions options) {
+		return executeProgram(program, options, null);
+	}
+	
+	/**
+	 * Executes the given program according to the options, the checkpoints (if any) being bound to the given input file.
+	 * 
+	 * @param inputFileLocation - the input the program was read from, required by the checkpoints only
+	 * @return true if the output is needed (see {@link CleaningEngine#executeCleaningProcedure})
+	 */
+	public static boolean executeProgram(CleaningProgram program, SimulationOptions options, String inputFileLocation) {
+		checkCoverageUpperBound(program, options);
+		/* Power on the robot in order to start cleaning */
+		CleaningEngine newController = options.getEngineType().createEngine(options);
+		try (CheckpointManager checkpointManager = createCheckpointManager(program, options, inputFileLocation)) {
+			if (checkpointManager != null) {
+				//only the packed engine takes checkpoints, as checked when creating the manager
+				((PackedRobotController) newController).setCheckpointManager(checkpointManager);
+			}
+			CellHeatmap heatmap = options.getHeatmapSink() != null
+					? options.getHeatmapSink().attach(newController, program.getRoom(), options.getSimulationListener()) : null;
+			boolean outputNeeded = newController.executeCleaningProcedure(program.getCleaningRobot(), program.getRoom(), program.getCommands());
+			if (heatmap != null && outputNeeded) {
+				heatmap.recordRun(program.getCleaningRobot());
+			}
+			return outputNeeded;
+		}
+	}
+	
+	/**
+	 * Describes the options changing the outcome of a simulation, as part of the key of the result cache.
+	 * 
+	 * @return the variant of the key, null when the results must not be cached (no result cache, the map being 
+	 * replaced by a room file, checkpoints being taken or the runs being observed by a listener or a heatmap sink)
+	 */
+	public static String getResultVariant(SimulationOptions options) {
+		if (options.getResultCache() == null || options.getRoomFileLocation() != null || options.getCheckpointFileLocation() != null
+				|| options.getSimulationListener() != null || options.getHeatmapSink() != null) {
+			return null;
+		}
+		return "minCoverage=" + options.getMinCoverage();
+	}
+	
+	/**
+	 * Computes the key of the input inside the result cache - null when the cache is not to be used, respectively
+	 * when the input cannot be read (the failure being reported by the reading of the program).
+	 */
+	public static String computeResultKey(String inputFileLocation, SimulationOptions options) {
+		String resultVariant = getResultVariant(options);
+		if (resultVariant == null) {
+			return null;
+		}
+		try {
+			return options.getResultCache().computeKey(Paths.get(inputFileLocation), resultVariant);
+		} catch (IOException e) {
+			LOGGER.warn("Cannot compute the result cache key of the input " + inputFileLocation + " - " + e.getMessage());
+			return null;
+		}
+	}
+	
+	/**
+	 * Rejects the program in case the robot cannot clean the minimum number of cells required by the options,
+	 * according to the pre-analysis of the room.
+	 * 
+	 * @throws SimulationRejectedException in case the minimum coverage cannot be reached
+	 */
+	public static void checkCoverageUpperBound(CleaningProgram program, SimulationOptions options) {
+		if (options.getMinCoverage() <= 0L) {
+			return;
+		}
+		CleaningRobot cleaningRobot = program.getCleaningRobot();
+		RoomCache roomCache = options.getRoomCache();
+		RoomAnalysis roomAnalysis = roomCache != null ? roomCache.analyze(program.getRoom()) : new RoomAnalyzer().analyze(program.getRoom());
+		long coverageUpperBound = roomAnalysis.getCoverageUpperBound(cleaningRobot.getPosition(), cleaningRobot.getBattery());
+		if (coverageUpperBound < options.getMinCoverage()) {
+			LOGGER.warn("Simulation rejected, at most " + coverageUpperBound + " cells may be cleaned instead of the required " + options.getMinCoverage());
+			throw new SimulationRejectedException("At most " + coverageUpperBound + " cells may be cleaned, " + options.getMinCoverage() + " being required");
+		}
+	}
+	
+	/**
+	 * Creates the checkpoint manager requested by the options (if any), the program being moved to the latest
+	 * checkpoint when resuming - provided the checkpoint has been taken from the same input.
+	 */
+	private static CheckpointManager createCheckpointManager(CleaningProgram program, SimulationOptions options, String inputFileLocation) {
+		if (options.getCheckpointFileLocation() == null) {
+			return null;
+		}
+		if (options.getEngineType() != EngineType.PACKED) {
+			throw new IllegalArgumentException("The checkpoints are only taken by the packed engine, not by the " + options.getEngineType() + " one");
+		}
+		if (inputFileLocation == null) {
+			throw new IllegalArgumentException("The checkpoints require the input file of the simulation");
+		}
+		long inputFingerprint;
+		try {
+			inputFingerprint = CheckpointManager.fingerprint(Paths.get(inputFileLocation), program.getRoom(), program.getCleaningRobot());
+		} catch (IOException e) {
+			LOGGER.error("Cannot read the input file on position:" + inputFileLocation);
+			throw new RuntimeException("IO problem detected for the file on position:" + inputFileLocation + "\n" + e.getMessage());
+		}
+		long checkpointEveryCommands = options.getCheckpointEveryCommands();
+		if (checkpointEveryCommands <= 0L && options.getCheckpointIntervalMillis() <= 0L) {
+			checkpointEveryCommands = CheckpointManager.DEFAULT_CHECKPOINT_EVERY_COMMANDS;
+		}
+		CheckpointManager checkpointManager = new CheckpointManager(program.getRoom(), inputFingerprint, Paths.get(options.getCheckpointFileLocation()), 
+				                                                    checkpointEveryCommands, options.getCheckpointIntervalMillis());
+		if (options.isResume()) {
+			checkpointManager.resume(program.getCleaningRobot(), program.getCommands());
+		}
+		return checkpointManager;
+	}
+	
+	/**
+	 * Reports the duration of the given phase to the listener (if any).
+	 * 
+	 * @return the start time of the next phase
+	 */
+	private static long completePhase(SimulationListener listener, SimulationPhase phase, long phaseStart) {
+		long phaseEnd = System.nanoTime();
+		if (listener != null) {
+			listener.phaseCompleted(phase, phaseEnd - phaseStart);
+		}
+		return phaseEnd;
+	}
+	
+	/**
+	 * Reads the cleaning program from the given input file, either through the DOM based or through the streaming reader.
+	 * 
+	 * @param inputFileLocation - the source file from where the input data will be taken.
+	 * @param options - the options of the simulation
+	 * @return the cleaning program ready to be executed
+	 */
+	@SuppressWarnings("unchecked")
+	public CleaningProgram readProgram(String inputFileLocation, SimulationOptions options){
+		if (options.isStreamingInput() || options.getRoomFileLocation() != null) {
+			return StreamingJSONInputReader.forOptions(options).readProgram(inputFileLocation);
+		}
 		/* First get the map for the robot */
-		Map<String, Object> allInputData = pickJSONfields(inputFileLocation);
-		String[][] roomMap = (String[][]) allInputData.get(JSONKeys.MAP_KEY);
-		Room room = new Room(roomMap);
+		Map<String, Object> allInputData = pickJSONfields(inputFileLocation, options.getRoomCache());
+		Room room = (Room) allInputData.get(JSONKeys.MAP_KEY);
 		LOGGER.info("The final room is:" + room.toString());
 		/* Second, get the commands to be executed */
 		List<ValidCommands> allInputCommands = (List<ValidCommands>) allInputData.get(JSONKeys.COMMAND_KEY);
@@ -58,18 +246,17 @@ public class JSONInputConverter {
 		LOGGER.info("The current room location where the robot starts is marked as:" + room.getMapElement(Long.valueOf(initialPosition.getxCol()).intValue(), Long.valueOf(initialPosition.getyRow()).intValue()));
 		CleaningRobot newRobot = new CleaningRobot(initialPosition, initialBatteryCapacity, initialDirection);
 		LOGGER.info("The initial parameters for the cleaning robot are:" + newRobot.toString());
-		/* Power on the robot in order to start cleaning */
-		RobotController newController = new RobotController();
-		newController.activateCleaningProcedureForRobot(newRobot, room, allInputCommands, outputFileLocation);
+		return new CleaningProgram(room, newRobot, allInputCommands.iterator(), null);
 	}
 
 	/**
 	 * The sample method responsible for reading from the input JSON file.
 	 * 
 	 * @param inputFileLocation the input file to be processed
+	 * @param roomCache the cache sharing the rooms read from identical maps - null for a room of its own
 	 * @return the map of all input objects extracted from the processed JSON file
 	 */
-	private Map<String, Object> pickJSONfields(String inputFileLocation){        
+	private Map<String, Object> pickJSONfields(String inputFileLocation, RoomCache roomCache){        
         try(FileReader fileReader = new FileReader(inputFileLocation);
         	BufferedReader bufReader = new BufferedReader(fileReader)){
         	//create a map where to store the given input data
@@ -81,7 +268,7 @@ public class JSONInputConverter {
             //store them inside an array of similar size to that of the input JSON keys
             //the input map - needs a little pre-processing before effective storage
             JSONArray mapString = (JSONArray) robotInput.get(JSONKeys.MAP_KEY);
-            String[][] finalMap = preprocessInitialMapValue(mapString);
+            Room finalMap = preprocessInitialMapValue(mapString, roomCache);
             allFileInput.put(JSONKeys.MAP_KEY, finalMap);
             //the command list - again a little pre-processing will be required here as well
             JSONArray commandList = (JSONArray) robotInput.get(JSONKeys.COMMAND_KEY);
@@ -111,19 +298,24 @@ public class JSONInputConverter {
 	}
 
 	/**
-	 * The method responsible for the pre-processing of the given input map
+	 * The method responsible for the pre-processing of the given input map - the cells
+	 * are converted directly into the packed representation used by the room.
 	 *  
 	 * @param mapString - the initial map given under raw form
-	 * @return the converted map, stored as a String matrix
+	 * @param roomCache - the cache sharing the rooms read from identical maps, null for a room of its own
+	 * @return the converted map, stored as a packed room
 	 */
-	@SuppressWarnings("unchecked")
-	private String[][] preprocessInitialMapValue(JSONArray mapString) {
-		String[][] finalMap = new String[mapString.size()][];		
-		for (int i = 0; i < mapString.size(); i++) {
+	private Room preprocessInitialMapValue(JSONArray mapString, RoomCache roomCache) {
+		int nbOfRows = mapString.size();
+		int nbOfColumns = nbOfRows == 0 ? 0 : ((JSONArray) mapString.get(0)).size();
+		byte[] cells = new byte[Math.multiplyExact(nbOfRows, nbOfColumns)];
+		for (int i = 0; i < nbOfRows; i++) {
 			JSONArray internalArray = (JSONArray) mapString.get(i);
-			finalMap[i] = (String[]) internalArray.toArray(new String[internalArray.size()]);
+			for (int j = 0; j < nbOfColumns; j++) {
+				cells[i * nbOfColumns + j] = Room.encodeCell((String) internalArray.get(j));
+			}
 		}
-		return finalMap;
+		return roomCache != null ? roomCache.intern(nbOfRows, nbOfColumns, cells) : new Room(nbOfRows, nbOfColumns, cells);
 	}
 	
 	/**
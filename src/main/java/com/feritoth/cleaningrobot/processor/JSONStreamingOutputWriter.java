@@ -0,0 +1,94 @@
+package com.feritoth.cleaningrobot.processor;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.PositionLog;
+import com.feritoth.cleaningrobot.utils.JSONChannelWriter;
+import com.feritoth.cleaningrobot.utils.JSONKeys;
+
+/**
+ * Writes the final configuration of a cleaning robot directly into a channel, through a heap buffer reused by
+ * every output of the writer (see {@link JSONChannelWriter}). A writer is meant to be kept by its thread (see
+ * {@link JSONOutputFormatter}) rather than created per output. The output is identical to the one previously
+ * generated through JSONSimple (same field order, same formatting).
+ *
+ * @author Ferenc Toth
+ */
+public class JSONStreamingOutputWriter extends JSONChannelWriter {
+
+	/**
+	 * Writes the output of the cleaning procedure into the given file, replacing its previous content.
+	 *
+	 * @param cleaningRobot - the final configuration of the cleaning robot
+	 * @param outputFileLocation - the output file location
+	 */
+	public void writeCleaningProcedureOutput(CleaningRobot cleaningRobot, String outputFileLocation) throws IOException {
+		try (FileChannel fileChannel = openFile(outputFileLocation)) {
+			writeCleaningProcedureOutput(cleaningRobot, fileChannel);
+		}
+	}
+
+	/**
+	 * Writes the output of the cleaning procedure into the given channel - the channel is not closed.
+	 *
+	 * @param cleaningRobot - the final configuration of the cleaning robot
+	 * @param channel - the channel receiving the output
+	 */
+	public void writeCleaningProcedureOutput(CleaningRobot cleaningRobot, WritableByteChannel channel) throws IOException {
+		startDocument(channel);
+		writeRobot(cleaningRobot);
+		endDocument();
+	}
+
+	/**
+	 * Writes the final configuration of a robot as a JSON object.
+	 */
+	protected void writeRobot(CleaningRobot cleaningRobot) throws IOException {
+		writeAscii("{");
+		writeKey(JSONKeys.VISIT_KEY);
+		writePositions(cleaningRobot.getVisitedPositionLog());
+		writeAscii(",");
+		writeKey(JSONKeys.FINAL_KEY);
+		writeAscii("{");
+		writeKey(JSONKeys.X_KEY);
+		writeLong(cleaningRobot.getPosition().getxCol());
+		writeAscii(",");
+		writeKey(JSONKeys.Y_KEY);
+		writeLong(cleaningRobot.getPosition().getyRow());
+		writeAscii(",");
+		writeKey(JSONKeys.DIRECTION_KEY);
+		writeAscii("\"");
+		writeAscii(cleaningRobot.getDirection().getDirection());
+		writeAscii("\"}");
+		writeAscii(",");
+		writeKey(JSONKeys.CLEAN_KEY);
+		writePositions(cleaningRobot.getCleanedPositionLog());
+		writeAscii(",");
+		writeKey(JSONKeys.BATTERY_KEY);
+		writeLong(cleaningRobot.getBattery());
+		writeAscii("}");
+	}
+
+	/**
+	 * Writes the positions as a JSON array, the most recent one first.
+	 */
+	private void writePositions(PositionLog positions) throws IOException {
+		writeAscii("[");
+		for (int i = 0; i < positions.size(); i++) {
+			long packedPosition = positions.getMostRecent(i);
+			writeAscii(i == 0 ? "{" : ",{");
+			writeKey(JSONKeys.X_KEY);
+			writeLong(Position.unpackX(packedPosition));
+			writeAscii(",");
+			writeKey(JSONKeys.Y_KEY);
+			writeLong(Position.unpackY(packedPosition));
+			writeAscii("}");
+		}
+		writeAscii("]");
+	}
+
+}
\ No newline at end of file
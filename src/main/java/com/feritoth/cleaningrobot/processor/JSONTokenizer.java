@@ -0,0 +1,252 @@
+package com.feritoth.cleaningrobot.processor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A minimal, byte level JSON tokenizer used by the streaming input reader - it works on its own buffer
+ * and keeps the text of the last string or number inside a reusable scratch array, so the tokens
+ * can be examined without allocating anything. The separators (',' and ':') are skipped, the structure
+ * being given by the brackets and by the alternation of the keys and values inside the objects.
+ *
+ * @author Ferenc Toth
+ */
+public class JSONTokenizer implements Closeable {
+
+	public static final int END_OF_INPUT = 0;
+	public static final int BEGIN_OBJECT = 1;
+	public static final int END_OBJECT = 2;
+	public static final int BEGIN_ARRAY = 3;
+	public static final int END_ARRAY = 4;
+	public static final int STRING = 5;
+	public static final int NUMBER = 6;
+	public static final int LITERAL = 7;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final InputStream inputStream;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int bufferPosition;
+	private int bufferLimit;
+	/* The absolute offset of the first byte inside the buffer */
+	private long bufferOffset;
+	private long tokenOffset;
+	private byte[] text = new byte[64];
+	private int textLength;
+
+	/**
+	 * @param inputStream - the stream to be tokenized
+	 * @param initialOffset - the absolute offset of the first byte of the stream inside the whole document
+	 */
+	public JSONTokenizer(InputStream inputStream, long initialOffset) {
+		super();
+		this.inputStream = inputStream;
+		this.bufferOffset = initialOffset;
+	}
+
+	/**
+	 * Reads the next token from the input.
+	 *
+	 * @return the type of the token read
+	 * @throws IOException in case of a reading problem or of a malformed input
+	 */
+	public int nextToken() throws IOException {
+		int current = read();
+		while (current == ' ' || current == '\n' || current == '\r' || current == '\t' || current == ',' || current == ':') {
+			current = read();
+		}
+		tokenOffset = bufferOffset + bufferPosition - 1;
+		textLength = 0;
+		switch (current) {
+		case -1:
+			return END_OF_INPUT;
+		case '{':
+			return BEGIN_OBJECT;
+		case '}':
+			return END_OBJECT;
+		case '[':
+			return BEGIN_ARRAY;
+		case ']':
+			return END_ARRAY;
+		case '"':
+			readString();
+			return STRING;
+		default:
+			if (current == '-' || (current >= '0' && current <= '9')) {
+				readBareValue(current);
+				return NUMBER;
+			} else if (current >= 'a' && current <= 'z') {
+				readBareValue(current);
+				return LITERAL;
+			}
+			throw new IOException("Unexpected character '" + (char) current + "' on offset:" + tokenOffset);
+		}
+	}
+
+	/**
+	 * Skips the value starting with the given (already read) token, including all its nested elements.
+	 */
+	public void skipValue(int firstToken) throws IOException {
+		if (firstToken != BEGIN_OBJECT && firstToken != BEGIN_ARRAY) {
+			return;
+		}
+		int depth = 1;
+		while (depth > 0) {
+			int token = nextToken();
+			if (token == BEGIN_OBJECT || token == BEGIN_ARRAY) {
+				depth++;
+			} else if (token == END_OBJECT || token == END_ARRAY) {
+				depth--;
+			} else if (token == END_OF_INPUT) {
+				throw new IOException("Unexpected end of input while skipping a value");
+			}
+		}
+	}
+
+	/**
+	 * @return the absolute offset of the first character of the last token
+	 */
+	public long getTokenOffset() {
+		return tokenOffset;
+	}
+
+	public int getTextLength() {
+		return textLength;
+	}
+
+	public byte getTextByte(int index) {
+		return text[index];
+	}
+
+	/**
+	 * Compares the text of the last string or number token with the given ASCII value, without allocating.
+	 */
+	public boolean textEquals(String value) {
+		if (value.length() != textLength) {
+			return false;
+		}
+		for (int i = 0; i < textLength; i++) {
+			if (text[i] != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public String getText() {
+		return new String(text, 0, textLength, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return the value of the last number token, as a long
+	 * @throws IOException in case the number is not an integer
+	 */
+	public long getLongValue() throws IOException {
+		boolean negative = textLength > 0 && text[0] == '-';
+		long value = 0L;
+		for (int i = negative ? 1 : 0; i < textLength; i++) {
+			int digit = text[i] - '0';
+			if (digit < 0 || digit > 9) {
+				throw new IOException("Integer value expected instead of:" + getText() + " on offset:" + tokenOffset);
+			}
+			value = Math.addExact(Math.multiplyExact(value, 10L), digit);
+		}
+		return negative ? -value : value;
+	}
+
+	@Override
+	public void close() throws IOException {
+		inputStream.close();
+	}
+
+	private void readString() throws IOException {
+		int current = read();
+		while (current != '"') {
+			if (current == -1) {
+				throw new IOException("Unterminated string starting on offset:" + tokenOffset);
+			}
+			if (current == '\\') {
+				current = read();
+				switch (current) {
+				case 'n':
+					current = '\n';
+					break;
+				case 't':
+					current = '\t';
+					break;
+				case 'r':
+					current = '\r';
+					break;
+				case 'b':
+					current = '\b';
+					break;
+				case 'f':
+					current = '\f';
+					break;
+				case 'u':
+					current = readUnicodeEscape();
+					break;
+				default:
+					//the quote, the backslash and the slash stand for themselves
+					break;
+				}
+			}
+			appendText(current);
+			current = read();
+		}
+	}
+
+	private int readUnicodeEscape() throws IOException {
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			value = (value << 4) | Character.digit(read(), 16);
+		}
+		//only the ASCII range is relevant for the keys and values processed by the application
+		return value < 0x80 ? value : '?';
+	}
+
+	private void readBareValue(int firstCharacter) throws IOException {
+		appendText(firstCharacter);
+		while (true) {
+			if (bufferPosition == bufferLimit && !fill()) {
+				return;
+			}
+			byte current = buffer[bufferPosition];
+			if (current == ',' || current == ']' || current == '}' || current == ' ' || current == '\n' || current == '\r' || current == '\t' || current == ':') {
+				return;
+			}
+			appendText(current);
+			bufferPosition++;
+		}
+	}
+
+	private void appendText(int character) {
+		if (textLength == text.length) {
+			text = Arrays.copyOf(text, textLength * 2);
+		}
+		text[textLength++] = (byte) character;
+	}
+
+	private int read() throws IOException {
+		if (bufferPosition == bufferLimit && !fill()) {
+			return -1;
+		}
+		return buffer[bufferPosition++] & 0xFF;
+	}
+
+	private boolean fill() throws IOException {
+		bufferOffset += bufferLimit;
+		bufferPosition = 0;
+		bufferLimit = 0;
+		int count = inputStream.read(buffer, 0, buffer.length);
+		if (count <= 0) {
+			return false;
+		}
+		bufferLimit = count;
+		return true;
+	}
+
+}
\ No newline at end of file
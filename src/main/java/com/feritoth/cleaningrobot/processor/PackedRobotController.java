@@ -0,0 +1,500 @@
+package com.feritoth.cleaningrobot.processor;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.checkpoint.CheckpointManager;
+import com.feritoth.cleaningrobot.core.CleanedCellRegistry;
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.OccupancyGrid;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.PositionLog;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+import com.feritoth.cleaningrobot.utils.BacktrackCommands;
+
+/**
+ * An alternative to the {@link RobotController} - the robot state is kept in primitive fields during the
+ * whole simulation (position as a flat cell index, direction as an ordinal, battery as a long), while turning
+ * and stepping are done through lookup tables. Nothing gets allocated per executed command, the results being
+ * identical to the ones of the original controller.
+ * Once the robot gets into a periodic state (see {@link CycleDetector}), the following repetitions of the cycle are
+ * only matched against the incoming commands, their battery consumption being applied in bulk, while the remaining
+ * commands are executed step by step again.
+ * An instance keeps the state of the robot being simulated, thus it must not be shared between threads.
+ *
+ * @author Ferenc Toth
+ */
+public class PackedRobotController implements CleaningEngine {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PackedRobotController.class);
+
+	/* The lookup tables, indexed by the ordinal of the direction (N, E, S, W) */
+	static final int[] TURN_LEFT = {3, 0, 1, 2};
+	static final int[] TURN_RIGHT = {1, 2, 3, 0};
+	static final int[] STEP_X = {0, 1, 0, -1};
+	static final int[] STEP_Y = {-1, 0, 1, 0};
+	static final int[] OPPOSITE = {2, 3, 0, 1};
+	/* The battery consumption, indexed by the ordinal of the command (TL, TR, A, B, C) */
+	static final long[] COMMAND_COST = {1L, 1L, 2L, 3L, 5L};
+	static final ValidDirections[] DIRECTIONS = ValidDirections.values();
+	static final ValidCommands[] COMMANDS = ValidCommands.values();
+	/* The back-off sequences in their order of execution - the second one is executed twice */
+	static final int[][] BACK_OFF_SEQUENCES = {toOrdinals(BacktrackCommands.FIRST_BACKTRACK_SEQUENCE), toOrdinals(BacktrackCommands.SECOND_BACKTRACK_SEQUENCE),
+			                                   toOrdinals(BacktrackCommands.SECOND_BACKTRACK_SEQUENCE), toOrdinals(BacktrackCommands.THIRD_BACKTRACK_SEQUENCE),
+			                                   toOrdinals(BacktrackCommands.FOURTH_BACKTRACK_SEQUENCE)};
+
+	static final int TL = ValidCommands.TURN_LEFT.ordinal();
+	static final int TR = ValidCommands.TURN_RIGHT.ordinal();
+	static final int A = ValidCommands.ADVANCE.ordinal();
+	static final int B = ValidCommands.BACK.ordinal();
+	static final int C = ValidCommands.CLEAN.ordinal();
+
+	/* The room related state */
+	private int nbOfColumns;
+	/* The move masks of the room, respectively the cell index offset of a step, per direction */
+	private byte[] moveMask;
+	private final int[] cellOffset = new int[4];
+	/* The robot related state */
+	private int cell;
+	private int direction;
+	private long battery;
+	private boolean stuck;
+	private PositionLog visitedPositions;
+	private PositionLog cleanedPositions;
+	/* The memoized back-off outcomes, respectively the scratch array holding the current outcome */
+	private final boolean backOffCacheEnabled;
+	private BackOffCache backOffCache;
+	private final int[] backOffOutcome = new int[BackOffCache.MAX_OUTCOME_SIZE];
+	private boolean recordingBackOff;
+	/* The detection of the periodic state, respectively the commands read ahead while matching a cycle, to be executed */
+	private final CycleDetector cycleDetector;
+	private boolean fastForward;
+	private final int[] replayedCommands;
+	private int replayPosition;
+	private int replayLength;
+	/* The instrumentation - only called when a listener is attached */
+	private SimulationListener simulationListener;
+	private boolean backOffStepListener;
+	private int backOffStage;
+	private long commandIndex;
+	private CheckpointManager checkpointManager;
+	/* The state shared with the other robots of the same room - only present inside a fleet */
+	private OccupancyGrid occupancyGrid;
+	private int robotId;
+	private CleanedCellRegistry cleanedCellRegistry;
+	/* Whether the end of an execution (exhausted battery, stuck robot) gets logged */
+	private boolean terminationLogging = true;
+
+	public PackedRobotController() {
+		this(true);
+	}
+
+	/**
+	 * @param backOffCacheEnabled - reuse the back-off outcomes already computed for the same room (see {@link BackOffCache})
+	 */
+	public PackedRobotController(boolean backOffCacheEnabled) {
+		this(backOffCacheEnabled, true);
+	}
+
+	/**
+	 * @param backOffCacheEnabled - reuse the back-off outcomes already computed for the same room (see {@link BackOffCache})
+	 * @param fastForwardEnabled - skip the repetitions of the cycles of a periodic state (see {@link CycleDetector})
+	 */
+	public PackedRobotController(boolean backOffCacheEnabled, boolean fastForwardEnabled) {
+		super();
+		this.backOffCacheEnabled = backOffCacheEnabled;
+		this.cycleDetector = fastForwardEnabled ? new CycleDetector() : null;
+		this.replayedCommands = fastForwardEnabled ? new int[CycleDetector.MAX_CYCLE_LENGTH + 1] : null;
+	}
+
+	@Override
+	public boolean executeCleaningProcedure(CleaningRobot cleaningRobot, Room room, Iterator<ValidCommands> allInputCommands) {
+		if (cleaningRobot.getBattery() <= 0L){
+			LOGGER.warn("The initial battery capacity was 0 or below it, the program will thus exit...");
+			return false;
+		}
+		loadRobot(cleaningRobot, room);
+		while (battery > 0 && !stuck && (replayPosition < replayLength || allInputCommands.hasNext())) {
+			int command = replayPosition < replayLength ? replayedCommands[replayPosition++] : allInputCommands.next().ordinal();
+			long batteryBefore = battery;
+			if (!executeCommand(command)) {
+				break;
+			}
+			if (simulationListener != null) {
+				simulationListener.commandExecuted(commandIndex, COMMANDS[command], cell % nbOfColumns, cell / nbOfColumns, DIRECTIONS[direction], battery);
+			}
+			commandIndex++;
+			if (checkpointManager != null && battery > 0 && checkpointManager.isDue(commandIndex)) {
+				int yRow = cell / nbOfColumns;
+				checkpointManager.checkpoint(commandIndex, cell - yRow * nbOfColumns, yRow, direction, battery, visitedPositions, cleanedPositions);
+			}
+			//the commands read ahead while matching a cycle are not matched again, until the last one of them
+			if (fastForward && cycleDetector.record(command, batteryBefore, cell, direction, visitedPositions.size(), cleanedPositions.size())
+					&& replayPosition == replayLength) {
+				skipCycles(allInputCommands);
+			}
+		}
+		storeRobot(cleaningRobot);
+		return true;
+	}
+
+	@Override
+	public void setSimulationListener(SimulationListener simulationListener) {
+		this.simulationListener = simulationListener;
+		this.backOffStepListener = simulationListener != null && simulationListener.isBackOffStepListener();
+	}
+
+	/**
+	 * Attaches the manager taking the periodic checkpoints of the simulation (and holding the resume point).
+	 */
+	public void setCheckpointManager(CheckpointManager checkpointManager) {
+		this.checkpointManager = checkpointManager;
+	}
+
+	/**
+	 * Makes the robot share its room with other robots: the cells occupied by them are treated as obstacles
+	 * (the start cell must have already been claimed for the robot), while every cleaned cell is reported to
+	 * the common registry as well. The back-off cache is not used inside a fleet, as the outcome of a back-off
+	 * depends on the position of the other robots too.
+	 *
+	 * @param occupancyGrid - the cells occupied by the robots of the room
+	 * @param robotId - the identifier of the robot inside the occupancy grid
+	 * @param cleanedCellRegistry - the cells cleaned by any of the robots
+	 */
+	public void joinFleet(OccupancyGrid occupancyGrid, int robotId, CleanedCellRegistry cleanedCellRegistry) {
+		this.occupancyGrid = occupancyGrid;
+		this.robotId = robotId;
+		this.cleanedCellRegistry = cleanedCellRegistry;
+	}
+
+	/**
+	 * Copies the state of the given robot into the primitive fields of the controller.
+	 */
+	void loadRobot(CleaningRobot cleaningRobot, Room room) {
+		this.nbOfColumns = room.getNbOfColumns();
+		this.moveMask = room.getMoveMask();
+		for (int directionOrdinal = 0; directionOrdinal < cellOffset.length; directionOrdinal++) {
+			cellOffset[directionOrdinal] = STEP_Y[directionOrdinal] * nbOfColumns + STEP_X[directionOrdinal];
+		}
+		this.cell = Math.toIntExact(cleaningRobot.getPosition().getyRow() * nbOfColumns + cleaningRobot.getPosition().getxCol());
+		this.direction = cleaningRobot.getDirection().ordinal();
+		this.battery = cleaningRobot.getBattery();
+		this.stuck = false;
+		this.commandIndex = checkpointManager != null ? checkpointManager.getResumedCommandIndex() : 0L;
+		this.visitedPositions = cleaningRobot.getVisitedPositionLog();
+		this.cleanedPositions = cleaningRobot.getCleanedPositionLog();
+		this.backOffCache = backOffCacheEnabled && occupancyGrid == null ? BackOffCache.forRoom(room) : null;
+		//the skipped commands are neither reported to a listener nor checkpointed, while a fleet is not periodic at all
+		this.fastForward = cycleDetector != null && simulationListener == null && checkpointManager == null && occupancyGrid == null;
+		this.replayPosition = 0;
+		this.replayLength = 0;
+		if (fastForward) {
+			cycleDetector.reset(cell, direction, visitedPositions.size(), cleanedPositions.size());
+		}
+	}
+
+	/**
+	 * Writes the primitive state of the controller back into the given robot.
+	 */
+	void storeRobot(CleaningRobot cleaningRobot) {
+		cleaningRobot.setPosition(new Position(cell % nbOfColumns, cell / nbOfColumns));
+		cleaningRobot.setDirection(DIRECTIONS[direction]);
+		cleaningRobot.setBattery(battery);
+		if (stuck && terminationLogging) {
+			LOGGER.warn("Program termination iminent due to robot being stuck in position:" + cleaningRobot.getPosition());
+		}
+	}
+
+	/**
+	 * Executes a chunk of commands on the loaded robot as if its battery never ran out, up to the command getting
+	 * it stuck - the battery consumed being given by the remaining battery (see {@link ChunkedRobotController}).
+	 *
+	 * @param commands - the ordinals of the commands
+	 * @param nbOfCommands - the number of commands of the chunk
+	 * @return the lowest battery level from which every executed command meets the battery rules
+	 */
+	long executeWithoutBatteryLimit(byte[] commands, int nbOfCommands) {
+		long startBattery = battery;
+		long requiredBattery = 0L;
+		for (int i = 0; i < nbOfCommands && !stuck; i++) {
+			int command = commands[i];
+			requiredBattery = Math.max(requiredBattery, getRequiredBattery(command, startBattery - battery));
+			executeCommand(command);
+		}
+		return requiredBattery;
+	}
+
+	/**
+	 * Gives the battery level required for executing a command after a given consumption - a move may leave
+	 * an empty battery, while the other commands may not.
+	 *
+	 * @param command - the ordinal of the command
+	 * @param batteryConsumed - the battery consumed since the reference level
+	 * @return the reference level needed for the command to be executed
+	 */
+	static long getRequiredBattery(int command, long batteryConsumed) {
+		return batteryConsumed + COMMAND_COST[command] + (command == A || command == B ? 0L : 1L);
+	}
+
+	int getCell() {
+		return cell;
+	}
+
+	int getDirection() {
+		return direction;
+	}
+
+	long getBattery() {
+		return battery;
+	}
+
+	/**
+	 * @return true if the latest execution ended with the robot stuck
+	 */
+	public boolean isStuck() {
+		return stuck;
+	}
+
+	/**
+	 * Enables the warnings logged at the end of an execution (exhausted battery, stuck robot) - enabled by default,
+	 * to be disabled by the callers running a large number of short simulations.
+	 */
+	public void setTerminationLogging(boolean terminationLogging) {
+		this.terminationLogging = terminationLogging;
+	}
+
+	/**
+	 * Executes a single command, following the same battery rules as the original controller.
+	 *
+	 * @param command - the ordinal of the command to be executed
+	 * @return true if the execution may continue, false if the battery was insufficient or the robot got stuck
+	 */
+	boolean executeCommand(int command) {
+		long remainingBattery = battery - COMMAND_COST[command];
+		if (command == A || command == B) {
+			if (remainingBattery < 0) {
+				if (terminationLogging) {
+					LOGGER.warn("Battery level insufficent for continuing, need to exit the current instruction sequence unfortunately...");
+				}
+				if (simulationListener != null) {
+					simulationListener.batteryExhausted(commandIndex, COMMANDS[command], battery);
+				}
+				return false;
+			}
+			battery = remainingBattery;
+			markVisited();
+			if (!moveTowards(command == A ? direction : OPPOSITE[direction]) && !backOff()) {
+				stuck = true;
+				if (simulationListener != null) {
+					simulationListener.robotStuck(commandIndex, cell % nbOfColumns, cell / nbOfColumns);
+				}
+				return false;
+			}
+			return true;
+		}
+		if (remainingBattery <= 0) {
+			if (terminationLogging) {
+				LOGGER.warn("Battery level insufficent for continuing, need to exit the current instruction sequence unfortunately...");
+			}
+			if (simulationListener != null) {
+				simulationListener.batteryExhausted(commandIndex, COMMANDS[command], battery);
+			}
+			return false;
+		}
+		battery = remainingBattery;
+		if (command == TL) {
+			direction = TURN_LEFT[direction];
+		} else if (command == TR) {
+			direction = TURN_RIGHT[direction];
+		} else {
+			cleanedPositions.add(Position.pack(cell % nbOfColumns, cell / nbOfColumns));
+			if (cleanedCellRegistry != null) {
+				cleanedCellRegistry.markCleaned(cell);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Skips the repetitions of the cycle just detected: the incoming commands are matched against the ones of the
+	 * cycle, every full repetition found being skipped as long as the battery is sufficient for executing it. The 
+	 * battery consumed by the skipped repetitions is then applied at once, while the commands read ahead without 
+	 * completing a repetition (including the first mismatching one) are left to be executed step by step.
+	 */
+	private void skipCycles(Iterator<ValidCommands> allInputCommands) {
+		int cycleLength = cycleDetector.getLength();
+		long batteryPerCycle = cycleDetector.getBatteryPerCycle(battery);
+		long requiredBattery = cycleDetector.getRequiredBattery();
+		long nbOfSkippedCycles = 0L;
+		replayPosition = 0;
+		replayLength = 0;
+		while (battery - nbOfSkippedCycles * batteryPerCycle >= requiredBattery) {
+			int nbOfMatchedCommands = 0;
+			while (nbOfMatchedCommands < cycleLength && allInputCommands.hasNext()) {
+				int command = allInputCommands.next().ordinal();
+				if (command != cycleDetector.getCommand(nbOfMatchedCommands)) {
+					replayedCommands[nbOfMatchedCommands] = command;
+					replayLength = nbOfMatchedCommands + 1;
+					break;
+				}
+				replayedCommands[nbOfMatchedCommands++] = command;
+			}
+			if (nbOfMatchedCommands < cycleLength) {
+				replayLength = Math.max(replayLength, nbOfMatchedCommands);
+				break;
+			}
+			nbOfSkippedCycles++;
+		}
+		battery -= nbOfSkippedCycles * batteryPerCycle;
+		commandIndex += nbOfSkippedCycles * cycleLength;
+		//a failed match keeps the record going, a longer cycle being possibly found later
+		if (nbOfSkippedCycles > 0L || replayLength == 0) {
+			cycleDetector.restart(cell, direction, visitedPositions.size(), cleanedPositions.size());
+		}
+	}
+
+	/**
+	 * Executes the back-off strategy from the current cell and direction - through the cache when enabled,
+	 * the outcome of a back-off already seen being applied in bulk.
+	 *
+	 * @return true for a successful back-off, false if the robot got stuck
+	 */
+	private boolean backOff() {
+		if (simulationListener == null) {
+			return backOffThroughCache();
+		}
+		long startBattery = battery;
+		simulationListener.backOffStarted(commandIndex, cell % nbOfColumns, cell / nbOfColumns, DIRECTIONS[direction]);
+		boolean successful = backOffThroughCache();
+		simulationListener.backOffFinished(commandIndex, successful, cell % nbOfColumns, cell / nbOfColumns, DIRECTIONS[direction], startBattery - battery);
+		return successful;
+	}
+
+	private boolean backOffThroughCache() {
+		if (backOffCache == null || backOffStepListener) {
+			return initiateBackOffStrategy();
+		}
+		int[] outcome = backOffOutcome;
+		if (backOffCache.lookup(cell, direction, outcome)) {
+			battery -= outcome[BackOffCache.BATTERY_CONSUMED];
+			int lastVisitedCell = BackOffCache.FIRST_VISITED_CELL + outcome[BackOffCache.NB_OF_VISITED_CELLS];
+			for (int i = BackOffCache.FIRST_VISITED_CELL; i < lastVisitedCell; i++) {
+				cell = outcome[i];
+				markVisited();
+			}
+			cell = outcome[BackOffCache.FINAL_CELL];
+			direction = outcome[BackOffCache.FINAL_DIRECTION];
+			return outcome[BackOffCache.STUCK] == 0;
+		}
+		int startCell = cell;
+		int startDirection = direction;
+		long startBattery = battery;
+		outcome[BackOffCache.NB_OF_VISITED_CELLS] = 0;
+		recordingBackOff = true;
+		boolean successful = initiateBackOffStrategy();
+		recordingBackOff = false;
+		outcome[BackOffCache.FINAL_CELL] = cell;
+		outcome[BackOffCache.FINAL_DIRECTION] = direction;
+		outcome[BackOffCache.STUCK] = successful ? 0 : 1;
+		outcome[BackOffCache.BATTERY_CONSUMED] = (int) (startBattery - battery);
+		backOffCache.store(startCell, startDirection, outcome);
+		return successful;
+	}
+
+	/**
+	 * Goes through the back-off sequences until one of them succeeds.
+	 *
+	 * @return true for a successful back-off, false if the robot got stuck
+	 */
+	boolean initiateBackOffStrategy() {
+		for (backOffStage = 1; backOffStage <= BACK_OFF_SEQUENCES.length; backOffStage++) {
+			if (executeBackOffSequence(BACK_OFF_SEQUENCES[backOffStage - 1])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Executes a back-off sequence unconditionally with respect to the battery, like the original controller does.
+	 * Note that the original controller moves the robot forward for the BACK command of a back-off sequence as well,
+	 * this behaviour being kept here in order to produce the very same output.
+	 */
+	private boolean executeBackOffSequence(int[] backOffSequence) {
+		for (int command : backOffSequence) {
+			battery -= COMMAND_COST[command];
+			boolean moved = true;
+			if (command == TL) {
+				direction = TURN_LEFT[direction];
+			} else if (command == TR) {
+				direction = TURN_RIGHT[direction];
+			} else {
+				markVisited();
+				if (recordingBackOff) {
+					recordVisitedCell();
+				}
+				moved = moveTowards(direction);
+			}
+			if (backOffStepListener) {
+				simulationListener.backOffStepExecuted(commandIndex, backOffStage, COMMANDS[command], cell % nbOfColumns, cell / nbOfColumns, DIRECTIONS[direction], battery);
+			}
+			if (!moved) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Steps the robot towards the given direction, unless the neighbouring cell is located outside the room,
+	 * holds an obstacle (both given by the move mask of the cell) or is occupied by another robot of the fleet.
+	 *
+	 * @param moveDirection - the ordinal of the direction of the step
+	 * @return true if the robot has moved, false otherwise
+	 */
+	private boolean moveTowards(int moveDirection) {
+		if ((moveMask[cell >>> 1] >>> (((cell & 1) << 2) + moveDirection) & 1) == 0) {
+			return false;
+		}
+		int nextCell = cell + cellOffset[moveDirection];
+		if (occupancyGrid != null && !occupancyGrid.move(robotId, cell, nextCell)) {
+			return false;
+		}
+		cell = nextCell;
+		return true;
+	}
+
+	private void markVisited() {
+		int yRow = cell / nbOfColumns;
+		visitedPositions.add(Position.pack(cell - yRow * nbOfColumns, yRow));
+	}
+
+	/**
+	 * Appends the current cell to the cells visited by the back-off being recorded, unless already present.
+	 */
+	private void recordVisitedCell() {
+		int lastVisitedCell = BackOffCache.FIRST_VISITED_CELL + backOffOutcome[BackOffCache.NB_OF_VISITED_CELLS];
+		for (int i = BackOffCache.FIRST_VISITED_CELL; i < lastVisitedCell; i++) {
+			if (backOffOutcome[i] == cell) {
+				return;
+			}
+		}
+		backOffOutcome[lastVisitedCell] = cell;
+		backOffOutcome[BackOffCache.NB_OF_VISITED_CELLS]++;
+	}
+
+	private static int[] toOrdinals(List<ValidCommands> commands) {
+		int[] ordinals = new int[commands.size()];
+		for (int i = 0; i < ordinals.length; i++) {
+			ordinals[i] = commands.get(i).ordinal();
+		}
+		return ordinals;
+	}
+
+}
\ No newline at end of file
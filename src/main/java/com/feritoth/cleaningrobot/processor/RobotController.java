@@ -1,6 +1,7 @@
 package com.feritoth.cleaningrobot.processor;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import org.slf4j.Logger;
@@ -11,6 +12,7 @@ import com.feritoth.cleaningrobot.core.Position;
 import com.feritoth.cleaningrobot.core.Room;
 import com.feritoth.cleaningrobot.core.ValidCommands;
 import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
 import com.feritoth.cleaningrobot.utils.BacktrackCommands;
 import com.feritoth.cleaningrobot.utils.RobotStuckException;
 
@@ -20,10 +22,14 @@ import com.feritoth.cleaningrobot.utils.RobotStuckException;
  * 
  * @author Ferenc Toth
  */
-public class RobotController {
+public class RobotController implements CleaningEngine {
 	
 	private static final Logger LOGGER = LoggerFactory.getLogger(RobotController.class);
 	private final List<List<ValidCommands>> backOffCommandSequences;
+	/* The per step logging is costly, thus only done on demand */
+	private boolean stepLogging;
+	private SimulationListener simulationListener;
+	private long commandIndex;
 	
 	public RobotController() {
 		super();
@@ -39,21 +45,43 @@ public class RobotController {
 	 * @param allInputCommands - the list of commands to be executed
 	 * @param outputFileLocation - the output file location
 	 */
+	@Override
 	public void activateCleaningProcedureForRobot(CleaningRobot cleaningRobot, Room room, List<ValidCommands> allInputCommands, String outputFileLocation) {
+		if (!executeCleaningProcedure(cleaningRobot, room, allInputCommands.iterator())){
+			return;
+		}
+		//print out for verification the results after executing the whole command set
+		LOGGER.info("The final robot parameters after cleaning are:" + cleaningRobot.toString());
+		new JSONOutputFormatter().createCleaningProcedureOutput(cleaningRobot, outputFileLocation);
+	}
+	
+	/**
+	 * Enables the logging of every turn, move and cell check - disabled by default.
+	 */
+	public void setStepLogging(boolean stepLogging) {
+		this.stepLogging = stepLogging;
+	}
+	
+	@Override
+	public void setSimulationListener(SimulationListener simulationListener) {
+		this.simulationListener = simulationListener;
+	}
+	
+	@Override
+	public boolean executeCleaningProcedure(CleaningRobot cleaningRobot, Room room, Iterator<ValidCommands> allInputCommands) {
 		//For empty battery, return immediately with an error message
 		if (cleaningRobot.getBattery() <= 0L){
 			LOGGER.warn("The initial battery capacity was 0 or below it, the program will thus exit...");
-			return;
+			return false;
 		}
 		//Now go for the effective command processing
-		//define an iterator for the traversal of the list in question
-		int cmdIterator = 0;
+		commandIndex = 0L;
 		//define a boolean field for marking the stuck situation of the robot
 		boolean robotStuck = false;
 		//go inside a while loop to see how each of the commands needs to be executed
-		cleaning_loop: while (cleaningRobot.getBattery() > 0 && !robotStuck && cmdIterator < allInputCommands.size()) {
+		cleaning_loop: while (cleaningRobot.getBattery() > 0 && !robotStuck && allInputCommands.hasNext()) {
 			//pick the next command from the list
-			ValidCommands nextCommand = allInputCommands.get(cmdIterator);
+			ValidCommands nextCommand = allInputCommands.next();
 			ValidDirections currentDirection = cleaningRobot.getDirection();
 			Long decrementAmount = 0L;
 			Long currentBatteryLevel = cleaningRobot.getBattery();			
@@ -68,6 +96,7 @@ public class RobotController {
 					cleaningRobot.setDirection(turnLeft(currentDirection));
 				} else {
 					LOGGER.warn("Battery level insufficent for continuing, need to exit the current instruction sequence unfortunately...");
+					notifyBatteryExhausted(nextCommand, currentBatteryLevel);
 					break cleaning_loop;
 				}
 				break;
@@ -80,6 +109,7 @@ public class RobotController {
 					cleaningRobot.setDirection(turnRight(currentDirection));
 				} else {
 					LOGGER.warn("Battery level insufficent for continuing, need to exit the current instruction sequence unfortunately...");
+					notifyBatteryExhausted(nextCommand, currentBatteryLevel);
 					break cleaning_loop;
 				}
 				break;
@@ -87,6 +117,7 @@ public class RobotController {
 				decrementAmount = 2L;
 				if (currentBatteryLevel - decrementAmount < 0){
 					LOGGER.warn("Battery level insufficent for continuing, need to exit the current instruction sequence unfortunately...");
+					notifyBatteryExhausted(nextCommand, currentBatteryLevel);
 					break cleaning_loop;
 				} else {
 					//decrement the battery with the corresponding amount and mark the current position as visited
@@ -102,6 +133,9 @@ public class RobotController {
 					if (robotStuck) {
 						LOGGER.warn("Program termination iminent due to robot being stuck in position:" + rse.getFinalRobot().getPosition());
 						cleaningRobot = rse.getFinalRobot();
+						if (simulationListener != null) {
+							simulationListener.robotStuck(commandIndex, cleaningRobot.getPosition().getxCol(), cleaningRobot.getPosition().getyRow());
+						}
 						break cleaning_loop;
 					}
 				}
@@ -110,6 +144,7 @@ public class RobotController {
 				decrementAmount = 3L;
 				if (currentBatteryLevel - decrementAmount < 0){
 					LOGGER.warn("Battery level insufficent for continuing, need to exit the current instruction sequence unfortunately...");
+					notifyBatteryExhausted(nextCommand, currentBatteryLevel);
 					break cleaning_loop;
 				} else {
 					//decrement the battery with the corresponding amount and mark the current position as visited
@@ -125,6 +160,9 @@ public class RobotController {
 					if (robotStuck) {
 						LOGGER.warn("Program termination iminent due to robot being stuck in position:" + rse.getFinalRobot().getPosition());
 						cleaningRobot = rse.getFinalRobot();
+						if (simulationListener != null) {
+							simulationListener.robotStuck(commandIndex, cleaningRobot.getPosition().getxCol(), cleaningRobot.getPosition().getyRow());
+						}
 						break cleaning_loop;
 					}
 				}
@@ -137,18 +175,40 @@ public class RobotController {
 					cleaningRobot.addNewCleanedPosition(cleaningRobot.getPosition());
 				} else {
 					LOGGER.warn("Battery level insufficent for continuing, need to exit the current instruction sequence unfortunately...");
+					notifyBatteryExhausted(nextCommand, currentBatteryLevel);
 					break cleaning_loop;
 				}
 				break;
 			}
-			//increment at the end the command iterator
-			cmdIterator++;
+			if (simulationListener != null) {
+				simulationListener.commandExecuted(commandIndex, nextCommand, cleaningRobot.getPosition().getxCol(), cleaningRobot.getPosition().getyRow(),
+						                           cleaningRobot.getDirection(), cleaningRobot.getBattery());
+			}
+			commandIndex++;
 		}
-		//print out for verification the results after executing the whole command set
-		LOGGER.info("The final robot parameters after cleaning are:" + cleaningRobot.toString());
-		new JSONOutputFormatter().createCleaningProcedureOutput(cleaningRobot, outputFileLocation);
+		return true;
 	}
 	
+	private void notifyBackOffFinished(CleaningRobot cleaningRobot, boolean successful, long startBattery) {
+		if (simulationListener != null) {
+			simulationListener.backOffFinished(commandIndex, successful, cleaningRobot.getPosition().getxCol(), cleaningRobot.getPosition().getyRow(),
+					                           cleaningRobot.getDirection(), startBattery - cleaningRobot.getBattery());
+		}
+	}
+	
+	private void notifyBackOffStep(CleaningRobot cleaningRobot, int backOffStage, ValidCommands command) {
+		if (simulationListener != null && simulationListener.isBackOffStepListener()) {
+			simulationListener.backOffStepExecuted(commandIndex, backOffStage, command, cleaningRobot.getPosition().getxCol(), cleaningRobot.getPosition().getyRow(),
+					                               cleaningRobot.getDirection(), cleaningRobot.getBattery());
+		}
+	}
+	
+	private void notifyBatteryExhausted(ValidCommands command, long batteryLevel) {
+		if (simulationListener != null) {
+			simulationListener.batteryExhausted(commandIndex, command, batteryLevel);
+		}
+	}
+
 	/**
 	 * A utility method for operating the turn right command.
 	 * 
@@ -196,7 +256,9 @@ public class RobotController {
 			finalDirection = ValidDirections.SOUTH;
 			break;
 		}
-		LOGGER.info("The new direction is:" + finalDirection + "(" + finalDirection.getDirection() + ")");
+		if (stepLogging) {
+			LOGGER.info("The new direction is:" + finalDirection + "(" + finalDirection.getDirection() + ")");
+		}
 		return finalDirection;
 	}
 	
@@ -214,53 +276,37 @@ public class RobotController {
 		ValidDirections currentDirection = cleaningRobot.getDirection();
 		//determine the next position based on the motion command
 		Position nextPosition = null;
+		ValidDirections moveDirection = currentDirection;
 		switch(nextCommand){
 		case ADVANCE:
 			nextPosition = advanceToNewPosition(currentDirection, currentPosition);
 			break;
 		case BACK:
 			nextPosition = retreatToPreviousPosition(currentDirection, currentPosition);
+			moveDirection = turnRight(turnRight(currentDirection));
 			break;
 		default:
-			LOGGER.info("The rest of the commands do not currently generate any new positions...");
+			if (stepLogging) {
+				LOGGER.info("The rest of the commands do not currently generate any new positions...");
+			}
 			break;
 		}
-		//now examine if the given position is suitable or not for the robot
-		int rowNb = room.getNbOfRows();
-		int columnNb = room.getNbOfColumns();
-		boolean rowOK = (0L <= nextPosition.getyRow()) && (nextPosition.getyRow() < rowNb) ? true : false;
-		boolean columnOK = (0L <= nextPosition.getxCol()) && (nextPosition.getxCol() < columnNb) ? true : false;
-		if (rowOK && columnOK){
-			//supplementary condition - look for any obstacles inside the new position
-			LOGGER.debug("Indexes OK for position:" + nextPosition + ", now going for content analysis...");
-			checkPositionContent(nextPosition, cleaningRobot, room);
+		//now examine if the given position is suitable or not for the robot - the move mask of the room covers both the borders and the obstacles
+		if (canMove(room, currentPosition, moveDirection)){
+			if (stepLogging) {
+				LOGGER.info("The next field has been declared as acceptable by the program, thus it will be used as the next position");
+			}
+			cleaningRobot.setPosition(nextPosition);
 		} else {
-			LOGGER.warn("Indexes out of range detected for position:" + nextPosition + ". Backoff sequence initiated...");
+			if (stepLogging) {
+				LOGGER.warn("Position out of range or holding an obstacle:" + nextPosition + ". Backoff sequence initiated...");
+			}
 			initiateBackOffStrategy(cleaningRobot, room);
 		}
 	}
 
-	/**
-	 * A method for examining if the robot is allowed to move to a given position - decision based on its content this time.
-	 * 
-	 * @param nextPosition - the new position to be moved to
-	 * @param cleaningRobot - the cleaning robot
-	 * @param room - the input room map
-	 */
-	private void checkPositionContent(Position nextPosition, CleaningRobot cleaningRobot, Room room) {
-		String newCellContent = room.getMapElement(Long.valueOf(nextPosition.getxCol()).intValue(), Long.valueOf(nextPosition.getyRow()).intValue());
-		LOGGER.info("The current content is:" + newCellContent);
-		switch(newCellContent){
-		case "C":
-		case "null":
-			LOGGER.warn("An obstacle was found on position:" + nextPosition.toString() + ". Backoff sequence initiated...");
-			initiateBackOffStrategy(cleaningRobot, room);
-			break;
-		default:
-			LOGGER.info("The current field has been declared as acceptable by the program, thus it will be used as the next position");
-			cleaningRobot.setPosition(nextPosition);
-			break;
-		}
+	private static boolean canMove(Room room, Position currentPosition, ValidDirections moveDirection) {
+		return room.canMove((int) currentPosition.getxCol(), (int) currentPosition.getyRow(), moveDirection);
 	}
 
 	/**
@@ -271,16 +317,28 @@ public class RobotController {
 	 * @param room - the room to be cleaned
 	 */
 	private void initiateBackOffStrategy(CleaningRobot cleaningRobot, Room room){
-		LOGGER.info("Starting the back off strategy...");
+		long startBattery = cleaningRobot.getBattery();
+		if (simulationListener != null) {
+			simulationListener.backOffStarted(commandIndex, cleaningRobot.getPosition().getxCol(), cleaningRobot.getPosition().getyRow(), cleaningRobot.getDirection());
+		}
+		if (stepLogging) {
+			LOGGER.info("Starting the back off strategy...");
+		}
+		int backOffStage = 0;
 		for (List<ValidCommands> currentBackOffSequence : backOffCommandSequences){
 			//go through each back-off sequence and execute it - in case one such sequence ends successfully, the current loop can be broken out of
-			boolean backOffSuccessful = executeSelectedBackOffSequence(cleaningRobot, room,	currentBackOffSequence);
+			backOffStage++;
+			boolean backOffSuccessful = executeSelectedBackOffSequence(cleaningRobot, room,	currentBackOffSequence, backOffStage);
 			if (backOffSuccessful){
-				LOGGER.info("Last invoked back-off strategy ended successfully, resuming original instruction sequence excution...");
+				if (stepLogging) {
+					LOGGER.info("Last invoked back-off strategy ended successfully, resuming original instruction sequence excution...");
+				}
+				notifyBackOffFinished(cleaningRobot, true, startBattery);
 				return;
 			}
 		}
 		//for none of the previous back-offs succeeding, it means that the robot will be stuck unfortunately
+		notifyBackOffFinished(cleaningRobot, false, startBattery);
 		throw new RobotStuckException(cleaningRobot);
 	}
 
@@ -295,9 +353,10 @@ public class RobotController {
 	 * @param cleaningRobot - the cleaning robot involved in the process
 	 * @param room - the room to be cleaned
 	 * @param currentBackOffSequence - the back-off sequence selected for execution
+	 * @param backOffStage - the number of the back-off sequence, starting from 1
 	 * @return a boolean flag indicating whether a given back-off sequence was or not successful
 	 */
-	private boolean executeSelectedBackOffSequence(CleaningRobot cleaningRobot, Room room, List<ValidCommands> currentBackOffSequence) {
+	private boolean executeSelectedBackOffSequence(CleaningRobot cleaningRobot, Room room, List<ValidCommands> currentBackOffSequence, int backOffStage) {
 		for (ValidCommands backOffCommand : currentBackOffSequence) {
 			ValidDirections currentDirection = cleaningRobot.getDirection();
 			Long currentBatteryLevel = cleaningRobot.getBattery();
@@ -322,21 +381,14 @@ public class RobotController {
 				cleaningRobot.addNewVisitedPosition(cleaningRobot.getPosition());
 				//determine the new position for the robot
 				Position newPosition = advanceToNewPosition(currentDirection, currentPosition);
-				int rowNb = room.getNbOfRows();
-				int columnNb = room.getNbOfColumns();
-				boolean rowOK = (0L <= newPosition.getyRow()) && (newPosition.getyRow() < rowNb) ? true : false;
-				boolean columnOK = (0L <= newPosition.getxCol()) && (newPosition.getxCol() < columnNb) ? true : false;
-				//if the position is OK, then pick the element from the room map and see if it is acceptable
-				if (rowOK && columnOK) {
-					String mapContent = room.getMapElement(Long.valueOf(newPosition.getxCol()).intValue(), Long.valueOf(newPosition.getyRow()).intValue());
-					if (mapContent.equals("C") || mapContent.equals("null")) {
-						LOGGER.debug("An obstacle has been found in the map on position:" + newPosition + ", moving on to the next back-off sequence...");
-						return false;
-					} else {
-						cleaningRobot.setPosition(newPosition);
-					}
+				//if the position is inside the map and holds no obstacle, then it is acceptable
+				if (canMove(room, currentPosition, currentDirection)) {
+					cleaningRobot.setPosition(newPosition);
 				} else {
-					LOGGER.debug("The current position is located outside the map unfortunately:" + newPosition + ", moving on to the next-back-off sequence");
+					notifyBackOffStep(cleaningRobot, backOffStage, backOffCommand);
+					if (stepLogging) {
+						LOGGER.debug("The position is either outside the map or holding an obstacle:" + newPosition + ", moving on to the next back-off sequence...");
+					}
 					return false;
 				}
 				break;
@@ -347,28 +399,24 @@ public class RobotController {
 				cleaningRobot.addNewVisitedPosition(cleaningRobot.getPosition());
 				//determine the new position for the robot
 				newPosition = advanceToNewPosition(currentDirection, currentPosition);
-				rowNb = room.getNbOfRows();
-				columnNb = room.getNbOfColumns();
-				rowOK = (0L <= newPosition.getyRow()) && (newPosition.getyRow() < rowNb) ? true : false;
-				columnOK = (0L <= newPosition.getxCol()) && (newPosition.getxCol() < columnNb) ? true : false;
-				//if the position is OK, then pick the element from the room map and see if it is acceptable
-				if (rowOK && columnOK) {
-					String mapContent = room.getMapElement(Long.valueOf(newPosition.getxCol()).intValue(), Long.valueOf(newPosition.getyRow()).intValue());
-					if (mapContent.equals("C") || mapContent.equals("null")) {
-						LOGGER.debug("An obstacle has been found in the map on position:" + newPosition + ", moving on to the next back-off sequence...");
-						return false;
-					} else {
-						cleaningRobot.setPosition(newPosition);
-					}
+				//if the position is inside the map and holds no obstacle, then it is acceptable
+				if (canMove(room, currentPosition, currentDirection)) {
+					cleaningRobot.setPosition(newPosition);
 				} else {
-					LOGGER.debug("The current position is located outside the map unfortunately:" + newPosition + ", moving on to the next-back-off sequence");
+					notifyBackOffStep(cleaningRobot, backOffStage, backOffCommand);
+					if (stepLogging) {
+						LOGGER.debug("The position is either outside the map or holding an obstacle:" + newPosition + ", moving on to the next back-off sequence...");
+					}
 					return false;
 				}
 				break;
 			default:
-				LOGGER.debug("The CLEAN command is not considered to be part of the back-off sequence for now...");
+				if (stepLogging) {
+					LOGGER.debug("The CLEAN command is not considered to be part of the back-off sequence for now...");
+				}
 				break;
 			}
+			notifyBackOffStep(cleaningRobot, backOffStage, backOffCommand);
 		}
 		return true;
 	}
@@ -399,7 +447,9 @@ public class RobotController {
 			break;
 		}
 		newPosition = new Position(xAbs, yOrd);
-		LOGGER.info("The new position for the robot would be:" + newPosition.toString());
+		if (stepLogging) {
+			LOGGER.info("The new position for the robot would be:" + newPosition.toString());
+		}
 		return newPosition;
 	}
 	
@@ -429,7 +479,9 @@ public class RobotController {
 			break;
 		}
 		newPosition = new Position(xAbs, yOrd);
-		LOGGER.info("The new position for the robot would be:" + newPosition.toString());
+		if (stepLogging) {
+			LOGGER.info("The new position for the robot would be:" + newPosition.toString());
+		}
 		return newPosition;		
 	}
 
@@ -0,0 +1,251 @@
+package com.feritoth.cleaningrobot.processor;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.feritoth.cleaningrobot.analysis.RoomAnalysis;
+import com.feritoth.cleaningrobot.analysis.RoomAnalyzer;
+import com.feritoth.cleaningrobot.core.Room;
+
+/**
+ * A process-wide cache of the rooms read from the inputs, addressed by their content: a room is looked up by the hash
+ * of its size and packed cells, the candidate being compared cell by cell before being reused. The jobs sharing the
+ * same map thus share a single room together with its derived indexes - the move mask, the back-off outcomes (see
+ * {@link BackOffCache}) and the pre-analysis (see {@link RoomAnalyzer}) - built once instead of once per job.
+ * The cached rooms are marked as shared, their cells becoming read-only, so any number of simulations may use them
+ * at the same time. The least recently used rooms are evicted as soon as the estimated memory footprint of the cache
+ * exceeds its limit - the footprint of a room covering its cells, its move mask, its pre-analysis and its back-off
+ * outcomes. The back-off outcomes growing while the room is simulated, they are measured again whenever the room is
+ * looked up.
+ *
+ * @author Ferenc Toth
+ */
+public class RoomCache {
+
+	/* The default limit of the footprint, as a fraction of the maximum heap */
+	private static final long DEFAULT_HEAP_FRACTION = 8L;
+	/* The estimated footprint of an entry besides its arrays */
+	private static final long ENTRY_OVERHEAD = 256L;
+	private static final long FNV_OFFSET_BASIS = 0xCBF29CE484222325L;
+	private static final long FNV_PRIME = 0x100000001B3L;
+	private static final RoomCache SHARED = new RoomCache(Runtime.getRuntime().maxMemory() / DEFAULT_HEAP_FRACTION);
+
+	/* The entries by content hash, in their order of access (the least recently used first) */
+	private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<Room, Entry> entriesByRoom = new IdentityHashMap<>();
+	private long maxFootprint;
+	private long footprint;
+	private long nbOfHits;
+	private long nbOfMisses;
+	private long nbOfEvictions;
+
+	/**
+	 * @param maxFootprint - the limit of the estimated memory footprint of the cached rooms, in bytes
+	 */
+	public RoomCache(long maxFootprint) {
+		super();
+		this.maxFootprint = maxFootprint;
+	}
+
+	/**
+	 * @return the cache shared by the whole process, limited by default to an eighth of the maximum heap
+	 */
+	public static RoomCache getShared() {
+		return SHARED;
+	}
+
+	/**
+	 * Changes the limit of the footprint, evicting the rooms exceeding the new limit.
+	 *
+	 * @param maxFootprint - the limit of the estimated memory footprint of the cached rooms, in bytes
+	 */
+	public synchronized void setMaxFootprint(long maxFootprint) {
+		this.maxFootprint = maxFootprint;
+		evictExceedingEntries();
+	}
+
+	/**
+	 * Returns the room made of the given packed cells - either the cached room holding the very same cells, or a new
+	 * room built on top of the cells, which gets cached in turn (unless it exceeds the limit of the cache on its own).
+	 *
+	 * @param cells - the packed cells, row by row - may be longer than needed (the surplus is ignored)
+	 * @return the room, shared with the other users of the cache unless it was too large for it
+	 */
+	public Room intern(int nbOfRows, int nbOfColumns, byte[] cells) {
+		int nbOfCells = Math.multiplyExact(nbOfRows, nbOfColumns);
+		long key = hash(nbOfRows, nbOfColumns, cells, nbOfCells);
+		Entry entry;
+		synchronized (this) {
+			entry = entries.get(key);
+		}
+		//the comparison runs outside the lock, the cells of a cached room never changing
+		if (entry != null && entry.room.hasCells(nbOfRows, nbOfColumns, cells)) {
+			synchronized (this) {
+				nbOfHits++;
+				if (entriesByRoom.get(entry.room) == entry) {
+					measureBackOffOutcomes(entry);
+					evictExceedingEntries();
+				}
+			}
+			return entry.room;
+		}
+		long roomFootprint = ENTRY_OVERHEAD + nbOfCells + ((nbOfCells + 1L) >>> 1);
+		synchronized (this) {
+			nbOfMisses++;
+			if (roomFootprint > maxFootprint || entries.containsKey(key)) {
+				//either too large or colliding with another room - left out of the cache
+				return new Room(nbOfRows, nbOfColumns, cells);
+			}
+		}
+		Room room = new Room(nbOfRows, nbOfColumns, cells.length == nbOfCells ? cells : Arrays.copyOf(cells, nbOfCells));
+		room.markShared();
+		synchronized (this) {
+			if (!entries.containsKey(key)) {
+				Entry newEntry = new Entry(room, roomFootprint);
+				entries.put(key, newEntry);
+				entriesByRoom.put(room, newEntry);
+				footprint += roomFootprint;
+				evictExceedingEntries();
+			}
+		}
+		return room;
+	}
+
+	/**
+	 * Returns the pre-analysis of the given room - computed only once for a cached room, respectively computed
+	 * right away for any other room.
+	 */
+	public RoomAnalysis analyze(Room room) {
+		Entry entry;
+		synchronized (this) {
+			entry = entriesByRoom.get(room);
+		}
+		if (entry == null) {
+			return new RoomAnalyzer().analyze(room);
+		}
+		RoomAnalysis roomAnalysis = entry.roomAnalysis;
+		if (roomAnalysis == null) {
+			roomAnalysis = new RoomAnalyzer().analyze(room);
+			synchronized (this) {
+				if (entry.roomAnalysis == null && entriesByRoom.get(room) == entry) {
+					measureBackOffOutcomes(entry);
+					//the component and the stuck directions of every cell, respectively the size of every component
+					long analysisFootprint = 5L * room.getNbOfCells() + 4L * roomAnalysis.getNbOfComponents();
+					entry.roomAnalysis = roomAnalysis;
+					entry.footprint += analysisFootprint;
+					footprint += analysisFootprint;
+					evictExceedingEntries();
+				}
+			}
+		}
+		return roomAnalysis;
+	}
+
+	/**
+	 * Drops all the cached rooms - the rooms stay usable by the simulations still holding them.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		entriesByRoom.clear();
+		footprint = 0L;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the estimated memory footprint of the cached rooms, the back-off outcomes being measured again
+	 */
+	public synchronized long getFootprint() {
+		for (Entry entry : entries.values()) {
+			measureBackOffOutcomes(entry);
+		}
+		return footprint;
+	}
+
+	public synchronized long getNbOfHits() {
+		return nbOfHits;
+	}
+
+	public synchronized long getNbOfMisses() {
+		return nbOfMisses;
+	}
+
+	/**
+	 * Updates the footprint of the given entry with the current size of the back-off outcomes of its room.
+	 */
+	private void measureBackOffOutcomes(Entry entry) {
+		BackOffCache backOffCache = BackOffCache.getIfPresent(entry.room);
+		long backOffFootprint = backOffCache == null ? 0L : backOffCache.getFootprint();
+		entry.footprint += backOffFootprint - entry.backOffFootprint;
+		footprint += backOffFootprint - entry.backOffFootprint;
+		entry.backOffFootprint = backOffFootprint;
+	}
+
+	private void evictExceedingEntries() {
+		Iterator<Entry> iterator = entries.values().iterator();
+		while (footprint > maxFootprint && iterator.hasNext()) {
+			Entry eldestEntry = iterator.next();
+			iterator.remove();
+			entriesByRoom.remove(eldestEntry.room);
+			footprint -= eldestEntry.footprint;
+			nbOfEvictions++;
+		}
+	}
+
+	/**
+	 * Hashes the size and the cells of a room (FNV-1a, followed by a final mix spreading the cell codes over all the bits).
+	 */
+	static long hash(int nbOfRows, int nbOfColumns, byte[] cells, int nbOfCells) {
+		long hash = (FNV_OFFSET_BASIS ^ nbOfRows) * FNV_PRIME;
+		hash = (hash ^ nbOfColumns) * FNV_PRIME;
+		for (int cellIndex = 0; cellIndex < nbOfCells; cellIndex++) {
+			hash = (hash ^ cells[cellIndex]) * FNV_PRIME;
+		}
+		return mix(hash);
+	}
+
+	/**
+	 * Hashes the size and the cells of the given room, the same way as the cached rooms - identical maps thus have the
+	 * same hash in every process, whether their cells are held on the heap or not.
+	 */
+	public static long hash(Room room) {
+		long hash = (FNV_OFFSET_BASIS ^ room.getNbOfRows()) * FNV_PRIME;
+		hash = (hash ^ room.getNbOfColumns()) * FNV_PRIME;
+		for (int cellIndex = 0; cellIndex < room.getNbOfCells(); cellIndex++) {
+			hash = (hash ^ room.getCell(cellIndex)) * FNV_PRIME;
+		}
+		return mix(hash);
+	}
+
+	private static long mix(long hash) {
+		hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+		return hash ^ (hash >>> 33);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "RoomCache [rooms=" + entries.size() + ", footprint=" + footprint + ", maxFootprint=" + maxFootprint + ", hits=" + nbOfHits
+				+ ", misses=" + nbOfMisses + ", evictions=" + nbOfEvictions + "]";
+	}
+
+	private static final class Entry {
+
+		private final Room room;
+		private long footprint;
+		/* The part of the footprint taken by the back-off outcomes, as last measured */
+		private long backOffFootprint;
+		private volatile RoomAnalysis roomAnalysis;
+
+		private Entry(Room room, long footprint) {
+			this.room = room;
+			this.footprint = footprint;
+		}
+
+	}
+
+}
\ No newline at end of file
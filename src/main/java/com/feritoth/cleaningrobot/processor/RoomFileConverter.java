@@ -0,0 +1,131 @@
+package com.feritoth.cleaningrobot.processor;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.core.RoomFile;
+import com.feritoth.cleaningrobot.utils.JSONKeys;
+
+/**
+ * Converts the map of a JSON input into a binary room file (see {@link RoomFile}). The map is streamed token by
+ * token straight into the output file, thus the conversion needs no memory proportional to the size of the room.
+ * The JSON input may either be a complete cleaning program (only its map being converted) or a bare map array.
+ * 
+ * @author Ferenc Toth
+ */
+public class RoomFileConverter {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(RoomFileConverter.class);
+	
+	/**
+	 * Converts the map found inside the JSON input file into the given room file.
+	 * 
+	 * @param inputFileLocation - the JSON input file
+	 * @param roomFileLocation - the room file to be created (replaced if already present)
+	 */
+	public void convert(String inputFileLocation, String roomFileLocation) {
+		try (JSONTokenizer tokenizer = new JSONTokenizer(new FileInputStream(inputFileLocation), 0L);
+			 FileChannel roomChannel = FileChannel.open(Paths.get(roomFileLocation), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					 StandardOpenOption.TRUNCATE_EXISTING)) {
+			if (!locateMap(tokenizer)) {
+				throw new IOException("No map found inside the input");
+			}
+			roomChannel.position(RoomFile.HEADER_SIZE);
+			long roomSize = writeCells(tokenizer, roomChannel);
+			int nbOfRows = (int) (roomSize >>> 32);
+			int nbOfColumns = (int) roomSize;
+			ByteBuffer header = RoomFile.createHeader(nbOfRows, nbOfColumns);
+			while (header.hasRemaining()) {
+				roomChannel.write(header, header.position());
+			}
+			LOGGER.info("The map of " + nbOfRows + "x" + nbOfColumns + " cells has been written into the room file:" + roomFileLocation);
+		} catch (IOException e) {
+			LOGGER.error("Cannot convert the map of the file on position:" + inputFileLocation);
+			throw new RuntimeException("Map conversion problem detected for the file on position:" + inputFileLocation + "\n" + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Advances the tokenizer up to the opening bracket of the map array.
+	 * 
+	 * @return true if the map has been found
+	 */
+	private static boolean locateMap(JSONTokenizer tokenizer) throws IOException {
+		int token = tokenizer.nextToken();
+		if (token == JSONTokenizer.BEGIN_ARRAY) {
+			return true;
+		}
+		if (token != JSONTokenizer.BEGIN_OBJECT) {
+			return false;
+		}
+		token = tokenizer.nextToken();
+		while (token == JSONTokenizer.STRING) {
+			if (tokenizer.textEquals(JSONKeys.MAP_KEY)) {
+				return tokenizer.nextToken() == JSONTokenizer.BEGIN_ARRAY;
+			}
+			tokenizer.skipValue(tokenizer.nextToken());
+			token = tokenizer.nextToken();
+		}
+		return false;
+	}
+	
+	/**
+	 * Writes the cells of the map rows into the channel, checking that all the rows have the same length.
+	 * 
+	 * @return the number of rows (upper 32 bits) and the number of columns (lower 32 bits) of the room
+	 */
+	private static long writeCells(JSONTokenizer tokenizer, FileChannel roomChannel) throws IOException {
+		ByteBuffer cells = ByteBuffer.allocateDirect(1 << 16);
+		long nbOfCells = 0L;
+		int nbOfRows = 0;
+		int nbOfColumns = -1;
+		int token = tokenizer.nextToken();
+		while (token != JSONTokenizer.END_ARRAY) {
+			if (token != JSONTokenizer.BEGIN_ARRAY) {
+				throw new IOException("Unexpected token on offset:" + tokenizer.getTokenOffset());
+			}
+			int rowLength = 0;
+			token = tokenizer.nextToken();
+			while (token != JSONTokenizer.END_ARRAY) {
+				if (token != JSONTokenizer.STRING && token != JSONTokenizer.LITERAL) {
+					throw new IOException("Unexpected map cell on offset:" + tokenizer.getTokenOffset());
+				}
+				if (!cells.hasRemaining()) {
+					flush(cells, roomChannel);
+				}
+				cells.put(StreamingJSONInputReader.decodeCell(tokenizer));
+				rowLength++;
+				token = tokenizer.nextToken();
+			}
+			if (nbOfColumns < 0) {
+				nbOfColumns = rowLength;
+			} else if (rowLength != nbOfColumns) {
+				throw new IOException("Row " + nbOfRows + " of the map has " + rowLength + " cells instead of " + nbOfColumns);
+			}
+			nbOfCells += rowLength;
+			if (nbOfCells > RoomFile.MAX_NB_OF_CELLS) {
+				throw new IOException("The map exceeds the maximum of " + RoomFile.MAX_NB_OF_CELLS + " cells");
+			}
+			nbOfRows++;
+			token = tokenizer.nextToken();
+		}
+		flush(cells, roomChannel);
+		return ((long) nbOfRows << 32) | Math.max(nbOfColumns, 0);
+	}
+	
+	private static void flush(ByteBuffer cells, FileChannel roomChannel) throws IOException {
+		cells.flip();
+		while (cells.hasRemaining()) {
+			roomChannel.write(cells);
+		}
+		cells.clear();
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,227 @@
+package com.feritoth.cleaningrobot.processor;
+
+import com.feritoth.cleaningrobot.cache.ResultCache;
+import com.feritoth.cleaningrobot.checkpoint.CheckpointManager;
+import com.feritoth.cleaningrobot.heatmap.HeatmapSink;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+
+/**
+ * The options driving the execution of a cleaning procedure - the defaults correspond to the 
+ * original behaviour of the application.
+ * 
+ * @author Ferenc Toth
+ */
+public class SimulationOptions {
+	
+	private EngineType engineType = EngineType.STANDARD;
+	private boolean streamingInput;
+	private boolean backOffCacheEnabled = true;
+	private boolean fastForwardEnabled = true;
+	private int chunkSize = ChunkedRobotController.DEFAULT_CHUNK_SIZE;
+	private SimulationListener simulationListener;
+	private boolean stepLogging;
+	private String roomFileLocation;
+	private RoomCache roomCache;
+	private ResultCache resultCache;
+	private HeatmapSink heatmapSink;
+	private String checkpointFileLocation;
+	private long checkpointEveryCommands;
+	private long checkpointIntervalMillis;
+	private boolean resume;
+	private long minCoverage;
+
+	public EngineType getEngineType() {
+		return engineType;
+	}
+
+	public SimulationOptions setEngineType(EngineType engineType) {
+		this.engineType = engineType;
+		return this;
+	}
+
+	public boolean isStreamingInput() {
+		return streamingInput;
+	}
+
+	/**
+	 * Selects the token level reading of the input (see {@link StreamingJSONInputReader}) instead of the DOM based one.
+	 */
+	public SimulationOptions setStreamingInput(boolean streamingInput) {
+		this.streamingInput = streamingInput;
+		return this;
+	}
+
+	public boolean isBackOffCacheEnabled() {
+		return backOffCacheEnabled;
+	}
+
+	/**
+	 * Enables the reuse of the back-off outcomes per room by the packed engine (see {@link BackOffCache}).
+	 */
+	public SimulationOptions setBackOffCacheEnabled(boolean backOffCacheEnabled) {
+		this.backOffCacheEnabled = backOffCacheEnabled;
+		return this;
+	}
+
+	public boolean isFastForwardEnabled() {
+		return fastForwardEnabled;
+	}
+
+	/**
+	 * Enables the skipping of the repeated cycles of a periodic program by the packed engine (see {@link CycleDetector}).
+	 */
+	public SimulationOptions setFastForwardEnabled(boolean fastForwardEnabled) {
+		this.fastForwardEnabled = fastForwardEnabled;
+		return this;
+	}
+
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Sets the number of commands summarized together by the chunked engine (see {@link ChunkedRobotController}).
+	 */
+	public SimulationOptions setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	public SimulationListener getSimulationListener() {
+		return simulationListener;
+	}
+
+	/**
+	 * Attaches the listener notified about the simulation events and phase timings - none by default.
+	 */
+	public SimulationOptions setSimulationListener(SimulationListener simulationListener) {
+		this.simulationListener = simulationListener;
+		return this;
+	}
+
+	public boolean isStepLogging() {
+		return stepLogging;
+	}
+
+	/**
+	 * Enables the logging of every single step by the standard engine - disabled by default, being costly.
+	 */
+	public SimulationOptions setStepLogging(boolean stepLogging) {
+		this.stepLogging = stepLogging;
+		return this;
+	}
+
+	public String getRoomFileLocation() {
+		return roomFileLocation;
+	}
+
+	/**
+	 * Selects the binary room file (see {@link RoomFileConverter}) to be used instead of the map of the input - 
+	 * the input is then read through the streaming reader, its map being skipped.
+	 */
+	public SimulationOptions setRoomFileLocation(String roomFileLocation) {
+		this.roomFileLocation = roomFileLocation;
+		return this;
+	}
+
+	public RoomCache getRoomCache() {
+		return roomCache;
+	}
+
+	/**
+	 * Selects the cache sharing the rooms read from identical maps (see {@link RoomCache}), typically the process-wide
+	 * one - none by default, every map being read into its own room.
+	 */
+	public SimulationOptions setRoomCache(RoomCache roomCache) {
+		this.roomCache = roomCache;
+		return this;
+	}
+
+	public ResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * Selects the on-disk cache serving the outputs of the inputs already simulated (see {@link ResultCache}) - none by default.
+	 */
+	public SimulationOptions setResultCache(ResultCache resultCache) {
+		this.resultCache = resultCache;
+		return this;
+	}
+
+	public HeatmapSink getHeatmapSink() {
+		return heatmapSink;
+	}
+
+	/**
+	 * Selects the sink aggregating the per cell counters of the runs (see {@link HeatmapSink}) - none by default. As every
+	 * run must then be observed, the result cache is not used.
+	 */
+	public SimulationOptions setHeatmapSink(HeatmapSink heatmapSink) {
+		this.heatmapSink = heatmapSink;
+		return this;
+	}
+
+	public String getCheckpointFileLocation() {
+		return checkpointFileLocation;
+	}
+
+	/**
+	 * Enables the periodic checkpoints of the simulation into the given file (packed engine only).
+	 */
+	public SimulationOptions setCheckpointFileLocation(String checkpointFileLocation) {
+		this.checkpointFileLocation = checkpointFileLocation;
+		return this;
+	}
+
+	public long getCheckpointEveryCommands() {
+		return checkpointEveryCommands;
+	}
+
+	/**
+	 * Selects the number of commands between two checkpoints - 0 for none.
+	 */
+	public SimulationOptions setCheckpointEveryCommands(long checkpointEveryCommands) {
+		this.checkpointEveryCommands = checkpointEveryCommands;
+		return this;
+	}
+
+	public long getCheckpointIntervalMillis() {
+		return checkpointIntervalMillis;
+	}
+
+	/**
+	 * Selects the time between two checkpoints - 0 for none. Without any number of commands or time, 
+	 * a checkpoint is taken every {@link CheckpointManager#DEFAULT_CHECKPOINT_EVERY_COMMANDS} commands.
+	 */
+	public SimulationOptions setCheckpointIntervalMillis(long checkpointIntervalMillis) {
+		this.checkpointIntervalMillis = checkpointIntervalMillis;
+		return this;
+	}
+
+	public boolean isResume() {
+		return resume;
+	}
+
+	/**
+	 * Continues the simulation from the latest checkpoint found inside the checkpoint file (if any).
+	 */
+	public SimulationOptions setResume(boolean resume) {
+		this.resume = resume;
+		return this;
+	}
+
+	public long getMinCoverage() {
+		return minCoverage;
+	}
+
+	/**
+	 * Rejects the simulations unable to clean the given number of cells, according to the pre-analysis of their
+	 * room and battery (see {@link com.feritoth.cleaningrobot.analysis.RoomAnalysis#getCoverageUpperBound}) - 0 for none.
+	 */
+	public SimulationOptions setMinCoverage(long minCoverage) {
+		this.minCoverage = minCoverage;
+		return this;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,466 @@
+package com.feritoth.cleaningrobot.processor;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.RoomFile;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.utils.JSONKeys;
+
+/**
+ * A token level alternative to the DOM based reading done by the {@link JSONInputConverter} - the room grid
+ * is built directly from the map array, while the commands are not stored at all: only their position inside
+ * the input is remembered, the commands being read lazily from there while the robot executes them.
+ * The peak memory is thus bounded by the size of the room, not by the length of the command list.
+ *
+ * @author Ferenc Toth
+ */
+public class StreamingJSONInputReader {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(StreamingJSONInputReader.class);
+	private static final int INITIAL_CELL_CAPACITY = 1 << 10;
+
+	/* The room to be used instead of the map of the input - null for reading the map */
+	private final Room presetRoom;
+	/* The cache sharing the rooms read from identical maps - null for reading every map into its own room */
+	private final RoomCache roomCache;
+
+	public StreamingJSONInputReader() {
+		this(null);
+	}
+
+	/**
+	 * @param presetRoom - the room replacing the map of the input (which is then skipped), null for reading the map
+	 */
+	public StreamingJSONInputReader(Room presetRoom) {
+		this(presetRoom, null);
+	}
+
+	/**
+	 * @param presetRoom - the room replacing the map of the input (which is then skipped), null for reading the map
+	 * @param roomCache - the cache sharing the rooms read from identical maps, null for reading every map into its own room
+	 */
+	public StreamingJSONInputReader(Room presetRoom, RoomCache roomCache) {
+		super();
+		this.presetRoom = presetRoom;
+		this.roomCache = roomCache;
+	}
+
+	/**
+	 * Creates the reader matching the given options - the room file selected by the options (if any) is mapped
+	 * and used instead of the map found inside the input, while the maps read otherwise go through the room cache
+	 * selected by the options.
+	 */
+	public static StreamingJSONInputReader forOptions(SimulationOptions options) {
+		String roomFileLocation = options.getRoomFileLocation();
+		if (roomFileLocation == null) {
+			return new StreamingJSONInputReader(null, options.getRoomCache());
+		}
+		try {
+			Room room = RoomFile.map(Paths.get(roomFileLocation));
+			LOGGER.info("The room mapped from the file " + roomFileLocation + " is:" + room.toString());
+			return new StreamingJSONInputReader(room);
+		} catch (IOException e) {
+			LOGGER.error("Cannot map the room file on position:" + roomFileLocation);
+			throw new RuntimeException("Cannot map the room file on position:" + roomFileLocation + "\n" + e.getMessage());
+		}
+	}
+
+	/**
+	 * The source of the input document - must be able to provide the content starting from any offset,
+	 * as the command list is read in a second pass.
+	 */
+	public interface InputSource {
+		InputStream open(long offset) throws IOException;
+	}
+
+	/**
+	 * Reads the cleaning program found inside the given file.
+	 *
+	 * @param inputFileLocation - the input file to be processed
+	 * @return the cleaning program, with the commands streamed from the file
+	 */
+	public CleaningProgram readProgram(String inputFileLocation) {
+		try {
+			return readProgram(fileSource(inputFileLocation));
+		} catch (FileNotFoundException e) {
+			LOGGER.error("Cannot find any file on the specified location:" + inputFileLocation);
+			throw new RuntimeException("No file located on the given position:" + inputFileLocation + "\n" + e.getMessage());
+		} catch (IOException e) {
+			LOGGER.error("Parsing problem detected for the file on position:" + inputFileLocation);
+			throw new RuntimeException("Parsing problem detected for the file on position:" + inputFileLocation + "\n" + e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads the programs of the robots sharing the room described inside the given file (see {@link #readFleetPrograms(InputSource)}).
+	 *
+	 * @param inputFileLocation - the input file to be processed
+	 * @return the programs of the robots, with the commands streamed from the file
+	 */
+	public List<CleaningProgram> readFleetPrograms(String inputFileLocation) {
+		try {
+			return readFleetPrograms(fileSource(inputFileLocation));
+		} catch (FileNotFoundException e) {
+			LOGGER.error("Cannot find any file on the specified location:" + inputFileLocation);
+			throw new RuntimeException("No file located on the given position:" + inputFileLocation + "\n" + e.getMessage());
+		} catch (IOException e) {
+			LOGGER.error("Parsing problem detected for the file on position:" + inputFileLocation);
+			throw new RuntimeException("Parsing problem detected for the file on position:" + inputFileLocation + "\n" + e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads the cleaning program found inside the given in-memory document.
+	 */
+	public CleaningProgram readProgram(byte[] content) {
+		try {
+			return readProgram(offset -> new ByteArrayInputStream(content, (int) offset, content.length - (int) offset));
+		} catch (IOException e) {
+			throw new RuntimeException("Parsing problem detected for the given input:" + e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads the cleaning program from the given source - the map, the start configuration and the battery
+	 * are parsed right away, while the commands are only located.
+	 */
+	public CleaningProgram readProgram(InputSource inputSource) throws IOException {
+		Room room = presetRoom;
+		RobotDescription robotDescription = new RobotDescription();
+		try (JSONTokenizer tokenizer = new JSONTokenizer(inputSource.open(0L), 0L)) {
+			expect(tokenizer.nextToken(), JSONTokenizer.BEGIN_OBJECT, tokenizer);
+			int token = tokenizer.nextToken();
+			while (token != JSONTokenizer.END_OBJECT) {
+				expect(token, JSONTokenizer.STRING, tokenizer);
+				if (tokenizer.textEquals(JSONKeys.MAP_KEY) && presetRoom == null) {
+					room = readRoom(tokenizer);
+				} else if (!readRobotField(tokenizer, robotDescription)) {
+					tokenizer.skipValue(tokenizer.nextToken());
+				}
+				token = tokenizer.nextToken();
+			}
+		}
+		if (room == null) {
+			throw new IOException("The map, the battery and the start direction are all mandatory");
+		}
+		return createProgram(room, robotDescription, inputSource);
+	}
+
+	/**
+	 * Reads the programs of several robots sharing the same room - the robots are described inside the
+	 * "robots" array, each element holding its own start configuration, battery and commands. An input
+	 * without such an array is read as a fleet made of a single robot.
+	 *
+	 * @param inputSource - the source of the input document
+	 * @return the programs of the robots, all of them referring to the same room instance
+	 */
+	public List<CleaningProgram> readFleetPrograms(InputSource inputSource) throws IOException {
+		Room room = presetRoom;
+		RobotDescription topLevelDescription = new RobotDescription();
+		List<RobotDescription> robotDescriptions = new ArrayList<>();
+		try (JSONTokenizer tokenizer = new JSONTokenizer(inputSource.open(0L), 0L)) {
+			expect(tokenizer.nextToken(), JSONTokenizer.BEGIN_OBJECT, tokenizer);
+			int token = tokenizer.nextToken();
+			while (token != JSONTokenizer.END_OBJECT) {
+				expect(token, JSONTokenizer.STRING, tokenizer);
+				if (tokenizer.textEquals(JSONKeys.MAP_KEY) && presetRoom == null) {
+					room = readRoom(tokenizer);
+				} else if (tokenizer.textEquals(JSONKeys.ROBOTS_KEY)) {
+					expect(tokenizer.nextToken(), JSONTokenizer.BEGIN_ARRAY, tokenizer);
+					token = tokenizer.nextToken();
+					while (token != JSONTokenizer.END_ARRAY) {
+						expect(token, JSONTokenizer.BEGIN_OBJECT, tokenizer);
+						robotDescriptions.add(readRobotDescription(tokenizer));
+						token = tokenizer.nextToken();
+					}
+				} else if (!readRobotField(tokenizer, topLevelDescription)) {
+					tokenizer.skipValue(tokenizer.nextToken());
+				}
+				token = tokenizer.nextToken();
+			}
+		}
+		if (room == null) {
+			throw new IOException("The map is mandatory");
+		}
+		if (robotDescriptions.isEmpty()) {
+			robotDescriptions.add(topLevelDescription);
+		}
+		List<CleaningProgram> programs = new ArrayList<>(robotDescriptions.size());
+		try {
+			for (RobotDescription robotDescription : robotDescriptions) {
+				programs.add(createProgram(room, robotDescription, inputSource));
+			}
+		} catch (IOException | RuntimeException e) {
+			for (CleaningProgram program : programs) {
+				program.close();
+			}
+			throw e;
+		}
+		return programs;
+	}
+
+	/**
+	 * Reads the fields of a robot object, the opening bracket being already consumed.
+	 */
+	private static RobotDescription readRobotDescription(JSONTokenizer tokenizer) throws IOException {
+		RobotDescription robotDescription = new RobotDescription();
+		int token = tokenizer.nextToken();
+		while (token != JSONTokenizer.END_OBJECT) {
+			expect(token, JSONTokenizer.STRING, tokenizer);
+			if (!readRobotField(tokenizer, robotDescription)) {
+				tokenizer.skipValue(tokenizer.nextToken());
+			}
+			token = tokenizer.nextToken();
+		}
+		return robotDescription;
+	}
+
+	/**
+	 * Reads the value of the current key into the robot description, provided the key describes the robot
+	 * (start configuration, battery or commands - the latter only being located).
+	 *
+	 * @return true if the key has been processed, false if it is not related to the robot
+	 */
+	private static boolean readRobotField(JSONTokenizer tokenizer, RobotDescription robotDescription) throws IOException {
+		if (tokenizer.textEquals(JSONKeys.COMMAND_KEY)) {
+			int token = tokenizer.nextToken();
+			expect(token, JSONTokenizer.BEGIN_ARRAY, tokenizer);
+			robotDescription.commandsOffset = tokenizer.getTokenOffset();
+			tokenizer.skipValue(token);
+		} else if (tokenizer.textEquals(JSONKeys.BATTERY_KEY)) {
+			expect(tokenizer.nextToken(), JSONTokenizer.NUMBER, tokenizer);
+			robotDescription.battery = tokenizer.getLongValue();
+		} else if (tokenizer.textEquals(JSONKeys.START_KEY)) {
+			expect(tokenizer.nextToken(), JSONTokenizer.BEGIN_OBJECT, tokenizer);
+			int token = tokenizer.nextToken();
+			while (token != JSONTokenizer.END_OBJECT) {
+				expect(token, JSONTokenizer.STRING, tokenizer);
+				if (tokenizer.textEquals(JSONKeys.X_KEY)) {
+					expect(tokenizer.nextToken(), JSONTokenizer.NUMBER, tokenizer);
+					robotDescription.xCol = tokenizer.getLongValue();
+				} else if (tokenizer.textEquals(JSONKeys.Y_KEY)) {
+					expect(tokenizer.nextToken(), JSONTokenizer.NUMBER, tokenizer);
+					robotDescription.yRow = tokenizer.getLongValue();
+				} else if (tokenizer.textEquals(JSONKeys.DIRECTION_KEY)) {
+					expect(tokenizer.nextToken(), JSONTokenizer.STRING, tokenizer);
+					robotDescription.direction = returnValidDirection(tokenizer);
+				} else {
+					tokenizer.skipValue(tokenizer.nextToken());
+				}
+				token = tokenizer.nextToken();
+			}
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Builds the robot out of its description, the commands being streamed from their recorded offset.
+	 */
+	private static CleaningProgram createProgram(Room room, RobotDescription robotDescription, InputSource inputSource) throws IOException {
+		if (robotDescription.battery == null || robotDescription.direction == null) {
+			throw new IOException("The map, the battery and the start direction are all mandatory");
+		}
+		if (!room.isInside(robotDescription.xCol, robotDescription.yRow)) {
+			throw new IOException("The start position (" + robotDescription.xCol + ", " + robotDescription.yRow + ") is located outside the room");
+		}
+		CleaningRobot cleaningRobot = new CleaningRobot(new Position(robotDescription.xCol, robotDescription.yRow), robotDescription.battery, robotDescription.direction);
+		LOGGER.info("The initial parameters for the cleaning robot are:" + cleaningRobot.toString());
+		if (robotDescription.commandsOffset < 0L) {
+			return new CleaningProgram(room, cleaningRobot, new CommandStream(null), null);
+		}
+		long commandsOffset = robotDescription.commandsOffset;
+		CommandStream commandStream = new CommandStream(new JSONTokenizer(inputSource.open(commandsOffset), commandsOffset));
+		return new CleaningProgram(room, cleaningRobot, commandStream, commandStream);
+	}
+
+	private static InputSource fileSource(String inputFileLocation) {
+		return offset -> {
+			FileInputStream fileStream = new FileInputStream(inputFileLocation);
+			fileStream.getChannel().position(offset);
+			return fileStream;
+		};
+	}
+
+	/**
+	 * Builds the room directly from the tokens of the map array - the rows are appended into a growing
+	 * packed cell array, which is then handed over to the room without any further copy - unless the room cache
+	 * already holds a room made of the same cells, the cached room being returned instead.
+	 */
+	private Room readRoom(JSONTokenizer tokenizer) throws IOException {
+		expect(tokenizer.nextToken(), JSONTokenizer.BEGIN_ARRAY, tokenizer);
+		byte[] cells = new byte[INITIAL_CELL_CAPACITY];
+		int nbOfCells = 0;
+		int nbOfRows = 0;
+		int nbOfColumns = -1;
+		int token = tokenizer.nextToken();
+		while (token != JSONTokenizer.END_ARRAY) {
+			expect(token, JSONTokenizer.BEGIN_ARRAY, tokenizer);
+			int rowLength = 0;
+			token = tokenizer.nextToken();
+			while (token != JSONTokenizer.END_ARRAY) {
+				if (token != JSONTokenizer.STRING && token != JSONTokenizer.LITERAL) {
+					throw new IOException("Unexpected map cell on offset:" + tokenizer.getTokenOffset());
+				}
+				if (nbOfCells == cells.length) {
+					cells = Arrays.copyOf(cells, Math.multiplyExact(cells.length, 2));
+				}
+				cells[nbOfCells++] = decodeCell(tokenizer);
+				rowLength++;
+				token = tokenizer.nextToken();
+			}
+			if (nbOfColumns < 0) {
+				nbOfColumns = rowLength;
+			} else if (rowLength != nbOfColumns) {
+				throw new IOException("Row " + nbOfRows + " of the map has " + rowLength + " cells instead of " + nbOfColumns);
+			}
+			nbOfRows++;
+			token = tokenizer.nextToken();
+		}
+		nbOfColumns = Math.max(nbOfColumns, 0);
+		Room room = roomCache != null ? roomCache.intern(nbOfRows, nbOfColumns, cells) : new Room(nbOfRows, nbOfColumns, cells);
+		LOGGER.info("The final room is:" + room.toString());
+		return room;
+	}
+
+	static byte decodeCell(JSONTokenizer tokenizer) {
+		if (tokenizer.textEquals("C")) {
+			return Room.CELL_COLUMN;
+		} else if (tokenizer.textEquals("null")) {
+			return Room.CELL_WALL;
+		}
+		return Room.CELL_SPACE;
+	}
+
+	private static ValidDirections returnValidDirection(JSONTokenizer tokenizer) {
+		for (ValidDirections direction : PackedRobotController.DIRECTIONS) {
+			if (tokenizer.textEquals(direction.getDirection())) {
+				return direction;
+			}
+		}
+		return null;
+	}
+
+	private static void expect(int token, int expectedToken, JSONTokenizer tokenizer) throws IOException {
+		if (token != expectedToken) {
+			throw new IOException("Unexpected token on offset:" + tokenizer.getTokenOffset());
+		}
+	}
+
+	/**
+	 * The configuration of a robot as found inside the input, the commands being only located.
+	 */
+	private static class RobotDescription {
+		private long xCol = -1L;
+		private long yRow = -1L;
+		private ValidDirections direction;
+		private Long battery;
+		private long commandsOffset = -1L;
+	}
+
+	/**
+	 * The lazy command sequence - each command gets decoded from the input only when requested,
+	 * the acronyms not corresponding to any valid command being ignored.
+	 */
+	private static class CommandStream implements Iterator<ValidCommands>, Closeable {
+
+		private final JSONTokenizer tokenizer;
+		private ValidCommands nextCommand;
+		private boolean exhausted;
+
+		CommandStream(JSONTokenizer tokenizer) {
+			this.tokenizer = tokenizer;
+			this.exhausted = tokenizer == null;
+			if (!exhausted) {
+				try {
+					expect(tokenizer.nextToken(), JSONTokenizer.BEGIN_ARRAY, tokenizer);
+				} catch (IOException e) {
+					throw new RuntimeException("Cannot locate the command list:" + e.getMessage());
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (nextCommand == null && !exhausted) {
+				try {
+					int token = tokenizer.nextToken();
+					if (token == JSONTokenizer.STRING) {
+						nextCommand = decodeCommand();
+					} else {
+						expect(token, JSONTokenizer.END_ARRAY, tokenizer);
+						exhausted = true;
+					}
+				} catch (IOException e) {
+					throw new RuntimeException("Parsing problem detected inside the command list:" + e.getMessage());
+				}
+			}
+			return nextCommand != null;
+		}
+
+		@Override
+		public ValidCommands next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			ValidCommands command = nextCommand;
+			nextCommand = null;
+			return command;
+		}
+
+		private ValidCommands decodeCommand() {
+			int length = tokenizer.getTextLength();
+			byte first = length > 0 ? tokenizer.getTextByte(0) : 0;
+			if (length == 1) {
+				switch (first) {
+				case 'A':
+					return ValidCommands.ADVANCE;
+				case 'B':
+					return ValidCommands.BACK;
+				case 'C':
+					return ValidCommands.CLEAN;
+				default:
+					return null;
+				}
+			} else if (length == 2 && first == 'T') {
+				switch (tokenizer.getTextByte(1)) {
+				case 'L':
+					return ValidCommands.TURN_LEFT;
+				case 'R':
+					return ValidCommands.TURN_RIGHT;
+				default:
+					return null;
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (tokenizer != null) {
+				tokenizer.close();
+			}
+		}
+
+	}
+
+}
\ No newline at end of file
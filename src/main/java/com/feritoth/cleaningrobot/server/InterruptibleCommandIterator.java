@@ -0,0 +1,40 @@
+package com.feritoth.cleaningrobot.server;
+
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+
+import com.feritoth.cleaningrobot.core.ValidCommands;
+
+/**
+ * Wraps the commands of a simulation so that it stops once its thread gets interrupted (e.g. after a timeout) -
+ * the engines know nothing about interruptions, thus the interruption flag is checked here, every few
+ * thousand commands.
+ * 
+ * @author Ferenc Toth
+ */
+class InterruptibleCommandIterator implements Iterator<ValidCommands> {
+	
+	private static final int CHECK_INTERVAL_MASK = (1 << 12) - 1;
+	
+	private final Iterator<ValidCommands> commands;
+	private int nbOfReadCommands;
+	
+	InterruptibleCommandIterator(Iterator<ValidCommands> commands) {
+		super();
+		this.commands = commands;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return commands.hasNext();
+	}
+
+	@Override
+	public ValidCommands next() {
+		if ((++nbOfReadCommands & CHECK_INTERVAL_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+			throw new CancellationException("The simulation has been interrupted after " + nbOfReadCommands + " commands");
+		}
+		return commands.next();
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.feritoth.cleaningrobot.server;
+
+/**
+ * The options of the simulation server - the defaults suit a single machine serving its local clients.
+ * 
+ * @author Ferenc Toth
+ */
+public class ServerOptions {
+	
+	private int port = 8080;
+	private int nbOfWorkers = Runtime.getRuntime().availableProcessors();
+	private int queueCapacity = 64;
+	private long timeoutMillis = 30000L;
+	private int maxRequestBytes = 64 << 20;
+
+	public int getPort() {
+		return port;
+	}
+
+	/**
+	 * Selects the port the server listens on (bound to the loopback interface only) - 0 for any free port.
+	 */
+	public ServerOptions setPort(int port) {
+		this.port = port;
+		return this;
+	}
+
+	public int getNbOfWorkers() {
+		return nbOfWorkers;
+	}
+
+	/**
+	 * Selects the number of simulations run at the same time.
+	 */
+	public ServerOptions setNbOfWorkers(int nbOfWorkers) {
+		this.nbOfWorkers = nbOfWorkers;
+		return this;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * Selects the number of requests which may wait for a free worker - the requests arriving on a full queue 
+	 * are rejected right away (HTTP 503).
+	 */
+	public ServerOptions setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+		return this;
+	}
+
+	public long getTimeoutMillis() {
+		return timeoutMillis;
+	}
+
+	/**
+	 * Selects the maximum time spent on a request, waiting inside the queue included - the requests exceeding
+	 * it are cancelled (HTTP 504).
+	 */
+	public ServerOptions setTimeoutMillis(long timeoutMillis) {
+		this.timeoutMillis = timeoutMillis;
+		return this;
+	}
+
+	public int getMaxRequestBytes() {
+		return maxRequestBytes;
+	}
+
+	/**
+	 * Selects the maximum size of a request body - the larger ones are refused (HTTP 413).
+	 */
+	public ServerOptions setMaxRequestBytes(int maxRequestBytes) {
+		this.maxRequestBytes = maxRequestBytes;
+		return this;
+	}
+
+}
\ No newline at end of file
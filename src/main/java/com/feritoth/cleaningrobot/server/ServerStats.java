@@ -0,0 +1,77 @@
+package com.feritoth.cleaningrobot.server;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.feritoth.cleaningrobot.instrumentation.LatencyHistogram;
+
+/**
+ * The statistics of the simulation server since its start - all the counters are lock-free, being updated
+ * concurrently by the request handlers.
+ * 
+ * @author Ferenc Toth
+ */
+public class ServerStats {
+	
+	private final long startTime = System.nanoTime();
+	private final LongAdder nbOfReceivedRequests = new LongAdder();
+	private final LongAdder nbOfCompletedRequests = new LongAdder();
+	private final LongAdder nbOfRejectedRequests = new LongAdder();
+	private final LongAdder nbOfTimedOutRequests = new LongAdder();
+	private final LongAdder nbOfFailedRequests = new LongAdder();
+	/* The latency of the completed and of the timed out requests, from their receipt until their response is ready */
+	private final LatencyHistogram latency = new LatencyHistogram();
+	
+	public void recordReceived() {
+		nbOfReceivedRequests.increment();
+	}
+	
+	public void recordCompleted(long latencyNanos) {
+		nbOfCompletedRequests.increment();
+		latency.record(latencyNanos);
+	}
+	
+	public void recordRejected() {
+		nbOfRejectedRequests.increment();
+	}
+	
+	public void recordTimedOut(long latencyNanos) {
+		nbOfTimedOutRequests.increment();
+		latency.record(latencyNanos);
+	}
+	
+	public void recordFailed() {
+		nbOfFailedRequests.increment();
+	}
+	
+	public long getNbOfCompletedRequests() {
+		return nbOfCompletedRequests.sum();
+	}
+	
+	public LatencyHistogram getLatency() {
+		return latency;
+	}
+	
+	/**
+	 * @return the number of completed requests per second since the start of the server
+	 */
+	public double getThroughput() {
+		double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
+		return elapsedSeconds <= 0.0 ? 0.0 : getNbOfCompletedRequests() / elapsedSeconds;
+	}
+	
+	/**
+	 * Builds the JSON document returned by the stats endpoint.
+	 * 
+	 * @param nbOfQueuedRequests - the number of requests currently waiting for a worker
+	 * @param nbOfActiveRequests - the number of requests currently simulated
+	 */
+	public String toJSON(int nbOfQueuedRequests, int nbOfActiveRequests) {
+		return String.format(Locale.ROOT, "{\"uptimeSeconds\":%.3f,\"received\":%d,\"completed\":%d,\"rejected\":%d,\"timedOut\":%d,\"failed\":%d,"
+				+ "\"queued\":%d,\"active\":%d,\"throughputPerSecond\":%.3f,\"meanLatencyMillis\":%.3f,\"p50LatencyMillis\":%.3f,\"p99LatencyMillis\":%.3f}",
+				(System.nanoTime() - startTime) / 1e9, nbOfReceivedRequests.sum(), getNbOfCompletedRequests(), nbOfRejectedRequests.sum(),
+				nbOfTimedOutRequests.sum(), nbOfFailedRequests.sum(), nbOfQueuedRequests, nbOfActiveRequests, getThroughput(),
+				latency.getMeanNanos() / 1e6, latency.getPercentileNanos(50.0) / 1e6, latency.getPercentileNanos(99.0) / 1e6);
+	}
+
+}
\ No newline at end of file
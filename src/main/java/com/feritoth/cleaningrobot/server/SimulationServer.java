@@ -0,0 +1,285 @@
+package com.feritoth.cleaningrobot.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.cache.ResultCache;
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.heatmap.CellHeatmap;
+import com.feritoth.cleaningrobot.processor.CleaningEngine;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.JSONInputConverter;
+import com.feritoth.cleaningrobot.processor.JSONStreamingOutputWriter;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.processor.StreamingJSONInputReader;
+import com.feritoth.cleaningrobot.utils.SimulationRejectedException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Keeps a warm JVM serving simulation requests over HTTP, on the loopback interface only:
+ * <ul>
+ * <li>POST /simulate - the body is the usual JSON input, the response is the usual JSON output 
+ * (204 without any content when the initial battery is empty, exactly when no output file would be written)</li>
+ * <li>GET /stats - the throughput and the latency percentiles of the server, as JSON</li>
+ * </ul>
+ * The simulations run on a fixed pool of workers fed by a bounded queue: a request finding the queue full is
+ * rejected right away (503 with a Retry-After header), so the clients get pushed back instead of piling up
+ * inside the server, while a request exceeding its timeout is cancelled (504). With a minimal coverage required,
+ * a request whose room cannot reach it is refused before being simulated (422).
+ * 
+ * @author Ferenc Toth
+ */
+public class SimulationServer {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(SimulationServer.class);
+	
+	public static final String SIMULATE_PATH = "/simulate";
+	public static final String STATS_PATH = "/stats";
+	private static final byte[] NO_CONTENT = new byte[0];
+	
+	private final SimulationOptions options;
+	private final ServerOptions serverOptions;
+	private final StreamingJSONInputReader inputReader;
+	private final ServerStats stats = new ServerStats();
+	/* The output writers keep their buffer, thus one writer per worker */
+	private final ThreadLocal<JSONStreamingOutputWriter> outputWriters = ThreadLocal.withInitial(JSONStreamingOutputWriter::new);
+	private ThreadPoolExecutor workers;
+	private ExecutorService requestHandlers;
+	private HttpServer httpServer;
+	
+	public SimulationServer(SimulationOptions options, ServerOptions serverOptions) {
+		super();
+		if (serverOptions.getNbOfWorkers() <= 0 || serverOptions.getQueueCapacity() <= 0) {
+			throw new IllegalArgumentException("The number of workers and the queue capacity must be positive");
+		}
+		this.options = options;
+		this.serverOptions = serverOptions;
+		this.inputReader = StreamingJSONInputReader.forOptions(options);
+	}
+	
+	/**
+	 * Starts listening for requests - the method returns right away, the requests being served by the
+	 * threads of the server until {@link #stop()} gets called.
+	 */
+	public void start() throws IOException {
+		int nbOfWorkers = serverOptions.getNbOfWorkers();
+		workers = new ThreadPoolExecutor(nbOfWorkers, nbOfWorkers, 0L, TimeUnit.MILLISECONDS, 
+				                         new ArrayBlockingQueue<>(serverOptions.getQueueCapacity()), new ThreadPoolExecutor.AbortPolicy());
+		//every running or queued request keeps a handler waiting for its result - the further connections wait inside the backlog
+		requestHandlers = Executors.newFixedThreadPool(nbOfWorkers + serverOptions.getQueueCapacity() + 1);
+		httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), serverOptions.getPort()), 0);
+		httpServer.createContext(SIMULATE_PATH, this::handleSimulation);
+		httpServer.createContext(STATS_PATH, this::handleStats);
+		httpServer.setExecutor(requestHandlers);
+		httpServer.start();
+		LOGGER.info("The simulation server listens on " + httpServer.getAddress() + " with " + nbOfWorkers + " workers and a queue of " 
+				    + serverOptions.getQueueCapacity() + " requests");
+	}
+	
+	/**
+	 * Stops the server - the requests still running get interrupted.
+	 */
+	public void stop() {
+		httpServer.stop(0);
+		workers.shutdownNow();
+		requestHandlers.shutdownNow();
+		LOGGER.info("The simulation server has been stopped, final statistics:" + getStatsAsJSON());
+	}
+	
+	/**
+	 * @return the port the server listens on
+	 */
+	public int getPort() {
+		return httpServer.getAddress().getPort();
+	}
+	
+	public ServerStats getStats() {
+		return stats;
+	}
+	
+	public String getStatsAsJSON() {
+		return stats.toJSON(workers.getQueue().size(), workers.getActiveCount());
+	}
+	
+	private void handleSimulation(HttpExchange exchange) throws IOException {
+		try {
+			if (!"POST".equals(exchange.getRequestMethod())) {
+				respond(exchange, 405, errorBody("Only POST is supported on " + SIMULATE_PATH));
+				return;
+			}
+			long receiptTime = System.nanoTime();
+			stats.recordReceived();
+			byte[] input = readBody(exchange.getRequestBody(), serverOptions.getMaxRequestBytes());
+			if (input == null) {
+				stats.recordFailed();
+				respond(exchange, 413, errorBody("The request exceeds " + serverOptions.getMaxRequestBytes() + " bytes"));
+				return;
+			}
+			Future<byte[]> simulation;
+			try {
+				simulation = workers.submit(() -> simulate(input));
+			} catch (RejectedExecutionException e) {
+				stats.recordRejected();
+				exchange.getResponseHeaders().set("Retry-After", "1");
+				respond(exchange, 503, errorBody("The server is overloaded, please retry later"));
+				return;
+			}
+			awaitSimulation(exchange, simulation, receiptTime);
+		} finally {
+			exchange.close();
+		}
+	}
+	
+	private void awaitSimulation(HttpExchange exchange, Future<byte[]> simulation, long receiptTime) throws IOException {
+		try {
+			long remainingNanos = TimeUnit.MILLISECONDS.toNanos(serverOptions.getTimeoutMillis()) - (System.nanoTime() - receiptTime);
+			byte[] output = simulation.get(remainingNanos, TimeUnit.NANOSECONDS);
+			stats.recordCompleted(System.nanoTime() - receiptTime);
+			respond(exchange, output.length == 0 ? 204 : 200, output);
+		} catch (TimeoutException e) {
+			simulation.cancel(true);
+			stats.recordTimedOut(System.nanoTime() - receiptTime);
+			respond(exchange, 504, errorBody("The simulation exceeded the timeout of " + serverOptions.getTimeoutMillis() + " ms"));
+		} catch (ExecutionException e) {
+			stats.recordFailed();
+			if (e.getCause() instanceof SimulationRejectedException) {
+				respond(exchange, 422, errorBody(e.getCause().getMessage()));
+				return;
+			}
+			LOGGER.error("Simulation request failed:" + e.getCause().getMessage());
+			respond(exchange, 400, errorBody(String.valueOf(e.getCause().getMessage())));
+		} catch (InterruptedException e) {
+			simulation.cancel(true);
+			Thread.currentThread().interrupt();
+			respond(exchange, 503, errorBody("The server is shutting down"));
+		}
+	}
+	
+	/**
+	 * Runs the simulation described by the given input, on a worker thread - the output comes from the result
+	 * cache of the options (if any) when the same input has been simulated already.
+	 * 
+	 * @return the JSON output, empty when no output is produced (empty initial battery)
+	 */
+	private byte[] simulate(byte[] input) throws IOException {
+		String resultVariant = JSONInputConverter.getResultVariant(options);
+		if (resultVariant == null) {
+			return simulateProgram(input);
+		}
+		ResultCache resultCache = options.getResultCache();
+		String resultKey = resultCache.computeKey(input, resultVariant);
+		byte[] output = resultCache.fetch(resultKey);
+		if (output == null) {
+			output = simulateProgram(input);
+			resultCache.store(resultKey, output);
+		}
+		return output;
+	}
+	
+	private byte[] simulateProgram(byte[] input) throws IOException {
+		try (CleaningProgram program = inputReader.readProgram(input)) {
+			JSONInputConverter.checkCoverageUpperBound(program, options);
+			CleaningRobot cleaningRobot = program.getCleaningRobot();
+			CleaningEngine engine = options.getEngineType().createEngine(options);
+			CellHeatmap heatmap = options.getHeatmapSink() != null
+					? options.getHeatmapSink().attach(engine, program.getRoom(), options.getSimulationListener()) : null;
+			if (!engine.executeCleaningProcedure(cleaningRobot, program.getRoom(), new InterruptibleCommandIterator(program.getCommands()))) {
+				return NO_CONTENT;
+			}
+			if (heatmap != null) {
+				heatmap.recordRun(cleaningRobot);
+			}
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			outputWriters.get().writeCleaningProcedureOutput(cleaningRobot, Channels.newChannel(output));
+			return output.toByteArray();
+		}
+	}
+	
+	private void handleStats(HttpExchange exchange) throws IOException {
+		try {
+			respond(exchange, 200, getStatsAsJSON().getBytes(StandardCharsets.UTF_8));
+		} finally {
+			exchange.close();
+		}
+	}
+	
+	/**
+	 * Reads the whole body of a request.
+	 * 
+	 * @return the body, or null if it exceeds the given size
+	 */
+	private static byte[] readBody(InputStream body, int maxBytes) throws IOException {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		byte[] chunk = new byte[1 << 16];
+		int count;
+		while ((count = body.read(chunk)) > 0) {
+			if (content.size() + count > maxBytes) {
+				return null;
+			}
+			content.write(chunk, 0, count);
+		}
+		return content.toByteArray();
+	}
+	
+	private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		if (body.length == 0) {
+			exchange.sendResponseHeaders(status, -1L);
+			return;
+		}
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream responseBody = exchange.getResponseBody()) {
+			responseBody.write(body);
+		}
+	}
+	
+	private static byte[] errorBody(String message) {
+		StringBuilder body = new StringBuilder(message.length() + 16).append("{\"error\":\"");
+		for (int i = 0; i < message.length(); i++) {
+			char character = message.charAt(i);
+			switch (character) {
+			case '\\':
+			case '"':
+				body.append('\\').append(character);
+				break;
+			case '\n':
+				body.append("\\n");
+				break;
+			case '\r':
+				body.append("\\r");
+				break;
+			case '\t':
+				body.append("\\t");
+				break;
+			default:
+				//the other control characters are not allowed unescaped inside a JSON string
+				if (character < 0x20) {
+					body.append(String.format("\\u%04x", (int) character));
+				} else {
+					body.append(character);
+				}
+			}
+		}
+		return body.append("\"}").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.feritoth.cleaningrobot.sweep;
+
+import com.feritoth.cleaningrobot.utils.JSONKeys;
+
+/**
+ * The formats of the run summaries written by the {@link SweepRunner} - one line per run, either way.
+ *
+ * @author Ferenc Toth
+ */
+public enum SweepFormat {
+
+	/* Comma separated values, preceded by a header line - the most compact form */
+	CSV,
+	/* One JSON object per line, keyed as the regular outputs */
+	NDJSON;
+
+	/**
+	 * @return the line written before the runs (ending with a line break), empty when none
+	 */
+	String getHeader() {
+		switch (this) {
+		case NDJSON:
+			return "";
+		default:
+			return "startX,startY,startFacing,startBattery,finalX,finalY,finalFacing,finalBattery,visited,cleaned,stuck\n";
+		}
+	}
+
+	/**
+	 * Appends the summary of a run, as a line of its own.
+	 */
+	void appendRun(StringBuilder lines, SweepRun run) {
+		switch (this) {
+		case NDJSON:
+			lines.append("{\"").append(JSONKeys.START_KEY).append("\":{");
+			appendPose(lines, run.getStartX(), run.getStartY(), run.getStartFacing(), run.getStartBattery());
+			lines.append("},\"").append(JSONKeys.FINAL_KEY).append("\":{");
+			appendPose(lines, run.getFinalX(), run.getFinalY(), run.getFinalFacing(), run.getFinalBattery());
+			lines.append("},\"").append(JSONKeys.VISIT_KEY).append("\":").append(run.getNbOfVisitedCells());
+			lines.append(",\"").append(JSONKeys.CLEAN_KEY).append("\":").append(run.getNbOfCleanedCells());
+			lines.append(",\"").append(JSONKeys.STUCK_KEY).append("\":").append(run.isStuck()).append("}\n");
+			break;
+		default:
+			lines.append(run.getStartX()).append(',').append(run.getStartY()).append(',').append(run.getStartFacing()).append(',').append(run.getStartBattery())
+			     .append(',').append(run.getFinalX()).append(',').append(run.getFinalY()).append(',').append(run.getFinalFacing()).append(',').append(run.getFinalBattery())
+			     .append(',').append(run.getNbOfVisitedCells()).append(',').append(run.getNbOfCleanedCells()).append(',').append(run.isStuck()).append('\n');
+		}
+	}
+
+	private static void appendPose(StringBuilder lines, long xCol, long yRow, String facing, long battery) {
+		lines.append('"').append(JSONKeys.X_KEY).append("\":").append(xCol);
+		lines.append(",\"").append(JSONKeys.Y_KEY).append("\":").append(yRow);
+		lines.append(",\"").append(JSONKeys.DIRECTION_KEY).append("\":\"").append(facing).append('"');
+		lines.append(",\"").append(JSONKeys.BATTERY_KEY).append("\":").append(battery);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,188 @@
+package com.feritoth.cleaningrobot.sweep;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.feritoth.cleaningrobot.core.ValidDirections;
+
+/**
+ * The start states covered by a sweep (see {@link SweepRunner}) together with the way it is executed - by default,
+ * every free cell of the room, facing every direction, with the battery of the input.
+ *
+ * @author Ferenc Toth
+ */
+public class SweepOptions {
+
+	private int firstColumn;
+	private int lastColumn = Integer.MAX_VALUE;
+	private int firstRow;
+	private int lastRow = Integer.MAX_VALUE;
+	private final Set<ValidDirections> directions = EnumSet.allOf(ValidDirections.class);
+	/* The start batteries - null for the battery of the input */
+	private long[] batteries;
+	private SweepFormat format = SweepFormat.CSV;
+	private int nbOfWorkers = Runtime.getRuntime().availableProcessors();
+	private int runsPerBlock = 1024;
+
+	public int getFirstColumn() {
+		return firstColumn;
+	}
+
+	public int getLastColumn() {
+		return lastColumn;
+	}
+
+	/**
+	 * Selects the columns of the start cells, both ends included - clamped to the room.
+	 */
+	public SweepOptions setColumns(int firstColumn, int lastColumn) {
+		this.firstColumn = firstColumn;
+		this.lastColumn = lastColumn;
+		return this;
+	}
+
+	/**
+	 * Selects the columns of the start cells given by a range such as "0:9" (both ends included), respectively a single column.
+	 */
+	public SweepOptions setColumns(String columnRange) {
+		int[] range = parseRange(columnRange);
+		return setColumns(range[0], range[1]);
+	}
+
+	public int getFirstRow() {
+		return firstRow;
+	}
+
+	public int getLastRow() {
+		return lastRow;
+	}
+
+	/**
+	 * Selects the rows of the start cells, both ends included - clamped to the room.
+	 */
+	public SweepOptions setRows(int firstRow, int lastRow) {
+		this.firstRow = firstRow;
+		this.lastRow = lastRow;
+		return this;
+	}
+
+	/**
+	 * Selects the rows of the start cells given by a range such as "0:9" (both ends included), respectively a single row.
+	 */
+	public SweepOptions setRows(String rowRange) {
+		int[] range = parseRange(rowRange);
+		return setRows(range[0], range[1]);
+	}
+
+	public ValidDirections[] getDirections() {
+		return directions.toArray(new ValidDirections[0]);
+	}
+
+	/**
+	 * Selects the start directions given by their comma separated acronyms, such as "N,E".
+	 */
+	public SweepOptions setDirections(String directionList) {
+		directions.clear();
+		for (String acronym : directionList.split(",")) {
+			directions.add(toDirection(acronym.trim()));
+		}
+		return this;
+	}
+
+	public long[] getBatteries() {
+		return batteries == null ? null : batteries.clone();
+	}
+
+	/**
+	 * Selects the start batteries, null for the battery of the input.
+	 */
+	public SweepOptions setBatteries(long... batteries) {
+		this.batteries = batteries == null ? null : batteries.clone();
+		return this;
+	}
+
+	/**
+	 * Selects the start batteries given either by a comma separated list ("100,250") or by a range with its step
+	 * ("100:1000:100", both ends included).
+	 */
+	public SweepOptions setBatteries(String batterySpecification) {
+		String[] bounds = batterySpecification.split(":");
+		if (bounds.length == 1) {
+			return setBatteries(Arrays.stream(batterySpecification.split(",")).mapToLong(battery -> Long.parseLong(battery.trim())).toArray());
+		}
+		if (bounds.length != 3) {
+			throw new IllegalArgumentException("Invalid battery range, expected <first>:<last>:<step> - " + batterySpecification);
+		}
+		long firstBattery = Long.parseLong(bounds[0]);
+		long lastBattery = Long.parseLong(bounds[1]);
+		long step = Long.parseLong(bounds[2]);
+		if (step <= 0L || lastBattery < firstBattery) {
+			throw new IllegalArgumentException("Invalid battery range:" + batterySpecification);
+		}
+		long[] rangeBatteries = new long[Math.toIntExact((lastBattery - firstBattery) / step + 1L)];
+		for (int i = 0; i < rangeBatteries.length; i++) {
+			rangeBatteries[i] = firstBattery + i * step;
+		}
+		return setBatteries(rangeBatteries);
+	}
+
+	public SweepFormat getFormat() {
+		return format;
+	}
+
+	public SweepOptions setFormat(SweepFormat format) {
+		this.format = format;
+		return this;
+	}
+
+	public int getNbOfWorkers() {
+		return nbOfWorkers;
+	}
+
+	/**
+	 * Selects the number of runs executed at the same time.
+	 */
+	public SweepOptions setNbOfWorkers(int nbOfWorkers) {
+		this.nbOfWorkers = nbOfWorkers;
+		return this;
+	}
+
+	public int getRunsPerBlock() {
+		return runsPerBlock;
+	}
+
+	/**
+	 * Selects the number of consecutive runs handed to a worker at once - their summaries are written together.
+	 */
+	public SweepOptions setRunsPerBlock(int runsPerBlock) {
+		this.runsPerBlock = runsPerBlock;
+		return this;
+	}
+
+	private static int[] parseRange(String range) {
+		int separatorIndex = range.indexOf(':');
+		if (separatorIndex < 0) {
+			int value = Integer.parseInt(range.trim());
+			return new int[] {value, value};
+		}
+		return new int[] {Integer.parseInt(range.substring(0, separatorIndex).trim()), Integer.parseInt(range.substring(separatorIndex + 1).trim())};
+	}
+
+	private static ValidDirections toDirection(String acronym) {
+		for (ValidDirections direction : ValidDirections.values()) {
+			if (direction.getDirection().equals(acronym)) {
+				return direction;
+			}
+		}
+		throw new IllegalArgumentException("Unknown direction:" + acronym);
+	}
+
+	@Override
+	public String toString() {
+		return "SweepOptions [columns=" + firstColumn + ":" + lastColumn + ", rows=" + firstRow + ":" + lastRow + ", directions=" + directions
+				+ ", batteries=" + (batteries == null ? "input" : Arrays.toString(batteries)) + ", format=" + format + ", workers=" + nbOfWorkers
+				+ ", runsPerBlock=" + runsPerBlock + "]";
+	}
+
+}
\ No newline at end of file
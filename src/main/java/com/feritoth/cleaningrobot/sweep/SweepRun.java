@@ -0,0 +1,89 @@
+package com.feritoth.cleaningrobot.sweep;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+
+/**
+ * The outcome of a single run of a sweep - belongs to a worker, being refilled for every run of the worker
+ * together with the pooled robot it refers to.
+ *
+ * @author Ferenc Toth
+ */
+final class SweepRun {
+
+	private final CleaningRobot cleaningRobot = new CleaningRobot();
+	private long startX;
+	private long startY;
+	private ValidDirections startDirection;
+	private long startBattery;
+	private boolean stuck;
+
+	/**
+	 * Puts the pooled robot into the given start state, its logs being emptied.
+	 *
+	 * @return the robot, ready to be executed
+	 */
+	CleaningRobot start(long xCol, long yRow, ValidDirections direction, long battery) {
+		this.startX = xCol;
+		this.startY = yRow;
+		this.startDirection = direction;
+		this.startBattery = battery;
+		this.stuck = false;
+		cleaningRobot.setPosition(new Position(xCol, yRow));
+		cleaningRobot.setDirection(direction);
+		cleaningRobot.setBattery(battery);
+		cleaningRobot.getVisitedPositionLog().clear();
+		cleaningRobot.getCleanedPositionLog().clear();
+		return cleaningRobot;
+	}
+
+	void setStuck(boolean stuck) {
+		this.stuck = stuck;
+	}
+
+	long getStartX() {
+		return startX;
+	}
+
+	long getStartY() {
+		return startY;
+	}
+
+	String getStartFacing() {
+		return startDirection.getDirection();
+	}
+
+	long getStartBattery() {
+		return startBattery;
+	}
+
+	long getFinalX() {
+		return cleaningRobot.getPosition().getxCol();
+	}
+
+	long getFinalY() {
+		return cleaningRobot.getPosition().getyRow();
+	}
+
+	String getFinalFacing() {
+		return cleaningRobot.getDirection().getDirection();
+	}
+
+	long getFinalBattery() {
+		return cleaningRobot.getBattery();
+	}
+
+	int getNbOfVisitedCells() {
+		return cleaningRobot.getVisitedPositionLog().size();
+	}
+
+	int getNbOfCleanedCells() {
+		return cleaningRobot.getCleanedPositionLog().size();
+	}
+
+	boolean isStuck() {
+		return stuck;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,258 @@
+package com.feritoth.cleaningrobot.sweep;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.heatmap.CellHeatmap;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.PackedRobotController;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.processor.StreamingJSONInputReader;
+
+/**
+ * Runs the same command list on the same room from many start states - every combination of the start cells,
+ * directions and batteries selected by the {@link SweepOptions}. The room is read once and shared, read-only, by all
+ * the runs, while every worker keeps its own engine and robot (position logs included), reset before each run instead
+ * of being allocated again. The runs are numbered cell by cell, then direction by direction, then battery by battery;
+ * the workers take them by blocks, and the one-line summaries of the blocks are streamed in the order of the runs
+ * (final pose, battery, number of visited and cleaned cells, stuck flag), only a few blocks per worker being held.
+ *
+ * @author Ferenc Toth
+ */
+public class SweepRunner {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(SweepRunner.class);
+	/* The completed blocks which may be waiting for their turn to be written, per worker */
+	private static final int PENDING_BLOCKS_PER_WORKER = 2;
+	private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+	private final SimulationOptions options;
+
+	/**
+	 * @param options - the simulation options (input reading, back-off cache, fast-forward, listener)
+	 */
+	public SweepRunner(SimulationOptions options) {
+		super();
+		this.options = options;
+	}
+
+	/**
+	 * Runs the sweep of the program found inside the given input - its start state is ignored, while its battery
+	 * is used unless the options select other batteries.
+	 *
+	 * @param inputFileLocation - the input holding the room and the command list
+	 * @param outputFileLocation - the file receiving the run summaries
+	 * @param sweepOptions - the start states and the execution of the sweep
+	 * @return the statistics of the sweep
+	 */
+	public SweepSummary runSweep(String inputFileLocation, String outputFileLocation, SweepOptions sweepOptions) {
+		Room room;
+		long inputBattery;
+		List<ValidCommands> commands = new ArrayList<>();
+		try (CleaningProgram program = StreamingJSONInputReader.forOptions(options).readProgram(inputFileLocation)) {
+			room = program.getRoom();
+			inputBattery = program.getCleaningRobot().getBattery();
+			program.getCommands().forEachRemaining(commands::add);
+		} catch (IOException e) {
+			LOGGER.error("Cannot release the input file on position:" + inputFileLocation);
+			throw new RuntimeException("IO problem detected for the file on position:" + inputFileLocation + "\n" + e.getMessage());
+		}
+		//reject the invalid options before the output gets created
+		resolveBatteries(sweepOptions, inputBattery);
+		try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(Paths.get(outputFileLocation)), OUTPUT_BUFFER_SIZE)) {
+			SweepSummary summary = runSweep(room, commands, inputBattery, sweepOptions, output);
+			LOGGER.info(summary.toString());
+			return summary;
+		} catch (IOException e) {
+			LOGGER.error("Cannot write the sweep output on position:" + outputFileLocation);
+			throw new RuntimeException("Cannot write the sweep output on position:" + outputFileLocation + "\n" + e.getMessage());
+		}
+	}
+
+	/**
+	 * Runs the sweep of the given room and command list, writing the run summaries into the given stream (not closed).
+	 *
+	 * @param inputBattery - the start battery of every run, unless the options select other batteries
+	 * @return the statistics of the sweep
+	 */
+	public SweepSummary runSweep(Room room, List<ValidCommands> commands, long inputBattery, SweepOptions sweepOptions, OutputStream output) throws IOException {
+		long[] batteries = resolveBatteries(sweepOptions, inputBattery);
+		//the runs only read the room, which may thus be shared by all of them
+		room.markShared();
+		Sweep sweep = new Sweep(room, commands, findStartCells(room, sweepOptions), sweepOptions.getDirections(), batteries, sweepOptions.getFormat());
+		LOGGER.info("Sweeping " + sweep.summary.getNbOfRuns() + " runs with " + sweepOptions);
+		output.write(sweepOptions.getFormat().getHeader().getBytes(StandardCharsets.US_ASCII));
+		ExecutorService executor = Executors.newFixedThreadPool(sweepOptions.getNbOfWorkers());
+		ThreadLocal<SweepWorker> workers = ThreadLocal.withInitial(() -> new SweepWorker(sweep));
+		Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+		long startTime = System.nanoTime();
+		try {
+			long runsPerBlock = sweepOptions.getRunsPerBlock();
+			for (long firstRun = 0L; firstRun < sweep.summary.getNbOfRuns(); firstRun += runsPerBlock) {
+				if (pendingBlocks.size() == sweepOptions.getNbOfWorkers() * PENDING_BLOCKS_PER_WORKER) {
+					output.write(awaitBlock(pendingBlocks.removeFirst()));
+				}
+				long blockStart = firstRun;
+				long blockEnd = Math.min(firstRun + runsPerBlock, sweep.summary.getNbOfRuns());
+				pendingBlocks.addLast(executor.submit(() -> workers.get().runBlock(blockStart, blockEnd)));
+			}
+			while (!pendingBlocks.isEmpty()) {
+				output.write(awaitBlock(pendingBlocks.removeFirst()));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		sweep.summary.setElapsedNanos(System.nanoTime() - startTime);
+		return sweep.summary;
+	}
+
+	/**
+	 * Checks the execution options of the sweep.
+	 *
+	 * @return the start batteries of the runs
+	 */
+	private static long[] resolveBatteries(SweepOptions sweepOptions, long inputBattery) {
+		if (sweepOptions.getNbOfWorkers() <= 0 || sweepOptions.getRunsPerBlock() <= 0) {
+			throw new IllegalArgumentException("The number of workers and the runs per block must be positive:" + sweepOptions);
+		}
+		long[] batteries = sweepOptions.getBatteries() != null ? sweepOptions.getBatteries() : new long[] {inputBattery};
+		if (batteries.length == 0 || Arrays.stream(batteries).anyMatch(battery -> battery <= 0L)) {
+			throw new IllegalArgumentException("The start batteries must be positive, select them otherwise:" + Arrays.toString(batteries));
+		}
+		return batteries;
+	}
+
+	/**
+	 * Collects the free cells selected by the options, in the order of their flat index.
+	 */
+	private static int[] findStartCells(Room room, SweepOptions sweepOptions) {
+		int firstRow = Math.max(sweepOptions.getFirstRow(), 0);
+		int lastRow = Math.min(sweepOptions.getLastRow(), room.getNbOfRows() - 1);
+		int firstColumn = Math.max(sweepOptions.getFirstColumn(), 0);
+		int lastColumn = Math.min(sweepOptions.getLastColumn(), room.getNbOfColumns() - 1);
+		int[] startCells = new int[Math.max(0, lastRow - firstRow + 1) * Math.max(0, lastColumn - firstColumn + 1)];
+		int nbOfStartCells = 0;
+		for (int yRow = firstRow; yRow <= lastRow; yRow++) {
+			for (int xCol = firstColumn; xCol <= lastColumn; xCol++) {
+				if (!room.isObstacle(xCol, yRow)) {
+					startCells[nbOfStartCells++] = yRow * room.getNbOfColumns() + xCol;
+				}
+			}
+		}
+		return Arrays.copyOf(startCells, nbOfStartCells);
+	}
+
+	private static byte[] awaitBlock(Future<byte[]> block) {
+		try {
+			return block.get();
+		} catch (ExecutionException e) {
+			LOGGER.error("A block of sweep runs failed:" + e.getCause().getMessage());
+			throw new RuntimeException("A block of sweep runs failed:" + e.getCause().getMessage(), e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("The sweep has been interrupted");
+		}
+	}
+
+	/**
+	 * The state shared by all the workers of a sweep.
+	 */
+	private static final class Sweep {
+
+		private final Room room;
+		private final List<ValidCommands> commands;
+		private final int[] startCells;
+		private final ValidDirections[] directions;
+		private final long[] batteries;
+		private final SweepFormat format;
+		private final SweepSummary summary;
+
+		private Sweep(Room room, List<ValidCommands> commands, int[] startCells, ValidDirections[] directions, long[] batteries, SweepFormat format) {
+			this.room = room;
+			this.commands = commands;
+			this.startCells = startCells;
+			this.directions = directions;
+			this.batteries = batteries;
+			this.format = format;
+			this.summary = new SweepSummary(startCells.length, (long) startCells.length * directions.length * batteries.length);
+		}
+
+	}
+
+	/**
+	 * The pooled state of a worker thread: its engine, its robot and the buffer of the summaries of a block.
+	 */
+	private final class SweepWorker {
+
+		private final Sweep sweep;
+		private final PackedRobotController controller = new PackedRobotController(options.isBackOffCacheEnabled(), options.isFastForwardEnabled());
+		private final SweepRun run = new SweepRun();
+		private final StringBuilder lines = new StringBuilder();
+		/* The heatmap of the room, null when the runs are not aggregated */
+		private final CellHeatmap heatmap;
+
+		private SweepWorker(Sweep sweep) {
+			this.sweep = sweep;
+			controller.setTerminationLogging(false);
+			if (options.getHeatmapSink() != null) {
+				heatmap = options.getHeatmapSink().attach(controller, sweep.room, options.getSimulationListener());
+			} else {
+				heatmap = null;
+				if (options.getSimulationListener() != null) {
+					controller.setSimulationListener(options.getSimulationListener());
+				}
+			}
+		}
+
+		/**
+		 * Executes the runs of the given block.
+		 *
+		 * @return the summaries of the runs, in their order
+		 */
+		private byte[] runBlock(long firstRun, long lastRun) {
+			lines.setLength(0);
+			long nbOfStuckRuns = 0L;
+			int nbOfColumns = sweep.room.getNbOfColumns();
+			for (long runIndex = firstRun; runIndex < lastRun; runIndex++) {
+				int batteryIndex = (int) (runIndex % sweep.batteries.length);
+				long stateIndex = runIndex / sweep.batteries.length;
+				int startCell = sweep.startCells[(int) (stateIndex / sweep.directions.length)];
+				ValidDirections direction = sweep.directions[(int) (stateIndex % sweep.directions.length)];
+				CleaningRobot cleaningRobot = run.start(startCell % nbOfColumns, startCell / nbOfColumns, direction, sweep.batteries[batteryIndex]);
+				controller.executeCleaningProcedure(cleaningRobot, sweep.room, sweep.commands.iterator());
+				run.setStuck(controller.isStuck());
+				if (controller.isStuck()) {
+					nbOfStuckRuns++;
+				}
+				if (heatmap != null) {
+					heatmap.recordRun(cleaningRobot);
+				}
+				sweep.format.appendRun(lines, run);
+			}
+			sweep.summary.recordStuckRuns(nbOfStuckRuns);
+			return lines.toString().getBytes(StandardCharsets.US_ASCII);
+		}
+
+	}
+
+}
\ No newline at end of file
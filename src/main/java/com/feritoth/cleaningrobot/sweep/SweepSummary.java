@@ -0,0 +1,67 @@
+package com.feritoth.cleaningrobot.sweep;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of a sweep - updated concurrently by the workers of the sweep.
+ *
+ * @author Ferenc Toth
+ */
+public class SweepSummary {
+
+	private final long nbOfStartCells;
+	private final long nbOfRuns;
+	private final LongAdder nbOfStuckRuns = new LongAdder();
+	private long elapsedNanos;
+
+	SweepSummary(long nbOfStartCells, long nbOfRuns) {
+		super();
+		this.nbOfStartCells = nbOfStartCells;
+		this.nbOfRuns = nbOfRuns;
+	}
+
+	void recordStuckRuns(long nbOfRuns) {
+		nbOfStuckRuns.add(nbOfRuns);
+	}
+
+	void setElapsedNanos(long elapsedNanos) {
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return the number of free cells the robot started from
+	 */
+	public long getNbOfStartCells() {
+		return nbOfStartCells;
+	}
+
+	public long getNbOfRuns() {
+		return nbOfRuns;
+	}
+
+	/**
+	 * @return the number of runs ended with the robot stuck
+	 */
+	public long getNbOfStuckRuns() {
+		return nbOfStuckRuns.sum();
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return the number of runs completed per second, over the whole sweep
+	 */
+	public double getThroughput() {
+		return elapsedNanos == 0L ? 0.0 : nbOfRuns * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Sweep finished: %d runs from %d start cells (%d stuck) in %.3f s - %.1f runs/s",
+				nbOfRuns, nbOfStartCells, getNbOfStuckRuns(), elapsedNanos / 1e9, getThroughput());
+	}
+
+}
\ No newline at end of file
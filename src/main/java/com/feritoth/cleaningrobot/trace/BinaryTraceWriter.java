@@ -0,0 +1,96 @@
+package com.feritoth.cleaningrobot.trace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.feritoth.cleaningrobot.utils.VarLongs;
+
+/**
+ * Writes the trace events in a compact binary form: a header (magic number "CRTR" and version), followed by
+ * the events. Every event starts with a code byte (back-off stage on 3 bits, command on 3 bits, direction on
+ * 2 bits), followed by the zig-zag varints of the differences of the command index, column, row and battery
+ * to the previous event - as the consecutive events differ very little, an event mostly takes 5 bytes.
+ * 
+ * @author Ferenc Toth
+ */
+class BinaryTraceWriter implements TraceWriter {
+	
+	private static final int MAGIC = 0x43525452;
+	private static final int VERSION = 1;
+	
+	private final DataOutputStream output;
+	private long previousCommandIndex;
+	private int previousXCol;
+	private int previousYRow;
+	private long previousBattery;
+	
+	BinaryTraceWriter(Path traceFileLocation) throws IOException {
+		this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(traceFileLocation), 1 << 16));
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+	}
+
+	@Override
+	public void write(long commandIndex, int backOffStage, int command, int xCol, int yRow, int direction, long battery) throws IOException {
+		output.writeByte(backOffStage << 5 | command << 2 | direction);
+		VarLongs.writeSignedVarLong(output, commandIndex - previousCommandIndex);
+		VarLongs.writeSignedVarLong(output, (long) xCol - previousXCol);
+		VarLongs.writeSignedVarLong(output, (long) yRow - previousYRow);
+		VarLongs.writeSignedVarLong(output, battery - previousBattery);
+		previousCommandIndex = commandIndex;
+		previousXCol = xCol;
+		previousYRow = yRow;
+		previousBattery = battery;
+	}
+
+	@Override
+	public void close() throws IOException {
+		output.close();
+	}
+	
+	/**
+	 * Reads all the events of the given binary trace file, handing them over to the given writer.
+	 * 
+	 * @return the number of events read
+	 * @throws IOException in case the file cannot be read or is not a binary trace file
+	 */
+	static long read(Path traceFileLocation, TraceWriter traceWriter) throws IOException {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(traceFileLocation), 1 << 16))) {
+			if (input.readInt() != MAGIC) {
+				throw new IOException("The file " + traceFileLocation + " is not a binary trace file");
+			}
+			int version = input.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported trace version " + version + " inside the file " + traceFileLocation);
+			}
+			long nbOfEvents = 0L;
+			long commandIndex = 0L;
+			long xCol = 0L;
+			long yRow = 0L;
+			long battery = 0L;
+			while (true) {
+				int code = input.read();
+				if (code < 0) {
+					return nbOfEvents;
+				}
+				try {
+					commandIndex += VarLongs.readSignedVarLong(input);
+					xCol += VarLongs.readSignedVarLong(input);
+					yRow += VarLongs.readSignedVarLong(input);
+					battery += VarLongs.readSignedVarLong(input);
+				} catch (EOFException e) {
+					throw new IOException("Truncated event at the end of the trace file " + traceFileLocation);
+				}
+				traceWriter.write(commandIndex, code >>> 5, (code >>> 2) & 7, (int) xCol, (int) yRow, code & 3, battery);
+				nbOfEvents++;
+			}
+		}
+	}
+
+}
\ No newline at end of file
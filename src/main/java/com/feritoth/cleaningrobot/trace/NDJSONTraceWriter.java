@@ -0,0 +1,97 @@
+package com.feritoth.cleaningrobot.trace;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.utils.JSONKeys;
+
+/**
+ * Writes every trace event as a JSON object on its own line, e.g.
+ * {"index":12,"command":"A","X":3,"Y":4,"facing":"N","battery":95,"backOff":0}.
+ * 
+ * @author Ferenc Toth
+ */
+class NDJSONTraceWriter implements TraceWriter {
+	
+	private static final ValidCommands[] COMMANDS = ValidCommands.values();
+	private static final ValidDirections[] DIRECTIONS = ValidDirections.values();
+	
+	private static final int BUFFER_SIZE = 1 << 16;
+	/* Enough room for the longest event line */
+	private static final int MAX_LINE_SIZE = 256;
+	
+	private final OutputStream output;
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int bufferPosition;
+	private final byte[] digits = new byte[20];
+	
+	NDJSONTraceWriter(Path traceFileLocation) throws IOException {
+		this.output = Files.newOutputStream(traceFileLocation);
+	}
+
+	@Override
+	public void write(long commandIndex, int backOffStage, int command, int xCol, int yRow, int direction, long battery) throws IOException {
+		if (BUFFER_SIZE - bufferPosition < MAX_LINE_SIZE) {
+			flush();
+		}
+		writeAscii("{\"" + JSONKeys.INDEX_KEY + "\":");
+		writeLong(commandIndex);
+		writeAscii(",\"" + JSONKeys.TRACE_COMMAND_KEY + "\":\"");
+		writeAscii(COMMANDS[command].getCommand());
+		writeAscii("\",\"" + JSONKeys.X_KEY + "\":");
+		writeLong(xCol);
+		writeAscii(",\"" + JSONKeys.Y_KEY + "\":");
+		writeLong(yRow);
+		writeAscii(",\"" + JSONKeys.DIRECTION_KEY + "\":\"");
+		writeAscii(DIRECTIONS[direction].getDirection());
+		writeAscii("\",\"" + JSONKeys.BATTERY_KEY + "\":");
+		writeLong(battery);
+		writeAscii(",\"" + JSONKeys.BACK_OFF_STAGE_KEY + "\":");
+		writeLong(backOffStage);
+		writeAscii("}\n");
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			output.close();
+		}
+	}
+	
+	private void flush() throws IOException {
+		output.write(buffer, 0, bufferPosition);
+		bufferPosition = 0;
+	}
+	
+	private void writeAscii(String value) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			buffer[bufferPosition++] = (byte) value.charAt(i);
+		}
+	}
+	
+	private void writeLong(long value) throws IOException {
+		if (value == Long.MIN_VALUE) {
+			writeAscii(Long.toString(value));
+			return;
+		}
+		if (value < 0) {
+			buffer[bufferPosition++] = '-';
+			value = -value;
+		}
+		int length = 0;
+		do {
+			digits[length++] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+		while (length > 0) {
+			buffer[bufferPosition++] = digits[--length];
+		}
+	}
+
+}
\ No newline at end of file
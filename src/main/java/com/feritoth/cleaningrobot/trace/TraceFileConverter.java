@@ -0,0 +1,32 @@
+package com.feritoth.cleaningrobot.trace;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Converts a binary trace file into its NDJSON form, the events being streamed one by one.
+ * 
+ * @author Ferenc Toth
+ */
+public class TraceFileConverter {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(TraceFileConverter.class);
+	
+	/**
+	 * @param binaryTraceFileLocation - the binary trace file
+	 * @param ndjsonFileLocation - the NDJSON file to be created (replaced if already present)
+	 */
+	public void convert(String binaryTraceFileLocation, String ndjsonFileLocation) {
+		try (TraceWriter traceWriter = TraceFormat.NDJSON.openWriter(Paths.get(ndjsonFileLocation))) {
+			long nbOfEvents = BinaryTraceWriter.read(Paths.get(binaryTraceFileLocation), traceWriter);
+			LOGGER.info(nbOfEvents + " trace events have been written into the file:" + ndjsonFileLocation);
+		} catch (IOException e) {
+			LOGGER.error("Cannot convert the trace file on position:" + binaryTraceFileLocation);
+			throw new RuntimeException("Trace conversion problem detected for the file on position:" + binaryTraceFileLocation + "\n" + e.getMessage());
+		}
+	}
+
+}
\ No newline at end of file
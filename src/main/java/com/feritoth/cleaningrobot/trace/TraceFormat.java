@@ -0,0 +1,27 @@
+package com.feritoth.cleaningrobot.trace;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The formats of the trace files written by the {@link TraceRecorder}.
+ * 
+ * @author Ferenc Toth
+ */
+public enum TraceFormat {
+	
+	/* One JSON object per line and per event - readable by any tool, but large */
+	NDJSON,
+	/* The compact binary form, see {@link BinaryTraceWriter} - may be converted to NDJSON afterwards */
+	BINARY;
+	
+	TraceWriter openWriter(Path traceFileLocation) throws IOException {
+		switch (this) {
+		case BINARY:
+			return new BinaryTraceWriter(traceFileLocation);
+		default:
+			return new NDJSONTraceWriter(traceFileLocation);
+		}
+	}
+
+}
\ No newline at end of file
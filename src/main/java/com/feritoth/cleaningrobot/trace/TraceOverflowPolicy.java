@@ -0,0 +1,15 @@
+package com.feritoth.cleaningrobot.trace;
+
+/**
+ * The behaviour of the {@link TraceRecorder} when its ring buffer is full, the trace writer lagging behind the simulation.
+ * 
+ * @author Ferenc Toth
+ */
+public enum TraceOverflowPolicy {
+	
+	/* The simulation waits until the writer frees some room - the trace is complete, the simulation being slowed down */
+	WAIT,
+	/* The event is dropped (and counted) - the simulation keeps its speed, the trace having gaps */
+	DROP;
+
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.feritoth.cleaningrobot.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+
+/**
+ * A {@link SimulationListener} recording the trajectory of the robot: every executed command and every back-off
+ * step becomes a compact event (command index, command, resulting cell, direction, battery, back-off stage) put
+ * into a ring buffer, which is drained into the trace file by a background thread - the simulation thread never
+ * touches the disk. Once the ring buffer is full, the {@link TraceOverflowPolicy} decides between waiting for the
+ * writer and dropping the event.
+ * The ring buffer has a single producer, thus a recorder must be attached to a single simulation at a time.
+ * 
+ * @author Ferenc Toth
+ */
+public class TraceRecorder implements SimulationListener, Closeable {
+	
+	private static final Logger LOGGER = LoggerFactory.getLogger(TraceRecorder.class);
+	
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+	/* The pause of the writer when the buffer is empty, respectively of the simulation when it is full */
+	private static final long IDLE_PARK_NANOS = 200000L;
+	private static final long FULL_PARK_NANOS = 20000L;
+	/* The number of events after which the writer hands the consumed slots back to the simulation */
+	private static final int RELEASE_BATCH = 1024;
+	
+	private final String traceFileLocation;
+	private final TraceOverflowPolicy overflowPolicy;
+	private final TraceWriter traceWriter;
+	private final Thread writerThread;
+	/* The events, one array per field, the slot of an event being given by its sequence number */
+	private final int capacity;
+	private final int slotMask;
+	private final long[] commandIndexes;
+	private final long[] batteries;
+	private final int[] xCols;
+	private final int[] yRows;
+	/* The back-off stage, the command and the direction, packed together */
+	private final int[] codes;
+	/* The simulation side: the sequence of the next event, respectively the last known consumed sequence */
+	private long nextSequence;
+	private long knownConsumedSequence;
+	/* The sequences shared between the simulation and the writer */
+	private final AtomicLong publishedSequence = new AtomicLong();
+	private final AtomicLong consumedSequence = new AtomicLong();
+	private final AtomicLong droppedEvents = new AtomicLong();
+	private volatile boolean closed;
+	private volatile IOException writeFailure;
+	
+	public TraceRecorder(String traceFileLocation, TraceFormat traceFormat) {
+		this(traceFileLocation, traceFormat, DEFAULT_CAPACITY, TraceOverflowPolicy.WAIT);
+	}
+	
+	/**
+	 * Creates the trace file and starts the writer thread.
+	 * 
+	 * @param traceFileLocation - the trace file (replaced if already present)
+	 * @param traceFormat - the format of the trace file
+	 * @param capacity - the number of events held by the ring buffer (rounded up to a power of 2)
+	 * @param overflowPolicy - the behaviour when the ring buffer is full
+	 */
+	public TraceRecorder(String traceFileLocation, TraceFormat traceFormat, int capacity, TraceOverflowPolicy overflowPolicy) {
+		super();
+		if (capacity <= 0 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Invalid trace buffer capacity:" + capacity);
+		}
+		this.traceFileLocation = traceFileLocation;
+		this.overflowPolicy = overflowPolicy;
+		this.capacity = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+		this.slotMask = this.capacity - 1;
+		this.commandIndexes = new long[this.capacity];
+		this.batteries = new long[this.capacity];
+		this.xCols = new int[this.capacity];
+		this.yRows = new int[this.capacity];
+		this.codes = new int[this.capacity];
+		try {
+			this.traceWriter = traceFormat.openWriter(Paths.get(traceFileLocation));
+		} catch (IOException e) {
+			LOGGER.error("Cannot create the trace file on position:" + traceFileLocation);
+			throw new RuntimeException("Trace file creation problem detected on position:" + traceFileLocation + "\n" + e.getMessage());
+		}
+		this.writerThread = new Thread(this::drain, "trace-writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	@Override
+	public void commandExecuted(long commandIndex, ValidCommands command, long xCol, long yRow, ValidDirections direction, long battery) {
+		record(commandIndex, 0, command.ordinal(), xCol, yRow, direction.ordinal(), battery);
+	}
+
+	@Override
+	public void backOffStepExecuted(long commandIndex, int backOffStage, ValidCommands command, long xCol, long yRow, ValidDirections direction, long battery) {
+		record(commandIndex, backOffStage, command.ordinal(), xCol, yRow, direction.ordinal(), battery);
+	}
+
+	@Override
+	public boolean isBackOffStepListener() {
+		return true;
+	}
+	
+	/**
+	 * Stops the recording - the events still inside the ring buffer get written, then the trace file is closed.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		LockSupport.unpark(writerThread);
+		try {
+			writerThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.warn("Interrupted while completing the trace file:" + traceFileLocation);
+			return;
+		}
+		if (writeFailure != null) {
+			LOGGER.error("Cannot write the trace file on position:" + traceFileLocation);
+			throw new RuntimeException("Trace writing problem detected on position:" + traceFileLocation + "\n" + writeFailure.getMessage());
+		}
+		if (getDroppedEvents() > 0L) {
+			LOGGER.warn(getDroppedEvents() + " trace events have been dropped, the trace writer being too slow");
+		}
+		LOGGER.info(consumedSequence.get() + " trace events have been written into the file:" + traceFileLocation);
+	}
+	
+	public long getDroppedEvents() {
+		return droppedEvents.get();
+	}
+	
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Puts an event into the ring buffer - called from the simulation thread only.
+	 */
+	private void record(long commandIndex, int backOffStage, int command, long xCol, long yRow, int direction, long battery) {
+		long sequence = nextSequence;
+		if (sequence - knownConsumedSequence >= capacity) {
+			knownConsumedSequence = consumedSequence.get();
+			while (sequence - knownConsumedSequence >= capacity) {
+				if (overflowPolicy == TraceOverflowPolicy.DROP || writeFailure != null) {
+					droppedEvents.incrementAndGet();
+					return;
+				}
+				LockSupport.parkNanos(FULL_PARK_NANOS);
+				knownConsumedSequence = consumedSequence.get();
+			}
+		}
+		int slot = (int) sequence & slotMask;
+		commandIndexes[slot] = commandIndex;
+		batteries[slot] = battery;
+		xCols[slot] = (int) xCol;
+		yRows[slot] = (int) yRow;
+		codes[slot] = backOffStage << 8 | command << 4 | direction;
+		nextSequence = sequence + 1;
+		publishedSequence.lazySet(sequence + 1);
+	}
+	
+	/**
+	 * The loop of the writer thread - the published events are written in order, the consumed slots being
+	 * handed back to the simulation in batches. Once closed, the remaining events are written before stopping.
+	 */
+	private void drain() {
+		long sequence = 0L;
+		try (TraceWriter writer = traceWriter) {
+			while (true) {
+				//the closed flag is read first, so all the events published before closing are visible below
+				boolean closing = closed;
+				long lastPublishedSequence = publishedSequence.get();
+				if (sequence == lastPublishedSequence) {
+					if (closing) {
+						break;
+					}
+					LockSupport.parkNanos(IDLE_PARK_NANOS);
+					continue;
+				}
+				while (sequence < lastPublishedSequence) {
+					int slot = (int) sequence & slotMask;
+					int code = codes[slot];
+					writer.write(commandIndexes[slot], code >>> 8, (code >>> 4) & 0xF, xCols[slot], yRows[slot], code & 0xF, batteries[slot]);
+					sequence++;
+					if ((sequence & (RELEASE_BATCH - 1)) == 0) {
+						consumedSequence.lazySet(sequence);
+					}
+				}
+				consumedSequence.lazySet(sequence);
+			}
+		} catch (IOException e) {
+			writeFailure = e;
+		}
+	}
+
+}
\ No newline at end of file
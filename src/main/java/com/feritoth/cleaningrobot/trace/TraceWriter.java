@@ -0,0 +1,24 @@
+package com.feritoth.cleaningrobot.trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes the trace events into a trace file, in their order of occurrence.
+ * 
+ * @author Ferenc Toth
+ */
+interface TraceWriter extends Closeable {
+	
+	/**
+	 * @param commandIndex - the index of the command (the one having triggered the back-off for the back-off steps)
+	 * @param backOffStage - the number of the back-off sequence, 0 for the regular commands
+	 * @param command - the ordinal of the command
+	 * @param xCol - the column of the robot after the event
+	 * @param yRow - the row of the robot after the event
+	 * @param direction - the ordinal of the direction of the robot after the event
+	 * @param battery - the battery level after the event
+	 */
+	void write(long commandIndex, int backOffStage, int command, int xCol, int yRow, int direction, long battery) throws IOException;
+
+}
\ No newline at end of file
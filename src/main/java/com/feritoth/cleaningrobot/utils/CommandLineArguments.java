@@ -0,0 +1,104 @@
+package com.feritoth.cleaningrobot.utils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal command line parser - the arguments starting with "--" are options (either flags or
+ * "--key=value" pairs), all the others being positional. The options are consumed one by one by
+ * the launcher, the ones remaining unused being reported as errors.
+ * 
+ * @author Ferenc Toth
+ */
+public class CommandLineArguments {
+	
+	private static final String OPTION_PREFIX = "--";
+	
+	private final List<String> positionalArguments = new ArrayList<>();
+	private final Map<String, String> options = new LinkedHashMap<>();
+	
+	public CommandLineArguments(String[] args) {
+		super();
+		for (String argument : args) {
+			if (argument.startsWith(OPTION_PREFIX)) {
+				int separatorIndex = argument.indexOf('=');
+				if (separatorIndex < 0) {
+					options.put(argument.substring(OPTION_PREFIX.length()), null);
+				} else {
+					options.put(argument.substring(OPTION_PREFIX.length(), separatorIndex), argument.substring(separatorIndex + 1));
+				}
+			} else {
+				positionalArguments.add(argument);
+			}
+		}
+	}
+	
+	public int getNbOfPositionalArguments() {
+		return positionalArguments.size();
+	}
+	
+	public String getPositionalArgument(int index) {
+		if (index >= positionalArguments.size()) {
+			throw new IllegalArgumentException("Missing argument on position:" + (index + 1));
+		}
+		return positionalArguments.get(index);
+	}
+	
+	/**
+	 * Consumes a flag type option.
+	 * 
+	 * @return true if the flag was present
+	 */
+	public boolean consumeFlag(String name) {
+		if (!options.containsKey(name)) {
+			return false;
+		}
+		if (options.remove(name) != null) {
+			throw new IllegalArgumentException("The option --" + name + " does not take any value");
+		}
+		return true;
+	}
+	
+	/**
+	 * Consumes a "--key=value" type option.
+	 * 
+	 * @return the value of the option, or the default value if the option was absent
+	 */
+	public String consumeOption(String name, String defaultValue) {
+		if (!options.containsKey(name)) {
+			return defaultValue;
+		}
+		String value = options.remove(name);
+		if (value == null) {
+			throw new IllegalArgumentException("The option --" + name + " requires a value");
+		}
+		return value;
+	}
+	
+	public int consumeIntOption(String name, int defaultValue) {
+		String value = consumeOption(name, null);
+		return value == null ? defaultValue : Integer.parseInt(value);
+	}
+	
+	public long consumeLongOption(String name, long defaultValue) {
+		String value = consumeOption(name, null);
+		return value == null ? defaultValue : Long.parseLong(value);
+	}
+	
+	public double consumeDoubleOption(String name, double defaultValue) {
+		String value = consumeOption(name, null);
+		return value == null ? defaultValue : Double.parseDouble(value);
+	}
+	
+	/**
+	 * Checks that all the given options have been consumed.
+	 */
+	public void verifyAllOptionsConsumed() {
+		if (!options.isEmpty()) {
+			throw new IllegalArgumentException("Unknown option(s):" + options.keySet());
+		}
+	}
+
+}
\ No newline at end of file
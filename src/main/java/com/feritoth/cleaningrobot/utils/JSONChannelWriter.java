@@ -0,0 +1,97 @@
+package com.feritoth.cleaningrobot.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The base of the writers streaming a JSON document directly into a channel, through a heap buffer reused by every
+ * document of the writer - no intermediate JSON tree or complete document string is built. A document is written
+ * between {@link #startDocument} and {@link #endDocument}, out of keys, ASCII tokens and numbers.
+ *
+ * @author Ferenc Toth
+ */
+public abstract class JSONChannelWriter {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	/* Enough room for the longest token written at once (a quoted key or a long value) */
+	private static final int MAX_TOKEN_SIZE = 64;
+
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final byte[] digits = new byte[20];
+	private WritableByteChannel channel;
+
+	/**
+	 * Opens the given file for writing a document, replacing its previous content.
+	 */
+	protected static FileChannel openFile(String outputFileLocation) throws IOException {
+		return FileChannel.open(Paths.get(outputFileLocation), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * Starts a document written into the given channel.
+	 */
+	protected void startDocument(WritableByteChannel channel) {
+		this.channel = channel;
+		buffer.clear();
+	}
+
+	/**
+	 * Completes the current document, flushing the buffer into its channel - the channel is not closed.
+	 */
+	protected void endDocument() throws IOException {
+		flush();
+		this.channel = null;
+	}
+
+	protected void writeKey(String key) throws IOException {
+		writeAscii("\"");
+		writeAscii(key);
+		writeAscii("\":");
+	}
+
+	protected void writeAscii(String value) throws IOException {
+		ensureCapacity(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			buffer.put((byte) value.charAt(i));
+		}
+	}
+
+	protected void writeLong(long value) throws IOException {
+		ensureCapacity(MAX_TOKEN_SIZE);
+		if (value == Long.MIN_VALUE) {
+			writeAscii(Long.toString(value));
+			return;
+		}
+		if (value < 0) {
+			buffer.put((byte) '-');
+			value = -value;
+		}
+		int length = 0;
+		do {
+			digits[length++] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value != 0);
+		while (length > 0) {
+			buffer.put(digits[--length]);
+		}
+	}
+
+	private void ensureCapacity(int length) throws IOException {
+		if (buffer.remaining() < length) {
+			flush();
+		}
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+}
\ No newline at end of file
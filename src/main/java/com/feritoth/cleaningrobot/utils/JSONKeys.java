@@ -14,9 +14,27 @@ public interface JSONKeys {
 	static String START_KEY = "start";
 	static String MAP_KEY = "map";
 	static String COMMAND_KEY = "commands";
+	static String ROBOTS_KEY = "robots";
 	/* Keys only for the output */
 	static String VISIT_KEY = "visited";
 	static String CLEAN_KEY = "cleaned";
 	static String FINAL_KEY = "final";
+	static String COVERAGE_KEY = "coverage";
+	static String FREE_CELLS_KEY = "freeCells";
+	static String VISITED_CELLS_KEY = "visitedCells";
+	static String CLEANED_CELLS_KEY = "cleanedCells";
+	static String REPEATED_CLEANINGS_KEY = "repeatedCleanings";
+	/* Keys only for the room analysis report */
+	static String COMPONENTS_KEY = "components";
+	static String LARGEST_COMPONENT_KEY = "largestComponent";
+	static String REACHABLE_CELLS_KEY = "reachableCells";
+	static String COVERAGE_UPPER_BOUND_KEY = "coverageUpperBound";
+	static String STUCK_CELLS_KEY = "stuckCells";
+	static String STUCK_AT_START_KEY = "stuckAtStart";
+	static String STUCK_KEY = "stuck";
+	/* Keys only for the trace events */
+	static String INDEX_KEY = "index";
+	static String TRACE_COMMAND_KEY = "command";
+	static String BACK_OFF_STAGE_KEY = "backOff";
 
 }
\ No newline at end of file
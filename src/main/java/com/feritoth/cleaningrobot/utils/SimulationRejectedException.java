@@ -0,0 +1,18 @@
+package com.feritoth.cleaningrobot.utils;
+
+/**
+ * Thrown when a simulation is not worth being executed, the pre-analysis of its input showing that it
+ * cannot reach the expected outcome (see the minimum coverage of the simulation options).
+ * 
+ * @author Ferenc Toth
+ *
+ */
+public class SimulationRejectedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+	
+	public SimulationRejectedException(String message) {
+		super(message);
+	}
+	
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.feritoth.cleaningrobot.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The variable length encoding of the long values used by the binary files of the application - 7 bits per byte,
+ * the highest bit telling whether more bytes follow. The signed values (typically differences) are zig-zag encoded
+ * first, so the small negative values take few bytes as well.
+ * 
+ * @author Ferenc Toth
+ */
+public final class VarLongs {
+	
+	private VarLongs() {
+	}
+	
+	public static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+	
+	public static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1L);
+	}
+	
+	public static void writeVarLong(DataOutput output, long value) throws IOException {
+		while ((value & ~0x7FL) != 0L) {
+			output.writeByte((int) ((value & 0x7FL) | 0x80L));
+			value >>>= 7;
+		}
+		output.writeByte((int) value);
+	}
+	
+	public static void writeSignedVarLong(DataOutput output, long value) throws IOException {
+		writeVarLong(output, zigZag(value));
+	}
+	
+	public static long readVarLong(DataInput input) throws IOException {
+		long value = 0L;
+		for (int shift = 0; shift < 64; shift += 7) {
+			int current = input.readUnsignedByte();
+			value |= (long) (current & 0x7F) << shift;
+			if ((current & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+	
+	public static long readSignedVarLong(DataInput input) throws IOException {
+		return unZigZag(readVarLong(input));
+	}
+
+}
\ No newline at end of file
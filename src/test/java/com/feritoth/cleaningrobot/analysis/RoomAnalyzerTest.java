@@ -0,0 +1,161 @@
+package com.feritoth.cleaningrobot.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.generator.WorkloadGenerator;
+import com.feritoth.cleaningrobot.generator.WorkloadOptions;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+import com.feritoth.cleaningrobot.processor.CleaningEngine;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.EngineType;
+import com.feritoth.cleaningrobot.processor.JSONInputConverter;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+import com.feritoth.cleaningrobot.utils.JSONKeys;
+
+/**
+ * Checks the regions, the stuck cells and the coverage bound found by the analysis against the simulations.
+ *
+ * @author Ferenc Toth
+ */
+public class RoomAnalyzerTest {
+
+	private static final String[][] MAP = {
+			{"S", "S", "null", "S"},
+			{"S", "C", "null", "S"},
+			{"null", "null", "C", "S"},
+			{"S", "S", "null", "S"}
+	};
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void findsTheRegionsOfFreeCells() {
+		RoomAnalysis roomAnalysis = new RoomAnalyzer().analyze(new Room(MAP));
+		assertEquals(3, roomAnalysis.getNbOfComponents());
+		assertEquals(9L, roomAnalysis.getNbOfFreeCells());
+		assertEquals(4, roomAnalysis.getLargestComponentSize());
+		assertEquals(3, roomAnalysis.getComponentSize(0L, 1L));
+		assertEquals(4, roomAnalysis.getComponentSize(3L, 2L));
+		assertEquals(2, roomAnalysis.getComponentSize(1L, 3L));
+		assertEquals(roomAnalysis.getComponent(0L, 0L), roomAnalysis.getComponent(1L, 0L));
+		assertTrue(roomAnalysis.getComponent(0L, 0L) != roomAnalysis.getComponent(3L, 0L));
+		assertEquals(RoomAnalysis.NO_COMPONENT, roomAnalysis.getComponent(1L, 1L));
+		assertEquals(0, roomAnalysis.getComponentSize(2L, 0L));
+	}
+
+	@Test
+	public void boundsTheCoverageByTheRegionAndTheBattery() {
+		RoomAnalysis roomAnalysis = new RoomAnalyzer().analyze(new Room(MAP));
+		assertEquals(0L, roomAnalysis.getCoverageUpperBound(new Position(3L, 0L), 0L));
+		assertEquals(0L, roomAnalysis.getCoverageUpperBound(new Position(3L, 0L), 5L));
+		assertEquals(1L, roomAnalysis.getCoverageUpperBound(new Position(3L, 0L), 6L));
+		assertEquals(2L, roomAnalysis.getCoverageUpperBound(new Position(3L, 0L), 13L));
+		assertEquals(4L, roomAnalysis.getCoverageUpperBound(new Position(3L, 0L), 1000L));
+		//the robot may leave the obstacle it starts on, towards the largest neighbouring region
+		assertEquals(5L, roomAnalysis.getCoverageUpperBound(new Position(2L, 2L), 1000L));
+	}
+
+	@Test
+	public void findsTheCellsWhereTheRobotGetsStuck() {
+		RoomAnalysis singleCellAnalysis = new RoomAnalyzer().analyze(new Room(new String[][] {{"S"}}));
+		assertEquals(1L, singleCellAnalysis.getNbOfStuckCells());
+		for (ValidDirections direction : ValidDirections.values()) {
+			assertTrue(singleCellAnalysis.isStuck(0L, 0L, direction));
+		}
+		for (int seed = 0; seed < 20; seed++) {
+			SplittableRandom random = new SplittableRandom(seed);
+			int nbOfRows = random.nextInt(1, 8);
+			int nbOfColumns = random.nextInt(1, 8);
+			byte[] cells = new byte[nbOfRows * nbOfColumns];
+			for (int cellIndex = 0; cellIndex < cells.length; cellIndex++) {
+				cells[cellIndex] = random.nextInt(3) == 0 ? Room.CELL_COLUMN : Room.CELL_SPACE;
+			}
+			Room room = new Room(nbOfRows, nbOfColumns, cells);
+			RoomAnalysis roomAnalysis = new RoomAnalyzer().analyze(room);
+			for (int yRow = 0; yRow < nbOfRows; yRow++) {
+				for (int xCol = 0; xCol < nbOfColumns; xCol++) {
+					for (ValidDirections direction : ValidDirections.values()) {
+						if (!room.isObstacle(xCol, yRow) && !room.canMove(xCol, yRow, direction)) {
+							assertEquals("seed " + seed + " at " + xCol + "," + yRow + " " + direction, isStuckWhenAdvancing(room, xCol, yRow, direction),
+									roomAnalysis.isStuck(xCol, yRow, direction));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void boundsTheCoverageOfTheSimulations() throws IOException {
+		Path inputFile = temporaryFolder.getRoot().toPath().resolve("input.json");
+		for (int seed = 0; seed < 20; seed++) {
+			WorkloadOptions workloadOptions = new WorkloadOptions().setSeed(seed).setNbOfRows(6).setNbOfColumns(6).setObstacleDensity(0.3)
+					.setNbOfCommands(400L).setBattery(50L + 40L * seed).setCommandMix("TL:1,TR:1,A:4,B:1,C:2");
+			new WorkloadGenerator().generate(workloadOptions, inputFile);
+			try (CleaningProgram program = new JSONInputConverter().readProgram(inputFile.toString(), new SimulationOptions())) {
+				CleaningRobot cleaningRobot = program.getCleaningRobot();
+				long bound = new RoomAnalyzer().analyze(program.getRoom()).getCoverageUpperBound(cleaningRobot.getPosition(), cleaningRobot.getBattery());
+				EngineType.PACKED.createEngine().executeCleaningProcedure(cleaningRobot, program.getRoom(), program.getCommands());
+				assertTrue(workloadOptions.toString(), new HashSet<>(cleaningRobot.getCleanedPositions()).size() <= bound);
+			}
+		}
+	}
+
+	@Test
+	public void reportsTheAnalysisFromTheStartOfTheInput() throws IOException, ParseException {
+		Path reportFile = temporaryFolder.getRoot().toPath().resolve("report.json");
+		new RoomAnalyzer().analyzeProgram("src/main/resources/test1.json", reportFile.toString(), new SimulationOptions());
+		JSONObject report;
+		try (Reader reader = Files.newBufferedReader(reportFile, StandardCharsets.UTF_8)) {
+			report = (JSONObject) new JSONParser().parse(reader);
+		}
+		assertEquals(14L, report.get(JSONKeys.FREE_CELLS_KEY));
+		assertEquals(1L, report.get(JSONKeys.COMPONENTS_KEY));
+		assertEquals(14L, report.get(JSONKeys.LARGEST_COMPONENT_KEY));
+		assertEquals(14L, report.get(JSONKeys.REACHABLE_CELLS_KEY));
+		//a battery of 80 pays for 11 cleanings and the moves between them
+		assertEquals(11L, report.get(JSONKeys.COVERAGE_UPPER_BOUND_KEY));
+		assertEquals(Boolean.FALSE, report.get(JSONKeys.STUCK_AT_START_KEY));
+	}
+
+	/**
+	 * Runs a single advancing command towards the obstacle, the engine reporting whether the back-off fails.
+	 */
+	private static boolean isStuckWhenAdvancing(Room room, int xCol, int yRow, ValidDirections direction) {
+		boolean[] stuck = new boolean[1];
+		CleaningEngine engine = EngineType.STANDARD.createEngine();
+		engine.setSimulationListener(new SimulationListener() {
+			@Override
+			public void robotStuck(long commandIndex, long xCol, long yRow) {
+				stuck[0] = true;
+			}
+		});
+		engine.executeCleaningProcedure(new CleaningRobot(new Position(xCol, yRow), 1000L, direction), room,
+				Collections.singletonList(ValidCommands.ADVANCE).iterator());
+		return stuck[0];
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.feritoth.cleaningrobot.batch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+
+/**
+ * Checks the loading of the batch jobs and their execution on a worker pool.
+ *
+ * @author Ferenc Toth
+ */
+public class BatchSimulationRunnerTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void loadsTheInputsOfADirectory() throws IOException {
+		File inputDirectory = temporaryFolder.newFolder("inputs");
+		for (String fileName : Arrays.asList("b.json", "a.json", "a_result.json", "notes.txt")) {
+			new File(inputDirectory, fileName).createNewFile();
+		}
+		Path outputDirectory = temporaryFolder.getRoot().toPath().resolve("outputs");
+		List<BatchJob> jobs = new BatchJobLoader().loadJobs(inputDirectory.toString(), outputDirectory.toString());
+		assertEquals(2, jobs.size());
+		assertEquals(new File(inputDirectory, "a.json").toString(), jobs.get(0).getInputFileLocation());
+		assertEquals(outputDirectory.resolve("a_result.json").toString(), jobs.get(0).getOutputFileLocation());
+		assertEquals(outputDirectory.resolve("b_result.json").toString(), jobs.get(1).getOutputFileLocation());
+	}
+
+	@Test
+	public void loadsTheJobsOfAManifest() throws IOException {
+		Path manifestFile = temporaryFolder.newFile("jobs.txt").toPath();
+		Files.write(manifestFile, Arrays.asList("# comment", "in1.json out1.json", "", "  in2.json\tout2.json  "));
+		List<BatchJob> jobs = new BatchJobLoader().loadJobs(manifestFile.toString(), null);
+		assertEquals(2, jobs.size());
+		assertEquals("in2.json", jobs.get(1).getInputFileLocation());
+		assertEquals("out2.json", jobs.get(1).getOutputFileLocation());
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void rejectsAMalformedManifest() throws IOException {
+		Path manifestFile = temporaryFolder.newFile("jobs.txt").toPath();
+		Files.write(manifestFile, Arrays.asList("in1.json"));
+		new BatchJobLoader().loadJobs(manifestFile.toString(), null);
+	}
+
+	@Test
+	public void runsTheJobsIndependently() throws IOException {
+		Path outputDirectory = temporaryFolder.getRoot().toPath();
+		List<BatchJob> jobs = Arrays.asList(
+				new BatchJob("src/main/resources/test1.json", outputDirectory.resolve("test1_result.json").toString()),
+				new BatchJob(outputDirectory.resolve("missing.json").toString(), outputDirectory.resolve("missing_result.json").toString()),
+				new BatchJob("src/main/resources/test2.json", outputDirectory.resolve("test2_result.json").toString()));
+		BatchSummary summary = new BatchSimulationRunner(new SimulationOptions(), 2, false).runJobs(jobs);
+		assertEquals(3L, summary.getTotalJobs());
+		assertEquals(2L, summary.getSucceededJobs());
+		assertEquals(1L, summary.getFailedJobs());
+		assertEquals(1, summary.getReportedFailures().size());
+		for (String sample : Arrays.asList("test1", "test2")) {
+			assertArrayEquals(Files.readAllBytes(Paths.get("src/main/resources/" + sample + "_result.json")),
+					Files.readAllBytes(outputDirectory.resolve(sample + "_result.json")));
+		}
+	}
+
+}
\ No newline at end of file
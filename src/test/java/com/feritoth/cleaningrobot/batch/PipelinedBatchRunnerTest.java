@@ -0,0 +1,110 @@
+package com.feritoth.cleaningrobot.batch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.instrumentation.SimulationPhase;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+
+/**
+ * Checks that the jobs going through the stages of the pipeline give the outputs of the sequential runs.
+ *
+ * @author Ferenc Toth
+ */
+public class PipelinedBatchRunnerTest {
+
+	private static final int NB_OF_JOBS = 30;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void runsTheJobsThroughTheStages() throws IOException {
+		List<BatchJob> jobs = createJobs();
+		jobs.add(new BatchJob(temporaryFolder.getRoot().toPath().resolve("missing.json").toString(),
+				temporaryFolder.getRoot().toPath().resolve("missing_result.json").toString()));
+		//single slot queues, so the parse workers keep waiting for the simulation
+		PipelineOptions pipelineOptions = new PipelineOptions().setNbOfParseWorkers(2).setNbOfSimulateWorkers(1).setNbOfSerializeWorkers(1).setQueueCapacity(1);
+		PipelinedBatchRunner runner = new PipelinedBatchRunner(new SimulationOptions(), pipelineOptions);
+		BatchSummary summary = runner.runJobs(jobs);
+		assertEquals(NB_OF_JOBS + 1L, summary.getTotalJobs());
+		assertEquals(NB_OF_JOBS, summary.getSucceededJobs());
+		assertEquals(1L, summary.getFailedJobs());
+		assertOutputs(jobs.subList(0, NB_OF_JOBS));
+		List<StageMetrics> stageMetrics = runner.getStageMetrics();
+		assertEquals(3, stageMetrics.size());
+		assertEquals(SimulationPhase.PARSE, stageMetrics.get(0).getPhase());
+		assertEquals(2, stageMetrics.get(0).getNbOfWorkers());
+		assertEquals(NB_OF_JOBS + 1L, stageMetrics.get(0).getNbOfJobs());
+		assertEquals(SimulationPhase.SIMULATE, stageMetrics.get(1).getPhase());
+		assertEquals(NB_OF_JOBS, stageMetrics.get(1).getNbOfJobs());
+		assertEquals(SimulationPhase.SERIALIZE, stageMetrics.get(2).getPhase());
+		assertEquals(NB_OF_JOBS, stageMetrics.get(2).getNbOfJobs());
+		for (StageMetrics metrics : stageMetrics) {
+			assertTrue(metrics.getMaxQueueDepth() <= 1L);
+		}
+	}
+
+	@Test
+	public void runsTheStreamedInputs() throws IOException {
+		List<BatchJob> jobs = createJobs();
+		BatchSummary summary = new PipelinedBatchRunner(new SimulationOptions().setStreamingInput(true), new PipelineOptions()).runJobs(jobs);
+		assertEquals(NB_OF_JOBS, summary.getSucceededJobs());
+		assertOutputs(jobs);
+	}
+
+	@Test
+	public void rejectsTheJobsBelowTheMinimumCoverage() throws IOException {
+		List<BatchJob> jobs = createJobs();
+		//the battery of the first input pays for 11 cleaned cells at most, the one of the second input for all 14 free cells
+		BatchSummary summary = new PipelinedBatchRunner(new SimulationOptions().setMinCoverage(12L), new PipelineOptions()).runJobs(jobs);
+		assertEquals(NB_OF_JOBS / 2, summary.getRejectedJobs());
+		assertEquals(NB_OF_JOBS / 2, summary.getSucceededJobs());
+		assertFalse(Files.exists(Paths.get(jobs.get(0).getOutputFileLocation())));
+		assertOutputs(jobs.subList(1, 2));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsAStageWithoutWorkers() {
+		new PipelinedBatchRunner(new SimulationOptions(), new PipelineOptions().setNbOfSerializeWorkers(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsAQueueWithoutCapacity() {
+		new PipelinedBatchRunner(new SimulationOptions(), new PipelineOptions().setQueueCapacity(0));
+	}
+
+	/**
+	 * @return the jobs running the sample inputs in turn, each one with an output of its own
+	 */
+	private List<BatchJob> createJobs() {
+		List<BatchJob> jobs = new ArrayList<>();
+		for (int jobIndex = 0; jobIndex < NB_OF_JOBS; jobIndex++) {
+			String sample = jobIndex % 2 == 0 ? "test1" : "test2";
+			Path outputFile = temporaryFolder.getRoot().toPath().resolve(sample + "_" + jobIndex + "_result.json");
+			jobs.add(new BatchJob("src/main/resources/" + sample + ".json", outputFile.toString()));
+		}
+		return jobs;
+	}
+
+	private static void assertOutputs(List<BatchJob> jobs) throws IOException {
+		for (BatchJob job : jobs) {
+			Path expectedOutputFile = Paths.get(job.getInputFileLocation().replace(".json", "_result.json"));
+			assertArrayEquals(job.getOutputFileLocation(), Files.readAllBytes(expectedOutputFile), Files.readAllBytes(Paths.get(job.getOutputFileLocation())));
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.feritoth.cleaningrobot.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks the keys of the inputs, respectively the storage and the eviction of the results.
+ *
+ * @author Ferenc Toth
+ */
+public class ResultCacheTest {
+
+	private static final String INPUT = "{\"map\":[[\"S\",\"C\"]],\"start\":{\"X\":0,\"Y\":0,\"facing\":\"N\"},\"commands\":[\"A\"],\"battery\":10}";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void ignoresTheWhitespaceOutsideTheStrings() throws IOException {
+		ResultCache resultCache = new ResultCache(temporaryFolder.getRoot().toPath(), 1024L);
+		String key = resultCache.computeKey(toBytes(INPUT), "standard");
+		assertEquals(64, key.length());
+		String formattedInput = "{\n  \"map\": [ [\"S\", \"C\"] ],\r\n\t\"start\": {\"X\": 0, \"Y\": 0, \"facing\": \"N\"},\n  \"commands\": [\"A\"],\n  \"battery\": 10\n}\n";
+		assertEquals(key, resultCache.computeKey(toBytes(formattedInput), "standard"));
+		Path inputFile = temporaryFolder.newFile("input.json").toPath();
+		Files.write(inputFile, toBytes(formattedInput));
+		assertEquals(key, resultCache.computeKey(inputFile, "standard"));
+		assertEquals(key, resultCache.computeKey(new ByteArrayInputStream(toBytes(INPUT)), "standard"));
+		assertNotEquals(key, resultCache.computeKey(toBytes(INPUT.replace("\"S\"", "\" S\"")), "standard"));
+		assertNotEquals(key, resultCache.computeKey(toBytes(INPUT.replace("10", "11")), "standard"));
+	}
+
+	@Test
+	public void keepsTheWhitespaceAfterAnEscapedQuote() throws IOException {
+		ResultCache resultCache = new ResultCache(temporaryFolder.getRoot().toPath(), 1024L);
+		assertNotEquals(resultCache.computeKey(toBytes("[\"a\\\" b\"]"), ""), resultCache.computeKey(toBytes("[\"a\\\"b\"]"), ""));
+		assertEquals(resultCache.computeKey(toBytes("[\"a\\\\\", \"b\"]"), ""), resultCache.computeKey(toBytes("[\"a\\\\\",\"b\"]"), ""));
+	}
+
+	@Test
+	public void normalizesTheInputsLongerThanTheBuffer() throws IOException {
+		ResultCache resultCache = new ResultCache(temporaryFolder.getRoot().toPath(), 1024L);
+		StringBuilder compactInput = new StringBuilder("[");
+		StringBuilder formattedInput = new StringBuilder("[");
+		for (int i = 0; i < 50000; i++) {
+			compactInput.append(i == 0 ? "" : ",").append("\"S S\"");
+			formattedInput.append(i == 0 ? "" : ",\n  ").append("\"S S\"");
+		}
+		assertEquals(resultCache.computeKey(toBytes(compactInput + "]"), ""), resultCache.computeKey(toBytes(formattedInput + " ]"), ""));
+	}
+
+	@Test
+	public void separatesTheVariants() throws IOException {
+		ResultCache resultCache = new ResultCache(temporaryFolder.getRoot().toPath(), 1024L);
+		assertNotEquals(resultCache.computeKey(toBytes(INPUT), "standard"), resultCache.computeKey(toBytes(INPUT), "packed"));
+	}
+
+	@Test
+	public void fetchesTheStoredResults() throws IOException {
+		Path directory = temporaryFolder.newFolder("cache").toPath();
+		ResultCache resultCache = new ResultCache(directory, 1024L);
+		assertNull(resultCache.fetch("key1"));
+		resultCache.store("key1", toBytes("output"));
+		assertArrayEquals(toBytes("output"), resultCache.fetch("key1"));
+		Path outputFile = temporaryFolder.getRoot().toPath().resolve("output.json");
+		assertTrue(resultCache.fetch("key1", outputFile));
+		assertArrayEquals(toBytes("output"), Files.readAllBytes(outputFile));
+		//an input without output leaves the output file out
+		resultCache.store("key2", (Path) null);
+		Path missingOutputFile = temporaryFolder.getRoot().toPath().resolve("missing.json");
+		assertTrue(resultCache.fetch("key2", missingOutputFile));
+		assertFalse(Files.exists(missingOutputFile));
+		assertFalse(resultCache.fetch("key3", missingOutputFile));
+		assertEquals(3L, resultCache.getNbOfHits());
+		assertEquals(2L, resultCache.getNbOfMisses());
+		//the results are shared with the other instances on the same directory
+		resultCache.store("key4", outputFile);
+		assertArrayEquals(toBytes("output"), new ResultCache(directory, 1024L).fetch("key4"));
+	}
+
+	@Test
+	public void evictsTheLeastRecentlyUsedResults() throws IOException {
+		Path directory = temporaryFolder.getRoot().toPath();
+		ResultCache resultCache = new ResultCache(directory, 1000L);
+		byte[] output = new byte[300];
+		Arrays.fill(output, (byte) 'x');
+		long now = System.currentTimeMillis();
+		resultCache.store("a", output);
+		resultCache.store("b", output);
+		resultCache.store("c", output);
+		Files.setLastModifiedTime(directory.resolve("a.json"), FileTime.fromMillis(now - 1000000L));
+		Files.setLastModifiedTime(directory.resolve("b.json"), FileTime.fromMillis(now - 3000000L));
+		Files.setLastModifiedTime(directory.resolve("c.json"), FileTime.fromMillis(now - 2000000L));
+		assertArrayEquals(output, resultCache.fetch("a"));
+		resultCache.store("d", output);
+		assertNull(resultCache.fetch("b"));
+		assertArrayEquals(output, resultCache.fetch("a"));
+		assertArrayEquals(output, resultCache.fetch("c"));
+		assertArrayEquals(output, resultCache.fetch("d"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsAnEmptySizeLimit() {
+		new ResultCache(temporaryFolder.getRoot().toPath(), 0L);
+	}
+
+	private static byte[] toBytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+
+}
\ No newline at end of file
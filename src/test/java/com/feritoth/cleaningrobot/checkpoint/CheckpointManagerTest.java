@@ -0,0 +1,149 @@
+package com.feritoth.cleaningrobot.checkpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.PositionLog;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+
+/**
+ * Checks the round trip of the simulation state through the checkpoint files, and the resume of the simulations.
+ *
+ * @author Ferenc Toth
+ */
+public class CheckpointManagerTest {
+
+	private static final List<ValidCommands> COMMANDS = Arrays.asList(ValidCommands.ADVANCE, ValidCommands.CLEAN, ValidCommands.TURN_LEFT,
+			ValidCommands.ADVANCE, ValidCommands.CLEAN);
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void restoresTheStateWritten() throws IOException {
+		PositionLog visitedPositions = new PositionLog();
+		PositionLog cleanedPositions = new PositionLog();
+		for (long xCol = 0L; xCol < 5000L; xCol++) {
+			visitedPositions.add(Position.pack(xCol % 100L, xCol / 100L));
+			if (xCol % 7L == 0L) {
+				cleanedPositions.add(Position.pack(xCol % 100L, xCol / 100L));
+			}
+		}
+		Path checkpointFile = temporaryFolder.getRoot().toPath().resolve("checkpoint");
+		new SimulationCheckpoint(42L, 50, 100, 123456789L, 99, 49, ValidDirections.WEST.ordinal(), 987L, visitedPositions.snapshot(),
+				cleanedPositions.snapshot()).write(checkpointFile);
+		SimulationCheckpoint checkpoint = SimulationCheckpoint.read(checkpointFile);
+		assertEquals(42L, checkpoint.getInputFingerprint());
+		assertEquals(50, checkpoint.getNbOfRows());
+		assertEquals(100, checkpoint.getNbOfColumns());
+		assertEquals(123456789L, checkpoint.getCommandIndex());
+		CleaningRobot cleaningRobot = new CleaningRobot(new Position(0L, 0L), 1000L, ValidDirections.NORTH);
+		checkpoint.restore(cleaningRobot);
+		CleaningRobot expectedRobot = new CleaningRobot(new Position(99L, 49L), 987L, ValidDirections.WEST);
+		for (int i = 0; i < visitedPositions.size(); i++) {
+			expectedRobot.getVisitedPositionLog().add(visitedPositions.get(i));
+		}
+		for (int i = 0; i < cleanedPositions.size(); i++) {
+			expectedRobot.getCleanedPositionLog().add(cleanedPositions.get(i));
+		}
+		assertEquals(expectedRobot.toString(), cleaningRobot.toString());
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsAnotherFile() throws IOException {
+		SimulationCheckpoint.read(Paths.get("src/main/resources/test1.json"));
+	}
+
+	@Test
+	public void startsFromTheFirstCommandWithoutCheckpoint() {
+		Path checkpointFile = temporaryFolder.getRoot().toPath().resolve("checkpoint");
+		try (CheckpointManager checkpointManager = new CheckpointManager(new Room(3, 3), 1L, checkpointFile, 2L, 0L)) {
+			Iterator<ValidCommands> commands = COMMANDS.iterator();
+			assertEquals(0L, checkpointManager.resume(new CleaningRobot(new Position(0L, 0L), 10L, ValidDirections.SOUTH), commands));
+			assertEquals(ValidCommands.ADVANCE, commands.next());
+			assertFalse(checkpointManager.isDue(1L));
+			assertTrue(checkpointManager.isDue(2L));
+		}
+	}
+
+	@Test
+	public void resumesFromTheLatestCheckpoint() {
+		Path checkpointFile = temporaryFolder.getRoot().toPath().resolve("checkpoint");
+		takeCheckpoint(new Room(3, 3), 7L, checkpointFile);
+		try (CheckpointManager checkpointManager = new CheckpointManager(new Room(3, 3), 7L, checkpointFile, 2L, 0L)) {
+			CleaningRobot cleaningRobot = new CleaningRobot(new Position(0L, 0L), 10L, ValidDirections.SOUTH);
+			Iterator<ValidCommands> commands = COMMANDS.iterator();
+			assertEquals(3L, checkpointManager.resume(cleaningRobot, commands));
+			assertEquals(3L, checkpointManager.getResumedCommandIndex());
+			assertEquals(ValidCommands.ADVANCE, commands.next());
+			assertEquals(new Position(0L, 1L), cleaningRobot.getPosition());
+			assertEquals(ValidDirections.EAST, cleaningRobot.getDirection());
+			assertEquals(Long.valueOf(7L), cleaningRobot.getBattery());
+			assertEquals(1, cleaningRobot.getCleanedPositions().size());
+			//the next checkpoint is counted from the resumed command
+			assertFalse(checkpointManager.isDue(4L));
+			assertTrue(checkpointManager.isDue(5L));
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void rejectsTheCheckpointOfAnotherInput() {
+		Path checkpointFile = temporaryFolder.getRoot().toPath().resolve("checkpoint");
+		takeCheckpoint(new Room(3, 3), 7L, checkpointFile);
+		try (CheckpointManager checkpointManager = new CheckpointManager(new Room(3, 3), 8L, checkpointFile, 2L, 0L)) {
+			checkpointManager.resume(new CleaningRobot(new Position(0L, 0L), 10L, ValidDirections.SOUTH), COMMANDS.iterator());
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void rejectsTheCheckpointOfAnotherRoom() {
+		Path checkpointFile = temporaryFolder.getRoot().toPath().resolve("checkpoint");
+		takeCheckpoint(new Room(3, 3), 7L, checkpointFile);
+		try (CheckpointManager checkpointManager = new CheckpointManager(new Room(3, 4), 7L, checkpointFile, 2L, 0L)) {
+			checkpointManager.resume(new CleaningRobot(new Position(0L, 0L), 10L, ValidDirections.SOUTH), COMMANDS.iterator());
+		}
+	}
+
+	@Test
+	public void fingerprintsTheStartStateToo() throws IOException {
+		Path inputFile = Paths.get("src/main/resources/test1.json");
+		Room room = new Room(4, 4);
+		long fingerprint = CheckpointManager.fingerprint(inputFile, room, new CleaningRobot(new Position(3L, 0L), 80L, ValidDirections.NORTH));
+		assertEquals(fingerprint, CheckpointManager.fingerprint(inputFile, room, new CleaningRobot(new Position(3L, 0L), 80L, ValidDirections.NORTH)));
+		assertNotEquals(fingerprint, CheckpointManager.fingerprint(inputFile, room, new CleaningRobot(new Position(3L, 0L), 81L, ValidDirections.NORTH)));
+		Room otherRoom = new Room(4, 4, new byte[] {0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+		assertNotEquals(fingerprint, CheckpointManager.fingerprint(inputFile, otherRoom, new CleaningRobot(new Position(3L, 0L), 80L, ValidDirections.NORTH)));
+	}
+
+	/**
+	 * Takes a checkpoint after the first three commands, the robot standing on (0, 1) facing east.
+	 */
+	private static void takeCheckpoint(Room room, long inputFingerprint, Path checkpointFile) {
+		PositionLog visitedPositions = new PositionLog();
+		visitedPositions.add(Position.pack(0L, 0L));
+		visitedPositions.add(Position.pack(0L, 1L));
+		PositionLog cleanedPositions = new PositionLog();
+		cleanedPositions.add(Position.pack(0L, 1L));
+		try (CheckpointManager checkpointManager = new CheckpointManager(room, inputFingerprint, checkpointFile, 2L, 0L)) {
+			checkpointManager.checkpoint(3L, 0, 1, ValidDirections.EAST.ordinal(), 7L, visitedPositions, cleanedPositions);
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.feritoth.cleaningrobot.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Checks the cells occupied, respectively cleaned, by the robots sharing a room - also when updated concurrently.
+ *
+ * @author Ferenc Toth
+ */
+public class OccupancyGridTest {
+
+	private static final int NB_OF_THREADS = 8;
+
+	@Test
+	public void keepsOneRobotPerCell() {
+		OccupancyGrid occupancyGrid = new OccupancyGrid(new Room(2, 2));
+		assertEquals(-1, occupancyGrid.getOccupant(0));
+		assertTrue(occupancyGrid.claim(0, 0));
+		assertFalse(occupancyGrid.claim(0, 1));
+		assertTrue(occupancyGrid.claim(1, 1));
+		assertFalse(occupancyGrid.move(0, 0, 1));
+		assertEquals(0, occupancyGrid.getOccupant(0));
+		assertTrue(occupancyGrid.move(0, 0, 2));
+		assertEquals(-1, occupancyGrid.getOccupant(0));
+		assertEquals(0, occupancyGrid.getOccupant(2));
+		occupancyGrid.release(1);
+		assertTrue(occupancyGrid.claim(1, 0));
+	}
+
+	@Test
+	public void grantsAContendedCellOnce() throws InterruptedException {
+		OccupancyGrid occupancyGrid = new OccupancyGrid(new Room(1, 1));
+		AtomicInteger nbOfClaims = new AtomicInteger();
+		runConcurrently(robotId -> {
+			if (occupancyGrid.claim(0, robotId)) {
+				nbOfClaims.incrementAndGet();
+			}
+		});
+		assertEquals(1, nbOfClaims.get());
+		assertTrue(occupancyGrid.getOccupant(0) >= 0);
+	}
+
+	@Test
+	public void countsEveryCleanedCellOnce() throws InterruptedException {
+		CleanedCellRegistry cleanedCellRegistry = new CleanedCellRegistry(new Room(10, 13));
+		AtomicInteger nbOfFirstCleanings = new AtomicInteger();
+		runConcurrently(robotId -> {
+			for (int cellIndex = 0; cellIndex < 130; cellIndex += 1 + robotId % 3) {
+				if (cleanedCellRegistry.markCleaned(cellIndex)) {
+					nbOfFirstCleanings.incrementAndGet();
+				}
+			}
+		});
+		assertEquals(130, cleanedCellRegistry.getNbOfCleanedCells());
+		assertEquals(130, nbOfFirstCleanings.get());
+		assertTrue(cleanedCellRegistry.isCleaned(129));
+		assertFalse(new CleanedCellRegistry(new Room(10, 13)).isCleaned(64));
+	}
+
+	private static void runConcurrently(RobotTask robotTask) throws InterruptedException {
+		CountDownLatch startSignal = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int robotId = 0; robotId < NB_OF_THREADS; robotId++) {
+			int threadRobotId = robotId;
+			Thread thread = new Thread(() -> {
+				try {
+					startSignal.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+				robotTask.run(threadRobotId);
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		startSignal.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+	}
+
+	private interface RobotTask {
+
+		void run(int robotId);
+
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.feritoth.cleaningrobot.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * Checks the insertion ordered set of positions against a plain set, through the growths of its storage.
+ *
+ * @author Ferenc Toth
+ */
+public class PositionLogTest {
+
+	@Test
+	public void keepsEveryPositionOnceInInsertionOrder() {
+		PositionLog positionLog = new PositionLog();
+		assertTrue(positionLog.add(Position.pack(1L, 2L)));
+		assertTrue(positionLog.add(Position.pack(2L, 1L)));
+		assertFalse(positionLog.add(Position.pack(1L, 2L)));
+		assertTrue(positionLog.add(Position.pack(0L, 0L)));
+		assertEquals(3, positionLog.size());
+		assertEquals(Position.pack(1L, 2L), positionLog.get(0));
+		assertEquals(Position.pack(0L, 0L), positionLog.get(2));
+		assertEquals(Position.pack(0L, 0L), positionLog.getMostRecent(0));
+		assertEquals(Position.pack(1L, 2L), positionLog.getMostRecent(2));
+	}
+
+	@Test
+	public void listsThePositionsMostRecentFirst() {
+		PositionLog positionLog = new PositionLog();
+		positionLog.add(Position.pack(1L, 2L));
+		positionLog.add(Position.pack(3L, 4L));
+		List<Position> positions = positionLog.asPositionList();
+		assertEquals(2, positions.size());
+		assertEquals(Position.unpack(Position.pack(3L, 4L)), positions.get(0));
+		assertEquals(Position.unpack(Position.pack(1L, 2L)), positions.get(1));
+	}
+
+	@Test
+	public void matchesAPlainSetThroughTheGrowths() {
+		PositionLog positionLog = new PositionLog();
+		Set<Long> expectedPositions = new HashSet<>();
+		SplittableRandom random = new SplittableRandom(0L);
+		for (int i = 0; i < 100000; i++) {
+			long packedPosition = Position.pack(random.nextLong(300L), random.nextLong(300L));
+			assertEquals(expectedPositions.add(packedPosition), positionLog.add(packedPosition));
+		}
+		assertEquals(expectedPositions.size(), positionLog.size());
+		for (long packedPosition : expectedPositions) {
+			assertTrue(positionLog.contains(packedPosition));
+		}
+		assertFalse(positionLog.contains(Position.pack(300L, 300L)));
+	}
+
+	@Test
+	public void handlesTheKeyOfTheFreeSlots() {
+		PositionLog positionLog = new PositionLog();
+		assertFalse(positionLog.contains(Long.MIN_VALUE));
+		assertTrue(positionLog.add(Long.MIN_VALUE));
+		assertFalse(positionLog.add(Long.MIN_VALUE));
+		assertTrue(positionLog.contains(Long.MIN_VALUE));
+		assertEquals(1, positionLog.size());
+	}
+
+	@Test
+	public void startsOverOnceCleared() {
+		PositionLog positionLog = new PositionLog();
+		positionLog.add(Position.pack(1L, 1L));
+		positionLog.add(Long.MIN_VALUE);
+		positionLog.clear();
+		assertEquals(0, positionLog.size());
+		assertFalse(positionLog.contains(Position.pack(1L, 1L)));
+		assertFalse(positionLog.contains(Long.MIN_VALUE));
+		assertTrue(positionLog.add(Position.pack(1L, 1L)));
+	}
+
+	@Test
+	public void keepsTheSnapshotsWhileGrowing() {
+		PositionLog positionLog = new PositionLog();
+		positionLog.add(Position.pack(5L, 5L));
+		PositionLog.Snapshot snapshot = positionLog.snapshot();
+		for (long xCol = 0L; xCol < 1000L; xCol++) {
+			positionLog.add(Position.pack(xCol, 0L));
+		}
+		assertEquals(1, snapshot.size());
+		assertEquals(Position.pack(5L, 5L), snapshot.get(0));
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.feritoth.cleaningrobot.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks the round trip of the rooms through the room files, and the rejection of the invalid files.
+ *
+ * @author Ferenc Toth
+ */
+public class RoomFileTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void mapsTheRoomWritten() throws IOException {
+		//larger than the write buffer
+		byte[] cells = new byte[300 * 500];
+		SplittableRandom random = new SplittableRandom(0L);
+		for (int cellIndex = 0; cellIndex < cells.length; cellIndex++) {
+			cells[cellIndex] = (byte) random.nextInt(3);
+		}
+		Path roomFile = temporaryFolder.getRoot().toPath().resolve("room.bin");
+		RoomFile.write(new Room(300, 500, cells), roomFile);
+		assertEquals(RoomFile.HEADER_SIZE + cells.length, Files.size(roomFile));
+		Room room = RoomFile.map(roomFile);
+		assertTrue(room.isOffHeap());
+		assertTrue(room.hasCells(300, 500, cells));
+	}
+
+	@Test
+	public void mapsAnEmptyRoom() throws IOException {
+		Path roomFile = temporaryFolder.getRoot().toPath().resolve("room.bin");
+		RoomFile.write(new Room(0, 0), roomFile);
+		assertEquals(0, RoomFile.map(roomFile).getNbOfCells());
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsAnotherFile() throws IOException {
+		Path roomFile = temporaryFolder.newFile("room.bin").toPath();
+		Files.write(roomFile, "{\"map\": [[\"S\"]]}".getBytes("UTF-8"));
+		RoomFile.map(roomFile);
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsATruncatedFile() throws IOException {
+		Path roomFile = temporaryFolder.newFile("room.bin").toPath();
+		ByteBuffer header = RoomFile.createHeader(10, 10);
+		byte[] content = new byte[RoomFile.HEADER_SIZE + 99];
+		header.get(content, 0, RoomFile.HEADER_SIZE);
+		Files.write(roomFile, content);
+		RoomFile.map(roomFile);
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsAnotherVersion() throws IOException {
+		Path roomFile = temporaryFolder.newFile("room.bin").toPath();
+		byte[] content = new byte[RoomFile.HEADER_SIZE + 1];
+		ByteBuffer.wrap(content).putInt(RoomFile.MAGIC).putInt(RoomFile.VERSION + 1).putInt(1).putInt(1);
+		Files.write(roomFile, content);
+		RoomFile.map(roomFile);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.feritoth.cleaningrobot.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+/**
+ * Checks the packed map of the room - the cell codes, their row by row layout, the borders and the move masks.
+ *
+ * @author Ferenc Toth
+ */
+public class RoomTest {
+
+	private static final String[][] MAP = {
+			{"S", "S", "S", "S"},
+			{"S", "C", "S", "null"},
+			{"S", "S", "X", "S"}
+	};
+
+	@Test
+	public void encodesTheCellMarkers() {
+		assertEquals(Room.CELL_SPACE, Room.encodeCell("S"));
+		assertEquals(Room.CELL_COLUMN, Room.encodeCell("C"));
+		assertEquals(Room.CELL_WALL, Room.encodeCell("null"));
+		//every other marker is free space
+		assertEquals(Room.CELL_SPACE, Room.encodeCell("X"));
+		assertEquals(Room.CELL_SPACE, Room.encodeCell(null));
+	}
+
+	@Test
+	public void keepsTheMapRowByRow() {
+		Room room = new Room(MAP);
+		assertEquals(3, room.getNbOfRows());
+		assertEquals(4, room.getNbOfColumns());
+		assertEquals(12, room.getNbOfCells());
+		assertEquals(Room.CELL_COLUMN, room.getCell(5));
+		assertEquals(Room.CELL_WALL, room.getCell(3, 1));
+		assertEquals("C", room.getMapElement(1, 1));
+		assertEquals("null", room.getMapElement(3, 1));
+		assertEquals("S", room.getMapElement(2, 2));
+		assertTrue(room.isObstacle(1, 1));
+		assertTrue(room.isObstacle(7));
+		assertFalse(room.isObstacle(2, 2));
+	}
+
+	@Test
+	public void checksTheBordersOfTheRoom() {
+		Room room = new Room(MAP);
+		assertTrue(room.isInside(0L, 0L));
+		assertTrue(room.isInside(3L, 2L));
+		assertFalse(room.isInside(-1L, 0L));
+		assertFalse(room.isInside(4L, 0L));
+		assertFalse(room.isInside(0L, 3L));
+		assertFalse(room.isInside(Long.MAX_VALUE, 0L));
+	}
+
+	@Test
+	public void comparesItsCells() {
+		Room room = new Room(MAP);
+		byte[] cells = {0, 0, 0, 0, 0, 1, 0, 2, 0, 0, 0, 0, 1};
+		assertTrue(room.hasCells(3, 4, cells));
+		assertFalse(room.hasCells(4, 3, cells));
+		cells[5] = Room.CELL_WALL;
+		assertFalse(room.hasCells(3, 4, cells));
+	}
+
+	@Test
+	public void readsTheCellsOfABuffer() {
+		Room room = new Room(3, 4, ByteBuffer.wrap(new byte[] {0, 0, 0, 0, 0, 1, 0, 2, 0, 0, 0, 0}));
+		assertTrue(room.isOffHeap());
+		assertTrue(room.hasCells(3, 4, new byte[] {0, 0, 0, 0, 0, 1, 0, 2, 0, 0, 0, 0}));
+		assertFalse(new Room(MAP).isOffHeap());
+	}
+
+	@Test
+	public void foldsTheBordersAndTheObstaclesIntoTheMoveMask() {
+		Room room = new Room(MAP);
+		//the upper left corner
+		assertFalse(room.canMove(0, 0, ValidDirections.NORTH));
+		assertTrue(room.canMove(0, 0, ValidDirections.EAST));
+		assertTrue(room.canMove(0, 0, ValidDirections.SOUTH));
+		assertFalse(room.canMove(0, 0, ValidDirections.WEST));
+		//next to the column, respectively to the wall
+		assertFalse(room.canMove(1, 0, ValidDirections.SOUTH));
+		assertFalse(room.canMove(2, 1, ValidDirections.WEST));
+		assertFalse(room.canMove(2, 1, ValidDirections.EAST));
+		assertFalse(room.canMove(3, 2, ValidDirections.NORTH));
+		//the unknown markers are free space
+		assertTrue(room.canMove(2, 1, ValidDirections.SOUTH));
+	}
+
+	@Test
+	public void buildsTheMoveMaskOfALargeRoomInBands() {
+		//an odd number of columns, so a row starts on an odd cell every other time
+		int nbOfRows = 601;
+		int nbOfColumns = 601;
+		byte[] cells = new byte[nbOfRows * nbOfColumns];
+		SplittableRandom random = new SplittableRandom(0L);
+		for (int cellIndex = 0; cellIndex < cells.length; cellIndex++) {
+			cells[cellIndex] = random.nextInt(4) == 0 ? Room.CELL_COLUMN : Room.CELL_SPACE;
+		}
+		Room room = new Room(nbOfRows, nbOfColumns, cells);
+		for (int yRow = 0; yRow < nbOfRows; yRow++) {
+			for (int xCol = 0; xCol < nbOfColumns; xCol++) {
+				assertEquals(isFree(room, xCol, yRow - 1), room.canMove(xCol, yRow, ValidDirections.NORTH));
+				assertEquals(isFree(room, xCol + 1, yRow), room.canMove(xCol, yRow, ValidDirections.EAST));
+				assertEquals(isFree(room, xCol, yRow + 1), room.canMove(xCol, yRow, ValidDirections.SOUTH));
+				assertEquals(isFree(room, xCol - 1, yRow), room.canMove(xCol, yRow, ValidDirections.WEST));
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsTooFewCells() {
+		new Room(3, 4, new byte[11]);
+	}
+
+	private static boolean isFree(Room room, int xCol, int yRow) {
+		return room.isInside(xCol, yRow) && !room.isObstacle(xCol, yRow);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.feritoth.cleaningrobot.fleet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+
+/**
+ * Checks the fleet mode on robots kept apart by a wall, whose runs are thus independent of each other.
+ *
+ * @author Ferenc Toth
+ */
+public class FleetSimulationRunnerTest {
+
+	private static final String MAP = "\"map\": [[\"S\", \"S\", \"null\", \"S\", \"S\"], [\"S\", \"C\", \"null\", \"S\", \"S\"], [\"S\", \"S\", \"null\", \"S\", \"S\"]]";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void mergesTheCoverageOfTheRobots() throws IOException {
+		Path inputFile = temporaryFolder.newFile("fleet.json").toPath();
+		Files.write(inputFile, ("{" + MAP + ", \"robots\": ["
+				+ "{\"start\": {\"X\": 0, \"Y\": 0, \"facing\": \"S\"}, \"commands\": [\"C\", \"A\", \"C\", \"A\", \"C\", \"A\", \"C\"], \"battery\": 100},"
+				+ "{\"start\": {\"X\": 3, \"Y\": 2, \"facing\": \"E\"}, \"commands\": [\"C\", \"A\", \"C\", \"TL\", \"A\", \"A\", \"C\"], \"battery\": 100},"
+				+ "{\"start\": {\"X\": 4, \"Y\": 0, \"facing\": \"N\"}, \"commands\": [\"C\"], \"battery\": 100}"
+				+ "]}").getBytes(StandardCharsets.UTF_8));
+		Path outputFile = temporaryFolder.getRoot().toPath().resolve("fleet_result.json");
+		FleetCoverage fleetCoverage = new FleetSimulationRunner(new SimulationOptions()).runFleet(inputFile.toString(), outputFile.toString());
+		assertEquals(3, fleetCoverage.getNbOfRobots());
+		assertEquals(11, fleetCoverage.getNbOfFreeCells());
+		//the first robot cleans its column alone, the second one backs off from the cell of the third one
+		assertEquals(3 + 2 + 1, fleetCoverage.getNbOfCleanedCells());
+		assertEquals(0L, fleetCoverage.getNbOfRepeatedCleanings());
+		assertTrue(Files.size(outputFile) > 0L);
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void rejectsRobotsStartingFromTheSameCell() throws IOException {
+		Path inputFile = temporaryFolder.newFile("fleet.json").toPath();
+		Files.write(inputFile, ("{" + MAP + ", \"robots\": ["
+				+ "{\"start\": {\"X\": 0, \"Y\": 0, \"facing\": \"S\"}, \"commands\": [\"C\"], \"battery\": 100},"
+				+ "{\"start\": {\"X\": 0, \"Y\": 0, \"facing\": \"E\"}, \"commands\": [\"C\"], \"battery\": 100}"
+				+ "]}").getBytes(StandardCharsets.UTF_8));
+		new FleetSimulationRunner(new SimulationOptions()).runFleet(inputFile.toString(), temporaryFolder.getRoot().toPath().resolve("out.json").toString());
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.feritoth.cleaningrobot.generator;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.JSONInputConverter;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+
+/**
+ * Checks that the generated inputs only depend on their options, and that they follow every one of them.
+ *
+ * @author Ferenc Toth
+ */
+public class WorkloadGeneratorTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void givesTheSameInputForTheSameOptions() throws IOException {
+		WorkloadOptions workloadOptions = new WorkloadOptions().setSeed(42L).setNbOfRows(20).setNbOfColumns(30).setObstacleDensity(0.3)
+				.setObstacleClustering(0.5).setStartPlacement(StartPlacement.RANDOM).setNbOfCommands(5000L);
+		byte[] input = generate(workloadOptions);
+		assertArrayEquals(input, generate(workloadOptions));
+		assertFalse(Arrays.equals(input, generate(workloadOptions.setSeed(43L))));
+	}
+
+	@Test
+	public void followsTheOptions() throws IOException {
+		WorkloadOptions workloadOptions = new WorkloadOptions().setSeed(7L).setNbOfRows(5).setNbOfColumns(9).setObstacleDensity(1.0)
+				.setHoleRatio(1.0).setStartDirection(ValidDirections.WEST).setBattery(321L).setNbOfCommands(100L).setCommandMix("C:1");
+		try (CleaningProgram program = read(workloadOptions)) {
+			Room room = program.getRoom();
+			assertEquals(5, room.getNbOfRows());
+			assertEquals(9, room.getNbOfColumns());
+			//every cell but the central start one holds a hole
+			assertEquals(new Position(4L, 2L), program.getCleaningRobot().getPosition());
+			for (int cellIndex = 0; cellIndex < room.getNbOfCells(); cellIndex++) {
+				assertEquals(cellIndex == 2 * 9 + 4 ? Room.CELL_SPACE : Room.CELL_WALL, room.getCell(cellIndex));
+			}
+			assertEquals(ValidDirections.WEST, program.getCleaningRobot().getDirection());
+			assertEquals(Long.valueOf(321L), program.getCleaningRobot().getBattery());
+			List<ValidCommands> commands = toList(program);
+			assertEquals(100, commands.size());
+			assertTrue(commands.stream().allMatch(command -> command == ValidCommands.CLEAN));
+		}
+	}
+
+	@Test
+	public void repeatsThePatternOfTheCommands() throws IOException {
+		WorkloadOptions workloadOptions = new WorkloadOptions().setSeed(3L).setNbOfRows(4).setNbOfColumns(4).setObstacleDensity(0.0)
+				.setStartPlacement(StartPlacement.CORNER).setNbOfCommands(1003L).setCommandPeriod(10);
+		try (CleaningProgram program = read(workloadOptions)) {
+			assertEquals(new Position(0L, 0L), program.getCleaningRobot().getPosition());
+			for (int cellIndex = 0; cellIndex < program.getRoom().getNbOfCells(); cellIndex++) {
+				assertEquals(Room.CELL_SPACE, program.getRoom().getCell(cellIndex));
+			}
+			List<ValidCommands> commands = toList(program);
+			assertEquals(1003, commands.size());
+			for (int i = 10; i < commands.size(); i++) {
+				assertEquals(commands.get(i - 10), commands.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void rejectsTheInvalidOptions() throws IOException {
+		List<WorkloadOptions> invalidOptions = Arrays.asList(new WorkloadOptions().setNbOfRows(0), new WorkloadOptions().setObstacleDensity(1.5),
+				new WorkloadOptions().setHoleRatio(-0.1), new WorkloadOptions().setObstacleClustering(1.0), new WorkloadOptions().setNbOfCommands(-1L),
+				new WorkloadOptions().setCommandPeriod(-1), new WorkloadOptions().setCommandWeight(ValidCommands.ADVANCE, -1.0),
+				new WorkloadOptions().setCommandMix("A:0"));
+		for (WorkloadOptions workloadOptions : invalidOptions) {
+			try {
+				generate(workloadOptions);
+				fail("Accepted options: " + workloadOptions);
+			} catch (IllegalArgumentException e) {
+				//expected
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsAnUnknownCommandOfTheMix() {
+		new WorkloadOptions().setCommandMix("A:1,X:2");
+	}
+
+	private static byte[] generate(WorkloadOptions workloadOptions) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new WorkloadGenerator().generate(workloadOptions, outputStream);
+		return outputStream.toByteArray();
+	}
+
+	private CleaningProgram read(WorkloadOptions workloadOptions) throws IOException {
+		Path inputFile = temporaryFolder.getRoot().toPath().resolve("input.json");
+		new WorkloadGenerator().generate(workloadOptions, inputFile);
+		return new JSONInputConverter().readProgram(inputFile.toString(), new SimulationOptions());
+	}
+
+	private static List<ValidCommands> toList(CleaningProgram program) {
+		List<ValidCommands> commands = new ArrayList<>();
+		program.getCommands().forEachRemaining(commands::add);
+		return commands;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,197 @@
+package com.feritoth.cleaningrobot.heatmap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.processor.CleaningEngine;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.EngineType;
+import com.feritoth.cleaningrobot.processor.JSONInputConverter;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+
+/**
+ * Checks the counters gathered by the heatmaps, their files and the merge of the files of several processes.
+ *
+ * @author Ferenc Toth
+ */
+public class HeatmapSinkTest {
+
+	private static final String[][] MAP = {
+			{"S", "S", "S"},
+			{"S", "C", "S"}
+	};
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void countsTheRunsOfTheSameMapTogether() throws IOException {
+		HeatmapSink heatmapSink = new HeatmapSink();
+		CellHeatmap firstHeatmap = simulate(heatmapSink, "test1");
+		CellHeatmap secondHeatmap = simulate(heatmapSink, "test2");
+		//the two samples share the map, but not the room instance
+		assertSame(firstHeatmap, secondHeatmap);
+		assertEquals(1, heatmapSink.getHeatmaps().size());
+		assertEquals(2L, firstHeatmap.getNbOfRuns());
+		assertEquals(2L, firstHeatmap.getCount(HeatmapCounter.CLEANS, 2, 0));
+		assertEquals(1L, firstHeatmap.getCount(HeatmapCounter.CLEANS, 3, 0));
+		assertEquals(2L, firstHeatmap.getCount(HeatmapCounter.VISITS, 3, 0));
+		assertEquals(1L, firstHeatmap.getCount(HeatmapCounter.VISITS, 3, 1));
+		assertEquals(0L, firstHeatmap.getCount(HeatmapCounter.VISITS, 0, 3));
+		//the first sample backs off from the upper wall, the second one from the column first, then from the upper wall
+		assertEquals(1L, firstHeatmap.getCount(HeatmapCounter.BACK_OFFS, 1, 0));
+		assertEquals(1L, firstHeatmap.getCount(HeatmapCounter.BACK_OFFS, 3, 1));
+		assertEquals(1L, firstHeatmap.getCount(HeatmapCounter.BACK_OFFS, 2, 0));
+		assertEquals(0L, firstHeatmap.getCount(HeatmapCounter.STUCK, 2, 0));
+	}
+
+	@Test
+	public void countsTheConcurrentRunsExactly() throws Exception {
+		CellHeatmap heatmap = new CellHeatmap(2, 3, 0L);
+		CleaningRobot cleaningRobot = new CleaningRobot(new Position(0L, 0L), 10L, ValidDirections.EAST);
+		cleaningRobot.addNewVisitedPosition(0L, 0L);
+		cleaningRobot.addNewVisitedPosition(1L, 0L);
+		cleaningRobot.addNewCleanedPosition(1L, 0L);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> runs = new ArrayList<>();
+			for (int worker = 0; worker < 4; worker++) {
+				runs.add(executor.submit(() -> {
+					for (int run = 0; run < 1000; run++) {
+						heatmap.backOffStarted(run, 2L, 1L, ValidDirections.SOUTH);
+						heatmap.recordRun(cleaningRobot);
+					}
+				}));
+			}
+			for (Future<?> run : runs) {
+				run.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(4000L, heatmap.getNbOfRuns());
+		assertEquals(4000L, heatmap.getCount(HeatmapCounter.VISITS, 0, 0));
+		assertEquals(4000L, heatmap.getCount(HeatmapCounter.VISITS, 1, 0));
+		assertEquals(4000L, heatmap.getCount(HeatmapCounter.CLEANS, 1, 0));
+		assertEquals(4000L, heatmap.getCount(HeatmapCounter.BACK_OFFS, 2, 1));
+		assertEquals(0L, heatmap.getCount(HeatmapCounter.STUCK, 2, 1));
+	}
+
+	@Test
+	public void readsTheBinaryFilesBack() throws IOException {
+		CellHeatmap heatmap = createHeatmap();
+		Path heatmapFile = temporaryFolder.getRoot().toPath().resolve("heatmap.bin");
+		HeatmapFile.writeBinary(heatmap, heatmapFile);
+		CellHeatmap readHeatmap = HeatmapFile.readBinary(heatmapFile);
+		assertEquals(heatmap.getName(), readHeatmap.getName());
+		assertEquals(heatmap.getNbOfRuns(), readHeatmap.getNbOfRuns());
+		assertArrayEquals(heatmap.getCounts(), readHeatmap.getCounts());
+	}
+
+	@Test
+	public void writesTheTouchedCellsAsCsv() throws IOException {
+		Path heatmapFile = temporaryFolder.getRoot().toPath().resolve("heatmap.csv");
+		HeatmapFile.writeCsv(createHeatmap(), heatmapFile);
+		assertEquals(Arrays.asList("x,y,visits,cleans,backOffs,stuck", "0,0,1,0,0,0", "2,0,1,1,0,0", "2,1,0,0,300,7"),
+				Files.readAllLines(heatmapFile, StandardCharsets.US_ASCII));
+	}
+
+	@Test
+	public void mergesTheFilesOfTheSameRoom() throws IOException {
+		Path firstDirectory = temporaryFolder.newFolder("first").toPath();
+		Path secondDirectory = temporaryFolder.newFolder("second").toPath();
+		HeatmapSink firstSink = new HeatmapSink(firstDirectory, HeatmapFormat.BINARY);
+		simulate(firstSink, "test1");
+		HeatmapSink secondSink = new HeatmapSink(secondDirectory, HeatmapFormat.BINARY);
+		simulate(secondSink, "test2");
+		//a room without any completed run gets no file
+		secondSink.getHeatmap(new Room(MAP));
+		List<Path> firstFiles = firstSink.export();
+		List<Path> secondFiles = secondSink.export();
+		assertEquals(1, firstFiles.size());
+		assertEquals(1, secondFiles.size());
+		HeatmapSink mergedSink = new HeatmapSink();
+		mergedSink.merge(firstFiles.get(0));
+		mergedSink.merge(secondFiles.get(0));
+		HeatmapSink expectedSink = new HeatmapSink();
+		simulate(expectedSink, "test1");
+		simulate(expectedSink, "test2");
+		CellHeatmap mergedHeatmap = mergedSink.getHeatmaps().iterator().next();
+		CellHeatmap expectedHeatmap = expectedSink.getHeatmaps().iterator().next();
+		assertEquals(1, mergedSink.getHeatmaps().size());
+		assertEquals(2L, mergedHeatmap.getNbOfRuns());
+		assertArrayEquals(expectedHeatmap.getCounts(), mergedHeatmap.getCounts());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsTheMergeOfAnotherRoom() {
+		new CellHeatmap(2, 3, 0L).merge(new CellHeatmap(2, 3, 1L));
+	}
+
+	@Test
+	public void rejectsTheInvalidFiles() throws IOException {
+		Path heatmapFile = temporaryFolder.getRoot().toPath().resolve("heatmap.bin");
+		HeatmapFile.writeBinary(createHeatmap(), heatmapFile);
+		byte[] content = Files.readAllBytes(heatmapFile);
+		Path truncatedFile = temporaryFolder.getRoot().toPath().resolve("truncated.bin");
+		Files.write(truncatedFile, Arrays.copyOf(content, content.length - 1));
+		Path textFile = temporaryFolder.getRoot().toPath().resolve("text.bin");
+		Files.write(textFile, "x,y,visits,cleans".getBytes(StandardCharsets.US_ASCII));
+		for (Path invalidFile : Arrays.asList(truncatedFile, textFile)) {
+			try {
+				new HeatmapSink().merge(invalidFile);
+				fail("Invalid heatmap file merged: " + invalidFile);
+			} catch (RuntimeException e) {
+				assertTrue(e.getMessage().startsWith("Heatmap reading problem"));
+			}
+		}
+	}
+
+	/**
+	 * @return a heatmap of a few touched cells, one of them with counters over a byte
+	 */
+	private static CellHeatmap createHeatmap() {
+		CellHeatmap heatmap = new CellHeatmap(2, 3, 0x0123456789ABCDEFL);
+		CleaningRobot cleaningRobot = new CleaningRobot(new Position(0L, 0L), 10L, ValidDirections.EAST);
+		cleaningRobot.addNewVisitedPosition(0L, 0L);
+		cleaningRobot.addNewVisitedPosition(2L, 0L);
+		cleaningRobot.addNewCleanedPosition(2L, 0L);
+		heatmap.recordRun(cleaningRobot);
+		heatmap.add(5, HeatmapCounter.BACK_OFFS, 300L);
+		heatmap.add(5, HeatmapCounter.STUCK, 7L);
+		return heatmap;
+	}
+
+	private static CellHeatmap simulate(HeatmapSink heatmapSink, String sample) throws IOException {
+		try (CleaningProgram program = new JSONInputConverter().readProgram("src/main/resources/" + sample + ".json", new SimulationOptions())) {
+			CleaningEngine engine = EngineType.PACKED.createEngine();
+			CellHeatmap heatmap = heatmapSink.attach(engine, program.getRoom(), null);
+			engine.executeCleaningProcedure(program.getCleaningRobot(), program.getRoom(), program.getCommands());
+			heatmap.recordRun(program.getCleaningRobot());
+			return heatmap;
+		}
+	}
+
+}
\ No newline at end of file
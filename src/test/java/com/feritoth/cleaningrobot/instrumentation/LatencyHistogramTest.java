@@ -0,0 +1,54 @@
+package com.feritoth.cleaningrobot.instrumentation;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Checks the counts, the mean and the approximated percentiles of the latency histogram.
+ *
+ * @author Ferenc Toth
+ */
+public class LatencyHistogramTest {
+
+	@Test
+	public void approximatesThePercentilesByTheirBucket() {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		for (long duration = 1L; duration <= 100L; duration++) {
+			latencyHistogram.record(duration);
+		}
+		assertEquals(100L, latencyHistogram.getCount());
+		assertEquals(5050L, latencyHistogram.getTotalNanos());
+		assertEquals(50.5, latencyHistogram.getMeanNanos(), 1e-9);
+		//the 50th duration falls into [32, 64), the 99th one into [64, 128)
+		assertEquals(63L, latencyHistogram.getPercentileNanos(50.0));
+		assertEquals(127L, latencyHistogram.getPercentileNanos(99.0));
+		assertEquals(1L, latencyHistogram.getPercentileNanos(1.0));
+	}
+
+	@Test
+	public void countsTheNegativeDurationsAsZero() {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		latencyHistogram.record(-5L);
+		latencyHistogram.record(0L);
+		assertEquals(2L, latencyHistogram.getCount());
+		assertEquals(0L, latencyHistogram.getTotalNanos());
+		assertEquals(0L, latencyHistogram.getPercentileNanos(100.0));
+	}
+
+	@Test
+	public void reportsNothingWhenEmpty() {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		assertEquals(0L, latencyHistogram.getCount());
+		assertEquals(0.0, latencyHistogram.getMeanNanos(), 0.0);
+		assertEquals(0L, latencyHistogram.getPercentileNanos(99.0));
+	}
+
+	@Test
+	public void keepsTheLongestDurations() {
+		LatencyHistogram latencyHistogram = new LatencyHistogram();
+		latencyHistogram.record(Long.MAX_VALUE);
+		assertEquals(Long.MAX_VALUE, latencyHistogram.getPercentileNanos(50.0));
+	}
+
+}
\ No newline at end of file
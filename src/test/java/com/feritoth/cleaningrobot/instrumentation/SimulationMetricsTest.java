@@ -0,0 +1,83 @@
+package com.feritoth.cleaningrobot.instrumentation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.processor.CleaningEngine;
+import com.feritoth.cleaningrobot.processor.EngineType;
+
+/**
+ * Checks that the engines report the same events to the metrics, and the combination of the listeners.
+ *
+ * @author Ferenc Toth
+ */
+public class SimulationMetricsTest {
+
+	@Test
+	public void collectsTheSameMetricsForEveryEngine() {
+		SplittableRandom random = new SplittableRandom(0L);
+		String[][] map = new String[10][10];
+		for (String[] row : map) {
+			for (int xCol = 0; xCol < row.length; xCol++) {
+				row[xCol] = random.nextInt(3) == 0 ? "C" : "S";
+			}
+		}
+		map[0][0] = "S";
+		List<ValidCommands> commands = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			commands.add(ValidCommands.values()[random.nextInt(ValidCommands.values().length)]);
+		}
+		SimulationMetrics standardMetrics = simulate(EngineType.STANDARD, new Room(map), commands);
+		assertTrue(standardMetrics.getStartedBackOffs() > 0L);
+		for (EngineType engineType : Arrays.asList(EngineType.PACKED, EngineType.CHUNKED)) {
+			SimulationMetrics metrics = simulate(engineType, new Room(map), commands);
+			for (ValidCommands command : ValidCommands.values()) {
+				assertEquals(engineType + " " + command, standardMetrics.getExecutedCommands(command), metrics.getExecutedCommands(command));
+			}
+			assertEquals(engineType.name(), standardMetrics.getStartedBackOffs(), metrics.getStartedBackOffs());
+			assertEquals(engineType.name(), standardMetrics.getFailedBackOffs(), metrics.getFailedBackOffs());
+			assertEquals(engineType.name(), standardMetrics.getBackOffBattery(), metrics.getBackOffBattery());
+			assertEquals(engineType.name(), standardMetrics.getStuckRobots(), metrics.getStuckRobots());
+			assertEquals(engineType.name(), standardMetrics.getExhaustedBatteries(), metrics.getExhaustedBatteries());
+		}
+	}
+
+	@Test
+	public void combinesThePresentListeners() {
+		SimulationMetrics firstMetrics = new SimulationMetrics();
+		SimulationMetrics secondMetrics = new SimulationMetrics();
+		assertNull(CompositeSimulationListener.of(null, null));
+		assertSame(firstMetrics, CompositeSimulationListener.of(null, firstMetrics));
+		SimulationListener listener = CompositeSimulationListener.of(firstMetrics, CompositeSimulationListener.of(secondMetrics, null));
+		assertEquals(Arrays.asList(firstMetrics, secondMetrics), CompositeSimulationListener.unwrap(listener));
+		listener.robotStuck(3L, 1L, 1L);
+		listener.phaseCompleted(SimulationPhase.SIMULATE, 1000L);
+		assertEquals(1L, firstMetrics.getStuckRobots());
+		assertEquals(1L, secondMetrics.getStuckRobots());
+		assertEquals(1L, secondMetrics.getPhaseLatency(SimulationPhase.SIMULATE).getCount());
+		assertTrue(CompositeSimulationListener.unwrap(null).isEmpty());
+	}
+
+	private static SimulationMetrics simulate(EngineType engineType, Room room, List<ValidCommands> commands) {
+		SimulationMetrics metrics = new SimulationMetrics();
+		CleaningEngine engine = engineType.createEngine();
+		engine.setSimulationListener(metrics);
+		engine.executeCleaningProcedure(new CleaningRobot(new Position(0L, 0L), 8000L, ValidDirections.SOUTH), room, commands.iterator());
+		return metrics;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.feritoth.cleaningrobot.launcher;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.utils.CommandLineArguments;
+
+/**
+ * Checks the selection of the modes by the first argument of the command line.
+ *
+ * @author Ferenc Toth
+ */
+public class LauncherModesTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void selectsTheModesByName() {
+		assertTrue(LauncherModes.select("batch") instanceof BatchMode);
+		assertTrue(LauncherModes.select("serve") instanceof ServeMode);
+		assertTrue(LauncherModes.select("merge-heatmaps") instanceof MergeHeatmapsMode);
+		assertTrue(LauncherModes.select("convert-trace") instanceof ConvertTraceMode);
+		//any other first argument stands for the input of a single simulation
+		assertTrue(LauncherModes.select("batch.json") instanceof SingleSimulationMode);
+	}
+
+	@Test
+	public void runsASingleSimulation() throws IOException {
+		Path outputFile = temporaryFolder.getRoot().toPath().resolve("output.json");
+		run("src/main/resources/test2.json", outputFile.toString(), "--engine=packed");
+		assertArrayEquals(Files.readAllBytes(Paths.get("src/main/resources/test2_result.json")), Files.readAllBytes(outputFile));
+	}
+
+	@Test
+	public void runsTheNamedMode() throws IOException {
+		Path outputFile = temporaryFolder.getRoot().toPath().resolve("generated.json");
+		run("generate", outputFile.toString(), "--rows=3", "--columns=4", "--commands=10");
+		assertTrue(new String(Files.readAllBytes(outputFile), "UTF-8").startsWith("{\"map\":[[\""));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsTheOptionsOfOtherModes() {
+		run("generate", temporaryFolder.getRoot().toPath().resolve("generated.json").toString(), "--threads=2");
+	}
+
+	private static void run(String... args) {
+		CommandLineArguments arguments = new CommandLineArguments(args);
+		LauncherModes.select(arguments.getPositionalArgument(0)).run(arguments);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+package com.feritoth.cleaningrobot.planner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.EngineType;
+import com.feritoth.cleaningrobot.processor.JSONInputConverter;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+
+/**
+ * Checks that the planned programs clean every cell reachable from the start, within the battery they announce.
+ *
+ * @author Ferenc Toth
+ */
+public class CoveragePlannerTest {
+
+	private static final String[][] MAP = {
+			{"S", "S", "S", "null", "S"},
+			{"S", "C", "S", "null", "S"},
+			{"S", "S", "S", "null", "S"},
+			{"C", "S", "S", "null", "S"}
+	};
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void cleansTheRegionOfTheStart() {
+		for (ValidDirections direction : ValidDirections.values()) {
+			CoveragePlan coveragePlan = new CoveragePlanner().plan(new Room(MAP), new Position(2L, 3L), direction);
+			//the column of the right side is cut off by the wall
+			assertEquals(10L, coveragePlan.getNbOfCoveredCells());
+			assertCleansAllCoveredCells(new Room(MAP), new Position(2L, 3L), direction, coveragePlan);
+		}
+	}
+
+	@Test
+	public void cleansTheRandomRoomsWithAnyTileSize() {
+		ForkJoinPool forkJoinPool = new ForkJoinPool(2);
+		try {
+			for (int seed = 0; seed < 20; seed++) {
+				SplittableRandom random = new SplittableRandom(seed);
+				int nbOfRows = random.nextInt(1, 30);
+				int nbOfColumns = random.nextInt(1, 30);
+				byte[] cells = new byte[nbOfRows * nbOfColumns];
+				for (int cellIndex = 0; cellIndex < cells.length; cellIndex++) {
+					cells[cellIndex] = random.nextInt(4) == 0 ? Room.CELL_COLUMN : Room.CELL_SPACE;
+				}
+				int startCell = random.nextInt(cells.length);
+				cells[startCell] = Room.CELL_SPACE;
+				Position start = new Position((long) (startCell % nbOfColumns), (long) (startCell / nbOfColumns));
+				Room room = new Room(nbOfRows, nbOfColumns, cells);
+				CoveragePlan coveragePlan = new CoveragePlanner(random.nextInt(2, 12), forkJoinPool).plan(room, start, ValidDirections.NORTH);
+				assertEquals("seed " + seed, new CoveragePlanner().plan(room, start, ValidDirections.NORTH).getNbOfCoveredCells(),
+						coveragePlan.getNbOfCoveredCells());
+				assertCleansAllCoveredCells(room, start, ValidDirections.NORTH, coveragePlan);
+			}
+		} finally {
+			forkJoinPool.shutdown();
+		}
+	}
+
+	@Test
+	public void writesARunnableProgram() throws IOException {
+		Path programFile = temporaryFolder.getRoot().toPath().resolve("program.json");
+		CoveragePlan coveragePlan = new CoveragePlanner().planProgram("src/main/resources/test1.json", programFile.toString(), new SimulationOptions());
+		try (CleaningProgram program = new JSONInputConverter().readProgram(programFile.toString(), new SimulationOptions())) {
+			List<ValidCommands> commands = new ArrayList<>();
+			program.getCommands().forEachRemaining(commands::add);
+			assertEquals(coveragePlan.getCommands(), commands);
+			assertEquals(Long.valueOf(80L), program.getCleaningRobot().getBattery());
+			assertEquals(ValidDirections.NORTH, program.getCleaningRobot().getDirection());
+			assertEquals(new Room(MAP).getNbOfRows(), program.getRoom().getNbOfRows());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsAStartOnAnObstacle() {
+		new CoveragePlanner().plan(new Room(MAP), new Position(1L, 1L), ValidDirections.NORTH);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsAStartOutsideTheRoom() {
+		new CoveragePlanner().plan(new Room(MAP), new Position(5L, 0L), ValidDirections.NORTH);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsATooSmallTile() {
+		new CoveragePlanner(1, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Runs the planned program with exactly the battery it requires, every covered cell getting cleaned once.
+	 */
+	private static void assertCleansAllCoveredCells(Room room, Position start, ValidDirections direction, CoveragePlan coveragePlan) {
+		CleaningRobot cleaningRobot = new CleaningRobot(new Position(start.getxCol(), start.getyRow()), coveragePlan.getRequiredBattery(), direction);
+		assertTrue(EngineType.STANDARD.createEngine().executeCleaningProcedure(cleaningRobot, room, coveragePlan.getCommands().iterator()));
+		Set<Position> cleanedPositions = new HashSet<>(cleaningRobot.getCleanedPositions());
+		assertEquals(coveragePlan.getNbOfCoveredCells(), cleanedPositions.size());
+		assertEquals(coveragePlan.getNbOfCoveredCells(), cleaningRobot.getCleanedPositions().size());
+		assertEquals(coveragePlan.getRequiredBattery() - coveragePlan.getBatteryCost(), cleaningRobot.getBattery().longValue());
+	}
+
+}
\ No newline at end of file
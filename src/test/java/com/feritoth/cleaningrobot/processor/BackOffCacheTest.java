@@ -0,0 +1,92 @@
+package com.feritoth.cleaningrobot.processor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Test;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+
+/**
+ * Checks the memoized back-off outcomes, and that using them does not change the outcome of a simulation.
+ *
+ * @author Ferenc Toth
+ */
+public class BackOffCacheTest {
+
+	@Test
+	public void storesTheOutcomesPerCellAndDirection() {
+		BackOffCache backOffCache = new BackOffCache();
+		int[] outcome = new int[BackOffCache.MAX_OUTCOME_SIZE];
+		assertFalse(backOffCache.lookup(7, 2, outcome));
+		assertArrayEquals(new int[BackOffCache.MAX_OUTCOME_SIZE], outcome);
+		int[] storedOutcome = {8, 3, 0, 4, 2, 7, 8};
+		backOffCache.store(7, 2, storedOutcome);
+		assertTrue(backOffCache.lookup(7, 2, outcome));
+		for (int i = 0; i < storedOutcome.length; i++) {
+			assertEquals(storedOutcome[i], outcome[i]);
+		}
+		assertFalse(backOffCache.lookup(7, 1, new int[BackOffCache.MAX_OUTCOME_SIZE]));
+		assertFalse(backOffCache.lookup(6, 2, new int[BackOffCache.MAX_OUTCOME_SIZE]));
+	}
+
+	@Test
+	public void keepsManyOutcomes() {
+		BackOffCache backOffCache = new BackOffCache();
+		for (int cell = 0; cell < 10000; cell++) {
+			backOffCache.store(cell, cell & 3, new int[] {cell + 1, (cell + 1) & 3, 0, 3, 1, cell + 1});
+		}
+		int[] outcome = new int[BackOffCache.MAX_OUTCOME_SIZE];
+		for (int cell = 0; cell < 10000; cell++) {
+			assertTrue(backOffCache.lookup(cell, cell & 3, outcome));
+			assertEquals(cell + 1, outcome[BackOffCache.FINAL_CELL]);
+			assertEquals(cell + 1, outcome[BackOffCache.FIRST_VISITED_CELL]);
+		}
+	}
+
+	@Test
+	public void belongsToItsRoom() {
+		Room room = new Room(2, 2);
+		assertSame(BackOffCache.forRoom(room), BackOffCache.forRoom(room));
+		assertSame(BackOffCache.forRoom(room), BackOffCache.getIfPresent(room));
+		assertNotSame(BackOffCache.forRoom(room), BackOffCache.forRoom(new Room(2, 2)));
+	}
+
+	@Test
+	public void doesNotChangeTheOutcomeOfASimulation() {
+		SplittableRandom random = new SplittableRandom(0L);
+		String[][] map = new String[12][12];
+		for (String[] row : map) {
+			for (int xCol = 0; xCol < row.length; xCol++) {
+				row[xCol] = random.nextInt(3) == 0 ? "C" : "S";
+			}
+		}
+		map[0][0] = "S";
+		List<ValidCommands> commands = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			commands.add(ValidCommands.values()[random.nextInt(ValidCommands.values().length)]);
+		}
+		Room room = new Room(map);
+		CleaningRobot uncachedRobot = new CleaningRobot(new Position(0L, 0L), 20000L, ValidDirections.EAST);
+		new PackedRobotController(false).executeCleaningProcedure(uncachedRobot, room, commands.iterator());
+		//the second run with the cache reuses the outcomes memoized by the first one
+		for (int run = 0; run < 2; run++) {
+			CleaningRobot cachedRobot = new CleaningRobot(new Position(0L, 0L), 20000L, ValidDirections.EAST);
+			new PackedRobotController(true).executeCleaningProcedure(cachedRobot, room, commands.iterator());
+			assertEquals(uncachedRobot.toString(), cachedRobot.toString());
+		}
+	}
+
+}
\ No newline at end of file
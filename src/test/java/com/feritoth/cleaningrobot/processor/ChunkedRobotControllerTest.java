@@ -0,0 +1,56 @@
+package com.feritoth.cleaningrobot.processor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+
+/**
+ * Checks the cells the summaries of the chunked engine get computed for, respectively when they get computed at all.
+ *
+ * @author Ferenc Toth
+ */
+public class ChunkedRobotControllerTest {
+
+	private static final String[][] MAP = {
+			{"S", "S", "null", "S"},
+			{"S", "C", "null", "S"},
+			{"S", "S", "S", "S"},
+			{"null", "null", "null", "S"}
+	};
+
+	@Test
+	public void findsTheReachableCellsInIncreasingOrder() {
+		int[] reachableCells = ChunkedRobotController.findReachableCells(new Room(MAP), new Position(3L, 0L), 16);
+		assertArrayEquals(new int[] {0, 1, 3, 4, 7, 8, 9, 10, 11, 15}, reachableCells);
+		assertArrayEquals(new int[] {0}, ChunkedRobotController.findReachableCells(new Room(new String[][] {{"S", "C"}}), new Position(0L, 0L), 1));
+	}
+
+	@Test
+	public void givesUpBeyondTheMaximumNumberOfCells() {
+		assertEquals(10, ChunkedRobotController.findReachableCells(new Room(MAP), new Position(0L, 0L), 10).length);
+		assertNull(ChunkedRobotController.findReachableCells(new Room(MAP), new Position(0L, 0L), 9));
+		assertNull(ChunkedRobotController.findReachableCells(new Room(MAP), new Position(0L, 0L), 0));
+	}
+
+	@Test
+	public void coversTheCellsTheParallelismAllows() {
+		ForkJoinPool forkJoinPool = new ForkJoinPool(64);
+		ForkJoinPool largeForkJoinPool = new ForkJoinPool(ChunkedRobotController.MAX_REACHABLE_CELLS * 16);
+		try {
+			//four start states per cell, each one worth two threads
+			assertEquals(8, new ChunkedRobotController(1024, forkJoinPool, true, true).getMaxReachableCells());
+			assertEquals(ChunkedRobotController.MAX_REACHABLE_CELLS, new ChunkedRobotController(1024, largeForkJoinPool, true, true).getMaxReachableCells());
+		} finally {
+			forkJoinPool.shutdown();
+			largeForkJoinPool.shutdown();
+		}
+	}
+
+}
\ No newline at end of file
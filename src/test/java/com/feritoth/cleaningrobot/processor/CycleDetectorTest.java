@@ -0,0 +1,107 @@
+package com.feritoth.cleaningrobot.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+
+/**
+ * Checks the detection of the cycles, respectively that skipping their repetitions leaves the robot in the state
+ * reached by executing every command.
+ *
+ * @author Ferenc Toth
+ */
+public class CycleDetectorTest {
+
+	private static final int TR = ValidCommands.TURN_RIGHT.ordinal();
+	private static final int A = ValidCommands.ADVANCE.ordinal();
+	private static final int B = ValidCommands.BACK.ordinal();
+	private static final int C = ValidCommands.CLEAN.ordinal();
+
+	@Test
+	public void detectsTheReturnToTheStartState() {
+		CycleDetector cycleDetector = new CycleDetector();
+		cycleDetector.reset(5, 0, 1, 0);
+		assertFalse(cycleDetector.record(TR, 100L, 5, 1, 1, 0));
+		assertFalse(cycleDetector.record(TR, 99L, 5, 2, 1, 0));
+		assertFalse(cycleDetector.record(TR, 98L, 5, 3, 1, 0));
+		assertTrue(cycleDetector.record(TR, 97L, 5, 0, 1, 0));
+		assertEquals(4, cycleDetector.getLength());
+		assertEquals(TR, cycleDetector.getCommand(3));
+		assertEquals(4L, cycleDetector.getBatteryPerCycle(96L));
+		//the last turn needs some battery left after its execution
+		assertEquals(5L, cycleDetector.getRequiredBattery());
+	}
+
+	@Test
+	public void restartsOnceANewCellIsReached() {
+		CycleDetector cycleDetector = new CycleDetector();
+		cycleDetector.reset(0, 0, 1, 0);
+		assertFalse(cycleDetector.record(A, 100L, 1, 0, 2, 0));
+		assertEquals(0, cycleDetector.getLength());
+		assertFalse(cycleDetector.record(B, 98L, 0, 0, 2, 0));
+		assertTrue(cycleDetector.record(A, 95L, 1, 0, 2, 0));
+		assertEquals(2, cycleDetector.getLength());
+		assertEquals(5L, cycleDetector.getBatteryPerCycle(93L));
+		//the final move may use the battery up completely
+		assertEquals(5L, cycleDetector.getRequiredBattery());
+		assertFalse(cycleDetector.record(C, 93L, 1, 0, 2, 1));
+		assertEquals(0, cycleDetector.getLength());
+	}
+
+	@Test
+	public void doublesTheWindowOfTheRecord() {
+		CycleDetector cycleDetector = new CycleDetector();
+		cycleDetector.reset(0, 0, 10, 10);
+		int cell = 1;
+		for (int window = 4; window <= CycleDetector.MAX_CYCLE_LENGTH; window <<= 1) {
+			for (int i = 0; i < window; i++) {
+				assertFalse(cycleDetector.record(C, 1000L, cell++, 0, 10, 10));
+			}
+			assertEquals(window, cycleDetector.getLength());
+			//the full record starts again from the current state, with a window twice as long
+			assertFalse(cycleDetector.record(C, 1000L, cell++, 0, 10, 10));
+			assertEquals(0, cycleDetector.getLength());
+		}
+	}
+
+	@Test
+	public void fastForwardsAPatrolLoop() {
+		Room room = new Room(new String[][] {
+				{"S", "S", "S", "S"},
+				{"S", "C", "S", "S"},
+				{"S", "S", "S", "null"},
+				{"S", "S", "S", "S"}
+		});
+		List<ValidCommands> pattern = Arrays.asList(ValidCommands.CLEAN, ValidCommands.ADVANCE, ValidCommands.ADVANCE, ValidCommands.TURN_RIGHT,
+				ValidCommands.ADVANCE, ValidCommands.ADVANCE, ValidCommands.ADVANCE, ValidCommands.TURN_RIGHT, ValidCommands.BACK);
+		List<ValidCommands> commands = new ArrayList<>();
+		while (commands.size() < 100000) {
+			commands.addAll(pattern);
+		}
+		//the battery runs out inside the loop, respectively lasts longer than the commands
+		for (long battery : new long[] {1L, 997L, 123457L, 1000000L}) {
+			CleaningRobot standardRobot = simulate(new RobotController(), room, battery, commands);
+			assertEquals(standardRobot.toString(), simulate(new PackedRobotController(true, true), room, battery, commands).toString());
+			assertEquals(standardRobot.toString(), simulate(new PackedRobotController(true, false), room, battery, commands).toString());
+		}
+	}
+
+	private static CleaningRobot simulate(CleaningEngine engine, Room room, long battery, List<ValidCommands> commands) {
+		CleaningRobot cleaningRobot = new CleaningRobot(new Position(0L, 3L), battery, ValidDirections.NORTH);
+		engine.executeCleaningProcedure(cleaningRobot, room, commands.iterator());
+		return cleaningRobot;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.feritoth.cleaningrobot.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.generator.StartPlacement;
+import com.feritoth.cleaningrobot.generator.WorkloadGenerator;
+import com.feritoth.cleaningrobot.generator.WorkloadOptions;
+
+/**
+ * Checks that the optimized ways of running a simulation give exactly the output of the standard engine, on inputs
+ * generated from the index of the case (see {@link WorkloadGenerator}). The rooms are kept small enough for the chunked
+ * engine to compose its summaries - its pool having enough threads for every start state - while the chunks are kept
+ * short for every simulation to span many of them. Every other input repeats a short pattern of commands with a battery
+ * lasting for many repetitions, which the packed engine fast-forwards.
+ *
+ * @author Ferenc Toth
+ */
+@RunWith(Parameterized.class)
+public class EngineEquivalenceTest {
+
+	private static final int NB_OF_CASES = 32;
+	private static final int MAX_ROOM_SIDE = 8;
+	private static final int MAX_CHUNK_SIZE = 64;
+	private static final int MAX_COMMAND_PERIOD = 48;
+	private static final ValidDirections[] DIRECTIONS = ValidDirections.values();
+	private static final StartPlacement[] START_PLACEMENTS = StartPlacement.values();
+	/* Enough threads for the chunked engine to split the simulations of the largest rooms */
+	private static final ForkJoinPool CHUNK_POOL = new ForkJoinPool(MAX_ROOM_SIDE * MAX_ROOM_SIDE *
+			PackedRobotController.DIRECTIONS.length * ChunkedRobotController.THREADS_PER_STATE);
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final int caseIndex;
+	private WorkloadOptions workloadOptions;
+	private Path inputFile;
+	private String standardOutput;
+
+	public EngineEquivalenceTest(int caseIndex) {
+		this.caseIndex = caseIndex;
+	}
+
+	@Parameters(name = "case {0}")
+	public static List<Object[]> getCases() {
+		List<Object[]> cases = new ArrayList<>();
+		for (int caseIndex = 0; caseIndex < NB_OF_CASES; caseIndex++) {
+			cases.add(new Object[] {caseIndex});
+		}
+		return cases;
+	}
+
+	@AfterClass
+	public static void shutdownChunkPool() {
+		CHUNK_POOL.shutdown();
+	}
+
+	@Before
+	public void generateInput() throws IOException {
+		workloadOptions = createWorkload(new SplittableRandom(caseIndex), caseIndex % 2 == 1);
+		inputFile = temporaryFolder.getRoot().toPath().resolve("input.json");
+		new WorkloadGenerator().generate(workloadOptions, inputFile);
+		standardOutput = simulate(new SimulationOptions());
+	}
+
+	@Test
+	public void packedEngineMatchesStandardEngine() throws IOException {
+		assertEquals(workloadOptions.toString(), standardOutput, simulate(new SimulationOptions().setEngineType(EngineType.PACKED)));
+	}
+
+	@Test
+	public void packedEngineWithoutFastForwardMatchesStandardEngine() throws IOException {
+		SimulationOptions options = new SimulationOptions().setEngineType(EngineType.PACKED).setFastForwardEnabled(false);
+		assertEquals(workloadOptions.toString(), standardOutput, simulate(options));
+	}
+
+	@Test
+	public void chunkedEngineMatchesStandardEngine() throws IOException {
+		int chunkSize = new SplittableRandom(caseIndex).nextInt(1, MAX_CHUNK_SIZE + 1);
+		ChunkedRobotController chunkedEngine = new ChunkedRobotController(chunkSize, CHUNK_POOL, true, true);
+		assertTrue(chunkedEngine.getMaxReachableCells() >= MAX_ROOM_SIDE * MAX_ROOM_SIDE);
+		assertEquals(workloadOptions.toString(), standardOutput, simulate(chunkedEngine));
+	}
+
+	@Test
+	public void chunkedEngineWithoutEnoughThreadsMatchesStandardEngine() throws IOException {
+		ForkJoinPool singleThreadPool = new ForkJoinPool(1);
+		try {
+			ChunkedRobotController chunkedEngine = new ChunkedRobotController(1, singleThreadPool, true, true);
+			assertEquals(0, chunkedEngine.getMaxReachableCells());
+			assertEquals(workloadOptions.toString(), standardOutput, simulate(chunkedEngine));
+		} finally {
+			singleThreadPool.shutdown();
+		}
+	}
+
+	@Test
+	public void resumedSimulationMatchesStandardEngine() throws IOException {
+		long nbOfCommands = workloadOptions.getNbOfCommands();
+		//a few checkpoints per simulation, the latest one being taken in the middle of it
+		long checkpointEveryCommands = new SplittableRandom(caseIndex).nextLong(nbOfCommands / 4L + 1L, nbOfCommands / 2L + 2L);
+		String checkpointFileLocation = temporaryFolder.getRoot().toPath().resolve("checkpoint").toString();
+		SimulationOptions options = new SimulationOptions().setEngineType(EngineType.PACKED)
+				.setCheckpointFileLocation(checkpointFileLocation).setCheckpointEveryCommands(checkpointEveryCommands);
+		assertEquals(workloadOptions.toString(), standardOutput, simulate(options));
+		assertEquals(workloadOptions.toString(), standardOutput, simulate(options.setResume(true)));
+	}
+
+	/**
+	 * Draws the parameters of an input - small rooms with various obstacles, starts and command mixes.
+	 *
+	 * @param periodic - whether the command list repeats a pattern
+	 */
+	private static WorkloadOptions createWorkload(SplittableRandom random, boolean periodic) {
+		WorkloadOptions workloadOptions = new WorkloadOptions();
+		workloadOptions.setSeed(random.nextLong());
+		workloadOptions.setNbOfRows(random.nextInt(1, MAX_ROOM_SIDE + 1)).setNbOfColumns(random.nextInt(1, MAX_ROOM_SIDE + 1));
+		workloadOptions.setObstacleDensity(random.nextDouble(0.4)).setObstacleClustering(random.nextDouble(0.9)).setHoleRatio(random.nextDouble());
+		workloadOptions.setStartPlacement(START_PLACEMENTS[random.nextInt(START_PLACEMENTS.length)]);
+		workloadOptions.setStartDirection(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+		if (periodic) {
+			//the robot settles into a cycle after a few repetitions at most, which then get skipped until the battery runs out
+			long nbOfCommands = random.nextLong(20000L, 100000L);
+			workloadOptions.setNbOfCommands(nbOfCommands).setCommandPeriod(random.nextInt(1, MAX_COMMAND_PERIOD + 1));
+			workloadOptions.setBattery(random.nextLong(1L, 6L * nbOfCommands + 2L));
+		} else {
+			long nbOfCommands = random.nextLong(1L, 5000L);
+			//a command takes from 1 to 5 units, so the battery runs out before the end of the commands roughly half of the time
+			workloadOptions.setNbOfCommands(nbOfCommands).setBattery(random.nextLong(1L, 6L * nbOfCommands + 2L));
+		}
+		//the advancing commands weigh more at times, so the robot also hits the obstacles and backs off often
+		workloadOptions.setCommandMix("TL:1,TR:1,A:" + random.nextInt(1, 8) + ",B:1,C:" + random.nextInt(0, 3));
+		return workloadOptions;
+	}
+
+	/**
+	 * @return the output of the simulation run according to the options, null when it gives no output
+	 */
+	private String simulate(SimulationOptions options) throws IOException {
+		Path outputFile = Files.createTempFile(temporaryFolder.getRoot().toPath(), "output", ".json");
+		Files.delete(outputFile);
+		new JSONInputConverter().prepareProgramInput(inputFile.toString(), outputFile.toString(), options);
+		return readOutput(outputFile);
+	}
+
+	/**
+	 * @return the output of the simulation run by the given engine, null when it gives no output
+	 */
+	private String simulate(CleaningEngine engine) throws IOException {
+		Path outputFile = Files.createTempFile(temporaryFolder.getRoot().toPath(), "output", ".json");
+		Files.delete(outputFile);
+		try (CleaningProgram program = new JSONInputConverter().readProgram(inputFile.toString(), new SimulationOptions())) {
+			if (engine.executeCleaningProcedure(program.getCleaningRobot(), program.getRoom(), program.getCommands())) {
+				new JSONOutputFormatter().createCleaningProcedureOutput(program.getCleaningRobot(), outputFile.toString());
+			}
+		}
+		return readOutput(outputFile);
+	}
+
+	private static String readOutput(Path outputFile) throws IOException {
+		return Files.exists(outputFile) ? new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8) : null;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.feritoth.cleaningrobot.processor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+
+/**
+ * Checks that the streaming writer gives exactly the output of the tree based formatter.
+ *
+ * @author Ferenc Toth
+ */
+public class JSONStreamingOutputWriterTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void writesTheOutputOfTheFormatter() throws IOException {
+		CleaningRobot cleaningRobot = new CleaningRobot(new Position(3L, 0L), 53L, ValidDirections.WEST);
+		cleaningRobot.addNewVisitedPosition(3L, 0L);
+		cleaningRobot.addNewVisitedPosition(2L, 0L);
+		cleaningRobot.addNewCleanedPosition(2L, 0L);
+		assertEquals(format(cleaningRobot), write(cleaningRobot));
+	}
+
+	@Test
+	public void writesAnOutputLargerThanItsBuffer() throws IOException {
+		CleaningRobot cleaningRobot = new CleaningRobot(new Position(0L, 0L), Long.MAX_VALUE, ValidDirections.SOUTH);
+		for (long yRow = 0L; yRow < 100L; yRow++) {
+			for (long xCol = 0L; xCol < 100L; xCol++) {
+				cleaningRobot.addNewVisitedPosition(xCol * 100001L, yRow);
+				if ((xCol + yRow) % 3L == 0L) {
+					cleaningRobot.addNewCleanedPosition(xCol * 100001L, yRow);
+				}
+			}
+		}
+		assertEquals(format(cleaningRobot), write(cleaningRobot));
+	}
+
+	@Test
+	public void writesAnEmptyTrajectory() throws IOException {
+		CleaningRobot cleaningRobot = new CleaningRobot(new Position(1L, 1L), 0L, ValidDirections.NORTH);
+		assertEquals(format(cleaningRobot), write(cleaningRobot));
+	}
+
+	@Test
+	public void reusesItsBufferForTheFollowingDocuments() throws IOException {
+		JSONStreamingOutputWriter outputWriter = new JSONStreamingOutputWriter();
+		CleaningRobot firstRobot = new CleaningRobot(new Position(1L, 2L), 10L, ValidDirections.EAST);
+		firstRobot.addNewVisitedPosition(1L, 2L);
+		CleaningRobot secondRobot = new CleaningRobot(new Position(4L, 5L), 20L, ValidDirections.NORTH);
+		secondRobot.addNewCleanedPosition(4L, 5L);
+		ByteArrayOutputStream firstOutput = new ByteArrayOutputStream();
+		outputWriter.writeCleaningProcedureOutput(firstRobot, Channels.newChannel(firstOutput));
+		ByteArrayOutputStream secondOutput = new ByteArrayOutputStream();
+		outputWriter.writeCleaningProcedureOutput(secondRobot, Channels.newChannel(secondOutput));
+		assertEquals(format(firstRobot), new String(firstOutput.toByteArray(), StandardCharsets.UTF_8));
+		assertEquals(format(secondRobot), new String(secondOutput.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	private String format(CleaningRobot cleaningRobot) throws IOException {
+		Path outputFile = temporaryFolder.newFile().toPath();
+		new JSONOutputFormatter().createCleaningProcedureOutput(cleaningRobot, outputFile.toString());
+		return new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8);
+	}
+
+	private String write(CleaningRobot cleaningRobot) throws IOException {
+		Path outputFile = temporaryFolder.newFile().toPath();
+		new JSONStreamingOutputWriter().writeCleaningProcedureOutput(cleaningRobot, outputFile.toString());
+		return new String(Files.readAllBytes(outputFile), StandardCharsets.UTF_8);
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.feritoth.cleaningrobot.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Checks the tokens, their offsets and the rejection of the malformed inputs.
+ *
+ * @author Ferenc Toth
+ */
+public class JSONTokenizerTest {
+
+	@Test
+	public void readsTheTokensOfADocument() throws IOException {
+		JSONTokenizer tokenizer = tokenize("{\"map\": [[\"S\", null]], \"battery\" : -42}");
+		assertEquals(JSONTokenizer.BEGIN_OBJECT, tokenizer.nextToken());
+		assertEquals(JSONTokenizer.STRING, tokenizer.nextToken());
+		assertTrue(tokenizer.textEquals("map"));
+		assertEquals(JSONTokenizer.BEGIN_ARRAY, tokenizer.nextToken());
+		assertEquals(JSONTokenizer.BEGIN_ARRAY, tokenizer.nextToken());
+		assertEquals(JSONTokenizer.STRING, tokenizer.nextToken());
+		assertEquals("S", tokenizer.getText());
+		assertEquals(JSONTokenizer.LITERAL, tokenizer.nextToken());
+		assertTrue(tokenizer.textEquals("null"));
+		assertEquals(JSONTokenizer.END_ARRAY, tokenizer.nextToken());
+		assertEquals(JSONTokenizer.END_ARRAY, tokenizer.nextToken());
+		assertEquals(JSONTokenizer.STRING, tokenizer.nextToken());
+		assertEquals(23L, tokenizer.getTokenOffset());
+		assertEquals(JSONTokenizer.NUMBER, tokenizer.nextToken());
+		assertEquals(-42L, tokenizer.getLongValue());
+		assertEquals(JSONTokenizer.END_OBJECT, tokenizer.nextToken());
+		assertEquals(JSONTokenizer.END_OF_INPUT, tokenizer.nextToken());
+	}
+
+	@Test
+	public void skipsNestedValues() throws IOException {
+		JSONTokenizer tokenizer = tokenize("{\"a\": {\"b\": [1, [2, {}]], \"c\": 3}, \"d\": 4}");
+		tokenizer.nextToken();
+		tokenizer.nextToken();
+		tokenizer.skipValue(tokenizer.nextToken());
+		assertEquals(JSONTokenizer.STRING, tokenizer.nextToken());
+		assertTrue(tokenizer.textEquals("d"));
+		//a scalar value is already skipped once read
+		tokenizer.skipValue(tokenizer.nextToken());
+		assertEquals(JSONTokenizer.END_OBJECT, tokenizer.nextToken());
+	}
+
+	@Test
+	public void keepsTheOffsetsOfTheWholeDocument() throws IOException {
+		JSONTokenizer tokenizer = new JSONTokenizer(new ByteArrayInputStream(" \"TL\"".getBytes(StandardCharsets.UTF_8)), 1000L);
+		assertEquals(JSONTokenizer.STRING, tokenizer.nextToken());
+		assertEquals(1001L, tokenizer.getTokenOffset());
+	}
+
+	@Test
+	public void readsTokensAcrossTheBufferBoundaries() throws IOException {
+		StringBuilder document = new StringBuilder("[");
+		for (int i = 0; i < 50000; i++) {
+			document.append(i == 0 ? "" : ",").append(i);
+		}
+		JSONTokenizer tokenizer = tokenize(document.append("]").toString());
+		assertEquals(JSONTokenizer.BEGIN_ARRAY, tokenizer.nextToken());
+		for (long i = 0L; i < 50000L; i++) {
+			assertEquals(JSONTokenizer.NUMBER, tokenizer.nextToken());
+			assertEquals(i, tokenizer.getLongValue());
+		}
+		assertEquals(JSONTokenizer.END_ARRAY, tokenizer.nextToken());
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsAnUnexpectedCharacter() throws IOException {
+		tokenize("{\"a\": #}").skipValue(JSONTokenizer.BEGIN_OBJECT);
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsAnUnterminatedString() throws IOException {
+		tokenize("\"abc").nextToken();
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsADecimalNumberAsALong() throws IOException {
+		JSONTokenizer tokenizer = tokenize("1.5");
+		tokenizer.nextToken();
+		tokenizer.getLongValue();
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void rejectsAnOverflowingNumber() throws IOException {
+		JSONTokenizer tokenizer = tokenize("92233720368547758070");
+		tokenizer.nextToken();
+		tokenizer.getLongValue();
+	}
+
+	private static JSONTokenizer tokenize(String document) {
+		return new JSONTokenizer(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)), 0L);
+	}
+
+}
\ No newline at end of file
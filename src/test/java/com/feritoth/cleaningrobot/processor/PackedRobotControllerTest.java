@@ -0,0 +1,95 @@
+package com.feritoth.cleaningrobot.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+
+/**
+ * Checks that the packed engine leaves the robot in the very state reached by the standard engine.
+ *
+ * @author Ferenc Toth
+ */
+public class PackedRobotControllerTest {
+
+	private static final String[][] MAP = {
+			{"S", "S", "S", "S"},
+			{"S", "S", "C", "S"},
+			{"S", "S", "S", "S"},
+			{"S", "null", "S", "S"}
+	};
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void givesTheOutputsOfTheSampleInputs() throws IOException {
+		for (String sample : Arrays.asList("test1", "test2")) {
+			Path outputFile = temporaryFolder.getRoot().toPath().resolve(sample + ".json");
+			new JSONInputConverter().prepareProgramInput("src/main/resources/" + sample + ".json", outputFile.toString(),
+					new SimulationOptions().setEngineType(EngineType.PACKED));
+			assertEquals(sample, new String(Files.readAllBytes(Paths.get("src/main/resources/" + sample + "_result.json")), "UTF-8"),
+					new String(Files.readAllBytes(outputFile), "UTF-8"));
+		}
+	}
+
+	@Test
+	public void backsOffLikeTheStandardEngine() {
+		List<ValidCommands> commands = Arrays.asList(ValidCommands.ADVANCE, ValidCommands.CLEAN, ValidCommands.ADVANCE, ValidCommands.ADVANCE,
+				ValidCommands.TURN_RIGHT, ValidCommands.ADVANCE, ValidCommands.ADVANCE, ValidCommands.ADVANCE, ValidCommands.ADVANCE,
+				ValidCommands.CLEAN, ValidCommands.BACK, ValidCommands.TURN_LEFT, ValidCommands.ADVANCE, ValidCommands.CLEAN);
+		for (ValidDirections direction : ValidDirections.values()) {
+			assertSameOutcome(new Room(MAP), 1L, 2L, direction, 1000L, commands);
+			assertSameOutcome(new Room(MAP), 3L, 3L, direction, 1000L, commands);
+		}
+	}
+
+	@Test
+	public void stopsOnceTheBatteryIsExhausted() {
+		List<ValidCommands> commands = Arrays.asList(ValidCommands.CLEAN, ValidCommands.ADVANCE, ValidCommands.CLEAN, ValidCommands.TURN_LEFT);
+		for (long battery = 1L; battery < 14L; battery++) {
+			assertSameOutcome(new Room(MAP), 0L, 2L, ValidDirections.NORTH, battery, commands);
+		}
+	}
+
+	@Test
+	public void stopsOnceTheRobotIsStuck() {
+		CleaningRobot cleaningRobot = assertSameOutcome(new Room(new String[][] {{"S"}}), 0L, 0L, ValidDirections.EAST, 1000L,
+				Arrays.asList(ValidCommands.CLEAN, ValidCommands.ADVANCE, ValidCommands.CLEAN));
+		assertEquals(1, cleaningRobot.getCleanedPositions().size());
+		assertTrue(cleaningRobot.getBattery() > 0L);
+	}
+
+	@Test
+	public void doesNotStartWithAnEmptyBattery() {
+		CleaningRobot cleaningRobot = new CleaningRobot(new Position(0L, 0L), 0L, ValidDirections.NORTH);
+		assertFalse(new PackedRobotController().executeCleaningProcedure(cleaningRobot, new Room(MAP), Arrays.asList(ValidCommands.CLEAN).iterator()));
+		assertTrue(cleaningRobot.getVisitedPositions().isEmpty());
+	}
+
+	private static CleaningRobot assertSameOutcome(Room room, long xCol, long yRow, ValidDirections direction, long battery, List<ValidCommands> commands) {
+		CleaningRobot standardRobot = new CleaningRobot(new Position(xCol, yRow), battery, direction);
+		new RobotController().executeCleaningProcedure(standardRobot, room, commands.iterator());
+		CleaningRobot packedRobot = new CleaningRobot(new Position(xCol, yRow), battery, direction);
+		new PackedRobotController().executeCleaningProcedure(packedRobot, room, commands.iterator());
+		assertEquals(standardRobot.toString(), packedRobot.toString());
+		return packedRobot;
+	}
+
+}
\ No newline at end of file
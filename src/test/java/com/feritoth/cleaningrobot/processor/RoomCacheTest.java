@@ -0,0 +1,110 @@
+package com.feritoth.cleaningrobot.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.feritoth.cleaningrobot.analysis.RoomAnalysis;
+import com.feritoth.cleaningrobot.core.Room;
+
+/**
+ * Checks the sharing of the rooms having identical maps, respectively their eviction beyond the limit of the cache.
+ *
+ * @author Ferenc Toth
+ */
+public class RoomCacheTest {
+
+	/* The footprint of a cached 3x3 room: the entry, the cells and the move mask */
+	private static final long ROOM_FOOTPRINT = 256L + 9L + 5L;
+
+	@Test
+	public void sharesTheRoomsOfIdenticalMaps() {
+		RoomCache roomCache = new RoomCache(1L << 20);
+		Room room = roomCache.intern(3, 3, createCells(4));
+		assertTrue(room.isShared());
+		assertSame(room, roomCache.intern(3, 3, createCells(4)));
+		//the surplus of the cells is ignored
+		assertSame(room, roomCache.intern(3, 3, new byte[] {0, 0, 0, 0, 1, 0, 0, 0, 0, 2, 2}));
+		assertNotSame(room, roomCache.intern(3, 3, createCells(5)));
+		assertNotSame(room, roomCache.intern(1, 9, createCells(4)));
+		assertEquals(3, roomCache.size());
+		assertEquals(2L, roomCache.getNbOfHits());
+		assertEquals(3L, roomCache.getNbOfMisses());
+		assertEquals(3L * ROOM_FOOTPRINT, roomCache.getFootprint());
+	}
+
+	@Test
+	public void evictsTheLeastRecentlyUsedRooms() {
+		RoomCache roomCache = new RoomCache(2L * ROOM_FOOTPRINT);
+		Room firstRoom = roomCache.intern(3, 3, createCells(0));
+		Room secondRoom = roomCache.intern(3, 3, createCells(1));
+		assertSame(firstRoom, roomCache.intern(3, 3, createCells(0)));
+		roomCache.intern(3, 3, createCells(2));
+		assertEquals(2, roomCache.size());
+		assertSame(firstRoom, roomCache.intern(3, 3, createCells(0)));
+		assertNotSame(secondRoom, roomCache.intern(3, 3, createCells(1)));
+		roomCache.setMaxFootprint(0L);
+		assertEquals(0, roomCache.size());
+		assertEquals(0L, roomCache.getFootprint());
+	}
+
+	@Test
+	public void leavesOutTheRoomsExceedingTheLimit() {
+		RoomCache roomCache = new RoomCache(ROOM_FOOTPRINT - 1L);
+		Room room = roomCache.intern(3, 3, createCells(4));
+		assertFalse(room.isShared());
+		assertNotSame(room, roomCache.intern(3, 3, createCells(4)));
+		assertEquals(0, roomCache.size());
+	}
+
+	@Test
+	public void analysesTheCachedRoomsOnce() {
+		RoomCache roomCache = new RoomCache(1L << 20);
+		Room room = roomCache.intern(3, 3, createCells(4));
+		RoomAnalysis roomAnalysis = roomCache.analyze(room);
+		assertSame(roomAnalysis, roomCache.analyze(room));
+		assertEquals(8L, roomAnalysis.getNbOfFreeCells());
+		//the component and the stuck directions of every cell, respectively the size of the single component
+		assertEquals(ROOM_FOOTPRINT + 5L * 9L + 4L, roomCache.getFootprint());
+		Room uncachedRoom = new Room(3, 3, createCells(4));
+		assertNotSame(roomCache.analyze(uncachedRoom), roomCache.analyze(uncachedRoom));
+	}
+
+	@Test
+	public void hashesTheRoomsByTheirContent() {
+		Room room = new Room(3, 3, createCells(4));
+		assertEquals(RoomCache.hash(3, 3, createCells(4), 9), RoomCache.hash(room));
+		assertEquals(RoomCache.hash(room), RoomCache.hash(new Room(new String[][] {{"S", "S", "S"}, {"S", "C", "S"}, {"S", "S", "S"}})));
+		assertFalse(RoomCache.hash(room) == RoomCache.hash(new Room(3, 3, createCells(5))));
+		assertFalse(RoomCache.hash(room) == RoomCache.hash(new Room(9, 1, createCells(4))));
+	}
+
+	@Test
+	public void sharesTheRoomsOfTheInputs() throws IOException {
+		SimulationOptions options = new SimulationOptions().setRoomCache(new RoomCache(1L << 20));
+		try (CleaningProgram firstProgram = new JSONInputConverter().readProgram("src/main/resources/test1.json", options);
+		     CleaningProgram secondProgram = new JSONInputConverter().readProgram("src/main/resources/test2.json", options)) {
+			assertSame(firstProgram.getRoom(), secondProgram.getRoom());
+		}
+		try (CleaningProgram firstProgram = new JSONInputConverter().readProgram("src/main/resources/test1.json", new SimulationOptions());
+		     CleaningProgram secondProgram = new JSONInputConverter().readProgram("src/main/resources/test1.json", new SimulationOptions())) {
+			assertNotSame(firstProgram.getRoom(), secondProgram.getRoom());
+		}
+	}
+
+	/**
+	 * @return the cells of a 3x3 room of free space, with a column on the given cell
+	 */
+	private static byte[] createCells(int columnCell) {
+		byte[] cells = new byte[9];
+		cells[columnCell] = Room.CELL_COLUMN;
+		return cells;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.feritoth.cleaningrobot.processor;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Checks that a simulation reading its room from a converted room file gives the usual output.
+ *
+ * @author Ferenc Toth
+ */
+public class RoomFileConverterTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void simulatesTheConvertedRooms() throws IOException {
+		for (String sample : Arrays.asList("test1", "test2")) {
+			Path roomFile = temporaryFolder.getRoot().toPath().resolve(sample + ".room");
+			new RoomFileConverter().convert("src/main/resources/" + sample + ".json", roomFile.toString());
+			for (EngineType engineType : EngineType.values()) {
+				Path outputFile = temporaryFolder.getRoot().toPath().resolve(sample + "_" + engineType + ".json");
+				new JSONInputConverter().prepareProgramInput("src/main/resources/" + sample + ".json", outputFile.toString(),
+						new SimulationOptions().setEngineType(engineType).setRoomFileLocation(roomFile.toString()));
+				assertArrayEquals(Files.readAllBytes(Paths.get("src/main/resources/" + sample + "_result.json")), Files.readAllBytes(outputFile));
+			}
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.feritoth.cleaningrobot.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.feritoth.cleaningrobot.core.ValidCommands;
+
+/**
+ * Checks that the streaming reader builds the very program read by the tree based one.
+ *
+ * @author Ferenc Toth
+ */
+public class StreamingJSONInputReaderTest {
+
+	@Test
+	public void readsTheProgramsOfTheSampleInputs() throws IOException {
+		for (String sampleInput : Arrays.asList("src/main/resources/test1.json", "src/main/resources/test2.json")) {
+			try (CleaningProgram expectedProgram = new JSONInputConverter().readProgram(sampleInput, new SimulationOptions());
+				 CleaningProgram program = new StreamingJSONInputReader().readProgram(sampleInput)) {
+				assertEquals(expectedProgram.getCleaningRobot().toString(), program.getCleaningRobot().toString());
+				assertTrue(expectedProgram.getRoom().hasCells(program.getRoom().getNbOfRows(), program.getRoom().getNbOfColumns(), toCells(program)));
+				assertEquals(toList(expectedProgram), toList(program));
+			}
+		}
+	}
+
+	@Test
+	public void readsTheFieldsInAnyOrder() throws IOException {
+		String document = "{\"commands\": [\"A\", \"C\", \"TR\"], \"extra\": {\"nested\": [1, 2]}, \"battery\": 7, "
+				+ "\"start\": {\"facing\": \"W\", \"Y\": 1, \"X\": 0}, \"map\": [[\"S\", \"C\"], [\"S\", null]]}";
+		try (CleaningProgram program = new StreamingJSONInputReader().readProgram(document.getBytes(StandardCharsets.UTF_8))) {
+			assertEquals(2, program.getRoom().getNbOfRows());
+			assertTrue(program.getRoom().isObstacle(1, 0));
+			assertTrue(program.getRoom().isObstacle(1, 1));
+			assertFalse(program.getRoom().isObstacle(0, 1));
+			assertEquals(Long.valueOf(7L), program.getCleaningRobot().getBattery());
+			assertEquals(0L, program.getCleaningRobot().getPosition().getxCol());
+			assertEquals(1L, program.getCleaningRobot().getPosition().getyRow());
+			assertEquals(Arrays.asList(ValidCommands.ADVANCE, ValidCommands.CLEAN, ValidCommands.TURN_RIGHT), toList(program));
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void rejectsAnInputWithoutMap() {
+		new StreamingJSONInputReader().readProgram("{\"battery\": 7}".getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static byte[] toCells(CleaningProgram program) {
+		byte[] cells = new byte[program.getRoom().getNbOfCells()];
+		for (int cellIndex = 0; cellIndex < cells.length; cellIndex++) {
+			cells[cellIndex] = program.getRoom().getCell(cellIndex);
+		}
+		return cells;
+	}
+
+	private static List<ValidCommands> toList(CleaningProgram program) {
+		List<ValidCommands> commands = new ArrayList<>();
+		program.getCommands().forEachRemaining(commands::add);
+		return commands;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,115 @@
+package com.feritoth.cleaningrobot.server;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.generator.WorkloadGenerator;
+import com.feritoth.cleaningrobot.generator.WorkloadOptions;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+
+/**
+ * Checks the answers of the simulation server to the valid, malformed, oversized and late requests.
+ *
+ * @author Ferenc Toth
+ */
+public class SimulationServerTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private SimulationServer server;
+
+	@After
+	public void stopServer() {
+		if (server != null) {
+			server.stop();
+		}
+	}
+
+	@Test
+	public void answersWithTheOutputOfTheSimulation() throws IOException {
+		startServer(new ServerOptions());
+		for (String sample : new String[] {"test1", "test2"}) {
+			HttpURLConnection connection = post(Files.readAllBytes(Paths.get("src/main/resources/" + sample + ".json")));
+			assertEquals(200, connection.getResponseCode());
+			assertArrayEquals(Files.readAllBytes(Paths.get("src/main/resources/" + sample + "_result.json")), readBody(connection.getInputStream()));
+		}
+		assertEquals(2L, server.getStats().getNbOfCompletedRequests());
+		assertTrue(server.getStatsAsJSON().contains("\"completed\":2,"));
+	}
+
+	@Test
+	public void answersWithoutContentForAnEmptyBattery() throws IOException {
+		startServer(new ServerOptions());
+		String input = "{\"map\": [[\"S\"]], \"start\": {\"X\": 0, \"Y\": 0, \"facing\": \"N\"}, \"commands\": [\"C\"], \"battery\": 0}";
+		assertEquals(204, post(input.getBytes(StandardCharsets.UTF_8)).getResponseCode());
+	}
+
+	@Test
+	public void rejectsTheInvalidRequests() throws IOException {
+		startServer(new ServerOptions().setMaxRequestBytes(64));
+		HttpURLConnection connection = post("{\"map\": [[\"S\"]".getBytes(StandardCharsets.UTF_8));
+		assertEquals(400, connection.getResponseCode());
+		assertTrue(new String(readBody(connection.getErrorStream()), StandardCharsets.UTF_8).startsWith("{\"error\":\""));
+		assertEquals(413, post(new byte[65]).getResponseCode());
+		HttpURLConnection getConnection = (HttpURLConnection) new URL(getUrl(SimulationServer.SIMULATE_PATH)).openConnection();
+		assertEquals(405, getConnection.getResponseCode());
+	}
+
+	@Test
+	public void cancelsTheSimulationsExceedingTheTimeout() throws IOException {
+		startServer(new ServerOptions().setTimeoutMillis(1L));
+		ByteArrayOutputStream input = new ByteArrayOutputStream();
+		new WorkloadGenerator().generate(new WorkloadOptions().setNbOfCommands(5000000L).setBattery(Long.MAX_VALUE / 8L), input);
+		assertEquals(504, post(input.toByteArray()).getResponseCode());
+		assertTrue(server.getStatsAsJSON().contains("\"timedOut\":1,"));
+	}
+
+	private void startServer(ServerOptions serverOptions) throws IOException {
+		server = new SimulationServer(new SimulationOptions(), serverOptions.setPort(0).setNbOfWorkers(1));
+		server.start();
+	}
+
+	private HttpURLConnection post(byte[] input) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(getUrl(SimulationServer.SIMULATE_PATH)).openConnection();
+		connection.setRequestMethod("POST");
+		connection.setDoOutput(true);
+		try (OutputStream requestBody = connection.getOutputStream()) {
+			requestBody.write(input);
+		}
+		return connection;
+	}
+
+	private String getUrl(String path) {
+		return "http://localhost:" + server.getPort() + path;
+	}
+
+	private static byte[] readBody(InputStream body) throws IOException {
+		try (InputStream input = body) {
+			ByteArrayOutputStream content = new ByteArrayOutputStream();
+			byte[] chunk = new byte[4096];
+			int count;
+			while ((count = input.read(chunk)) > 0) {
+				content.write(chunk, 0, count);
+			}
+			return content.toByteArray();
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,155 @@
+package com.feritoth.cleaningrobot.sweep;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.instrumentation.SimulationListener;
+import com.feritoth.cleaningrobot.processor.CleaningEngine;
+import com.feritoth.cleaningrobot.processor.CleaningProgram;
+import com.feritoth.cleaningrobot.processor.EngineType;
+import com.feritoth.cleaningrobot.processor.JSONInputConverter;
+import com.feritoth.cleaningrobot.processor.SimulationOptions;
+
+/**
+ * Checks the parsing of the sweep options, respectively that every run of a sweep ends as a standalone simulation
+ * started from the same state.
+ *
+ * @author Ferenc Toth
+ */
+public class SweepRunnerTest {
+
+	private static final String HEADER = "startX,startY,startFacing,startBattery,finalX,finalY,finalFacing,finalBattery,visited,cleaned,stuck";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void parsesTheOptions() {
+		SweepOptions sweepOptions = new SweepOptions().setColumns("2:5").setRows("3").setDirections("S, N").setBatteries("100:350:100");
+		assertEquals(2, sweepOptions.getFirstColumn());
+		assertEquals(5, sweepOptions.getLastColumn());
+		assertEquals(3, sweepOptions.getFirstRow());
+		assertEquals(3, sweepOptions.getLastRow());
+		assertArrayEquals(new ValidDirections[] {ValidDirections.NORTH, ValidDirections.SOUTH}, sweepOptions.getDirections());
+		assertArrayEquals(new long[] {100L, 200L, 300L}, sweepOptions.getBatteries());
+		assertArrayEquals(new long[] {7L, 70L}, sweepOptions.setBatteries("7, 70").getBatteries());
+		assertNull(new SweepOptions().getBatteries());
+	}
+
+	@Test
+	public void rejectsTheInvalidOptions() {
+		for (Runnable invalidOption : Arrays.<Runnable>asList(() -> new SweepOptions().setBatteries("100:50:10"), () -> new SweepOptions().setBatteries("1:9:0"),
+				() -> new SweepOptions().setBatteries("1:9"), () -> new SweepOptions().setDirections("N,X"))) {
+			try {
+				invalidOption.run();
+				fail("Invalid option accepted");
+			} catch (IllegalArgumentException e) {
+				//expected
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsANonPositiveBattery() throws IOException {
+		sweep(new SweepOptions().setBatteries(10L, 0L));
+	}
+
+	@Test
+	public void endsEveryRunAsAStandaloneSimulation() throws IOException {
+		Path outputFile = temporaryFolder.getRoot().toPath().resolve("sweep.csv");
+		SweepSummary summary = new SweepRunner(new SimulationOptions()).runSweep("src/main/resources/test1.json", outputFile.toString(),
+				new SweepOptions().setBatteries(1L, 12L, 80L).setNbOfWorkers(3).setRunsPerBlock(5));
+		List<String> lines = Files.readAllLines(outputFile, StandardCharsets.US_ASCII);
+		//14 free cells, 4 directions and 3 batteries, in this order
+		assertEquals(14L, summary.getNbOfStartCells());
+		assertEquals(14L * 4L * 3L, summary.getNbOfRuns());
+		assertEquals(HEADER, lines.get(0));
+		assertEquals(summary.getNbOfRuns() + 1L, lines.size());
+		List<ValidCommands> commands = new ArrayList<>();
+		Room room;
+		try (CleaningProgram program = new JSONInputConverter().readProgram("src/main/resources/test1.json", new SimulationOptions())) {
+			program.getCommands().forEachRemaining(commands::add);
+			room = program.getRoom();
+		}
+		long nbOfStuckRuns = 0L;
+		int lineIndex = 1;
+		for (int yRow = 0; yRow < room.getNbOfRows(); yRow++) {
+			for (int xCol = 0; xCol < room.getNbOfColumns(); xCol++) {
+				if (room.isObstacle(xCol, yRow)) {
+					continue;
+				}
+				for (ValidDirections direction : ValidDirections.values()) {
+					for (long battery : new long[] {1L, 12L, 80L}) {
+						String expectedLine = simulate(room, commands, xCol, yRow, direction, battery);
+						assertEquals(expectedLine, lines.get(lineIndex++));
+						if (expectedLine.endsWith("true")) {
+							nbOfStuckRuns++;
+						}
+					}
+				}
+			}
+		}
+		assertEquals(nbOfStuckRuns, summary.getNbOfStuckRuns());
+	}
+
+	@Test
+	public void writesTheSameRunsWhateverTheBlocks() throws IOException {
+		SweepOptions sweepOptions = new SweepOptions().setColumns("1:3").setDirections("E,W").setBatteries("10:100:30");
+		String output = sweep(sweepOptions.setNbOfWorkers(1).setRunsPerBlock(1024));
+		assertEquals(output, sweep(sweepOptions.setNbOfWorkers(4).setRunsPerBlock(1)));
+		assertEquals(output, sweep(sweepOptions.setNbOfWorkers(2).setRunsPerBlock(7)));
+		String ndjsonOutput = sweep(sweepOptions.setFormat(SweepFormat.NDJSON));
+		assertEquals(output.split("\n").length - 1, ndjsonOutput.split("\n").length);
+		assertEquals("{\"start\":{\"X\":1,\"Y\":0,\"facing\":\"E\",\"battery\":10},", ndjsonOutput.substring(0, ndjsonOutput.indexOf("\"final\"")));
+	}
+
+	private static String sweep(SweepOptions sweepOptions) throws IOException {
+		List<ValidCommands> commands = new ArrayList<>();
+		try (CleaningProgram program = new JSONInputConverter().readProgram("src/main/resources/test2.json", new SimulationOptions())) {
+			program.getCommands().forEachRemaining(commands::add);
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			new SweepRunner(new SimulationOptions()).runSweep(program.getRoom(), commands, program.getCleaningRobot().getBattery(), sweepOptions, output);
+			return new String(output.toByteArray(), StandardCharsets.US_ASCII);
+		}
+	}
+
+	/**
+	 * @return the CSV line of the run executed by the standard engine from the given start state
+	 */
+	private static String simulate(Room room, List<ValidCommands> commands, int xCol, int yRow, ValidDirections direction, long battery) {
+		boolean[] stuck = new boolean[1];
+		CleaningEngine engine = EngineType.STANDARD.createEngine();
+		engine.setSimulationListener(new SimulationListener() {
+			@Override
+			public void robotStuck(long commandIndex, long xCol, long yRow) {
+				stuck[0] = true;
+			}
+		});
+		CleaningRobot cleaningRobot = new CleaningRobot(new Position(xCol, yRow), battery, direction);
+		engine.executeCleaningProcedure(cleaningRobot, room, commands.iterator());
+		return xCol + "," + yRow + "," + direction.getDirection() + "," + battery + "," + cleaningRobot.getPosition().getxCol() + ","
+				+ cleaningRobot.getPosition().getyRow() + "," + cleaningRobot.getDirection().getDirection() + "," + cleaningRobot.getBattery() + ","
+				+ cleaningRobot.getVisitedPositionLog().size() + "," + cleaningRobot.getCleanedPositionLog().size() + "," + stuck[0];
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.feritoth.cleaningrobot.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.feritoth.cleaningrobot.core.CleaningRobot;
+import com.feritoth.cleaningrobot.core.Position;
+import com.feritoth.cleaningrobot.core.Room;
+import com.feritoth.cleaningrobot.core.ValidCommands;
+import com.feritoth.cleaningrobot.core.ValidDirections;
+import com.feritoth.cleaningrobot.processor.CleaningEngine;
+import com.feritoth.cleaningrobot.processor.EngineType;
+
+/**
+ * Checks that the traces of every engine and of every format tell the same trajectory, through a ring buffer much
+ * smaller than the trajectory.
+ *
+ * @author Ferenc Toth
+ */
+public class TraceRecorderTest {
+
+	private static final int SMALL_CAPACITY = 16;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void tracesTheSameTrajectoryForEveryEngineAndFormat() throws IOException {
+		SplittableRandom random = new SplittableRandom(0L);
+		String[][] map = new String[8][8];
+		for (String[] row : map) {
+			for (int xCol = 0; xCol < row.length; xCol++) {
+				row[xCol] = random.nextInt(3) == 0 ? "C" : "S";
+			}
+		}
+		map[0][0] = "S";
+		List<ValidCommands> commands = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			commands.add(ValidCommands.values()[random.nextInt(ValidCommands.values().length)]);
+		}
+		Path standardTrace = trace(EngineType.STANDARD, TraceFormat.NDJSON, new Room(map), commands);
+		List<String> events = Files.readAllLines(standardTrace);
+		assertTrue(events.size() > commands.size() / 2);
+		assertEquals(events, Files.readAllLines(trace(EngineType.PACKED, TraceFormat.NDJSON, new Room(map), commands)));
+		Path binaryTrace = trace(EngineType.PACKED, TraceFormat.BINARY, new Room(map), commands);
+		Path convertedTrace = temporaryFolder.getRoot().toPath().resolve("converted.ndjson");
+		new TraceFileConverter().convert(binaryTrace.toString(), convertedTrace.toString());
+		assertEquals(events, Files.readAllLines(convertedTrace));
+	}
+
+	@Test
+	public void roundsTheCapacityUpToAPowerOfTwo() throws IOException {
+		TraceRecorder traceRecorder = new TraceRecorder(temporaryFolder.newFile().toString(), TraceFormat.NDJSON, 100, TraceOverflowPolicy.DROP);
+		traceRecorder.close();
+		assertEquals(128, traceRecorder.getCapacity());
+		assertEquals(0L, traceRecorder.getDroppedEvents());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsAnEmptyBuffer() throws IOException {
+		new TraceRecorder(temporaryFolder.newFile().toString(), TraceFormat.NDJSON, 0, TraceOverflowPolicy.WAIT);
+	}
+
+	private Path trace(EngineType engineType, TraceFormat traceFormat, Room room, List<ValidCommands> commands) throws IOException {
+		Path traceFile = temporaryFolder.newFile().toPath();
+		TraceRecorder traceRecorder = new TraceRecorder(traceFile.toString(), traceFormat, SMALL_CAPACITY, TraceOverflowPolicy.WAIT);
+		try {
+			CleaningEngine engine = engineType.createEngine();
+			engine.setSimulationListener(traceRecorder);
+			engine.executeCleaningProcedure(new CleaningRobot(new Position(0L, 0L), 5000L, ValidDirections.EAST), room, commands.iterator());
+		} finally {
+			traceRecorder.close();
+		}
+		assertEquals(0L, traceRecorder.getDroppedEvents());
+		return traceFile;
+	}
+
+}
\ No newline at end of file
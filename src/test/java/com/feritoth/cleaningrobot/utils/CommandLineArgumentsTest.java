@@ -0,0 +1,61 @@
+package com.feritoth.cleaningrobot.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Checks the split of the arguments into options and positional arguments, and the rejection of the misused options.
+ *
+ * @author Ferenc Toth
+ */
+public class CommandLineArgumentsTest {
+
+	@Test
+	public void separatesTheOptionsFromThePositionalArguments() {
+		CommandLineArguments arguments = new CommandLineArguments(new String[] {"batch", "--threads=4", "inputs", "--pipeline", "outputs"});
+		assertEquals(3, arguments.getNbOfPositionalArguments());
+		assertEquals("batch", arguments.getPositionalArgument(0));
+		assertEquals("outputs", arguments.getPositionalArgument(2));
+		assertEquals(4, arguments.consumeIntOption("threads", 1));
+		assertTrue(arguments.consumeFlag("pipeline"));
+		arguments.verifyAllOptionsConsumed();
+	}
+
+	@Test
+	public void givesTheDefaultsOfTheAbsentOptions() {
+		CommandLineArguments arguments = new CommandLineArguments(new String[] {"--seed=-3", "--density=0.25"});
+		assertEquals(-3L, arguments.consumeLongOption("seed", 0L));
+		assertEquals(0.25, arguments.consumeDoubleOption("density", 0.0), 0.0);
+		assertEquals(7, arguments.consumeIntOption("threads", 7));
+		assertEquals("standard", arguments.consumeOption("engine", "standard"));
+		assertFalse(arguments.consumeFlag("pipeline"));
+		//an option gets consumed only once
+		assertEquals(0L, arguments.consumeLongOption("seed", 0L));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsAMissingPositionalArgument() {
+		new CommandLineArguments(new String[] {"batch"}).getPositionalArgument(1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsAFlagWithAValue() {
+		new CommandLineArguments(new String[] {"--pipeline=yes"}).consumeFlag("pipeline");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsAnOptionWithoutValue() {
+		new CommandLineArguments(new String[] {"--threads"}).consumeIntOption("threads", 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsTheUnknownOptions() {
+		CommandLineArguments arguments = new CommandLineArguments(new String[] {"--threads=2", "--unknown"});
+		arguments.consumeIntOption("threads", 1);
+		arguments.verifyAllOptionsConsumed();
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.feritoth.cleaningrobot.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Checks the variable length encoding of the signed and unsigned values, down to the extreme ones.
+ *
+ * @author Ferenc Toth
+ */
+public class VarLongsTest {
+
+	private static final long[] VALUES = {0L, 1L, -1L, 63L, -64L, 64L, 127L, 128L, 300L, -300L, Integer.MAX_VALUE, Integer.MIN_VALUE,
+			Long.MAX_VALUE, Long.MIN_VALUE};
+
+	@Test
+	public void encodesTheSmallValuesOnFewBytes() throws IOException {
+		assertEquals(1, encode(0L, false).length);
+		assertEquals(1, encode(127L, false).length);
+		assertEquals(2, encode(128L, false).length);
+		assertEquals(1, encode(-64L, true).length);
+		assertEquals(10, encode(-1L, false).length);
+		assertEquals(1L, VarLongs.zigZag(-1L));
+		assertEquals(2L, VarLongs.zigZag(1L));
+	}
+
+	@Test
+	public void decodesTheValuesEncoded() throws IOException {
+		for (long value : VALUES) {
+			assertEquals(value, decode(encode(value, false), false));
+			assertEquals(value, decode(encode(value, true), true));
+			assertEquals(value, VarLongs.unZigZag(VarLongs.zigZag(value)));
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void rejectsAnEndlessValue() throws IOException {
+		byte[] encoded = new byte[11];
+		Arrays.fill(encoded, (byte) 0x80);
+		decode(encoded, false);
+	}
+
+	private static byte[] encode(long value, boolean signed) throws IOException {
+		ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(encoded);
+		if (signed) {
+			VarLongs.writeSignedVarLong(output, value);
+		} else {
+			VarLongs.writeVarLong(output, value);
+		}
+		return encoded.toByteArray();
+	}
+
+	private static long decode(byte[] encoded, boolean signed) throws IOException {
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(encoded));
+		return signed ? VarLongs.readSignedVarLong(input) : VarLongs.readVarLong(input);
+	}
+
+}
\ No newline at end of file